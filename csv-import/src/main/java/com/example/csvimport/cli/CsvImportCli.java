@@ -1,14 +1,22 @@
 package com.example.csvimport.cli;
 
 import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.ImportOptions;
+import com.example.csvimport.metrics.MetricsHttpServer;
+import com.example.csvimport.model.BatchImportReport;
+import com.example.csvimport.service.BatchImportService;
 import com.example.csvimport.service.CsvImportService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -20,12 +28,14 @@ import java.util.Scanner;
 public class CsvImportCli implements CommandLineRunner {
     
     private final CsvImportService csvImportService;
+    private final BatchImportService batchImportService;
+    private final MetricsHttpServer metricsHttpServer;
     
     @Override
     public void run(String... args) throws Exception {
         if (args.length > 0 && "--interactive".equals(args[0])) {
             runInteractiveMode();
-        } else if (args.length >= 4) {
+        } else if (positionalArgs(args).size() >= 4) {
             runCommandLineMode(args);
         } else {
             printUsage();
@@ -72,12 +82,19 @@ public class CsvImportCli implements CommandLineRunner {
             String sampleSizeInput = scanner.nextLine().trim();
             int sampleSize = sampleSizeInput.isEmpty() ? 1000 : Integer.parseInt(sampleSizeInput);
             
+            System.out.print("请输入写入线程数 (默认1，大于1时启用并行流水线导入): ");
+            String writerThreadsInput = scanner.nextLine().trim();
+            int writerThreads = writerThreadsInput.isEmpty() ? 1 : Integer.parseInt(writerThreadsInput);
+            
             // 创建数据库配置
             DatabaseConfig databaseConfig = new DatabaseConfig(dbUrl, dbUsername, dbPassword);
             
+            ImportOptions options = new ImportOptions(indexColumns, batchSize, sampleSize);
+            options.setWriterThreads(writerThreads);
+            
             // 执行导入
             System.out.println("\n开始导入...");
-            csvImportService.importCsv(csvFilePath, databaseConfig, indexColumns, batchSize, sampleSize);
+            csvImportService.importCsv(csvFilePath, databaseConfig, options);
             
             System.out.println("导入完成!");
             
@@ -93,26 +110,84 @@ public class CsvImportCli implements CommandLineRunner {
     /**
      * 命令行模式
      */
-    private void runCommandLineMode(String[] args) {
+    private void runCommandLineMode(String[] rawArgs) {
         try {
-            String csvFilePath = args[0];
-            String dbUrl = args[1];
-            String dbUsername = args[2];
-            String dbPassword = args[3];
+            List<String> args = positionalArgs(rawArgs);
+            Map<String, String> flags = optionArgs(rawArgs);
+            
+            String csvFilePath = args.get(0);
+            String dbUrl = args.get(1);
+            String dbUsername = args.get(2);
+            String dbPassword = args.get(3);
             
             List<String> indexColumns = null;
-            if (args.length > 4 && !args[4].isEmpty()) {
-                indexColumns = Arrays.asList(args[4].split(","));
+            if (args.size() > 4 && !args.get(4).isEmpty()) {
+                indexColumns = Arrays.asList(args.get(4).split(","));
                 indexColumns.replaceAll(String::trim);
             }
             
-            int batchSize = args.length > 5 ? Integer.parseInt(args[5]) : 1000;
-            int sampleSize = args.length > 6 ? Integer.parseInt(args[6]) : 1000;
+            int batchSize = args.size() > 5 ? Integer.parseInt(args.get(5)) : 1000;
+            int sampleSize = args.size() > 6 ? Integer.parseInt(args.get(6)) : 1000;
             
             DatabaseConfig databaseConfig = new DatabaseConfig(dbUrl, dbUsername, dbPassword);
             
+            ImportOptions options = new ImportOptions(indexColumns, batchSize, sampleSize);
+            if (flags.containsKey("threads")) {
+                options.setWriterThreads(Integer.parseInt(flags.get("threads")));
+            }
+            if (flags.containsKey("queue-capacity")) {
+                options.setQueueCapacity(Integer.parseInt(flags.get("queue-capacity")));
+            }
+            if (flags.containsKey("parse-threads")) {
+                options.setParseThreads(Integer.parseInt(flags.get("parse-threads")));
+            }
+            if (flags.containsKey("engine")) {
+                options.setLoadEngine(ImportOptions.LoadEngine.fromName(flags.get("engine")));
+            }
+            if (flags.containsKey("profile")) {
+                options.setProfileMode(ImportOptions.ProfileMode.fromName(flags.get("profile")));
+            }
+            if (flags.containsKey("bulk-session")) {
+                options.setBulkSession(Boolean.parseBoolean(flags.get("bulk-session")));
+            }
+            if (flags.containsKey("commit-rows")) {
+                options.setCommitRows(Long.parseLong(flags.get("commit-rows")));
+            }
+            if (flags.containsKey("checkpoint")) {
+                options.setCheckpoint(Boolean.parseBoolean(flags.get("checkpoint")));
+            }
+            if (flags.containsKey("resume")) {
+                options.setResume(Boolean.parseBoolean(flags.get("resume")));
+            }
+            if (flags.containsKey("file-parallelism")) {
+                options.setFileParallelism(Integer.parseInt(flags.get("file-parallelism")));
+            }
+            if (flags.containsKey("mode")) {
+                options.setWriteMode(ImportOptions.WriteMode.fromName(flags.get("mode")));
+            }
+            if (flags.containsKey("keys") && !flags.get("keys").isEmpty()) {
+                List<String> keyColumns = Arrays.asList(flags.get("keys").split(","));
+                keyColumns.replaceAll(String::trim);
+                options.setKeyColumns(keyColumns);
+            }
+            if (flags.containsKey("max-errors")) {
+                options.setMaxErrors(Long.parseLong(flags.get("max-errors")));
+            }
+            if (flags.containsKey("reject-file")) {
+                options.setRejectFile(flags.get("reject-file"));
+            }
+            
+            if (flags.containsKey("metrics-port")) {
+                metricsHttpServer.start(Integer.parseInt(flags.get("metrics-port")));
+            }
+            
+            if (BatchImportService.isMultiFileInput(csvFilePath)) {
+                runBatchImport(csvFilePath, databaseConfig, options);
+                return;
+            }
+            
             log.info("开始命令行模式导入: {}", csvFilePath);
-            csvImportService.importCsv(csvFilePath, databaseConfig, indexColumns, batchSize, sampleSize);
+            csvImportService.importCsv(csvFilePath, databaseConfig, options);
             
             log.info("命令行模式导入完成");
             
@@ -122,9 +197,58 @@ public class CsvImportCli implements CommandLineRunner {
             System.exit(1);
         } finally {
             csvImportService.closeConnection();
+            metricsHttpServer.stop();
         }
     }
     
+    /**
+     * 批量导入目录或通配符匹配到的所有文件，有文件失败时以非0状态退出
+     */
+    private void runBatchImport(String input, DatabaseConfig databaseConfig, ImportOptions options) {
+        List<Path> files = batchImportService.resolveFiles(input);
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("没有找到CSV文件: " + input);
+        }
+        
+        log.info("开始批量导入: {} (文件数: {})", input, files.size());
+        BatchImportReport report = batchImportService.importFiles(files, databaseConfig, options);
+        if (report.getFailedCount() > 0) {
+            throw new IllegalStateException(String.format("批量导入有 %d 个文件失败", report.getFailedCount()));
+        }
+        log.info("批量导入完成");
+    }
+    
+    /**
+     * 提取位置参数（不以--开头的参数）
+     */
+    private List<String> positionalArgs(String[] args) {
+        List<String> positional = new ArrayList<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                positional.add(arg);
+            }
+        }
+        return positional;
+    }
+    
+    /**
+     * 提取选项参数，格式为 --name=value，仅有 --name 时值为 "true"
+     */
+    private Map<String, String> optionArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                if (eq > 0) {
+                    options.put(arg.substring(2, eq), arg.substring(eq + 1));
+                } else {
+                    options.put(arg.substring(2), "true");
+                }
+            }
+        }
+        return options;
+    }
+    
     /**
      * 打印使用说明
      */
@@ -135,10 +259,11 @@ public class CsvImportCli implements CommandLineRunner {
         System.out.println("  java -jar csv-import.jar --interactive");
         System.out.println();
         System.out.println("命令行模式:");
-        System.out.println("  java -jar csv-import.jar <csv文件路径> <数据库URL> <用户名> <密码> [索引列] [批次大小] [样本大小]");
+        System.out.println("  java -jar csv-import.jar <csv文件路径> <数据库URL> <用户名> <密码> [索引列] [批次大小] [样本大小] [选项]");
         System.out.println();
         System.out.println("参数说明:");
-        System.out.println("  csv文件路径    - CSV文件的完整路径");
+        System.out.println("  csv文件路径    - CSV文件的完整路径；也可以是目录或通配符（如 '/data/*.csv'，需加引号），");
+        System.out.println("                   此时在一个进程内并发导入所有匹配的文件，每个文件导入到各自的表");
         System.out.println("  数据库URL      - MySQL数据库连接URL");
         System.out.println("  用户名         - 数据库用户名");
         System.out.println("  密码           - 数据库密码");
@@ -146,7 +271,33 @@ public class CsvImportCli implements CommandLineRunner {
         System.out.println("  批次大小       - 批量插入的记录数，默认1000 (可选)");
         System.out.println("  样本大小       - 类型推断的样本记录数，默认1000 (可选)");
         System.out.println();
+        System.out.println("选项:");
+        System.out.println("  --threads=N          - 写入线程数，大于1时启用解析/写入流水线，每个线程独占一个连接，默认1");
+        System.out.println("  --queue-capacity=N   - 流水线队列容量（批次数），队列满时解析暂停，默认16");
+        System.out.println("  --parse-threads=N    - 解析线程数，大于1时按记录边界切分文件并行解析，默认1");
+        System.out.println("  --engine=NAME        - 加载引擎: batch (批量插入，默认) 或 load-data / native (目标数据库的原生批量加载:");
+        System.out.println("                         MySQL LOAD DATA LOCAL INFILE、PostgreSQL COPY、H2 CSVREAD、DuckDB Appender;");
+        System.out.println("                         MySQL服务器未开启local_infile时自动回退到batch)");
+        System.out.println("  --profile=MODE       - 类型推断画像模式: sample (文件开头的样本，默认)、stratified (全文件分层抽样)");
+        System.out.println("                         或 full (并行读取整个文件，线程数同--parse-threads)");
+        System.out.println("  --bulk-session       - 批量加载会话调优: 关闭unique_checks/foreign_key_checks，分块提交事务，");
+        System.out.println("                         加载完成后用一条ALTER TABLE创建所有索引");
+        System.out.println("  --commit-rows=N      - 批量加载会话（或检查点模式）中每个事务提交的行数，默认50000");
+        System.out.println("  --checkpoint         - 记录检查点日志（csv_import_journal表），导入失败后可以用--resume继续");
+        System.out.println("  --resume             - 从检查点日志继续上次失败的导入，不重建表，跳过已提交的批次");
+        System.out.println("  --file-parallelism=N - 批量导入目录或通配符时同时导入的文件数，默认4");
+        System.out.println("  --mode=MODE          - 写入模式: replace (删除并重建表，默认)、append (追加到已有表)、");
+        System.out.println("                         upsert (按--keys更新已有行，插入新行，使用batch引擎) 或");
+        System.out.println("                         swap (导入到影子表，完成后用RENAME TABLE原子替换正式表)");
+        System.out.println("  --keys=COLS          - 键列，多个用逗号分隔；upsert必填，表上会建立这些列的唯一索引");
+        System.out.println("  --max-errors=N       - 坏行隔离: 无法转换或写入失败（类型、长度、约束错误）的行写入拒绝文件，");
+        System.out.println("                         导入继续，拒绝超过N行时中止；不指定时坏值按字符串写入，写入失败即中止");
+        System.out.println("  --reject-file=PATH   - 拒绝文件路径，默认为CSV所在目录下的 <表名>.rejects.csv");
+        System.out.println("  --metrics-port=N     - 在端口N上提供 /metrics (Prometheus格式) 和 /progress (行/秒、剩余时间、瓶颈阶段)");
+        System.out.println();
         System.out.println("示例:");
         System.out.println("  java -jar csv-import.jar /path/to/data.csv jdbc:mysql://localhost:3306/testdb root password id,name 2000 500");
+        System.out.println("  java -jar csv-import.jar /path/to/data.csv jdbc:mysql://localhost:3306/testdb root password id,name 5000 1000 --threads=8");
+        System.out.println("  java -jar csv-import.jar /path/to/data.csv jdbc:mysql://localhost:3306/testdb root password \"\" 5000 1000 --mode=upsert --keys=id");
     }
 }
\ No newline at end of file
@@ -10,7 +10,8 @@ public class DatabaseConfig {
     private String url;
     private String username;
     private String password;
-    private String driverClassName = "com.mysql.cj.jdbc.Driver";
+    // 为空时按URL自动选择驱动
+    private String driverClassName;
     
     // 连接池配置
     private int maximumPoolSize = 20;
@@ -19,9 +20,27 @@ public class DatabaseConfig {
     private long idleTimeout = 600000;
     private long maxLifetime = 1800000;
     
+    // 是否允许 LOAD DATA LOCAL INFILE（Connector/J 默认禁止）
+    private boolean allowLoadLocalInfile = false;
+    
     public DatabaseConfig(String url, String username, String password) {
         this.url = url;
         this.username = username;
         this.password = password;
     }
+    
+    /**
+     * 复制一份配置，批量导入时每个文件各用一份
+     */
+    public DatabaseConfig copy() {
+        DatabaseConfig copy = new DatabaseConfig(url, username, password);
+        copy.driverClassName = driverClassName;
+        copy.maximumPoolSize = maximumPoolSize;
+        copy.minimumIdle = minimumIdle;
+        copy.connectionTimeout = connectionTimeout;
+        copy.idleTimeout = idleTimeout;
+        copy.maxLifetime = maxLifetime;
+        copy.allowLoadLocalInfile = allowLoadLocalInfile;
+        return copy;
+    }
 }
\ No newline at end of file
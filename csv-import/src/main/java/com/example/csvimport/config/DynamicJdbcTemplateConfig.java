@@ -1,17 +1,35 @@
 package com.example.csvimport.config;
 
+import com.example.csvimport.dialect.SqlDialect;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 
-import javax.sql.DataSource;
-import java.util.concurrent.ConcurrentHashMap;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * 动态JdbcTemplate配置类
@@ -21,84 +39,105 @@ import java.util.Map;
 @Configuration
 public class DynamicJdbcTemplateConfig {
     
-    // 缓存多个数据源，支持多数据库连接
-    private final Map<String, DataSource> dataSourceCache = new ConcurrentHashMap<>();
-    private final Map<String, JdbcTemplate> jdbcTemplateCache = new ConcurrentHashMap<>();
-    
     /**
      * 创建动态JdbcTemplate工厂Bean
      * 这个Bean不会自动初始化，需要手动调用createJdbcTemplate方法
+     *
+     * @param idleTtl 连接池空闲（没有租约、没有借出的连接且没有被获取）超过该时间后关闭
+     * @param maxTotalConnections 所有连接池的最大连接数之和的上限
      */
-    @Bean
+    @Bean(destroyMethod = "closeAllDataSources")
     @Primary
     @ConditionalOnMissingBean(JdbcTemplate.class)
-    public DynamicJdbcTemplateFactory dynamicJdbcTemplateFactory() {
-        return new DynamicJdbcTemplateFactory();
+    public DynamicJdbcTemplateFactory dynamicJdbcTemplateFactory(
+            @Value("${csv-import.pool.idle-ttl:PT10M}") Duration idleTtl,
+            @Value("${csv-import.pool.max-total-connections:200}") int maxTotalConnections) {
+        return new DynamicJdbcTemplateFactory(idleTtl, maxTotalConnections);
     }
     
     /**
      * 动态JdbcTemplate工厂类
+     * 按规范化的URL和账号缓存连接池，同一个数据库的多次导入复用同一个连接池；
+     * 空闲超过idleTtl的连接池由后台线程关闭，创建新连接池会超出连接总数上限时先关闭最久未使用的空闲连接池。
+     * 导入通过 {@link #acquire} 持有租约，有租约的连接池不会被关闭
      */
-    public class DynamicJdbcTemplateFactory {
+    public static class DynamicJdbcTemplateFactory {
+        
+        private final Map<PoolKey, PoolEntry> pools = new ConcurrentHashMap<>();
+        private final AtomicInteger poolSequence = new AtomicInteger();
+        private final long idleTtlNanos;
+        private final int maxTotalConnections;
+        private final ScheduledExecutorService evictor;
+        
+        public DynamicJdbcTemplateFactory(Duration idleTtl, int maxTotalConnections) {
+            this.idleTtlNanos = idleTtl.toNanos();
+            this.maxTotalConnections = maxTotalConnections;
+            this.evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "datasource-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long periodMillis = Math.max(1000, idleTtl.toMillis() / 2);
+            evictor.scheduleWithFixedDelay(this::evictIdle, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
         
         /**
          * 根据数据库配置创建JdbcTemplate
+         * 已有相同URL和账号的连接池时直接复用，其最大连接数小于配置时按配置调大
          * @param config 数据库配置
          * @return JdbcTemplate实例
          */
-        public JdbcTemplate createJdbcTemplate(DatabaseConfig config) {
-            String cacheKey = generateCacheKey(config);
+        public synchronized JdbcTemplate createJdbcTemplate(DatabaseConfig config) {
+            return obtain(config).jdbcTemplate;
+        }
+        
+        /**
+         * 获取连接池并持有一个租约，租约关闭前连接池不会因空闲超时或连接总数上限被关闭
+         * 导入期间可能长时间不借出连接（如全量画像分析CSV文件），只看借出的连接会误关正在使用的连接池
+         * @param config 数据库配置
+         * @return 租约，导入结束后关闭
+         */
+        public synchronized PoolLease acquire(DatabaseConfig config) {
+            PoolEntry entry = obtain(config);
+            entry.leases.incrementAndGet();
+            return new PoolLease(entry);
+        }
+        
+        private PoolEntry obtain(DatabaseConfig config) {
+            PoolKey key = PoolKey.of(config);
             
             // 先从缓存中获取
-            JdbcTemplate cachedTemplate = jdbcTemplateCache.get(cacheKey);
-            if (cachedTemplate != null) {
-                log.debug("从缓存中获取JdbcTemplate: {}", cacheKey);
-                return cachedTemplate;
+            PoolEntry entry = pools.get(key);
+            if (entry != null) {
+                entry.touch();
+                int grow = config.getMaximumPoolSize() - entry.getMaximumPoolSize();
+                if (grow > 0) {
+                    reserve(grow, entry);
+                    entry.dataSource.getHikariConfigMXBean().setMaximumPoolSize(config.getMaximumPoolSize());
+                    log.info("连接池 {} 的最大连接数调整为 {}", entry.dataSource.getPoolName(), config.getMaximumPoolSize());
+                }
+                log.debug("从缓存中获取JdbcTemplate: {}", key);
+                return entry;
             }
             
             // 创建新的DataSource和JdbcTemplate
-            DataSource dataSource = createDataSource(config);
-            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            reserve(config.getMaximumPoolSize(), null);
+            entry = new PoolEntry(key, createDataSource(config));
+            pools.put(key, entry);
             
-            // 缓存起来
-            dataSourceCache.put(cacheKey, dataSource);
-            jdbcTemplateCache.put(cacheKey, jdbcTemplate);
-            
-            log.info("动态创建JdbcTemplate成功: {}", config.getUrl());
-            return jdbcTemplate;
-        }
-        
-        /**
-         * 根据连接URL获取已创建的JdbcTemplate
-         * @param url 数据库连接URL
-         * @return JdbcTemplate实例，如果不存在则返回null
-         */
-        public JdbcTemplate getJdbcTemplate(String url) {
-            return jdbcTemplateCache.values().stream()
-                    .filter(template -> {
-                        try {
-                            String jdbcUrl = template.getDataSource().getConnection().getMetaData().getURL();
-                            return url.equals(jdbcUrl);
-                        } catch (Exception e) {
-                            return false;
-                        }
-                    })
-                    .findFirst()
-                    .orElse(null);
+            log.info("动态创建JdbcTemplate成功: {} (连接池: {}, 连接池数: {})",
+                    config.getUrl(), entry.dataSource.getPoolName(), pools.size());
+            return entry;
         }
         
         /**
          * 关闭指定的数据源连接
          * @param config 数据库配置
          */
-        public void closeDataSource(DatabaseConfig config) {
-            String cacheKey = generateCacheKey(config);
-            
-            DataSource dataSource = dataSourceCache.remove(cacheKey);
-            jdbcTemplateCache.remove(cacheKey);
-            
-            if (dataSource instanceof HikariDataSource) {
-                ((HikariDataSource) dataSource).close();
+        public synchronized void closeDataSource(DatabaseConfig config) {
+            PoolEntry entry = pools.remove(PoolKey.of(config));
+            if (entry != null) {
+                entry.dataSource.close();
                 log.info("关闭数据源连接: {}", config.getUrl());
             }
         }
@@ -106,28 +145,91 @@ public class DynamicJdbcTemplateConfig {
         /**
          * 关闭所有数据源连接
          */
-        public void closeAllDataSources() {
-            dataSourceCache.values().forEach(dataSource -> {
-                if (dataSource instanceof HikariDataSource) {
-                    ((HikariDataSource) dataSource).close();
-                }
-            });
-            dataSourceCache.clear();
-            jdbcTemplateCache.clear();
+        public synchronized void closeAllDataSources() {
+            evictor.shutdownNow();
+            pools.values().forEach(entry -> entry.dataSource.close());
+            pools.clear();
             log.info("关闭所有数据源连接");
         }
         
+        /**
+         * 各连接池的状态
+         */
+        public List<PoolStats> getPoolStats() {
+            return pools.values().stream()
+                    .sorted(Comparator.comparing(entry -> entry.dataSource.getPoolName()))
+                    .map(PoolEntry::toStats)
+                    .collect(Collectors.toList());
+        }
+        
+        /**
+         * 所有连接池的最大连接数之和
+         */
+        public int getTotalMaximumConnections() {
+            return pools.values().stream().mapToInt(PoolEntry::getMaximumPoolSize).sum();
+        }
+        
+        /**
+         * 关闭空闲超过idleTtl、没有租约且没有借出连接的连接池
+         */
+        synchronized void evictIdle() {
+            long now = System.nanoTime();
+            List<PoolEntry> expired = pools.values().stream()
+                    .filter(entry -> entry.isIdle() && now - entry.lastAccessNanos >= idleTtlNanos)
+                    .collect(Collectors.toList());
+            for (PoolEntry entry : expired) {
+                evict(entry, "空闲超时");
+            }
+        }
+        
+        /**
+         * 为新增的connections个连接腾出空间：超出连接总数上限时按最久未使用的顺序关闭空闲连接池
+         *
+         * @param keep 不能关闭的连接池（正在调大的连接池）
+         */
+        private void reserve(int connections, PoolEntry keep) {
+            int total = getTotalMaximumConnections();
+            if (total + connections <= maxTotalConnections) {
+                return;
+            }
+            List<PoolEntry> candidates = pools.values().stream()
+                    .filter(entry -> entry != keep && entry.isIdle())
+                    .sorted(Comparator.comparingLong(entry -> entry.lastAccessNanos))
+                    .collect(Collectors.toList());
+            for (PoolEntry entry : candidates) {
+                if (total + connections <= maxTotalConnections) {
+                    break;
+                }
+                total -= entry.getMaximumPoolSize();
+                evict(entry, "连接总数达到上限");
+            }
+            if (total + connections > maxTotalConnections) {
+                throw new IllegalStateException(String.format(
+                        "连接总数超过上限 %d：已有连接池共 %d 个连接，还需要 %d 个，其余连接池都在使用中",
+                        maxTotalConnections, total, connections));
+            }
+        }
+        
+        private void evict(PoolEntry entry, String reason) {
+            if (pools.remove(entry.key, entry)) {
+                entry.dataSource.close();
+                log.info("关闭连接池 {} ({}): {}", entry.dataSource.getPoolName(), reason, entry.key);
+            }
+        }
+        
         /**
          * 创建HikariCP数据源
          */
-        private DataSource createDataSource(DatabaseConfig config) {
+        private HikariDataSource createDataSource(DatabaseConfig config) {
             HikariConfig hikariConfig = new HikariConfig();
             
             // 基本连接配置
             hikariConfig.setJdbcUrl(config.getUrl());
             hikariConfig.setUsername(config.getUsername());
             hikariConfig.setPassword(config.getPassword());
-            hikariConfig.setDriverClassName(config.getDriverClassName());
+            if (config.getDriverClassName() != null) {
+                hikariConfig.setDriverClassName(config.getDriverClassName());
+            }
             
             // 连接池配置
             hikariConfig.setMaximumPoolSize(config.getMaximumPoolSize());
@@ -136,31 +238,190 @@ public class DynamicJdbcTemplateConfig {
             hikariConfig.setIdleTimeout(config.getIdleTimeout());
             hikariConfig.setMaxLifetime(config.getMaxLifetime());
             
-            // MySQL性能优化配置
-            hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
-            hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-            hikariConfig.addDataSourceProperty("useServerPrepStmts", "true");
-            hikariConfig.addDataSourceProperty("rewriteBatchedStatements", "true");
-            hikariConfig.addDataSourceProperty("cacheResultSetMetadata", "true");
-            hikariConfig.addDataSourceProperty("cacheServerConfiguration", "true");
-            hikariConfig.addDataSourceProperty("elideSetAutoCommits", "true");
-            hikariConfig.addDataSourceProperty("maintainTimeStats", "false");
+            // 按目标数据库设置驱动属性（MySQL的预编译语句缓存、批量改写等）
+            SqlDialect.forUrl(config.getUrl()).getDataSourceProperties(config)
+                    .forEach(hikariConfig::addDataSourceProperty);
             
             // 连接池名称
-            hikariConfig.setPoolName("DynamicHikariCP-" + System.currentTimeMillis());
+            hikariConfig.setPoolName("DynamicHikariCP-" + poolSequence.incrementAndGet());
             
             return new HikariDataSource(hikariConfig);
         }
+    }
+    
+    /**
+     * 规范化JDBC URL：去掉首尾空白，协议和主机部分转为小写，查询参数按名称排序并去掉空参数
+     * 数据库名大小写敏感，保持不变
+     */
+    static String normalizeUrl(String url) {
+        String trimmed = url.trim();
+        int query = trimmed.indexOf('?');
+        String base = query >= 0 ? trimmed.substring(0, query) : trimmed;
+        int hostStart = base.indexOf("//");
+        int pathStart = hostStart >= 0 ? base.indexOf('/', hostStart + 2) : -1;
+        if (pathStart >= 0) {
+            base = base.substring(0, pathStart).toLowerCase(Locale.ROOT) + base.substring(pathStart);
+        } else {
+            base = base.toLowerCase(Locale.ROOT);
+        }
+        if (query < 0) {
+            return base;
+        }
+        String params = Arrays.stream(trimmed.substring(query + 1).split("&"))
+                .filter(param -> !param.isEmpty())
+                .sorted()
+                .collect(Collectors.joining("&"));
+        return params.isEmpty() ? base : base + "?" + params;
+    }
+    
+    /**
+     * 连接池的缓存键：规范化的URL、账号、驱动和是否允许LOCAL INFILE
+     */
+    static final class PoolKey {
+        private final String url;
+        private final String username;
+        private final String password;
+        private final String driverClassName;
+        private final boolean allowLoadLocalInfile;
+        
+        private PoolKey(String url, String username, String password, String driverClassName, boolean allowLoadLocalInfile) {
+            this.url = url;
+            this.username = username;
+            this.password = password;
+            this.driverClassName = driverClassName;
+            this.allowLoadLocalInfile = allowLoadLocalInfile;
+        }
+        
+        static PoolKey of(DatabaseConfig config) {
+            return new PoolKey(normalizeUrl(config.getUrl()), config.getUsername(), config.getPassword(),
+                    config.getDriverClassName(), config.isAllowLoadLocalInfile());
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PoolKey)) {
+                return false;
+            }
+            PoolKey other = (PoolKey) o;
+            return allowLoadLocalInfile == other.allowLoadLocalInfile && url.equals(other.url)
+                    && Objects.equals(username, other.username) && Objects.equals(password, other.password)
+                    && Objects.equals(driverClassName, other.driverClassName);
+        }
+        
+        @Override
+        public int hashCode() {
+            return Objects.hash(url, username, password, driverClassName, allowLoadLocalInfile);
+        }
+        
+        // 不输出密码
+        @Override
+        public String toString() {
+            return username + "@" + url;
+        }
+    }
+    
+    /**
+     * 缓存的连接池，每次获取连接时更新最近使用时间
+     */
+    private static final class PoolEntry {
+        private final PoolKey key;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final AtomicInteger leases = new AtomicInteger();
+        private volatile long lastAccessNanos = System.nanoTime();
+        
+        PoolEntry(PoolKey key, HikariDataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(new DelegatingDataSource(dataSource) {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    touch();
+                    return super.getConnection();
+                }
+            });
+        }
+        
+        void touch() {
+            lastAccessNanos = System.nanoTime();
+        }
+        
+        int getMaximumPoolSize() {
+            return dataSource.getMaximumPoolSize();
+        }
         
         /**
-         * 生成缓存键
+         * 没有租约，也没有借出的连接
          */
-        private String generateCacheKey(DatabaseConfig config) {
-            return String.format("%s_%s_%s", 
-                    config.getUrl(), 
-                    config.getUsername(), 
-                    config.getDriverClassName());
+        boolean isIdle() {
+            if (leases.get() > 0) {
+                return false;
+            }
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool == null || pool.getActiveConnections() == 0;
         }
+        
+        PoolStats toStats() {
+            PoolStats stats = new PoolStats();
+            stats.setPoolName(dataSource.getPoolName());
+            stats.setUrl(key.url);
+            stats.setUsername(key.username);
+            stats.setMaximumPoolSize(getMaximumPoolSize());
+            stats.setLeases(leases.get());
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                stats.setActiveConnections(pool.getActiveConnections());
+                stats.setIdleConnections(pool.getIdleConnections());
+                stats.setThreadsAwaitingConnection(pool.getThreadsAwaitingConnection());
+            }
+            stats.setIdleMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastAccessNanos));
+            return stats;
+        }
+    }
+    
+    /**
+     * 连接池租约，关闭后连接池恢复按空闲时间淘汰，重复关闭无效
+     */
+    public static final class PoolLease implements AutoCloseable {
+        private final PoolEntry entry;
+        private final AtomicBoolean released = new AtomicBoolean();
+        
+        private PoolLease(PoolEntry entry) {
+            this.entry = entry;
+        }
+        
+        public JdbcTemplate getJdbcTemplate() {
+            return entry.jdbcTemplate;
+        }
+        
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                // 从租约结束开始计算空闲时间
+                entry.touch();
+                entry.leases.decrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * 连接池状态
+     */
+    @Data
+    public static class PoolStats {
+        private String poolName;
+        private String url;
+        private String username;
+        private int maximumPoolSize;
+        // 正在进行的导入持有的租约数
+        private int leases;
+        private int activeConnections;
+        private int idleConnections;
+        private int threadsAwaitingConnection;
+        // 距最近一次获取连接的毫秒数
+        private long idleMillis;
     }
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+package com.example.csvimport.config;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 导入参数配置
+ */
+@Data
+public class ImportOptions {
+    // 需要创建索引的列
+    private List<String> indexColumns;
+    
+    // 批量插入大小
+    private int batchSize = 1000;
+    
+    // 类型推断样本大小
+    private int sampleSize = 1000;
+    
+    // 写入线程数，大于1时启用解析/写入流水线，每个写入线程独占一个连接
+    private int writerThreads = 1;
+    
+    // 解析线程与写入线程之间的队列容量（批次数），队列满时解析线程阻塞
+    private int queueCapacity = 16;
+    
+    // 解析线程数，大于1时把文件按记录边界切分为字节区间并行解析
+    private int parseThreads = 1;
+    
+    // 数据加载引擎
+    private LoadEngine loadEngine = LoadEngine.BATCH_INSERT;
+    
+    // 类型推断的数据画像模式
+    private ProfileMode profileMode = ProfileMode.SAMPLE;
+    
+    // 批量加载会话调优：关闭unique_checks/foreign_key_checks、按commitRows分块提交，导入完成后一次性建索引
+    private boolean bulkSession = false;
+    
+    // 批量加载会话中每个事务提交的行数，小于等于0时保持自动提交
+    private long commitRows = 50000;
+    
+    // 记录检查点日志：每个批次与其在文件中的位置在同一个事务中提交，失败后可以用resume继续
+    private boolean checkpoint = false;
+    
+    // 从检查点日志继续上次失败的导入，不重建表；隐含checkpoint
+    private boolean resume = false;
+    
+    // 批量导入（目录或通配符）时同时导入的文件数上限
+    private int fileParallelism = 4;
+    
+    // 写入模式
+    private WriteMode writeMode = WriteMode.REPLACE;
+    
+    // 键列：upsert模式按这些列判断重复，表上会建立这些列的唯一索引
+    private List<String> keyColumns;
+    
+    // 错误行预算：大于等于0时启用坏行隔离，无法转换或写入失败的行写入拒绝文件，超过该行数时中止导入；-1表示不隔离
+    private long maxErrors = -1;
+    
+    // 拒绝文件路径，为空时为CSV文件所在目录下的 <表名>.rejects.csv
+    private String rejectFile;
+    
+    public ImportOptions() {
+    }
+    
+    public ImportOptions(List<String> indexColumns, int batchSize, int sampleSize) {
+        this.indexColumns = indexColumns;
+        this.batchSize = batchSize;
+        this.sampleSize = sampleSize;
+    }
+    
+    /**
+     * 复制一份参数，批量导入时每个文件各用一份，导入过程中的调整互不影响
+     */
+    public ImportOptions copy() {
+        ImportOptions copy = new ImportOptions(indexColumns, batchSize, sampleSize);
+        copy.writerThreads = writerThreads;
+        copy.queueCapacity = queueCapacity;
+        copy.parseThreads = parseThreads;
+        copy.loadEngine = loadEngine;
+        copy.profileMode = profileMode;
+        copy.bulkSession = bulkSession;
+        copy.commitRows = commitRows;
+        copy.checkpoint = checkpoint;
+        copy.resume = resume;
+        copy.fileParallelism = fileParallelism;
+        copy.writeMode = writeMode;
+        copy.keyColumns = keyColumns;
+        copy.maxErrors = maxErrors;
+        copy.rejectFile = rejectFile;
+        return copy;
+    }
+    
+    /**
+     * 实际使用的加载引擎：upsert和坏行隔离不支持原生批量加载，请求LOAD_DATA时改用批量插入
+     * LOAD DATA和COPY只能忽略或整行替换重复的行，不能按键更新；
+     * LOAD DATA LOCAL把数据错误降级为警告，COPY和Appender遇到一个坏值整批失败，都无法定位并隔离失败的行
+     */
+    public LoadEngine resolveLoadEngine() {
+        if (loadEngine == LoadEngine.LOAD_DATA && (writeMode == WriteMode.UPSERT || isQuarantineEnabled())) {
+            return LoadEngine.BATCH_INSERT;
+        }
+        return loadEngine;
+    }
+    
+    /**
+     * 是否启用流水线导入
+     */
+    public boolean isPipelined() {
+        return writerThreads > 1;
+    }
+    
+    /**
+     * 是否记录检查点日志
+     */
+    public boolean isCheckpointEnabled() {
+        return checkpoint || resume;
+    }
+    
+    /**
+     * 是否启用坏行隔离
+     */
+    public boolean isQuarantineEnabled() {
+        return maxErrors >= 0;
+    }
+    
+    /**
+     * 写入模式
+     */
+    public enum WriteMode {
+        // 删除并重建表（默认）
+        REPLACE("replace"),
+        // 追加到已有表，表不存在时创建
+        APPEND("append"),
+        // INSERT ... ON DUPLICATE KEY UPDATE，按键列更新已有行、插入新行
+        UPSERT("upsert"),
+        // 导入到影子表，完成后用RENAME TABLE原子替换正式表
+        SWAP("swap");
+        
+        private final String cliName;
+        
+        WriteMode(String cliName) {
+            this.cliName = cliName;
+        }
+        
+        public String getCliName() {
+            return cliName;
+        }
+        
+        /**
+         * 根据命令行名称或枚举名解析
+         */
+        public static WriteMode fromName(String name) {
+            for (WriteMode mode : values()) {
+                if (mode.cliName.equalsIgnoreCase(name) || mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("未知的写入模式: " + name);
+        }
+    }
+    
+    /**
+     * 数据画像模式
+     */
+    public enum ProfileMode {
+        // 读取文件开头的sampleSize行
+        SAMPLE("sample"),
+        // 把文件切分为多个区间，每个区间读取若干行，共约sampleSize行
+        STRATIFIED("stratified"),
+        // 并行读取整个文件
+        FULL("full");
+        
+        private final String cliName;
+        
+        ProfileMode(String cliName) {
+            this.cliName = cliName;
+        }
+        
+        public String getCliName() {
+            return cliName;
+        }
+        
+        /**
+         * 根据命令行名称或枚举名解析
+         */
+        public static ProfileMode fromName(String name) {
+            for (ProfileMode mode : values()) {
+                if (mode.cliName.equalsIgnoreCase(name) || mode.name().equalsIgnoreCase(name)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("未知的画像模式: " + name);
+        }
+    }
+    
+    /**
+     * 数据加载引擎
+     */
+    public enum LoadEngine {
+        // PreparedStatement批量插入
+        BATCH_INSERT("batch"),
+        // 目标数据库的原生批量加载：MySQL LOAD DATA LOCAL INFILE、PostgreSQL COPY、H2 CSVREAD、DuckDB Appender
+        // MySQL服务器不允许LOAD DATA时自动回退到批量插入
+        LOAD_DATA("load-data");
+        
+        private final String cliName;
+        
+        LoadEngine(String cliName) {
+            this.cliName = cliName;
+        }
+        
+        public String getCliName() {
+            return cliName;
+        }
+        
+        /**
+         * 根据命令行名称（batch / load-data，native 是 load-data 的别名）或枚举名解析
+         */
+        public static LoadEngine fromName(String name) {
+            if ("native".equalsIgnoreCase(name)) {
+                return LOAD_DATA;
+            }
+            for (LoadEngine engine : values()) {
+                if (engine.cliName.equalsIgnoreCase(name) || engine.name().equalsIgnoreCase(name)) {
+                    return engine;
+                }
+            }
+            throw new IllegalArgumentException("未知的加载引擎: " + name);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnarBatch;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * 数据库原生的批量加载方式，比逐行绑定参数的批量插入快
+ * 会被多个写入线程并发调用，每个线程传入绑定在自己连接上的JdbcTemplate，实现必须是线程安全的
+ */
+public interface BulkLoader {
+    
+    /**
+     * 把一个批次加载到表中
+     *
+     * @param jdbcTemplate 写入会话的JdbcTemplate
+     * @return 加载的行数
+     */
+    int loadBatch(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch);
+}
\ No newline at end of file
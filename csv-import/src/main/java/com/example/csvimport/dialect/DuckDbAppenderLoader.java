@@ -0,0 +1,92 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.duckdb.DuckDBAppender;
+import org.duckdb.DuckDBConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * DuckDB Appender 批量加载
+ * 按行把基本类型的值直接追加到表的列存储中，跳过SQL解析和参数绑定，关闭Appender时一次写入。
+ * 日期以 yyyy-MM-dd 字符串追加，由DuckDB转换；无法解析的原始值按字符串追加，转换失败时整个批次报错
+ */
+@Slf4j
+public class DuckDbAppenderLoader implements BulkLoader {
+    
+    @Override
+    public int loadBatch(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            DuckDBConnection duckDbConnection = connection.unwrap(DuckDBConnection.class);
+            try (DuckDBAppender appender = duckDbConnection.createAppender(connection.getSchema(), tableName)) {
+                appendRows(appender, batch);
+            }
+            return null;
+        });
+        
+        log.debug("Appender 完成，表: {}, 行数: {}", tableName, batch.size());
+        return batch.size();
+    }
+    
+    private static void appendRows(DuckDBAppender appender, ColumnarBatch batch) throws SQLException {
+        List<ColumnInfo> columns = batch.getColumns();
+        for (int row = 0; row < batch.size(); row++) {
+            appender.beginRow();
+            for (int j = 0; j < columns.size(); j++) {
+                appendValue(appender, batch, j, row);
+            }
+            appender.endRow();
+        }
+    }
+    
+    private static void appendValue(DuckDBAppender appender, ColumnarBatch batch, int column, int row)
+            throws SQLException {
+        if (batch.isNull(column, row)) {
+            appender.append((String) null);
+            return;
+        }
+        
+        String unparsed = batch.getUnparsed(column, row);
+        if (unparsed != null) {
+            appender.append(unparsed.trim());
+            return;
+        }
+        
+        switch (batch.getColumns().get(column).getJavaType()) {
+            case INTEGER:
+                appender.append(batch.getInt(column, row));
+                break;
+            case LONG:
+                appender.append(batch.getLong(column, row));
+                break;
+            case DOUBLE:
+                appender.append(batch.getDouble(column, row));
+                break;
+            case BOOLEAN:
+                appender.append(batch.getBoolean(column, row));
+                break;
+            case DATE:
+                appender.append(LocalDate.ofEpochDay(batch.getEpochDay(column, row)).toString());
+                break;
+            case TIMESTAMP:
+                appender.appendLocalDateTime(LocalDateTime.ofEpochSecond(
+                        batch.getEpochSecond(column, row), batch.getNanos(column, row), ZoneOffset.UTC));
+                break;
+            default:
+                appender.append(batch.getString(column, row));
+                break;
+        }
+    }
+}
\ No newline at end of file
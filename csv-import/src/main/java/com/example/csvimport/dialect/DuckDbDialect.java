@@ -0,0 +1,81 @@
+package com.example.csvimport.dialect;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DuckDB方言
+ * 原生批量加载使用 Appender（见 {@link DuckDbAppenderLoader}）。
+ * DuckDB不能重命名带索引或约束的表，也不支持保存点，因此不支持swap模式和坏行隔离；
+ * upsert的 ON CONFLICT DO UPDATE 不能更新带索引的列，向已建索引的表upsert时会失败；
+ * JDBC元数据不返回索引，索引从 duckdb_indexes() 和 duckdb_constraints() 读取。
+ * 连接池中的连接必须指向同一个数据库文件（jdbc:duckdb:/path/to/file.duckdb），内存库的每个连接互相独立
+ */
+public class DuckDbDialect implements SqlDialect {
+    
+    public static final DuckDbDialect INSTANCE = new DuckDbDialect();
+    
+    private final DuckDbAppenderLoader appenderLoader = new DuckDbAppenderLoader();
+    
+    @Override
+    public String getName() {
+        return "DuckDB";
+    }
+    
+    @Override
+    public String getBulkLoadName() {
+        return "Appender";
+    }
+    
+    @Override
+    public String largeTextType() {
+        return "VARCHAR";
+    }
+    
+    @Override
+    public String currentSchema() {
+        return "current_schema()";
+    }
+    
+    @Override
+    public Map<String, List<String>> loadIndexes(JdbcTemplate jdbcTemplate, String tableName, boolean uniqueOnly) {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        // 唯一约束和主键不出现在 duckdb_indexes() 中
+        jdbcTemplate.query("SELECT constraint_name, array_to_string(constraint_column_names, ',') "
+                + "FROM duckdb_constraints() WHERE schema_name = current_schema() AND table_name = ? "
+                + "AND constraint_type IN ('UNIQUE', 'PRIMARY KEY')", rs -> {
+                    indexes.put(rs.getString(1), new ArrayList<>(Arrays.asList(rs.getString(2).split(","))));
+                }, tableName);
+        // expressions 形如 [a, "b c"]
+        jdbcTemplate.query("SELECT index_name, expressions FROM duckdb_indexes() "
+                + "WHERE schema_name = current_schema() AND table_name = ?" + (uniqueOnly ? " AND is_unique" : ""), rs -> {
+                    List<String> columns = new ArrayList<>();
+                    String expressions = rs.getString(2);
+                    for (String expression : expressions.substring(1, expressions.length() - 1).split(", ")) {
+                        columns.add(expression.replaceAll("^\"|\"$", ""));
+                    }
+                    indexes.put(rs.getString(1), columns);
+                }, tableName);
+        return indexes;
+    }
+    
+    @Override
+    public boolean supportsTableSwap() {
+        return false;
+    }
+    
+    @Override
+    public boolean supportsSavepoints() {
+        return false;
+    }
+    
+    @Override
+    public BulkLoader createBulkLoader() {
+        return appenderLoader;
+    }
+}
\ No newline at end of file
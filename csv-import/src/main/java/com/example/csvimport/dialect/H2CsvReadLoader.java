@@ -0,0 +1,94 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.QuoteMode;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * H2 CSVREAD 批量加载
+ * 把批次写入临时CSV文件，再用一条 INSERT ... SELECT * FROM CSVREAD(...) 读入，由数据库在内部转换类型，
+ * 不再逐行绑定参数。CSVREAD在数据库所在的进程中读取文件，只适用于内嵌模式或与应用在同一台机器上的H2。
+ *
+ * 非NULL的值都加引号，NULL写为不带引号的空字段，CSVREAD据此区分NULL和空字符串
+ */
+@Slf4j
+public class H2CsvReadLoader implements BulkLoader {
+    
+    private static final CSVFormat FORMAT = CSVFormat.DEFAULT.builder()
+            .setQuoteMode(QuoteMode.ALL_NON_NULL)
+            .setRecordSeparator('\n')
+            .build();
+    
+    private final SqlDialect dialect;
+    
+    public H2CsvReadLoader(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+    
+    @Override
+    public int loadBatch(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        Path file = null;
+        try {
+            file = Files.createTempFile("csv-import-" + tableName + "-", ".csv");
+            writeBatch(file, batch);
+            int rows = jdbcTemplate.update(buildLoadSql(tableName, batch.getColumns(), file));
+            log.debug("CSVREAD 完成，表: {}, 行数: {}", tableName, rows);
+            return rows;
+        } catch (IOException e) {
+            throw new RuntimeException("写入临时CSV文件失败: " + tableName, e);
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("删除临时CSV文件失败: {}", file);
+                }
+            }
+        }
+    }
+    
+    private static void writeBatch(Path file, ColumnarBatch batch) throws IOException {
+        int columnCount = batch.getColumns().size();
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             CSVPrinter printer = new CSVPrinter(writer, FORMAT)) {
+            for (int row = 0; row < batch.size(); row++) {
+                for (int j = 0; j < columnCount; j++) {
+                    printer.print(RowTextEncoder.format(batch, j, row));
+                }
+                printer.println();
+            }
+        }
+    }
+    
+    /**
+     * 构建加载语句；CSVREAD的参数必须是常量，文件路径以字符串字面量写入SQL。
+     * 文件没有表头，列名按位置指定为 C1..Cn，SELECT * 按位置对应到目标列
+     */
+    String buildLoadSql(String tableName, List<ColumnInfo> columns, Path file) {
+        String columnList = columns.stream()
+                .map(col -> dialect.quote(col.getName()))
+                .collect(Collectors.joining(", "));
+        String csvColumns = IntStream.rangeClosed(1, columns.size())
+                .mapToObj(i -> "C" + i)
+                .collect(Collectors.joining(","));
+        return String.format("INSERT INTO %s (%s) SELECT * FROM CSVREAD('%s', '%s', 'charset=UTF-8')",
+                dialect.quote(tableName), columnList, file.toAbsolutePath().toString().replace("'", "''"), csvColumns);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.example.csvimport.dialect;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * H2方言
+ * 原生批量加载使用 CSVREAD（见 {@link H2CsvReadLoader}），upsert使用 MERGE INTO ... KEY。
+ * H2的DDL会隐式提交事务，影子表替换分多条语句执行，替换过程中正式表会短暂不存在
+ */
+public class H2Dialect implements SqlDialect {
+    
+    public static final H2Dialect INSTANCE = new H2Dialect();
+    
+    private final H2CsvReadLoader csvReadLoader = new H2CsvReadLoader(this);
+    
+    @Override
+    public String getName() {
+        return "H2";
+    }
+    
+    @Override
+    public String getBulkLoadName() {
+        return "CSVREAD";
+    }
+    
+    @Override
+    public String largeTextType() {
+        return "CHARACTER LARGE OBJECT";
+    }
+    
+    @Override
+    public String currentSchema() {
+        return "CURRENT_SCHEMA";
+    }
+    
+    /**
+     * MERGE INTO ... KEY (键列) 按键列更新已存在的行，不存在时插入
+     */
+    @Override
+    public String upsertSql(String tableName, List<String> columns, List<String> keyColumns) {
+        String placeholders = columns.stream().map(col -> "?").collect(Collectors.joining(", "));
+        return String.format("MERGE INTO %s (%s) KEY (%s) VALUES (%s)",
+                quote(tableName), quoteColumns(columns), quoteColumns(keyColumns), placeholders);
+    }
+    
+    @Override
+    public BulkLoader createBulkLoader() {
+        return csvReadLoader;
+    }
+}
\ No newline at end of file
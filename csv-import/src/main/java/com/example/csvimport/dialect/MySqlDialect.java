@@ -0,0 +1,201 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.model.ColumnInfo;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL方言
+ * 原生批量加载使用 LOAD DATA LOCAL INFILE（见 {@link MySqlLoadDataLoader}），
+ * 写入会话可以关闭 unique_checks / foreign_key_checks，多个索引在一条 ALTER TABLE 中创建
+ */
+public class MySqlDialect implements SqlDialect {
+    
+    public static final MySqlDialect INSTANCE = new MySqlDialect();
+    
+    private final MySqlLoadDataLoader loadDataLoader = new MySqlLoadDataLoader(this);
+    
+    @Override
+    public String getName() {
+        return "MySQL";
+    }
+    
+    @Override
+    public String getBulkLoadName() {
+        return "LOAD DATA LOCAL INFILE";
+    }
+    
+    @Override
+    public Map<String, String> getDataSourceProperties(DatabaseConfig config) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("cachePrepStmts", "true");
+        properties.put("prepStmtCacheSize", "250");
+        properties.put("prepStmtCacheSqlLimit", "2048");
+        properties.put("useServerPrepStmts", "true");
+        properties.put("rewriteBatchedStatements", "true");
+        properties.put("cacheResultSetMetadata", "true");
+        properties.put("cacheServerConfiguration", "true");
+        properties.put("elideSetAutoCommits", "true");
+        properties.put("maintainTimeStats", "false");
+        if (config.isAllowLoadLocalInfile()) {
+            properties.put("allowLoadLocalInfile", "true");
+        }
+        return properties;
+    }
+    
+    @Override
+    public String quote(String identifier) {
+        return "`" + identifier + "`";
+    }
+    
+    @Override
+    public String columnType(ColumnInfo column) {
+        return column.getSqlType();
+    }
+    
+    @Override
+    public String tableOptions() {
+        return " ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci";
+    }
+    
+    @Override
+    public String uniqueKeyClause(String name, List<String> keyColumns) {
+        return String.format("UNIQUE KEY %s (%s)", quote(name), quoteColumns(keyColumns));
+    }
+    
+    @Override
+    public String addUniqueKeySql(String tableName, List<String> keyColumns) {
+        return String.format("ALTER TABLE %s ADD UNIQUE KEY %s (%s)",
+                quote(tableName), quote(SqlDialect.uniqueKeyName(tableName)), quoteColumns(keyColumns));
+    }
+    
+    @Override
+    public boolean supportsSinglePassIndexBuild() {
+        return true;
+    }
+    
+    @Override
+    public String currentSchema() {
+        return "DATABASE()";
+    }
+    
+    @Override
+    public String tableExistsSql() {
+        return "SELECT COUNT(*) FROM information_schema.`TABLES` "
+                + "WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = ?";
+    }
+    
+    @Override
+    public String loadColumnsSql() {
+        return "SELECT `COLUMN_NAME`, `DATA_TYPE`, `COLUMN_TYPE` FROM information_schema.`COLUMNS` "
+                + "WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = ? ORDER BY `ORDINAL_POSITION`";
+    }
+    
+    @Override
+    public ColumnInfo.JavaType toJavaType(String dataType, String columnType) {
+        switch (dataType) {
+            case "int":
+                return ColumnInfo.JavaType.INTEGER;
+            case "bigint":
+                return ColumnInfo.JavaType.LONG;
+            case "double":
+                return ColumnInfo.JavaType.DOUBLE;
+            case "tinyint":
+                // BOOLEAN 在MySQL中是 tinyint(1)
+                return columnType.startsWith("tinyint(1)") ? ColumnInfo.JavaType.BOOLEAN : ColumnInfo.JavaType.INTEGER;
+            case "date":
+                return ColumnInfo.JavaType.DATE;
+            case "timestamp":
+            case "datetime":
+                return ColumnInfo.JavaType.TIMESTAMP;
+            default:
+                return ColumnInfo.JavaType.STRING;
+        }
+    }
+    
+    @Override
+    public Map<String, List<String>> loadIndexes(JdbcTemplate jdbcTemplate, String tableName, boolean uniqueOnly) {
+        // 按索引名聚合出每个索引的列（按索引中的顺序）
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT `INDEX_NAME`, GROUP_CONCAT(`COLUMN_NAME` ORDER BY `SEQ_IN_INDEX`) "
+                + "FROM information_schema.`STATISTICS` WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = ?"
+                + (uniqueOnly ? " AND `NON_UNIQUE` = 0" : "") + " GROUP BY `INDEX_NAME`", rs -> {
+                    indexes.put(rs.getString(1), new ArrayList<>(Arrays.asList(rs.getString(2).split(","))));
+                }, tableName);
+        return indexes;
+    }
+    
+    @Override
+    public Set<String> loadIndexNames(JdbcTemplate jdbcTemplate, String tableName) {
+        return new HashSet<>(jdbcTemplate.queryForList("SELECT DISTINCT `INDEX_NAME` FROM information_schema.`STATISTICS` "
+                + "WHERE `TABLE_SCHEMA` = DATABASE() AND `TABLE_NAME` = ?", String.class, tableName));
+    }
+    
+    @Override
+    public String upsertSql(String tableName, List<String> columns, List<String> keyColumns) {
+        Set<String> keys = keyColumns.stream().map(key -> key.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        String updates = columns.stream()
+                .filter(col -> !keys.contains(col.toLowerCase(Locale.ROOT)))
+                .map(col -> String.format("%s = VALUES(%s)", quote(col), quote(col)))
+                .collect(Collectors.joining(", "));
+        if (updates.isEmpty()) {
+            String firstKey = quote(columns.get(0));
+            updates = String.format("%s = %s", firstKey, firstKey);
+        }
+        return insertSql(tableName, columns) + " ON DUPLICATE KEY UPDATE " + updates;
+    }
+    
+    /**
+     * 用一条RENAME TABLE语句把影子表原子地替换为正式表，然后删除旧表
+     * 替换过程中读取正式表的查询要么看到旧数据，要么看到新数据，不会看到表不存在
+     */
+    @Override
+    public List<String> swapTablesSql(String tableName, String stagingTableName, boolean liveTableExists) {
+        List<String> statements = new ArrayList<>();
+        if (liveTableExists) {
+            String oldTableName = tableName + "__old";
+            statements.add("DROP TABLE IF EXISTS " + quote(oldTableName));
+            statements.add(String.format("RENAME TABLE %s TO %s, %s TO %s",
+                    quote(tableName), quote(oldTableName), quote(stagingTableName), quote(tableName)));
+            statements.add("DROP TABLE " + quote(oldTableName));
+        } else {
+            statements.add(String.format("RENAME TABLE %s TO %s", quote(stagingTableName), quote(tableName)));
+        }
+        return statements;
+    }
+    
+    @Override
+    public boolean hasSchemaScopedIndexNames() {
+        return false;
+    }
+    
+    @Override
+    public boolean supportsSessionTuning() {
+        return true;
+    }
+    
+    @Override
+    public BulkLoader createBulkLoader() {
+        return loadDataLoader;
+    }
+    
+    @Override
+    public boolean isBulkLoadAvailable(JdbcTemplate jdbcTemplate) {
+        return loadDataLoader.isLocalInfileEnabled(jdbcTemplate);
+    }
+    
+    @Override
+    public boolean isBulkLoadRejected(Throwable e) {
+        return MySqlLoadDataLoader.isLocalInfileRejected(e);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import com.mysql.cj.jdbc.JdbcStatement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.StatementCallback;
+
+import java.io.ByteArrayInputStream;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * MySQL LOAD DATA LOCAL INFILE 批量加载
+ * 把批次数据编码为制表符分隔的文本，通过Connector/J的setLocalInfileInputStream直接以流的形式发送给服务器，
+ * 不落地临时文件。比PreparedStatement批量插入快数倍。
+ *
+ * 使用前提：
+ * 1. 服务器开启 local_infile（SET GLOBAL local_infile = 1）
+ * 2. 连接属性 allowLoadLocalInfile=true（见 DatabaseConfig#setAllowLoadLocalInfile）
+ *
+ * 由 {@link MySqlDialect} 持有
+ */
+@Slf4j
+public class MySqlLoadDataLoader implements BulkLoader {
+    
+    // 服务器禁用LOCAL INFILE时的错误码
+    private static final int ER_NOT_ALLOWED_COMMAND = 1148;
+    private static final int ER_CLIENT_LOCAL_FILES_DISABLED = 3948;
+    
+    private final SqlDialect dialect;
+    
+    public MySqlLoadDataLoader(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+    
+    /**
+     * 检查服务器是否允许LOAD DATA LOCAL INFILE
+     */
+    public boolean isLocalInfileEnabled(JdbcTemplate jdbcTemplate) {
+        try {
+            Integer enabled = jdbcTemplate.queryForObject("SELECT @@GLOBAL.local_infile", Integer.class);
+            return enabled != null && enabled == 1;
+        } catch (Exception e) {
+            log.warn("无法查询服务器local_infile设置: {}", e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * 使用LOAD DATA LOCAL INFILE加载一个批次
+     *
+     * @return 服务器报告的加载行数
+     */
+    @Override
+    public int loadBatch(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = buildLoadDataSql(tableName, batch.getColumns());
+        byte[] data = encodeRows(batch);
+        
+        Integer loaded = jdbcTemplate.execute((StatementCallback<Integer>) statement -> {
+            JdbcStatement mysqlStatement = statement.unwrap(JdbcStatement.class);
+            mysqlStatement.setLocalInfileInputStream(new ByteArrayInputStream(data));
+            try {
+                return statement.executeUpdate(sql);
+            } finally {
+                mysqlStatement.setLocalInfileInputStream(null);
+            }
+        });
+        
+        int rows = loaded != null ? loaded : 0;
+        log.debug("LOAD DATA 完成，表: {}, 行数: {}, 字节数: {}", tableName, rows, data.length);
+        return rows;
+    }
+    
+    /**
+     * 判断异常是否由于服务器或客户端禁用LOCAL INFILE引起
+     */
+    public static boolean isLocalInfileRejected(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                int errorCode = ((SQLException) cause).getErrorCode();
+                if (errorCode == ER_NOT_ALLOWED_COMMAND || errorCode == ER_CLIENT_LOCAL_FILES_DISABLED) {
+                    return true;
+                }
+            }
+            String message = cause.getMessage();
+            if (message != null && message.contains("allowLoadLocalInfile")) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 构建LOAD DATA语句，字段以制表符分隔，反斜杠转义，\N表示NULL
+     */
+    String buildLoadDataSql(String tableName, List<ColumnInfo> columns) {
+        String columnList = columns.stream()
+                .map(col -> dialect.quote(col.getName()))
+                .collect(Collectors.joining(", "));
+        
+        return String.format("LOAD DATA LOCAL INFILE 'stream' INTO TABLE %s CHARACTER SET utf8mb4 " +
+                "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' (%s)",
+                dialect.quote(tableName), columnList);
+    }
+    
+    /**
+     * 把批次编码为LOAD DATA默认格式的文本
+     */
+    byte[] encodeRows(ColumnarBatch batch) {
+        return RowTextEncoder.encodeTabSeparated(batch);
+    }
+}
\ No newline at end of file
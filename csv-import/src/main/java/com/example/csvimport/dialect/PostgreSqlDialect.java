@@ -0,0 +1,47 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.config.DatabaseConfig;
+
+import java.util.Map;
+
+/**
+ * PostgreSQL方言
+ * 原生批量加载使用 COPY FROM STDIN（见 {@link PostgresCopyLoader}），影子表替换在同一个事务中完成
+ */
+public class PostgreSqlDialect implements SqlDialect {
+    
+    public static final PostgreSqlDialect INSTANCE = new PostgreSqlDialect();
+    
+    private final PostgresCopyLoader copyLoader = new PostgresCopyLoader(this);
+    
+    @Override
+    public String getName() {
+        return "PostgreSQL";
+    }
+    
+    @Override
+    public String getBulkLoadName() {
+        return "COPY FROM STDIN";
+    }
+    
+    @Override
+    public Map<String, String> getDataSourceProperties(DatabaseConfig config) {
+        // 把批量INSERT改写为多行VALUES，减少往返次数
+        return Map.of("reWriteBatchedInserts", "true");
+    }
+    
+    @Override
+    public String currentSchema() {
+        return "current_schema()";
+    }
+    
+    @Override
+    public boolean supportsTransactionalDdl() {
+        return true;
+    }
+    
+    @Override
+    public BulkLoader createBulkLoader() {
+        return copyLoader;
+    }
+}
\ No newline at end of file
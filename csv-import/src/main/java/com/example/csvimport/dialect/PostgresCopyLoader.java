@@ -0,0 +1,60 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL COPY FROM STDIN 批量加载
+ * 把批次编码为COPY的text格式（制表符分隔、反斜杠转义、\N表示NULL），通过驱动的CopyManager流式发送，
+ * 服务器端不解析SQL、不逐行执行INSERT
+ */
+@Slf4j
+public class PostgresCopyLoader implements BulkLoader {
+    
+    private final SqlDialect dialect;
+    
+    public PostgresCopyLoader(SqlDialect dialect) {
+        this.dialect = dialect;
+    }
+    
+    @Override
+    public int loadBatch(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        
+        String sql = buildCopySql(tableName, batch.getColumns());
+        byte[] data = RowTextEncoder.encodeTabSeparated(batch);
+        
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new ByteArrayInputStream(data));
+            } catch (IOException e) {
+                throw new RuntimeException("COPY数据失败: " + tableName, e);
+            }
+        });
+        
+        int rows = copied != null ? copied.intValue() : 0;
+        log.debug("COPY 完成，表: {}, 行数: {}, 字节数: {}", tableName, rows, data.length);
+        return rows;
+    }
+    
+    /**
+     * 构建COPY语句，使用text格式的默认分隔符和NULL标记
+     */
+    String buildCopySql(String tableName, List<ColumnInfo> columns) {
+        String columnList = columns.stream()
+                .map(col -> dialect.quote(col.getName()))
+                .collect(Collectors.joining(", "));
+        return String.format("COPY %s (%s) FROM STDIN", dialect.quote(tableName), columnList);
+    }
+}
\ No newline at end of file
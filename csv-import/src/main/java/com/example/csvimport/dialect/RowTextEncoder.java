@@ -0,0 +1,156 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * 把按列存储的批次格式化为数据库批量加载接口接受的文本
+ * 类型列直接从基本类型数组格式化，无法解析的原始值按字符串输出，由数据库处理
+ */
+public final class RowTextEncoder {
+    
+    public static final String NULL_MARKER = "\\N";
+    
+    private RowTextEncoder() {
+    }
+    
+    /**
+     * 编码为制表符分隔、反斜杠转义、\N表示NULL的文本
+     * 即MySQL LOAD DATA的默认格式，也是PostgreSQL COPY的text格式
+     */
+    public static byte[] encodeTabSeparated(ColumnarBatch batch) {
+        List<ColumnInfo> columns = batch.getColumns();
+        StringBuilder buffer = new StringBuilder(batch.size() * columns.size() * 16);
+        
+        for (int row = 0; row < batch.size(); row++) {
+            for (int j = 0; j < columns.size(); j++) {
+                if (j > 0) {
+                    buffer.append('\t');
+                }
+                if (batch.isNull(j, row)) {
+                    buffer.append(NULL_MARKER);
+                } else {
+                    appendValue(buffer, batch, j, row, true);
+                }
+            }
+            buffer.append('\n');
+        }
+        
+        return buffer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * 单元格的文本，NULL返回null；日期为 yyyy-MM-dd，时间戳为 yyyy-MM-dd HH:mm:ss[.ffffff]，布尔值为1/0
+     */
+    public static String format(ColumnarBatch batch, int column, int row) {
+        if (batch.isNull(column, row)) {
+            return null;
+        }
+        StringBuilder buffer = new StringBuilder(16);
+        appendValue(buffer, batch, column, row, false);
+        return buffer.toString();
+    }
+    
+    /**
+     * 按列类型格式化单元格的值
+     */
+    private static void appendValue(StringBuilder buffer, ColumnarBatch batch, int column, int row, boolean escape) {
+        String unparsed = batch.getUnparsed(column, row);
+        if (unparsed != null) {
+            appendString(buffer, unparsed.trim(), escape);
+            return;
+        }
+        
+        switch (batch.getColumns().get(column).getJavaType()) {
+            case INTEGER:
+                buffer.append(batch.getInt(column, row));
+                break;
+            case LONG:
+                buffer.append(batch.getLong(column, row));
+                break;
+            case DOUBLE:
+                buffer.append(batch.getDouble(column, row));
+                break;
+            case BOOLEAN:
+                buffer.append(batch.getBoolean(column, row) ? '1' : '0');
+                break;
+            case DATE:
+                appendDate(buffer, LocalDate.ofEpochDay(batch.getEpochDay(column, row)));
+                break;
+            case TIMESTAMP:
+                appendTimestamp(buffer, LocalDateTime.ofEpochSecond(
+                        batch.getEpochSecond(column, row), batch.getNanos(column, row), ZoneOffset.UTC));
+                break;
+            default:
+                appendString(buffer, batch.getString(column, row), escape);
+                break;
+        }
+    }
+    
+    private static void appendDate(StringBuilder buffer, LocalDate date) {
+        buffer.append(date.getYear()).append('-');
+        appendTwoDigits(buffer, date.getMonthValue());
+        buffer.append('-');
+        appendTwoDigits(buffer, date.getDayOfMonth());
+    }
+    
+    private static void appendTimestamp(StringBuilder buffer, LocalDateTime dateTime) {
+        appendDate(buffer, dateTime.toLocalDate());
+        buffer.append(' ');
+        appendTwoDigits(buffer, dateTime.getHour());
+        buffer.append(':');
+        appendTwoDigits(buffer, dateTime.getMinute());
+        buffer.append(':');
+        appendTwoDigits(buffer, dateTime.getSecond());
+        int nanos = dateTime.getNano();
+        if (nanos > 0) {
+            // MySQL和PostgreSQL最多保留微秒
+            buffer.append('.');
+            String micros = Integer.toString(1_000_000 + nanos / 1000);
+            buffer.append(micros, 1, micros.length());
+        }
+    }
+    
+    private static void appendTwoDigits(StringBuilder buffer, int value) {
+        if (value < 10) {
+            buffer.append('0');
+        }
+        buffer.append(value);
+    }
+    
+    private static void appendString(StringBuilder buffer, String value, boolean escape) {
+        if (!escape) {
+            buffer.append(value);
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\0':
+                    buffer.append("\\0");
+                    break;
+                default:
+                    buffer.append(c);
+                    break;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,359 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.model.ColumnInfo;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 目标数据库方言
+ * 封装各数据库在DDL、元数据查询、upsert语法和原生批量加载方式上的差异，按JDBC URL选择（见 {@link #forUrl}）。
+ * 默认实现使用标准SQL和information_schema，各数据库只覆盖不同的部分
+ */
+public interface SqlDialect {
+    
+    /**
+     * 按JDBC URL选择方言
+     *
+     * @throws IllegalArgumentException 不支持的数据库
+     */
+    static SqlDialect forUrl(String url) {
+        String lower = url.trim().toLowerCase(Locale.ROOT);
+        if (lower.startsWith("jdbc:mysql:") || lower.startsWith("jdbc:mariadb:")) {
+            return MySqlDialect.INSTANCE;
+        }
+        if (lower.startsWith("jdbc:postgresql:")) {
+            return PostgreSqlDialect.INSTANCE;
+        }
+        if (lower.startsWith("jdbc:h2:")) {
+            return H2Dialect.INSTANCE;
+        }
+        if (lower.startsWith("jdbc:duckdb:")) {
+            return DuckDbDialect.INSTANCE;
+        }
+        throw new IllegalArgumentException("不支持的数据库: " + url);
+    }
+    
+    /**
+     * 方言名称，用于日志
+     */
+    String getName();
+    
+    /**
+     * 原生批量加载方式的名称，用于日志
+     */
+    String getBulkLoadName();
+    
+    /**
+     * 连接池中每个连接的驱动属性（批量写入相关的优化）
+     */
+    default Map<String, String> getDataSourceProperties(DatabaseConfig config) {
+        return Collections.emptyMap();
+    }
+    
+    /**
+     * 引用标识符（表名、列名、索引名）
+     */
+    default String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+    
+    default String quoteColumns(List<String> columns) {
+        return columns.stream().map(this::quote).collect(Collectors.joining(", "));
+    }
+    
+    /**
+     * 列的SQL类型；ColumnInfo中的sqlType是MySQL类型，字符串列按其长度选择VARCHAR或大文本类型
+     */
+    default String columnType(ColumnInfo column) {
+        switch (column.getJavaType()) {
+            case INTEGER:
+                return "INTEGER";
+            case LONG:
+                return "BIGINT";
+            case DOUBLE:
+                return "DOUBLE PRECISION";
+            case BOOLEAN:
+                return "BOOLEAN";
+            case DATE:
+                return "DATE";
+            case TIMESTAMP:
+                return "TIMESTAMP";
+            default:
+                String sqlType = column.getSqlType();
+                return sqlType != null && sqlType.startsWith("VARCHAR") ? sqlType : largeTextType();
+        }
+    }
+    
+    /**
+     * 超过VARCHAR(255)的字符串列类型
+     */
+    default String largeTextType() {
+        return "TEXT";
+    }
+    
+    /**
+     * 建表语句末尾的表选项（存储引擎、字符集等）
+     */
+    default String tableOptions() {
+        return "";
+    }
+    
+    /**
+     * 建表语句
+     *
+     * @param keyColumns 键列，不为空时在这些列上建唯一约束
+     */
+    default String createTableSql(String tableName, List<ColumnInfo> columns, List<String> keyColumns,
+                                  boolean ifNotExists) {
+        StringBuilder sql = new StringBuilder();
+        sql.append("CREATE TABLE ").append(ifNotExists ? "IF NOT EXISTS " : "").append(quote(tableName)).append(" (");
+        sql.append(columns.stream()
+                .map(col -> quote(col.getName()) + " " + columnType(col))
+                .collect(Collectors.joining(", ")));
+        if (keyColumns != null && !keyColumns.isEmpty()) {
+            sql.append(", ").append(uniqueKeyClause(uniqueKeyName(tableName), keyColumns));
+        }
+        sql.append(")").append(tableOptions());
+        return sql.toString();
+    }
+    
+    /**
+     * 建表语句中的唯一约束
+     * 默认不指定约束名：约束名在schema内唯一时，影子表和正式表上的同名约束会冲突，由数据库生成名称
+     */
+    default String uniqueKeyClause(String name, List<String> keyColumns) {
+        return String.format("UNIQUE (%s)", quoteColumns(keyColumns));
+    }
+    
+    /**
+     * 在已有表上建唯一索引的语句
+     */
+    default String addUniqueKeySql(String tableName, List<String> keyColumns) {
+        return String.format("CREATE UNIQUE INDEX %s ON %s (%s)",
+                quote(uniqueKeyName(tableName)), quote(tableName), quoteColumns(keyColumns));
+    }
+    
+    /**
+     * 单列普通索引的建索引语句
+     */
+    default String createIndexSql(String indexName, String tableName, String columnName) {
+        return String.format("CREATE INDEX %s ON %s (%s)", quote(indexName), quote(tableName), quote(columnName));
+    }
+    
+    /**
+     * 是否支持在一条语句中创建多个索引（一次扫描建完所有索引）
+     */
+    default boolean supportsSinglePassIndexBuild() {
+        return false;
+    }
+    
+    /**
+     * 当前schema的SQL表达式，用于information_schema查询
+     */
+    String currentSchema();
+    
+    /**
+     * 查询表是否存在的语句，参数为表名，返回匹配的表数
+     */
+    default String tableExistsSql() {
+        return "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = " + currentSchema()
+                + " AND table_name = ?";
+    }
+    
+    /**
+     * 查询表的列定义的语句，参数为表名，按列顺序返回列名、数据类型和完整列类型
+     */
+    default String loadColumnsSql() {
+        return "SELECT column_name, data_type, data_type FROM information_schema.columns WHERE table_schema = "
+                + currentSchema() + " AND table_name = ? ORDER BY ordinal_position";
+    }
+    
+    /**
+     * 数据库列类型对应的Java类型，与 {@link #columnType} 互逆
+     *
+     * @param dataType 小写的数据类型
+     * @param columnType 小写的完整列类型
+     */
+    default ColumnInfo.JavaType toJavaType(String dataType, String columnType) {
+        switch (dataType) {
+            case "integer":
+            case "int":
+            case "int4":
+                return ColumnInfo.JavaType.INTEGER;
+            case "bigint":
+            case "int8":
+                return ColumnInfo.JavaType.LONG;
+            case "double precision":
+            case "double":
+            case "float8":
+                return ColumnInfo.JavaType.DOUBLE;
+            case "boolean":
+            case "bool":
+                return ColumnInfo.JavaType.BOOLEAN;
+            case "date":
+                return ColumnInfo.JavaType.DATE;
+            default:
+                return dataType.startsWith("timestamp") ? ColumnInfo.JavaType.TIMESTAMP : ColumnInfo.JavaType.STRING;
+        }
+    }
+    
+    /**
+     * 表上的所有索引，索引名 -> 按索引中的顺序排列的列名
+     *
+     * @param uniqueOnly 只返回唯一索引（含主键）
+     */
+    default Map<String, List<String>> loadIndexes(JdbcTemplate jdbcTemplate, String tableName, boolean uniqueOnly) {
+        Map<String, List<String>> indexes = jdbcTemplate.execute((ConnectionCallback<Map<String, List<String>>>) connection -> {
+            Map<String, List<String>> result = new LinkedHashMap<>();
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    tableName, uniqueOnly, true)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String columnName = rs.getString("COLUMN_NAME");
+                    if (indexName != null && columnName != null) {
+                        result.computeIfAbsent(indexName, name -> new ArrayList<>()).add(columnName);
+                    }
+                }
+            }
+            return result;
+        });
+        return indexes != null ? indexes : Collections.emptyMap();
+    }
+    
+    /**
+     * 表上的所有索引名
+     */
+    default Set<String> loadIndexNames(JdbcTemplate jdbcTemplate, String tableName) {
+        return new HashSet<>(loadIndexes(jdbcTemplate, tableName, false).keySet());
+    }
+    
+    /**
+     * 批量插入语句
+     */
+    default String insertSql(String tableName, List<String> columns) {
+        String placeholders = columns.stream().map(col -> "?").collect(Collectors.joining(", "));
+        return String.format("INSERT INTO %s (%s) VALUES (%s)", quote(tableName), quoteColumns(columns), placeholders);
+    }
+    
+    /**
+     * 按键列插入或更新的语句，键列之外的列更新为新值；没有非键列时保持原行不变
+     * 默认实现是 INSERT ... ON CONFLICT (键列) DO UPDATE
+     */
+    default String upsertSql(String tableName, List<String> columns, List<String> keyColumns) {
+        Set<String> keys = keyColumns.stream().map(key -> key.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+        String updates = columns.stream()
+                .filter(col -> !keys.contains(col.toLowerCase(Locale.ROOT)))
+                .map(col -> String.format("%s = EXCLUDED.%s", quote(col), quote(col)))
+                .collect(Collectors.joining(", "));
+        String action = updates.isEmpty() ? "DO NOTHING" : "DO UPDATE SET " + updates;
+        return insertSql(tableName, columns) + String.format(" ON CONFLICT (%s) %s", quoteColumns(keyColumns), action);
+    }
+    
+    /**
+     * 用影子表替换正式表的语句，按顺序执行；{@link #supportsTransactionalDdl()} 时在同一个事务中执行
+     *
+     * @param liveTableExists 正式表是否存在
+     */
+    default List<String> swapTablesSql(String tableName, String stagingTableName, boolean liveTableExists) {
+        List<String> statements = new ArrayList<>();
+        if (liveTableExists) {
+            String oldTableName = tableName + "__old";
+            statements.add("DROP TABLE IF EXISTS " + quote(oldTableName));
+            statements.add(String.format("ALTER TABLE %s RENAME TO %s", quote(tableName), quote(oldTableName)));
+            statements.add(String.format("ALTER TABLE %s RENAME TO %s", quote(stagingTableName), quote(tableName)));
+            statements.add("DROP TABLE " + quote(oldTableName));
+        } else {
+            statements.add(String.format("ALTER TABLE %s RENAME TO %s", quote(stagingTableName), quote(tableName)));
+        }
+        return statements;
+    }
+    
+    /**
+     * 是否支持用影子表替换正式表（重命名带索引的表）
+     */
+    default boolean supportsTableSwap() {
+        return true;
+    }
+    
+    /**
+     * DDL是否可以在事务中执行并一起回滚
+     */
+    default boolean supportsTransactionalDdl() {
+        return false;
+    }
+    
+    /**
+     * 索引名是否在整个schema内唯一（而不是每个表内唯一）；此时影子表替换正式表后需要把索引改名为正式表的索引名
+     */
+    default boolean hasSchemaScopedIndexNames() {
+        return true;
+    }
+    
+    /**
+     * 把索引改名的语句
+     */
+    default String renameIndexSql(String tableName, String indexName, String newIndexName) {
+        return String.format("ALTER INDEX %s RENAME TO %s", quote(indexName), quote(newIndexName));
+    }
+    
+    /**
+     * 是否支持写入会话调优（关闭唯一性和外键检查）
+     */
+    default boolean supportsSessionTuning() {
+        return false;
+    }
+    
+    /**
+     * 是否支持保存点，坏行隔离依赖保存点回滚失败的批次
+     */
+    default boolean supportsSavepoints() {
+        return true;
+    }
+    
+    /**
+     * 原生批量加载方式
+     */
+    BulkLoader createBulkLoader();
+    
+    /**
+     * 原生批量加载是否可用（如服务器配置允许）
+     */
+    default boolean isBulkLoadAvailable(JdbcTemplate jdbcTemplate) {
+        return true;
+    }
+    
+    /**
+     * 异常是否表示原生批量加载被服务器或驱动拒绝，此时回退到批量插入
+     */
+    default boolean isBulkLoadRejected(Throwable e) {
+        return false;
+    }
+    
+    /**
+     * 唯一索引名
+     */
+    static String uniqueKeyName(String tableName) {
+        return String.format("uk_%s", tableName);
+    }
+    
+    /**
+     * 单列普通索引名
+     */
+    static String indexName(String tableName, String columnName) {
+        return String.format("idx_%s_%s", tableName, columnName);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.example.csvimport.metrics;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 导入指标注册中心
+ * 为每个正在导入的表创建一个ImportProgress，指标注册到Spring Boot配置的MeterRegistry（Prometheus）。
+ * 导入结束后保留该表的进度和指标，便于导入完成后仍能抓取到最终值；同一个表再次导入时替换旧的指标。
+ * 已结束的导入只保留最近的若干个，批量导入大量文件时指标和进度视图不会无限增长。
+ */
+@Component
+public class ImportMetrics {
+    
+    private final MeterRegistry meterRegistry;
+    private final int retainedFinished;
+    // 表名 -> 进度，按开始时间排序
+    private final Map<String, ImportProgress> imports = new LinkedHashMap<>();
+    
+    /**
+     * @param retainedFinished 保留指标的已结束导入数，超出时移除最早开始的已结束导入
+     */
+    public ImportMetrics(MeterRegistry meterRegistry,
+                         @Value("${csv-import.metrics.retained-finished:32}") int retainedFinished) {
+        this.meterRegistry = meterRegistry;
+        this.retainedFinished = retainedFinished;
+    }
+    
+    /**
+     * 开始记录一个表的导入
+     *
+     * @param totalBytes 要读取的总字节数，未知时传0
+     */
+    public synchronized ImportProgress start(String tableName, long totalBytes) {
+        ImportProgress previous = imports.remove(tableName);
+        if (previous != null) {
+            removeMeters(previous);
+        }
+        ImportProgress progress = new ImportProgress(meterRegistry, tableName, totalBytes);
+        imports.put(tableName, progress);
+        return progress;
+    }
+    
+    /**
+     * 结束记录，并移除超出保留数的已结束导入的指标
+     */
+    public synchronized void finish(ImportProgress progress, boolean success) {
+        progress.finish(success);
+        List<ImportProgress> all = new ArrayList<>(imports.values());
+        int finished = 0;
+        for (int i = all.size() - 1; i >= 0; i--) {
+            ImportProgress candidate = all.get(i);
+            if (candidate.getStatus() != ImportProgress.Status.RUNNING && ++finished > retainedFinished) {
+                imports.remove(candidate.getTableName());
+                removeMeters(candidate);
+            }
+        }
+    }
+    
+    private void removeMeters(ImportProgress progress) {
+        for (Meter meter : progress.getMeters()) {
+            meterRegistry.remove(meter);
+        }
+    }
+    
+    public synchronized List<ImportProgress> getImports() {
+        return new ArrayList<>(imports.values());
+    }
+    
+    /**
+     * 文本形式的进度视图，每个表一行
+     */
+    public String renderProgress() {
+        StringBuilder view = new StringBuilder();
+        view.append(String.format("%-24s %-9s %12s %12s %10s %8s %9s %10s %10s %7s %10s %s%n",
+                "table", "status", "parsed", "written", "rows/s", "done%", "eta(s)",
+                "parse(ms)", "insert(ms)", "queue", "wait(s)", "bottleneck"));
+        for (ImportProgress progress : getImports()) {
+            double done = progress.getFractionDone();
+            double eta = progress.getEtaSeconds();
+            view.append(String.format("%-24s %-9s %12d %12d %10.1f %8s %9s %10.2f %10.2f %7s %10.1f %s%n",
+                    progress.getTableName(), progress.getStatus(), progress.getRowsParsed(), progress.getRowsWritten(),
+                    progress.getRowsPerSecond(),
+                    Double.isNaN(done) ? "-" : String.format("%.1f", done * 100),
+                    Double.isNaN(eta) ? "-" : String.format("%.0f", eta),
+                    progress.getParseMillisPerBatch(), progress.getInsertMillisPerBatch(),
+                    progress.getQueueCapacity() > 0 ? progress.getQueueDepth() + "/" + progress.getQueueCapacity() : "-",
+                    progress.getQueueWaitSeconds(), progress.getBottleneck()));
+        }
+        return view.toString();
+    }
+}
\ No newline at end of file
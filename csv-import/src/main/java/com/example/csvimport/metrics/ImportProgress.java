@@ -0,0 +1,279 @@
+package com.example.csvimport.metrics;
+
+import com.example.csvimport.parser.ParseListener;
+import com.example.csvimport.service.ImportPipeline;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个表的导入进度和指标
+ * 解析线程报告读取字节数和批次解析耗时，写入线程报告批次写入耗时，流水线报告队列等待和队列深度，
+ * 全部以 table 标签注册到MeterRegistry：
+ * <ul>
+ *   <li>csv.import.bytes.read - 读取的字节数（压缩文件为解压后的字节数）</li>
+ *   <li>csv.import.rows{stage=parse|insert} - 解析和写入的行数</li>
+ *   <li>csv.import.rejected.cells - 无法按列类型解析、按字符串写入的单元格数</li>
+ *   <li>csv.import.rejected.rows - 启用坏行隔离时写入拒绝文件的行数</li>
+ *   <li>csv.import.batch{stage=parse|insert} - 批次耗时直方图，parse包含CSV解析和类型转换</li>
+ *   <li>csv.import.queue.wait - 解析线程因写入队列已满阻塞的时间</li>
+ *   <li>csv.import.queue.depth - 写入队列中的批次数</li>
+ *   <li>csv.import.progress / csv.import.eta - 按字节计算的完成比例和预计剩余秒数</li>
+ * </ul>
+ */
+public class ImportProgress implements ParseListener, ImportPipeline.PipelineListener {
+    
+    /**
+     * 导入状态
+     */
+    public enum Status {
+        RUNNING, SUCCEEDED, FAILED
+    }
+    
+    private final String tableName;
+    private final long startNanos = System.nanoTime();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder rowsParsed = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder rejectedCells = new LongAdder();
+    private final LongAdder rejectedRows = new LongAdder();
+    private final Timer parseTimer;
+    private final Timer insertTimer;
+    private final Timer queueWaitTimer;
+    private final List<Meter> meters = new ArrayList<>();
+    private volatile long totalBytes;
+    private volatile BlockingQueue<?> queue;
+    private volatile int queueCapacity;
+    private volatile Status status = Status.RUNNING;
+    private volatile long endNanos;
+    
+    /**
+     * @param totalBytes 要读取的总字节数，未知（如压缩文件）时小于等于0，此时不计算完成比例和剩余时间
+     */
+    ImportProgress(MeterRegistry registry, String tableName, long totalBytes) {
+        this.tableName = tableName;
+        this.totalBytes = totalBytes;
+        Tags tags = Tags.of("table", tableName);
+        
+        meters.add(FunctionCounter.builder("csv.import.bytes.read", bytesRead, LongAdder::sum)
+                .baseUnit("bytes").description("读取的CSV字节数").tags(tags).register(registry));
+        meters.add(FunctionCounter.builder("csv.import.rows", rowsParsed, LongAdder::sum)
+                .description("处理的行数").tags(tags).tag("stage", "parse").register(registry));
+        meters.add(FunctionCounter.builder("csv.import.rows", rowsWritten, LongAdder::sum)
+                .description("处理的行数").tags(tags).tag("stage", "insert").register(registry));
+        meters.add(FunctionCounter.builder("csv.import.rejected.cells", rejectedCells, LongAdder::sum)
+                .description("无法按列类型解析的单元格数").tags(tags).register(registry));
+        meters.add(FunctionCounter.builder("csv.import.rejected.rows", rejectedRows, LongAdder::sum)
+                .description("写入拒绝文件的行数").tags(tags).register(registry));
+        parseTimer = Timer.builder("csv.import.batch").description("批次耗时")
+                .tags(tags).tag("stage", "parse").publishPercentileHistogram().register(registry);
+        insertTimer = Timer.builder("csv.import.batch").description("批次耗时")
+                .tags(tags).tag("stage", "insert").publishPercentileHistogram().register(registry);
+        queueWaitTimer = Timer.builder("csv.import.queue.wait").description("写入队列已满时解析线程的等待时间")
+                .tags(tags).register(registry);
+        meters.add(parseTimer);
+        meters.add(insertTimer);
+        meters.add(queueWaitTimer);
+        meters.add(Gauge.builder("csv.import.queue.depth", this, ImportProgress::getQueueDepth)
+                .description("写入队列中的批次数").tags(tags).register(registry));
+        meters.add(Gauge.builder("csv.import.progress", this, ImportProgress::getFractionDone)
+                .description("按字节计算的完成比例").tags(tags).register(registry));
+        meters.add(Gauge.builder("csv.import.eta", this, ImportProgress::getEtaSeconds)
+                .baseUnit("seconds").description("预计剩余时间").tags(tags).register(registry));
+    }
+    
+    @Override
+    public void onBytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+    
+    @Override
+    public void onBatchParsed(int rows, long nanos) {
+        rowsParsed.add(rows);
+        parseTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void onQueueCreated(BlockingQueue<?> queue, int capacity) {
+        this.queue = queue;
+        this.queueCapacity = capacity;
+    }
+    
+    @Override
+    public void onQueueWait(long nanos) {
+        queueWaitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    @Override
+    public void onBatchWritten(int rows, long nanos) {
+        rowsWritten.add(rows);
+        insertTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    /**
+     * 记录无法按列类型解析的单元格
+     */
+    public void onRejectedCells(int cells) {
+        if (cells > 0) {
+            rejectedCells.add(cells);
+        }
+    }
+    
+    /**
+     * 记录被隔离到拒绝文件的行
+     */
+    public void onRejectedRows(int rows) {
+        rejectedRows.add(rows);
+    }
+    
+    /**
+     * 设置要读取的总字节数，恢复导入时只计算未完成的区间
+     */
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+    
+    void finish(boolean success) {
+        endNanos = System.nanoTime();
+        queue = null;
+        status = success ? Status.SUCCEEDED : Status.FAILED;
+    }
+    
+    List<Meter> getMeters() {
+        return meters;
+    }
+    
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public long getRowsParsed() {
+        return rowsParsed.sum();
+    }
+    
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+    
+    public long getRejectedCells() {
+        return rejectedCells.sum();
+    }
+    
+    public long getRejectedRows() {
+        return rejectedRows.sum();
+    }
+    
+    public double getElapsedSeconds() {
+        long end = status == Status.RUNNING ? System.nanoTime() : endNanos;
+        return (end - startNanos) / 1e9;
+    }
+    
+    /**
+     * 写入速度（行/秒）
+     */
+    public double getRowsPerSecond() {
+        double elapsed = getElapsedSeconds();
+        return elapsed > 0 ? getRowsWritten() / elapsed : 0;
+    }
+    
+    /**
+     * 按字节计算的完成比例，总字节数未知时为NaN
+     */
+    public double getFractionDone() {
+        if (status == Status.SUCCEEDED) {
+            return 1.0;
+        }
+        long total = totalBytes;
+        return total > 0 ? Math.min(1.0, (double) getBytesRead() / total) : Double.NaN;
+    }
+    
+    /**
+     * 按当前读取速度估计的剩余秒数，无法估计时为NaN
+     */
+    public double getEtaSeconds() {
+        if (status != Status.RUNNING) {
+            return 0;
+        }
+        long total = totalBytes;
+        long read = getBytesRead();
+        double elapsed = getElapsedSeconds();
+        if (total <= 0 || read <= 0 || elapsed <= 0) {
+            return Double.NaN;
+        }
+        return Math.max(0, total - read) / (read / elapsed);
+    }
+    
+    public int getQueueDepth() {
+        BlockingQueue<?> current = queue;
+        return current != null ? current.size() : 0;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    /**
+     * 平均每批次解析耗时（毫秒）
+     */
+    public double getParseMillisPerBatch() {
+        return parseTimer.mean(TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * 平均每批次写入耗时（毫秒）
+     */
+    public double getInsertMillisPerBatch() {
+        return insertTimer.mean(TimeUnit.MILLISECONDS);
+    }
+    
+    public double getQueueWaitSeconds() {
+        return queueWaitTimer.totalTime(TimeUnit.SECONDS);
+    }
+    
+    /**
+     * 判断瓶颈阶段
+     * 流水线模式下看写入队列：队列持续接近满说明写入跟不上解析，接近空说明解析跟不上写入；
+     * 单线程模式下解析和写入交替执行，比较两者的累计耗时
+     *
+     * @return parse / insert，无法判断时为 -
+     */
+    public String getBottleneck() {
+        if (status != Status.RUNNING || parseTimer.count() == 0) {
+            return "-";
+        }
+        int capacity = queueCapacity;
+        if (queue != null && capacity > 0) {
+            int depth = getQueueDepth();
+            if (depth * 4 >= capacity * 3) {
+                return "insert";
+            }
+            if (depth * 4 <= capacity) {
+                return "parse";
+            }
+            return "-";
+        }
+        return parseTimer.totalTime(TimeUnit.NANOSECONDS) >= insertTimer.totalTime(TimeUnit.NANOSECONDS)
+                ? "parse" : "insert";
+    }
+}
\ No newline at end of file
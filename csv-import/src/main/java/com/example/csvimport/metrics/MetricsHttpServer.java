@@ -0,0 +1,93 @@
+package com.example.csvimport.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 指标HTTP服务
+ * 导入工具是命令行程序，不启动Web容器，这里用JDK自带的HttpServer提供两个只读端点：
+ * <ul>
+ *   <li>/metrics - Prometheus文本格式的全部指标</li>
+ *   <li>/progress - 每个表的行数、行/秒、完成比例、剩余时间和瓶颈阶段</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetricsHttpServer {
+    
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    
+    private final ObjectProvider<PrometheusMeterRegistry> prometheusRegistry;
+    private final ImportMetrics importMetrics;
+    private HttpServer server;
+    private ExecutorService executor;
+    
+    /**
+     * 在指定端口启动服务
+     */
+    public synchronized void start(int port) {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("启动指标服务失败，端口: " + port, e);
+        }
+        server.createContext("/metrics", this::handleMetrics);
+        server.createContext("/progress", exchange -> respond(exchange, 200, "text/plain; charset=utf-8",
+                importMetrics.renderProgress()));
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "csv-metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.start();
+        log.info("指标服务已启动: http://localhost:{}/metrics, http://localhost:{}/progress", port, port);
+    }
+    
+    /**
+     * 停止服务
+     */
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+    
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        PrometheusMeterRegistry registry = prometheusRegistry.getIfAvailable();
+        if (registry == null) {
+            respond(exchange, 404, "text/plain; charset=utf-8", "Prometheus指标未启用\n");
+            return;
+        }
+        respond(exchange, 200, PROMETHEUS_CONTENT_TYPE, registry.scrape());
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package com.example.csvimport.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量导入汇总报告
+ */
+@Data
+public class BatchImportReport {
+    private List<FileImportResult> files;
+    // 从开始调度到所有文件结束的墙钟时间
+    private long durationMillis;
+    private int fileParallelism;
+    
+    public BatchImportReport(List<FileImportResult> files, long durationMillis, int fileParallelism) {
+        this.files = files;
+        this.durationMillis = durationMillis;
+        this.fileParallelism = fileParallelism;
+    }
+    
+    public long getSucceededCount() {
+        return files.stream().filter(FileImportResult::isSuccess).count();
+    }
+    
+    public long getFailedCount() {
+        return files.size() - getSucceededCount();
+    }
+    
+    public long getTotalRows() {
+        return files.stream()
+                .filter(FileImportResult::isSuccess)
+                .mapToLong(file -> file.getResult().getTotalRows())
+                .sum();
+    }
+    
+    /**
+     * 所有文件合计的每秒导入行数（按墙钟时间）
+     */
+    public double getRowsPerSecond() {
+        return durationMillis > 0 ? getTotalRows() * 1000.0 / durationMillis : getTotalRows();
+    }
+}
\ No newline at end of file
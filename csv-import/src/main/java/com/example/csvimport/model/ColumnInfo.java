@@ -14,6 +14,8 @@ public class ColumnInfo {
     private String sqlType;
     private int sqlTypeCode;
     private int maxLength;
+    // 数据画像，由CsvService.analyzeColumns填充
+    private ColumnProfile profile;
     
     public ColumnInfo(String name, JavaType javaType) {
         this.name = name;
@@ -22,6 +24,14 @@ public class ColumnInfo {
         determineSqlType();
     }
     
+    /**
+     * 设置Java类型，并同步更新对应的SQL类型
+     */
+    public void setJavaType(JavaType javaType) {
+        this.javaType = javaType;
+        determineSqlType();
+    }
+    
     /**
      * 根据Java类型确定SQL类型
      */
@@ -0,0 +1,184 @@
+package com.example.csvimport.model;
+
+import com.example.csvimport.parser.TypeClassifier;
+import com.example.csvimport.parser.TypedValueParser;
+
+/**
+ * 单列的数据画像
+ * 统计空值数、非空值数、最大长度、数值最小/最大值，并用HyperLogLog估算不同值个数。
+ *
+ * 类型按单调加宽确定：每个非空值都把候选类型集合与该值可存储的类型求交集，
+ * 最终取仍然满足所有值的最具体类型，只要出现一个不兼容的值就会加宽（最终为STRING），不存在多数投票。
+ * 一个画像只由一个线程更新，多个区间的画像通过 {@link #merge(ColumnProfile)} 合并。
+ */
+public class ColumnProfile {
+    
+    // 类型候选从具体到宽泛的顺序，都不满足时为STRING
+    private static final ColumnInfo.JavaType[] WIDENING_ORDER = {
+            ColumnInfo.JavaType.BOOLEAN,
+            ColumnInfo.JavaType.INTEGER,
+            ColumnInfo.JavaType.LONG,
+            ColumnInfo.JavaType.DOUBLE,
+            ColumnInfo.JavaType.DATE,
+            ColumnInfo.JavaType.TIMESTAMP
+    };
+    
+    // HyperLogLog 寄存器数为 2^12，标准误差约 1.6%
+    private static final int HLL_PRECISION = 12;
+    private static final int HLL_REGISTERS = 1 << HLL_PRECISION;
+    
+    private final byte[] registers = new byte[HLL_REGISTERS];
+    private final TypedValueParser parser = new TypedValueParser();
+    
+    private int typeMask = -1;
+    private long nullCount;
+    private long nonNullCount;
+    private int maxLength;
+    private long numericCount;
+    private double minValue = Double.POSITIVE_INFINITY;
+    private double maxValue = Double.NEGATIVE_INFINITY;
+    
+    /**
+     * 统计一个单元格，null或空白计为空值
+     */
+    public void add(String value) {
+        if (TypedValueParser.isBlank(value)) {
+            nullCount++;
+            return;
+        }
+        
+        nonNullCount++;
+        maxLength = Math.max(maxLength, value.length());
+        
+        int mask = TypeClassifier.classify(value);
+        typeMask &= mask;
+        if (TypeClassifier.matches(mask, ColumnInfo.JavaType.DOUBLE) && parser.parseDouble(value)) {
+            numericCount++;
+            minValue = Math.min(minValue, parser.doubleValue());
+            maxValue = Math.max(maxValue, parser.doubleValue());
+        }
+        
+        addHash(hash(value));
+    }
+    
+    /**
+     * 合并另一个画像（通常来自另一个字节区间）
+     */
+    public void merge(ColumnProfile other) {
+        typeMask &= other.typeMask;
+        nullCount += other.nullCount;
+        nonNullCount += other.nonNullCount;
+        maxLength = Math.max(maxLength, other.maxLength);
+        numericCount += other.numericCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+        for (int i = 0; i < HLL_REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+    
+    /**
+     * 能存储所有非空值的最具体类型；没有非空值时为STRING
+     */
+    public ColumnInfo.JavaType inferType() {
+        if (nonNullCount == 0) {
+            return ColumnInfo.JavaType.STRING;
+        }
+        for (ColumnInfo.JavaType type : WIDENING_ORDER) {
+            if (TypeClassifier.matches(typeMask, type)) {
+                return type;
+            }
+        }
+        return ColumnInfo.JavaType.STRING;
+    }
+    
+    /**
+     * 统计过的单元格数，缺失的列也计为空值，所以等于记录数
+     */
+    public long getCount() {
+        return nullCount + nonNullCount;
+    }
+    
+    public long getNullCount() {
+        return nullCount;
+    }
+    
+    public long getNonNullCount() {
+        return nonNullCount;
+    }
+    
+    public int getMaxLength() {
+        return maxLength;
+    }
+    
+    /**
+     * 数值最小值，没有数值时返回null
+     */
+    public Double getMinValue() {
+        return numericCount > 0 ? minValue : null;
+    }
+    
+    /**
+     * 数值最大值，没有数值时返回null
+     */
+    public Double getMaxValue() {
+        return numericCount > 0 ? maxValue : null;
+    }
+    
+    /**
+     * HyperLogLog 估算的不同值个数
+     */
+    public long getDistinctEstimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        
+        double alpha = 0.7213 / (1 + 1.079 / HLL_REGISTERS);
+        double estimate = alpha * HLL_REGISTERS * HLL_REGISTERS / sum;
+        // 小基数时使用线性计数修正
+        if (estimate <= 2.5 * HLL_REGISTERS && zeros > 0) {
+            estimate = HLL_REGISTERS * Math.log((double) HLL_REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("类型: %s, 空值: %d, 非空: %d, 最大长度: %d, 最小值: %s, 最大值: %s, 不同值约: %d",
+                inferType(), nullCount, nonNullCount, maxLength, getMinValue(), getMaxValue(), getDistinctEstimate());
+    }
+    
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - HLL_PRECISION));
+        // 剩余位中第一个1的位置，加一个哨兵位保证不超过 64 - HLL_PRECISION + 1
+        long remaining = (hash << HLL_PRECISION) | (1L << (HLL_PRECISION - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+    
+    /**
+     * 64位哈希：FNV-1a 逐字符累加，再用MurmurHash3的fmix64打散
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,354 @@
+package com.example.csvimport.model;
+
+import com.example.csvimport.parser.TypedValueParser;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * 按列存储的数据批次
+ * 解析时直接按列类型把单元格转换为基本类型数组（int[] / long[] / double[] / boolean[]），
+ * 空值记录在每列的位图中，不再为每行创建List、为每个单元格装箱。
+ *
+ * 类型列中无法解析的值保留原始字符串，写入时按字符串处理，与逐行写入时的回退行为一致。
+ * 一个批次只由一个线程填充，填充完成后交给写入线程读取。
+ *
+ * 按字节区间解析时，批次记录所在区间的起始偏移和区间内第一条记录的序号，用于检查点日志。
+ */
+public class ColumnarBatch {
+    
+    private final List<ColumnInfo> columns;
+    private final int capacity;
+    private final ColumnVector[] vectors;
+    private final TypedValueParser parser = new TypedValueParser();
+    private int size;
+    private long rangeStart = -1;
+    private long firstRecord;
+    private boolean lastInRange;
+    
+    public ColumnarBatch(List<ColumnInfo> columns, int capacity) {
+        this.columns = columns;
+        this.capacity = capacity;
+        this.vectors = new ColumnVector[columns.size()];
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = new ColumnVector(columns.get(i).getJavaType(), capacity);
+        }
+    }
+    
+    /**
+     * 设置当前行（第size行）第column列的值，null或空白表示NULL
+     */
+    public void setValue(int column, String value) {
+        vectors[column].set(size, value, parser);
+    }
+    
+    /**
+     * 当前行的所有列设置完成，移动到下一行
+     */
+    public void endRow() {
+        size++;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public boolean isFull() {
+        return size >= capacity;
+    }
+    
+    public List<ColumnInfo> getColumns() {
+        return columns;
+    }
+    
+    /**
+     * 记录批次在文件中的位置
+     *
+     * @param rangeStart 所在字节区间的起始偏移
+     * @param firstRecord 第一条记录在区间内的序号（从0开始）
+     * @param lastInRange 是否为区间的最后一个批次
+     */
+    public void setSource(long rangeStart, long firstRecord, boolean lastInRange) {
+        this.rangeStart = rangeStart;
+        this.firstRecord = firstRecord;
+        this.lastInRange = lastInRange;
+    }
+    
+    /**
+     * 所在字节区间的起始偏移，不是按区间解析时为-1
+     */
+    public long getRangeStart() {
+        return rangeStart;
+    }
+    
+    public long getFirstRecord() {
+        return firstRecord;
+    }
+    
+    public boolean isLastInRange() {
+        return lastInRange;
+    }
+    
+    public boolean isNull(int column, int row) {
+        return vectors[column].isNull(row);
+    }
+    
+    /**
+     * 无法按列类型解析、按字符串写入的单元格数
+     */
+    public int getRejectedCount() {
+        int rejected = 0;
+        for (ColumnVector vector : vectors) {
+            rejected += vector.rejected;
+        }
+        return rejected;
+    }
+    
+    /**
+     * 该行是否有无法按列类型解析的单元格
+     */
+    public boolean isRejected(int row) {
+        for (ColumnVector vector : vectors) {
+            if (vector.unparsed != null && vector.unparsed[row] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 复制指定的行为一个新批次，保留批次在文件中的位置
+     *
+     * @param rows 行号，按给出的顺序复制
+     */
+    public ColumnarBatch select(int[] rows) {
+        ColumnarBatch selected = new ColumnarBatch(columns, Math.max(1, rows.length));
+        for (int row : rows) {
+            for (int i = 0; i < vectors.length; i++) {
+                selected.vectors[i].copy(selected.size, vectors[i], row);
+            }
+            selected.size++;
+        }
+        selected.setSource(rangeStart, firstRecord, lastInRange);
+        return selected;
+    }
+    
+    /**
+     * 单元格的文本形式，NULL返回null
+     * 已解析的值按列类型格式化（如日期为 yyyy-MM-dd），可能与CSV中的原文格式不同
+     */
+    public String getText(int column, int row) {
+        if (isNull(column, row)) {
+            return null;
+        }
+        String unparsed = getUnparsed(column, row);
+        if (unparsed != null) {
+            return unparsed;
+        }
+        switch (columns.get(column).getJavaType()) {
+            case INTEGER:
+                return Integer.toString(getInt(column, row));
+            case LONG:
+                return Long.toString(getLong(column, row));
+            case DOUBLE:
+                return Double.toString(getDouble(column, row));
+            case BOOLEAN:
+                return Boolean.toString(getBoolean(column, row));
+            case DATE:
+                return LocalDate.ofEpochDay(getEpochDay(column, row)).toString();
+            case TIMESTAMP:
+                return LocalDateTime.ofEpochSecond(getEpochSecond(column, row), getNanos(column, row), ZoneOffset.UTC)
+                        .toString().replace('T', ' ');
+            default:
+                return getString(column, row);
+        }
+    }
+    
+    /**
+     * 类型列中无法解析的原始值，能正常解析时返回null
+     */
+    public String getUnparsed(int column, int row) {
+        String[] unparsed = vectors[column].unparsed;
+        return unparsed != null ? unparsed[row] : null;
+    }
+    
+    public int getInt(int column, int row) {
+        return vectors[column].ints[row];
+    }
+    
+    public long getLong(int column, int row) {
+        return vectors[column].longs[row];
+    }
+    
+    public double getDouble(int column, int row) {
+        return vectors[column].doubles[row];
+    }
+    
+    public boolean getBoolean(int column, int row) {
+        return vectors[column].booleans[row];
+    }
+    
+    /**
+     * DATE列的值，距1970-01-01的天数
+     */
+    public int getEpochDay(int column, int row) {
+        return vectors[column].ints[row];
+    }
+    
+    /**
+     * TIMESTAMP列的值，本地时间视为UTC时距1970-01-01T00:00:00的秒数
+     */
+    public long getEpochSecond(int column, int row) {
+        return vectors[column].longs[row];
+    }
+    
+    /**
+     * TIMESTAMP列的纳秒部分
+     */
+    public int getNanos(int column, int row) {
+        return vectors[column].ints[row];
+    }
+    
+    /**
+     * STRING列的值
+     */
+    public String getString(int column, int row) {
+        return vectors[column].strings[row];
+    }
+    
+    /**
+     * 单列数据，只分配该列类型需要的数组
+     */
+    private static final class ColumnVector {
+        private final ColumnInfo.JavaType type;
+        private final int capacity;
+        private final long[] nulls;
+        private int[] ints;
+        private long[] longs;
+        private double[] doubles;
+        private boolean[] booleans;
+        private String[] strings;
+        // 无法按列类型解析的原始值，出现第一个时才分配
+        private String[] unparsed;
+        private int rejected;
+        
+        ColumnVector(ColumnInfo.JavaType type, int capacity) {
+            this.type = type;
+            this.capacity = capacity;
+            this.nulls = new long[(capacity + 63) >>> 6];
+            switch (type) {
+                case INTEGER:
+                case DATE:
+                    ints = new int[capacity];
+                    break;
+                case LONG:
+                    longs = new long[capacity];
+                    break;
+                case DOUBLE:
+                    doubles = new double[capacity];
+                    break;
+                case BOOLEAN:
+                    booleans = new boolean[capacity];
+                    break;
+                case TIMESTAMP:
+                    longs = new long[capacity];
+                    ints = new int[capacity];
+                    break;
+                default:
+                    strings = new String[capacity];
+                    break;
+            }
+        }
+        
+        boolean isNull(int row) {
+            return (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+        
+        /**
+         * 把source第sourceRow行的值复制到本列第row行
+         */
+        void copy(int row, ColumnVector source, int sourceRow) {
+            if (source.isNull(sourceRow)) {
+                nulls[row >>> 6] |= 1L << row;
+                return;
+            }
+            if (ints != null) {
+                ints[row] = source.ints[sourceRow];
+            }
+            if (longs != null) {
+                longs[row] = source.longs[sourceRow];
+            }
+            if (doubles != null) {
+                doubles[row] = source.doubles[sourceRow];
+            }
+            if (booleans != null) {
+                booleans[row] = source.booleans[sourceRow];
+            }
+            if (strings != null) {
+                strings[row] = source.strings[sourceRow];
+            }
+            if (source.unparsed != null && source.unparsed[sourceRow] != null) {
+                if (unparsed == null) {
+                    unparsed = new String[capacity];
+                }
+                unparsed[row] = source.unparsed[sourceRow];
+                rejected++;
+            }
+        }
+        
+        void set(int row, String value, TypedValueParser parser) {
+            if (TypedValueParser.isBlank(value)) {
+                nulls[row >>> 6] |= 1L << row;
+                return;
+            }
+            
+            // 解析失败时数组中的值无意义，以unparsed中的原始值为准
+            boolean parsed = true;
+            switch (type) {
+                case INTEGER:
+                    parsed = parser.parseInt(value);
+                    ints[row] = parser.intValue();
+                    break;
+                case LONG:
+                    parsed = parser.parseLong(value);
+                    longs[row] = parser.longValue();
+                    break;
+                case DOUBLE:
+                    parsed = parser.parseDouble(value);
+                    doubles[row] = parser.doubleValue();
+                    break;
+                case BOOLEAN:
+                    int bool = parser.parseBoolean(value);
+                    parsed = bool >= 0;
+                    booleans[row] = bool == 1;
+                    break;
+                case DATE:
+                    parsed = parser.parseDate(value);
+                    ints[row] = (int) parser.longValue();
+                    break;
+                case TIMESTAMP:
+                    parsed = parser.parseTimestamp(value);
+                    longs[row] = parser.longValue();
+                    ints[row] = parser.nanos();
+                    break;
+                default:
+                    strings[row] = value;
+                    break;
+            }
+            
+            if (!parsed) {
+                if (unparsed == null) {
+                    unparsed = new String[capacity];
+                }
+                unparsed[row] = value;
+                rejected++;
+            }
+        }
+    }
+}
\ No newline at end of file
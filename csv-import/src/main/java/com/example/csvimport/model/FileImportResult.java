@@ -0,0 +1,37 @@
+package com.example.csvimport.model;
+
+import lombok.Data;
+
+/**
+ * 批量导入中单个文件的结果
+ */
+@Data
+public class FileImportResult {
+    private String filePath;
+    private String tableName;
+    private long fileSize;
+    // 导入成功时的结果
+    private ImportResult result;
+    // 导入失败时的错误信息
+    private String error;
+    
+    public FileImportResult(String filePath, String tableName, long fileSize) {
+        this.filePath = filePath;
+        this.tableName = tableName;
+        this.fileSize = fileSize;
+    }
+    
+    public boolean isSuccess() {
+        return result != null;
+    }
+    
+    /**
+     * 每秒读取的文件字节数（MB），压缩文件按压缩后的大小计算
+     */
+    public double getMegabytesPerSecond() {
+        if (result == null || result.getDurationMillis() <= 0) {
+            return 0;
+        }
+        return fileSize / 1024.0 / 1024.0 * 1000.0 / result.getDurationMillis();
+    }
+}
\ No newline at end of file
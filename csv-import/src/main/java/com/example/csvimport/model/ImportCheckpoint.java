@@ -0,0 +1,113 @@
+package com.example.csvimport.model;
+
+import com.example.csvimport.parser.CsvFileSplitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 导入检查点
+ * 由检查点日志中已提交的批次构成。批次用（所在区间的起始偏移, 区间内第一条记录的序号）定位，
+ * 区间按固定长度切分、批次按固定大小划分，所以重新解析同一文件时得到的批次与上次完全相同。
+ *
+ * 一个区间的最后一个批次已提交、且该区间的所有批次都已提交时，区间完成，恢复时直接跳过；
+ * 未完成的区间重新解析，只跳过其中已提交的批次。
+ */
+public class ImportCheckpoint {
+    
+    private final long fileSize;
+    private final int batchSize;
+    // 区间起始偏移 -> 已提交批次的第一条记录序号
+    private final Map<Long, Set<Long>> committedBatches = new HashMap<>();
+    // 区间起始偏移 -> 最后一个批次的第一条记录序号
+    private final Map<Long, Long> lastBatches = new HashMap<>();
+    private long committedRows;
+    
+    public ImportCheckpoint(long fileSize, int batchSize) {
+        this.fileSize = fileSize;
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * 登记一个已提交的批次
+     */
+    public void addBatch(long rangeStart, long firstRecord, int rowCount, boolean lastInRange) {
+        if (committedBatches.computeIfAbsent(rangeStart, start -> new HashSet<>()).add(firstRecord)) {
+            committedRows += rowCount;
+        }
+        if (lastInRange) {
+            lastBatches.put(rangeStart, firstRecord);
+        }
+    }
+    
+    /**
+     * 批次是否已经提交
+     */
+    public boolean isCommitted(long rangeStart, long firstRecord) {
+        Set<Long> batches = committedBatches.get(rangeStart);
+        return batches != null && batches.contains(firstRecord);
+    }
+    
+    /**
+     * 区间内的所有批次是否都已提交
+     */
+    public boolean isRangeComplete(long rangeStart) {
+        Long lastBatch = lastBatches.get(rangeStart);
+        if (lastBatch == null) {
+            return false;
+        }
+        return committedBatches.get(rangeStart).size() == lastBatch / batchSize + 1;
+    }
+    
+    /**
+     * 还需要解析的区间
+     */
+    public List<CsvFileSplitter.ByteRange> pendingRanges(List<CsvFileSplitter.ByteRange> ranges) {
+        List<CsvFileSplitter.ByteRange> pending = new ArrayList<>();
+        for (CsvFileSplitter.ByteRange range : ranges) {
+            if (!isRangeComplete(range.getStart())) {
+                pending.add(range);
+            }
+        }
+        return pending;
+    }
+    
+    /**
+     * 连续完成的区间之后的字节偏移，即恢复导入时开始读取的位置
+     *
+     * @param ranges 按文件顺序排列的全部区间
+     */
+    public long getResumeOffset(List<CsvFileSplitter.ByteRange> ranges) {
+        long offset = ranges.isEmpty() ? 0 : ranges.get(0).getStart();
+        for (CsvFileSplitter.ByteRange range : ranges) {
+            if (!isRangeComplete(range.getStart())) {
+                break;
+            }
+            offset = range.getEnd();
+        }
+        return offset;
+    }
+    
+    public long getFileSize() {
+        return fileSize;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    /**
+     * 已提交的行数
+     */
+    public long getCommittedRows() {
+        return committedRows;
+    }
+    
+    public boolean isEmpty() {
+        return committedBatches.isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.csvimport.model;
+
+import com.example.csvimport.config.ImportOptions;
+import lombok.Data;
+
+/**
+ * 导入结果
+ */
+@Data
+public class ImportResult {
+    private String tableName;
+    private long totalRows;
+    private long durationMillis;
+    // 实际使用的加载引擎（LOAD DATA被拒绝时为回退后的引擎）
+    private ImportOptions.LoadEngine loadEngine;
+    // 启用坏行隔离时写入拒绝文件的行数
+    private long rejectedRows;
+    
+    public ImportResult(String tableName, long totalRows, long durationMillis, ImportOptions.LoadEngine loadEngine) {
+        this.tableName = tableName;
+        this.totalRows = totalRows;
+        this.durationMillis = durationMillis;
+        this.loadEngine = loadEngine;
+    }
+    
+    /**
+     * 每秒导入行数
+     */
+    public double getRowsPerSecond() {
+        return durationMillis > 0 ? totalRows * 1000.0 / durationMillis : totalRows;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.csvimport.parser;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 把读取的字节数报告给ParseListener的输入流
+ * 上层总是按缓冲区大小读取，每次read报告一次，开销可以忽略
+ */
+public class CountingInputStream extends FilterInputStream {
+    
+    private final ParseListener listener;
+    
+    public CountingInputStream(InputStream in, ParseListener listener) {
+        super(in);
+        this.listener = listener;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            listener.onBytesRead(1);
+        }
+        return b;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            listener.onBytesRead(n);
+        }
+        return n;
+    }
+    
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        if (skipped > 0) {
+            listener.onBytesRead(skipped);
+        }
+        return skipped;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,270 @@
+package com.example.csvimport.parser;
+
+import com.github.luben.zstd.ZstdInputStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * CSV文件打开器
+ * 按文件头的魔数识别压缩格式，返回解压后的流，调用方不需要先把文件解压到磁盘：
+ * 1. gzip：支持多个member拼接的文件；BGZF格式（每个块在头部记录块长度）可以并行解压
+ * 2. zstd：支持多帧文件；帧边界可以从帧头和块头直接算出，多帧文件可以并行解压
+ * 3. zip：读取第一个 .csv 条目（没有时读取第一个文件条目）
+ *
+ * 压缩文件只能顺序读取，不能按字节区间切分。
+ */
+@Slf4j
+public final class CsvFileOpener {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    // 并行解压时单个帧的压缩大小上限，更大的帧顺序解压
+    private static final long MAX_PARALLEL_FRAME_SIZE = 16L * 1024 * 1024;
+    
+    // 并行解压时单个任务解压后在内存中的大小上限
+    private static final int MAX_PARALLEL_CHUNK_BYTES = 32 * 1024 * 1024;
+    
+    private static final int ZSTD_MAGIC = 0xFD2FB528;
+    private static final int ZSTD_SKIPPABLE_MAGIC = 0x184D2A50;
+    private static final int[] ZSTD_DICT_ID_SIZES = {0, 1, 2, 4};
+    
+    private CsvFileOpener() {
+    }
+    
+    /**
+     * 压缩格式
+     */
+    public enum Compression {
+        NONE, GZIP, ZSTD, ZIP
+    }
+    
+    /**
+     * 按文件头的魔数识别压缩格式
+     */
+    public static Compression detect(Path path) throws IOException {
+        byte[] magic = new byte[4];
+        int read;
+        try (InputStream in = Files.newInputStream(path)) {
+            read = in.readNBytes(magic, 0, magic.length);
+        }
+        if (read >= 2 && (magic[0] & 0xFF) == 0x1F && (magic[1] & 0xFF) == 0x8B) {
+            return Compression.GZIP;
+        }
+        if (read == 4) {
+            int value = ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            if (value == ZSTD_MAGIC) {
+                return Compression.ZSTD;
+            }
+            if (magic[0] == 'P' && magic[1] == 'K' && magic[2] == 3 && magic[3] == 4) {
+                return Compression.ZIP;
+            }
+        }
+        return Compression.NONE;
+    }
+    
+    public static boolean isCompressed(Path path) throws IOException {
+        return detect(path) != Compression.NONE;
+    }
+    
+    /**
+     * 去掉文件名末尾的压缩扩展名（.gz / .zst / .zstd / .zip）
+     */
+    public static String stripCompressionExtension(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : new String[]{".gz", ".zst", ".zstd", ".zip"}) {
+            if (lower.endsWith(extension) && lower.length() > extension.length()) {
+                return fileName.substring(0, fileName.length() - extension.length());
+            }
+        }
+        return fileName;
+    }
+    
+    /**
+     * 打开文件，压缩文件返回解压后的字节流
+     *
+     * @param threads 解压线程数，大于1且文件由多个可独立解压的帧组成时并行解压
+     */
+    public static InputStream open(Path path, int threads) throws IOException {
+        Compression compression = detect(path);
+        switch (compression) {
+            case GZIP:
+                if (threads > 1 && ParallelFrameInputStream.isSplittable(path, CsvFileOpener::bgzfBlockEnd, MAX_PARALLEL_FRAME_SIZE)) {
+                    log.info("BGZF文件 {} 使用 {} 个线程并行解压", path, threads);
+                    return new ParallelFrameInputStream(path, CsvFileOpener::bgzfBlockEnd,
+                            in -> new GZIPInputStream(in, BUFFER_SIZE), threads, MAX_PARALLEL_FRAME_SIZE, MAX_PARALLEL_CHUNK_BYTES);
+                }
+                // GZIPInputStream会继续读取拼接在后面的member
+                return new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE), BUFFER_SIZE);
+            case ZSTD:
+                if (threads > 1 && ParallelFrameInputStream.isSplittable(path, CsvFileOpener::zstdFrameEnd, MAX_PARALLEL_FRAME_SIZE)) {
+                    log.info("多帧zstd文件 {} 使用 {} 个线程并行解压", path, threads);
+                    return new ParallelFrameInputStream(path, CsvFileOpener::zstdFrameEnd, ZstdInputStream::new, threads,
+                            MAX_PARALLEL_FRAME_SIZE, MAX_PARALLEL_CHUNK_BYTES);
+                }
+                return new ZstdInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+            case ZIP:
+                return openZipEntry(path);
+            default:
+                return Files.newInputStream(path);
+        }
+    }
+    
+    /**
+     * 以UTF-8打开文件，压缩文件透明解压
+     */
+    public static BufferedReader openReader(Path path, int threads) throws IOException {
+        return openReader(path, threads, ParseListener.NONE);
+    }
+    
+    /**
+     * 以UTF-8打开文件，压缩文件透明解压，读取的字节数（解压后）报告给listener
+     */
+    public static BufferedReader openReader(Path path, int threads, ParseListener listener) throws IOException {
+        InputStream in = open(path, threads);
+        if (listener != ParseListener.NONE) {
+            in = new CountingInputStream(in, listener);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+    
+    private static InputStream openZipEntry(Path path) throws IOException {
+        ZipFile zipFile = new ZipFile(path.toFile(), StandardCharsets.UTF_8);
+        try {
+            ZipEntry selected = null;
+            int fileEntries = 0;
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                fileEntries++;
+                boolean csv = entry.getName().toLowerCase(Locale.ROOT).endsWith(".csv");
+                if (selected == null || (csv && !selected.getName().toLowerCase(Locale.ROOT).endsWith(".csv"))) {
+                    selected = entry;
+                }
+            }
+            if (selected == null) {
+                throw new IOException("ZIP文件中没有文件条目: " + path);
+            }
+            if (fileEntries > 1) {
+                log.warn("ZIP文件 {} 包含 {} 个文件，只导入 {}", path, fileEntries, selected.getName());
+            }
+            
+            // 关闭条目流时同时关闭ZIP文件
+            return new FilterInputStream(new BufferedInputStream(zipFile.getInputStream(selected), BUFFER_SIZE)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        zipFile.close();
+                    }
+                }
+            };
+        } catch (IOException | RuntimeException e) {
+            zipFile.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * BGZF块：gzip头的FEXTRA中有 'B','C' 子字段，记录整个块的长度减1
+     */
+    static long bgzfBlockEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(18).order(ByteOrder.LITTLE_ENDIAN);
+        if (readAt(channel, header, position) < 18) {
+            return -1;
+        }
+        if ((header.get(0) & 0xFF) != 0x1F || (header.get(1) & 0xFF) != 0x8B || header.get(2) != 8
+                || (header.get(3) & 0x04) == 0) {
+            return -1;
+        }
+        if (header.getShort(10) != 6 || header.get(12) != 'B' || header.get(13) != 'C' || header.getShort(14) != 2) {
+            return -1;
+        }
+        long end = position + (header.getShort(16) & 0xFFFF) + 1;
+        return end <= size ? end : -1;
+    }
+    
+    /**
+     * zstd帧（RFC 8878）：跳过帧头后逐个读取3字节的块头累加块长度，不需要解压
+     */
+    static long zstdFrameEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        int read = readAt(channel, header, position);
+        if (read < 5) {
+            return -1;
+        }
+        int magic = header.getInt(0);
+        if ((magic & 0xFFFFFFF0) == ZSTD_SKIPPABLE_MAGIC) {
+            long end = position + 8 + (header.getInt(4) & 0xFFFFFFFFL);
+            return read == 8 && end <= size ? end : -1;
+        }
+        if (magic != ZSTD_MAGIC) {
+            return -1;
+        }
+        
+        int descriptor = header.get(4) & 0xFF;
+        int contentSizeFlag = descriptor >>> 6;
+        boolean singleSegment = (descriptor & 0x20) != 0;
+        boolean checksum = (descriptor & 0x04) != 0;
+        int contentSizeBytes = contentSizeFlag == 0 ? (singleSegment ? 1 : 0) : 1 << contentSizeFlag;
+        long blockPosition = position + 5 + (singleSegment ? 0 : 1)
+                + ZSTD_DICT_ID_SIZES[descriptor & 0x03] + contentSizeBytes;
+        
+        ByteBuffer blockHeader = ByteBuffer.allocate(3);
+        while (true) {
+            blockHeader.clear();
+            if (readAt(channel, blockHeader, blockPosition) < 3) {
+                return -1;
+            }
+            int value = (blockHeader.get(0) & 0xFF) | (blockHeader.get(1) & 0xFF) << 8 | (blockHeader.get(2) & 0xFF) << 16;
+            int blockType = (value >>> 1) & 0x03;
+            if (blockType == 3) {
+                return -1;
+            }
+            // RLE块只有1个字节的内容
+            blockPosition += 3 + (blockType == 1 ? 1 : value >>> 3);
+            if ((value & 0x01) != 0) {
+                break;
+            }
+        }
+        long end = blockPosition + (checksum ? 4 : 0);
+        return end <= size ? end : -1;
+    }
+    
+    /**
+     * 从position开始尽量读满buffer
+     *
+     * @return 读取的字节数
+     */
+    private static int readAt(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+}
\ No newline at end of file
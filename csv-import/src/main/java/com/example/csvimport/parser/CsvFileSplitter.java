@@ -0,0 +1,212 @@
+package com.example.csvimport.parser;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * CSV文件字节区间切分器
+ * 把文件的数据部分（表头之后）切分为若干字节区间，每个区间都从记录边界开始、在记录边界结束，
+ * 可以被独立解析。
+ *
+ * 切分分两步完成：
+ * 1. 并行统计每个等长分段内的双引号个数，前缀奇偶性即为每个分段起点是否处于引号字段内；
+ * 2. 从每个分段起点向后扫描，找到第一个不在引号内的换行符作为区间边界。
+ *
+ * 转义引号（""）成对出现，不影响奇偶性；双引号是ASCII字符，不会出现在UTF-8多字节序列中。
+ * 前提是文件符合RFC 4180，即双引号只出现在被引号包裹的字段中。
+ */
+@Slf4j
+public final class CsvFileSplitter {
+    
+    // 单个区间的默认最小长度，过小的区间调度开销大于并行收益
+    public static final long DEFAULT_MIN_RANGE_SIZE = 8L * 1024 * 1024;
+    
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    
+    private CsvFileSplitter() {
+    }
+    
+    /**
+     * 字节区间 [start, end)
+     */
+    public static final class ByteRange {
+        private final long start;
+        private final long end;
+        
+        public ByteRange(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+        
+        public long getStart() {
+            return start;
+        }
+        
+        public long getEnd() {
+            return end;
+        }
+        
+        public long length() {
+            return end - start;
+        }
+        
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+    
+    /**
+     * 按默认最小区间长度切分
+     */
+    public static List<ByteRange> split(Path path, int parts) throws IOException {
+        return split(path, parts, DEFAULT_MIN_RANGE_SIZE);
+    }
+    
+    /**
+     * 按目标区间长度切分，区间数为数据长度除以rangeSize
+     * 结果只取决于文件内容和rangeSize，同一文件重复切分得到相同的区间，可以作为检查点的定位单位
+     */
+    public static List<ByteRange> splitBySize(Path path, long rangeSize) throws IOException {
+        return split(path, Integer.MAX_VALUE, rangeSize);
+    }
+    
+    /**
+     * 把表头之后的数据切分为最多parts个区间
+     *
+     * @param path CSV文件路径
+     * @param parts 期望的区间数
+     * @param minRangeSize 单个区间的最小字节数
+     * @return 按文件顺序排列、首尾相接的区间列表；文件没有数据行时返回空列表
+     */
+    public static List<ByteRange> split(Path path, int parts, long minRangeSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = findRecordEnd(channel, 0, false, size);
+            
+            List<ByteRange> ranges = new ArrayList<>();
+            if (dataStart >= size) {
+                return ranges;
+            }
+            
+            long dataLength = size - dataStart;
+            int segments = (int) Math.max(1, Math.min(parts, dataLength / Math.max(1, minRangeSize)));
+            if (segments == 1) {
+                ranges.add(new ByteRange(dataStart, size));
+                return ranges;
+            }
+            
+            long segmentLength = dataLength / segments;
+            long[] segmentStarts = new long[segments + 1];
+            for (int i = 0; i < segments; i++) {
+                segmentStarts[i] = dataStart + i * segmentLength;
+            }
+            segmentStarts[segments] = size;
+            
+            // 第一步：并行统计每个分段的引号数
+            long[] quoteCounts = IntStream.range(0, segments)
+                    .parallel()
+                    .mapToLong(i -> countQuotes(channel, segmentStarts[i], segmentStarts[i + 1]))
+                    .toArray();
+            
+            // 第二步：根据前缀奇偶性确定每个分段起点的引号状态，再向后找记录边界
+            boolean[] inQuotes = new boolean[segments];
+            long quotes = 0;
+            for (int i = 0; i < segments; i++) {
+                inQuotes[i] = (quotes & 1) == 1;
+                quotes += quoteCounts[i];
+            }
+            
+            long[] boundaries = IntStream.range(0, segments)
+                    .parallel()
+                    .mapToLong(i -> i == 0 ? dataStart : findRecordEndUnchecked(channel, segmentStarts[i], inQuotes[i], size))
+                    .toArray();
+            
+            long start = dataStart;
+            for (int i = 1; i <= segments; i++) {
+                long end = i == segments ? size : boundaries[i];
+                if (end > start) {
+                    ranges.add(new ByteRange(start, end));
+                    start = end;
+                }
+            }
+            
+            log.debug("文件 {} 切分为 {} 个区间: {}", path, ranges.size(), ranges);
+            return ranges;
+        }
+    }
+    
+    /**
+     * 统计 [start, end) 内的双引号个数
+     */
+    private static long countQuotes(FileChannel channel, long start, long end) {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long position = start;
+        long count = 0;
+        try {
+            while (position < end) {
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, end - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                byte[] bytes = buffer.array();
+                for (int i = 0; i < read; i++) {
+                    if (bytes[i] == '"') {
+                        count++;
+                    }
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("读取CSV文件失败", e);
+        }
+        return count;
+    }
+    
+    private static long findRecordEndUnchecked(FileChannel channel, long start, boolean inQuotes, long size) {
+        try {
+            return findRecordEnd(channel, start, inQuotes, size);
+        } catch (IOException e) {
+            throw new RuntimeException("读取CSV文件失败", e);
+        }
+    }
+    
+    /**
+     * 从start开始向后扫描，返回第一个不在引号内的换行符之后的位置；找不到时返回文件末尾
+     *
+     * @param inQuotes start处是否处于引号字段内
+     */
+    static long findRecordEnd(FileChannel channel, long start, boolean inQuotes, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = start;
+        boolean quoted = inQuotes;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            byte[] bytes = buffer.array();
+            for (int i = 0; i < read; i++) {
+                byte b = bytes[i];
+                if (b == '"') {
+                    quoted = !quoted;
+                } else if (b == '\n' && !quoted) {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+}
\ No newline at end of file
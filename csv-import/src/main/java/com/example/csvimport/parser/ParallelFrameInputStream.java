@@ -0,0 +1,297 @@
+package com.example.csvimport.parser;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多帧压缩文件的并行解压输入流
+ * 适用于由多个可独立解压的帧拼接而成的文件（多帧zstd、BGZF格式的gzip）：
+ * 读取线程只解析帧头确定帧边界，不解压数据；连续的若干帧合并为约1MB的任务交给线程池解压，
+ * 按提交顺序取回结果，输出与顺序解压完全相同。
+ *
+ * 同时在途的任务数为线程数的两倍，每个任务解压后最多保留maxChunkBytes字节，
+ * 内存占用上限约为 2 × 线程数 × maxChunkBytes。大于maxFrameSize的帧，以及解压后超过maxChunkBytes的任务，
+ * 由读取线程按顺序流式解压，不整体放入内存。
+ * 一个流只能由一个线程读取。
+ */
+public final class ParallelFrameInputStream extends InputStream {
+    
+    // 单个解压任务的最小压缩字节数，过小的任务调度开销大于并行收益
+    private static final long CHUNK_SIZE = 1024 * 1024;
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    
+    /**
+     * 帧边界扫描器
+     */
+    public interface FrameScanner {
+        /**
+         * 返回从position开始的帧的结束位置
+         *
+         * @return 帧结束位置（不含）；position处不是可识别的完整帧时返回-1
+         */
+        long frameEnd(FileChannel channel, long position, long size) throws IOException;
+    }
+    
+    /**
+     * 帧解压器，输入为一个或多个完整帧拼接成的字节流
+     */
+    public interface FrameDecoder {
+        InputStream open(InputStream compressed) throws IOException;
+    }
+    
+    private final FileChannel channel;
+    private final long size;
+    private final FrameScanner scanner;
+    private final FrameDecoder decoder;
+    private final ExecutorService executor;
+    private final Deque<Chunk> pending = new ArrayDeque<>();
+    private final int window;
+    private final long maxFrameSize;
+    private final int maxChunkBytes;
+    private final byte[] streamBuffer = new byte[BUFFER_SIZE];
+    private long position;
+    private byte[] current = new byte[0];
+    private int offset;
+    private int limit;
+    // 正在由读取线程顺序解压的区间
+    private InputStream streaming;
+    
+    /**
+     * @param maxFrameSize 并行解压的单个帧的压缩大小上限，更大的帧顺序解压
+     * @param maxChunkBytes 单个任务解压后的大小上限，超过时该任务改为顺序解压
+     */
+    public ParallelFrameInputStream(Path path, FrameScanner scanner, FrameDecoder decoder, int threads,
+                                    long maxFrameSize, int maxChunkBytes) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.scanner = scanner;
+        this.decoder = decoder;
+        this.window = threads * 2;
+        this.maxFrameSize = maxFrameSize;
+        this.maxChunkBytes = maxChunkBytes;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "csv-decompress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * 文件是否至少包含两个可识别的帧，且第一个帧不大于maxFrameSize
+     * 只检查第一个帧，后面过大的帧在读取时改为顺序解压
+     */
+    public static boolean isSplittable(Path path, FrameScanner scanner, long maxFrameSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long end = scanner.frameEnd(channel, 0, channel.size());
+            return end > 0 && end < channel.size() && end <= maxFrameSize;
+        }
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (!fill()) {
+            return -1;
+        }
+        return current[offset++] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - offset);
+        System.arraycopy(current, offset, b, off, n);
+        offset += n;
+        return n;
+    }
+    
+    @Override
+    public int available() {
+        return limit - offset;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        for (Chunk chunk : pending) {
+            if (chunk.decoded != null) {
+                chunk.decoded.cancel(true);
+            }
+        }
+        pending.clear();
+        executor.shutdownNow();
+        try {
+            if (streaming != null) {
+                streaming.close();
+                streaming = null;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+    
+    /**
+     * 保证当前缓冲区有未读数据
+     *
+     * @return 是否还有数据
+     */
+    private boolean fill() throws IOException {
+        while (offset >= limit) {
+            if (streaming != null) {
+                int n = streaming.read(streamBuffer);
+                if (n >= 0) {
+                    current = streamBuffer;
+                    offset = 0;
+                    limit = n;
+                    continue;
+                }
+                streaming.close();
+                streaming = null;
+            }
+            submitChunks();
+            Chunk next = pending.poll();
+            if (next == null) {
+                return false;
+            }
+            byte[] decoded = next.decoded != null ? await(next.decoded) : null;
+            if (decoded == null) {
+                streaming = openRange(next.start, next.end);
+            } else {
+                current = decoded;
+                offset = 0;
+                limit = decoded.length;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 按帧边界切出后续的任务，直到在途任务数达到窗口大小
+     * 大于maxFrameSize的帧单独成为一个顺序解压的任务
+     */
+    private void submitChunks() throws IOException {
+        while (pending.size() < window && position < size) {
+            long start = position;
+            long end = start;
+            long largeFrameEnd = -1;
+            while (end < size && end - start < CHUNK_SIZE) {
+                long frameEnd = scanner.frameEnd(channel, end, size);
+                if (frameEnd <= end) {
+                    throw new IOException("无法识别的压缩帧，位置: " + end);
+                }
+                if (frameEnd - end > maxFrameSize) {
+                    largeFrameEnd = frameEnd;
+                    break;
+                }
+                end = frameEnd;
+            }
+            if (end > start) {
+                long chunkEnd = end;
+                pending.add(new Chunk(start, chunkEnd, executor.submit(() -> decode(start, chunkEnd))));
+            }
+            if (largeFrameEnd > 0) {
+                pending.add(new Chunk(end, largeFrameEnd, null));
+                end = largeFrameEnd;
+            }
+            position = end;
+        }
+    }
+    
+    /**
+     * 在线程池中解压一个任务
+     *
+     * @return 解压后的数据；超过maxChunkBytes时返回null，由读取线程顺序解压
+     */
+    private byte[] decode(long start, long end) throws IOException {
+        try (InputStream in = openRange(start, end)) {
+            byte[] decoded = in.readNBytes(maxChunkBytes + 1);
+            return decoded.length > maxChunkBytes ? null : decoded;
+        }
+    }
+    
+    /**
+     * 解压文件中[start, end)区间内的帧
+     */
+    private InputStream openRange(long start, long end) throws IOException {
+        return decoder.open(new BufferedInputStream(new RangeInputStream(channel, start, end), BUFFER_SIZE));
+    }
+    
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("解压被中断");
+        } catch (ExecutionException e) {
+            throw new IOException("解压失败", e.getCause());
+        }
+    }
+    
+    /**
+     * 一个解压任务；decoded为null时由读取线程顺序解压
+     */
+    private static final class Chunk {
+        private final long start;
+        private final long end;
+        private final Future<byte[]> decoded;
+        
+        private Chunk(long start, long end, Future<byte[]> decoded) {
+            this.start = start;
+            this.end = end;
+            this.decoded = decoded;
+        }
+    }
+    
+    /**
+     * 按位置读取文件区间的输入流，不改变通道的当前位置，可与其他任务并发读取
+     */
+    private static final class RangeInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long end;
+        private long position;
+        
+        private RangeInputStream(FileChannel channel, long start, long end) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n < 0) {
+                throw new IOException("压缩文件意外结束");
+            }
+            position += n;
+            return n;
+        }
+    }
+}
\ No newline at end of file
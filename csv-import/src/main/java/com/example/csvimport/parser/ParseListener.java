@@ -0,0 +1,26 @@
+package com.example.csvimport.parser;
+
+/**
+ * 解析进度监听器
+ * 由解析线程调用，按字节区间并行解析时会被多个线程并发调用，实现必须是线程安全的
+ */
+public interface ParseListener {
+    
+    ParseListener NONE = new ParseListener() {
+    };
+    
+    /**
+     * 从文件读取了bytes个字节，压缩文件为解压后的字节数
+     */
+    default void onBytesRead(long bytes) {
+    }
+    
+    /**
+     * 解析出一个批次
+     *
+     * @param rows 批次行数
+     * @param nanos 解析和类型转换的耗时，不含把批次交给下游时的等待
+     */
+    default void onBatchParsed(int rows, long nanos) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.example.csvimport.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 读取FileChannel中 [start, end) 区间的输入流
+ * 使用按位置读取，多个实例可以共享同一个FileChannel并发读取
+ */
+public class RangeInputStream extends InputStream {
+    
+    private final FileChannel channel;
+    private final long end;
+    private long position;
+    
+    public RangeInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int n = read(one, 0, 1);
+        return n == -1 ? -1 : one[0] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        long remaining = end - position;
+        if (remaining <= 0) {
+            return -1;
+        }
+        int toRead = (int) Math.min(len, remaining);
+        int n = channel.read(ByteBuffer.wrap(b, off, toRead), position);
+        if (n <= 0) {
+            return -1;
+        }
+        position += n;
+        return n;
+    }
+    
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, end - position));
+        position += skipped;
+        return skipped;
+    }
+    
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, end - position));
+    }
+}
\ No newline at end of file
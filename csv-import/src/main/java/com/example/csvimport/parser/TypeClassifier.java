@@ -0,0 +1,279 @@
+package com.example.csvimport.parser;
+
+import com.example.csvimport.model.ColumnInfo;
+
+import java.text.ParsePosition;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * 单元格类型分类器
+ * 对单元格做一次字符扫描，得到它可以被存储为哪些类型，不使用正则、不抛出异常、无共享可变状态，可以被多个线程同时调用。
+ *
+ * 结果是类型位掩码而不是单一类型，因为同一个值可能同时属于多种类型，例如 "1" 既是BOOLEAN也是INTEGER，
+ * "2024-01-15" 既是DATE也可以写入TIMESTAMP列。识别的格式与 {@link TypedValueParser} 一致，
+ * 推断出的类型在写入时一定能被解析。
+ *
+ * 日期和时间戳先按字符形状筛选，形状匹配后才用不可变的DateTimeFormatter确认字段取值。
+ */
+public final class TypeClassifier {
+    
+    private static final DateTimeFormatter DASH_DATE = dateFormatter('-');
+    private static final DateTimeFormatter SLASH_DATE = dateFormatter('/');
+    private static final DateTimeFormatter DASH_TIMESTAMP = timestampFormatter('-');
+    private static final DateTimeFormatter SLASH_TIMESTAMP = timestampFormatter('/');
+    
+    private TypeClassifier() {
+    }
+    
+    /**
+     * 类型对应的位
+     */
+    public static int mask(ColumnInfo.JavaType type) {
+        return 1 << type.ordinal();
+    }
+    
+    /**
+     * 位掩码是否包含指定类型
+     */
+    public static boolean matches(int mask, ColumnInfo.JavaType type) {
+        return (mask & mask(type)) != 0;
+    }
+    
+    /**
+     * 对单元格分类
+     *
+     * @return 可以存储该值的类型位掩码；STRING总是可以存储任意值，不包含在结果中；空值返回0
+     */
+    public static int classify(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return 0;
+        }
+        
+        char first = value.charAt(start);
+        if (isDigit(first) || first == '-' || first == '+' || first == '.') {
+            int numberMask = classifyNumber(value, start, end);
+            if (numberMask != 0) {
+                return numberMask;
+            }
+            return classifyTemporal(value, start, end);
+        }
+        return classifyBoolean(value, start, end);
+    }
+    
+    /**
+     * true/false/yes/no，忽略大小写
+     */
+    private static int classifyBoolean(String value, int start, int end) {
+        int length = end - start;
+        if ((length == 4 && value.regionMatches(true, start, "true", 0, 4))
+                || (length == 5 && value.regionMatches(true, start, "false", 0, 5))
+                || (length == 3 && value.regionMatches(true, start, "yes", 0, 3))
+                || (length == 2 && value.regionMatches(true, start, "no", 0, 2))) {
+            return mask(ColumnInfo.JavaType.BOOLEAN);
+        }
+        return 0;
+    }
+    
+    /**
+     * 整数按取值范围归入INTEGER/LONG，所有数值都可以写入DOUBLE列；0和1同时也是BOOLEAN
+     */
+    private static int classifyNumber(String value, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        char sign = value.charAt(i);
+        if (sign == '-' || sign == '+') {
+            negative = sign == '-';
+            i++;
+        }
+        
+        // 整数部分，以负数累加，溢出时只记录标志继续扫描
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long result = 0;
+        boolean overflow = false;
+        int integerDigits = 0;
+        for (; i < end && isDigit(value.charAt(i)); i++) {
+            int digit = value.charAt(i) - '0';
+            if (!overflow && (result < limit / 10 || result * 10 < limit + digit)) {
+                overflow = true;
+            }
+            result = result * 10 - digit;
+            integerDigits++;
+        }
+        
+        if (i == end) {
+            if (integerDigits == 0) {
+                return 0;
+            }
+            int mask = mask(ColumnInfo.JavaType.DOUBLE);
+            if (!overflow) {
+                mask |= mask(ColumnInfo.JavaType.LONG);
+                long longValue = negative ? result : -result;
+                if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+                    mask |= mask(ColumnInfo.JavaType.INTEGER);
+                }
+                if (sign != '-' && sign != '+' && (longValue == 0 || longValue == 1) && integerDigits == 1) {
+                    mask |= mask(ColumnInfo.JavaType.BOOLEAN);
+                }
+            }
+            return mask;
+        }
+        
+        // 小数部分
+        int fractionDigits = 0;
+        if (value.charAt(i) == '.') {
+            for (i++; i < end && isDigit(value.charAt(i)); i++) {
+                fractionDigits++;
+            }
+        }
+        if (integerDigits + fractionDigits == 0) {
+            return 0;
+        }
+        
+        // 指数部分
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                i++;
+            }
+            int exponentStart = i;
+            while (i < end && isDigit(value.charAt(i))) {
+                i++;
+            }
+            if (i == exponentStart) {
+                return 0;
+            }
+        }
+        
+        return i == end ? mask(ColumnInfo.JavaType.DOUBLE) : 0;
+    }
+    
+    /**
+     * yyyy-M-d / yyyy/M/d 为DATE（也可以写入TIMESTAMP列），后接 HH:mm:ss[.f] 时为TIMESTAMP
+     */
+    private static int classifyTemporal(String value, int start, int end) {
+        // 形状筛选：4位年份 + 分隔符 + 1~2位月 + 同一分隔符 + 1~2位日
+        if (end - start < 8 || !isDigits(value, start, start + 4)) {
+            return 0;
+        }
+        char separator = value.charAt(start + 4);
+        if (separator != '-' && separator != '/') {
+            return 0;
+        }
+        int i = skipDigits(value, start + 5, end, 2);
+        if (i == start + 5 || i >= end || value.charAt(i) != separator) {
+            return 0;
+        }
+        int dayStart = i + 1;
+        i = skipDigits(value, dayStart, end, 2);
+        if (i == dayStart) {
+            return 0;
+        }
+        
+        if (i == end) {
+            DateTimeFormatter formatter = separator == '-' ? DASH_DATE : SLASH_DATE;
+            return confirm(formatter, value, start, end, false)
+                    ? mask(ColumnInfo.JavaType.DATE) | mask(ColumnInfo.JavaType.TIMESTAMP)
+                    : 0;
+        }
+        
+        // 形状筛选：空格 + HH:mm:ss
+        if (end - i < 9 || value.charAt(i) != ' ' || value.charAt(i + 3) != ':' || value.charAt(i + 6) != ':') {
+            return 0;
+        }
+        DateTimeFormatter formatter = separator == '-' ? DASH_TIMESTAMP : SLASH_TIMESTAMP;
+        return confirm(formatter, value, start, end, true) ? mask(ColumnInfo.JavaType.TIMESTAMP) : 0;
+    }
+    
+    /**
+     * 用DateTimeFormatter确认整个区间都能被解析，并校验各字段的取值范围
+     * parseUnresolved解析失败时返回null而不是抛出异常
+     */
+    private static boolean confirm(DateTimeFormatter formatter, String value, int start, int end, boolean withTime) {
+        ParsePosition position = new ParsePosition(start);
+        TemporalAccessor parsed = formatter.parseUnresolved(value, position);
+        if (parsed == null || position.getErrorIndex() >= 0 || position.getIndex() != end) {
+            return false;
+        }
+        
+        long month = parsed.getLong(ChronoField.MONTH_OF_YEAR);
+        long day = parsed.getLong(ChronoField.DAY_OF_MONTH);
+        if (month < 1 || month > 12 || day < 1
+                || !YearMonth.of((int) parsed.getLong(ChronoField.YEAR), (int) month).isValidDay((int) day)) {
+            return false;
+        }
+        if (!withTime) {
+            return true;
+        }
+        return ChronoField.HOUR_OF_DAY.range().isValidValue(parsed.getLong(ChronoField.HOUR_OF_DAY))
+                && ChronoField.MINUTE_OF_HOUR.range().isValidValue(parsed.getLong(ChronoField.MINUTE_OF_HOUR))
+                && ChronoField.SECOND_OF_MINUTE.range().isValidValue(parsed.getLong(ChronoField.SECOND_OF_MINUTE));
+    }
+    
+    private static DateTimeFormatter dateFormatter(char separator) {
+        return new DateTimeFormatterBuilder()
+                .appendValue(ChronoField.YEAR, 4)
+                .appendLiteral(separator)
+                .appendValue(ChronoField.MONTH_OF_YEAR, 1, 2, SignStyle.NOT_NEGATIVE)
+                .appendLiteral(separator)
+                .appendValue(ChronoField.DAY_OF_MONTH, 1, 2, SignStyle.NOT_NEGATIVE)
+                .toFormatter()
+                .withResolverStyle(ResolverStyle.STRICT);
+    }
+    
+    private static DateTimeFormatter timestampFormatter(char separator) {
+        return new DateTimeFormatterBuilder()
+                .append(dateFormatter(separator))
+                .appendLiteral(' ')
+                .appendValue(ChronoField.HOUR_OF_DAY, 2)
+                .appendLiteral(':')
+                .appendValue(ChronoField.MINUTE_OF_HOUR, 2)
+                .appendLiteral(':')
+                .appendValue(ChronoField.SECOND_OF_MINUTE, 2)
+                .optionalStart()
+                .appendFraction(ChronoField.NANO_OF_SECOND, 1, 9, true)
+                .optionalEnd()
+                .toFormatter()
+                .withResolverStyle(ResolverStyle.STRICT);
+    }
+    
+    private static boolean isDigits(String value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 从from开始跳过最多max个数字，返回第一个非数字的位置
+     */
+    private static int skipDigits(String value, int from, int end, int max) {
+        int i = from;
+        while (i < end && i - from < max && isDigit(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
\ No newline at end of file
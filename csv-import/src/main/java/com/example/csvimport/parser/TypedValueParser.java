@@ -0,0 +1,398 @@
+package com.example.csvimport.parser;
+
+/**
+ * 不抛异常、不分配对象的单元格值解析器
+ * 直接在原始字符串上按下标解析，跳过首尾空白时不调用trim()；解析失败返回false而不是抛出NumberFormatException。
+ * 解析结果保存在实例字段中，每个解析线程使用自己的实例，非线程安全。
+ *
+ * 支持的格式与JDK对应方法一致：
+ * 整数 [+-]digits，浮点数 [+-]digits[.digits][(e|E)[+-]digits]，
+ * 日期 yyyy-[m]m-[d]d（同 java.sql.Date.valueOf），时间戳 yyyy-[m]m-[d]d hh:mm:ss[.f...]（同 java.sql.Timestamp.valueOf）。
+ * 日期部分也接受以 / 分隔的 yyyy/[m]m/[d]d，MySQL同样接受这种写法。
+ */
+public final class TypedValueParser {
+    
+    // 10^0 ~ 10^22 都可以用double精确表示
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    
+    // 小于2^53的整数可以用double精确表示
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    
+    private long longValue;
+    private double doubleValue;
+    private int nanos;
+    
+    private int start;
+    private int end;
+    
+    /**
+     * 值是否为null或只包含空白字符
+     */
+    public static boolean isBlank(String value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 解析int，结果通过 {@link #intValue()} 获取
+     */
+    public boolean parseInt(String value) {
+        return parseLong(value) && longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE;
+    }
+    
+    /**
+     * 解析long，结果通过 {@link #longValue()} 获取
+     */
+    public boolean parseLong(String value) {
+        if (!trimBounds(value)) {
+            return false;
+        }
+        return parseLong(value, start, end);
+    }
+    
+    /**
+     * 解析double，结果通过 {@link #doubleValue()} 获取
+     * 有效数字不超过15位且指数绝对值不超过22时直接计算（结果与Double.parseDouble一致），其余合法格式交给JDK解析
+     */
+    public boolean parseDouble(String value) {
+        if (!trimBounds(value)) {
+            return false;
+        }
+        
+        int i = start;
+        boolean negative = false;
+        char sign = value.charAt(i);
+        if (sign == '-' || sign == '+') {
+            negative = sign == '-';
+            i++;
+        }
+        
+        long mantissa = 0;
+        int digits = 0;
+        int significantDigits = 0;
+        int fractionDigits = 0;
+        boolean inFraction = false;
+        
+        for (; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '.' && !inFraction) {
+                inFraction = true;
+                continue;
+            }
+            if (!isDigit(c)) {
+                break;
+            }
+            digits++;
+            if (inFraction) {
+                fractionDigits++;
+            }
+            if (mantissa > 0 || c != '0') {
+                significantDigits++;
+            }
+            // 有效数字超过18位时不再累加，避免溢出，此时不走快速路径
+            if (significantDigits <= 18) {
+                mantissa = mantissa * 10 + (c - '0');
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        
+        int exponent = 0;
+        if (i < end && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < end && (value.charAt(i) == '-' || value.charAt(i) == '+')) {
+                negativeExponent = value.charAt(i) == '-';
+                i++;
+            }
+            int exponentStart = i;
+            for (; i < end && isDigit(value.charAt(i)); i++) {
+                if (exponent < 10000) {
+                    exponent = exponent * 10 + (value.charAt(i) - '0');
+                }
+            }
+            if (i == exponentStart) {
+                return false;
+            }
+            if (negativeExponent) {
+                exponent = -exponent;
+            }
+        }
+        if (i != end) {
+            return false;
+        }
+        
+        int scale = exponent - fractionDigits;
+        if (significantDigits <= 15 && mantissa < MAX_EXACT_MANTISSA && Math.abs(scale) < POWERS_OF_TEN.length) {
+            double result = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+            doubleValue = negative ? -result : result;
+            return true;
+        }
+        
+        // 格式已校验合法，JDK解析不会抛出异常
+        doubleValue = Double.parseDouble(value.substring(start, end));
+        return true;
+    }
+    
+    /**
+     * 解析布尔值：true/yes/1 为真，false/no/0 为假，忽略大小写
+     *
+     * @return 1 表示真，0 表示假，-1 表示无法识别
+     */
+    public int parseBoolean(String value) {
+        if (!trimBounds(value)) {
+            return -1;
+        }
+        int length = end - start;
+        if (length == 1) {
+            char c = value.charAt(start);
+            return c == '1' ? 1 : c == '0' ? 0 : -1;
+        }
+        if (value.regionMatches(true, start, "true", 0, length) && length == 4
+                || value.regionMatches(true, start, "yes", 0, length) && length == 3) {
+            return 1;
+        }
+        if (value.regionMatches(true, start, "false", 0, length) && length == 5
+                || value.regionMatches(true, start, "no", 0, length) && length == 2) {
+            return 0;
+        }
+        return -1;
+    }
+    
+    /**
+     * 解析 yyyy-[m]m-[d]d 格式的日期，结果为距1970-01-01的天数，通过 {@link #longValue()} 获取
+     */
+    public boolean parseDate(String value) {
+        if (!trimBounds(value)) {
+            return false;
+        }
+        return parseDatePart(value, start, end) == end;
+    }
+    
+    /**
+     * 解析 yyyy-[m]m-[d]d hh:mm:ss[.f...] 格式的时间戳
+     * 结果为把本地时间视为UTC时距1970-01-01T00:00:00的秒数（{@link #longValue()}）和纳秒部分（{@link #nanos()}）
+     */
+    public boolean parseTimestamp(String value) {
+        if (!trimBounds(value)) {
+            return false;
+        }
+        int i = parseDatePart(value, start, end);
+        if (i < 0 || i >= end || value.charAt(i) != ' ') {
+            return false;
+        }
+        long epochDay = longValue;
+        
+        int hour = parseFixedDigits(value, i + 1, end, 2);
+        int minute = parseFixedDigits(value, i + 4, end, 2);
+        int second = parseFixedDigits(value, i + 7, end, 2);
+        if (hour < 0 || minute < 0 || second < 0
+                || value.charAt(i + 3) != ':' || value.charAt(i + 6) != ':'
+                || hour > 23 || minute > 59 || second > 59) {
+            return false;
+        }
+        i += 9;
+        
+        int fraction = 0;
+        if (i < end) {
+            if (value.charAt(i) != '.' || end - i - 1 < 1 || end - i - 1 > 9) {
+                return false;
+            }
+            int fractionDigits = 0;
+            for (i++; i < end; i++) {
+                char c = value.charAt(i);
+                if (!isDigit(c)) {
+                    return false;
+                }
+                fraction = fraction * 10 + (c - '0');
+                fractionDigits++;
+            }
+            for (; fractionDigits < 9; fractionDigits++) {
+                fraction *= 10;
+            }
+        }
+        
+        longValue = epochDay * 86400 + hour * 3600 + minute * 60 + second;
+        nanos = fraction;
+        return true;
+    }
+    
+    public int intValue() {
+        return (int) longValue;
+    }
+    
+    public long longValue() {
+        return longValue;
+    }
+    
+    public double doubleValue() {
+        return doubleValue;
+    }
+    
+    public int nanos() {
+        return nanos;
+    }
+    
+    /**
+     * 计算去掉首尾空白后的区间，规则与String.trim()一致
+     *
+     * @return 去掉空白后是否还有内容
+     */
+    private boolean trimBounds(String value) {
+        if (value == null) {
+            return false;
+        }
+        int from = 0;
+        int to = value.length();
+        while (from < to && value.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && value.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        start = from;
+        end = to;
+        return from < to;
+    }
+    
+    private boolean parseLong(String value, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        char first = value.charAt(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i++;
+        }
+        if (i == to) {
+            return false;
+        }
+        
+        // 以负数累加，避免Long.MIN_VALUE溢出
+        long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < to; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return false;
+            }
+            int digit = c - '0';
+            if (result < multiplyLimit) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+        longValue = negative ? result : -result;
+        return true;
+    }
+    
+    /**
+     * 解析 yyyy-[m]m-[d]d 或 yyyy/[m]m/[d]d，成功时longValue为纪元日并返回日期之后的下标，失败返回-1
+     */
+    private int parseDatePart(String value, int from, int to) {
+        int year = parseFixedDigits(value, from, to, 4);
+        int i = from + 4;
+        if (year < 0 || i >= to || (value.charAt(i) != '-' && value.charAt(i) != '/')) {
+            return -1;
+        }
+        char separator = value.charAt(i);
+        
+        int monthStart = ++i;
+        int month = 0;
+        for (; i < to && i - monthStart < 2 && isDigit(value.charAt(i)); i++) {
+            month = month * 10 + (value.charAt(i) - '0');
+        }
+        if (i == monthStart || i >= to || value.charAt(i) != separator) {
+            return -1;
+        }
+        
+        int dayStart = ++i;
+        int day = 0;
+        for (; i < to && i - dayStart < 2 && isDigit(value.charAt(i)); i++) {
+            day = day * 10 + (value.charAt(i) - '0');
+        }
+        if (i == dayStart || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return -1;
+        }
+        
+        longValue = toEpochDay(year, month, day);
+        return i;
+    }
+    
+    /**
+     * 解析固定位数的非负整数，失败返回-1
+     */
+    private static int parseFixedDigits(String value, int from, int to, int count) {
+        if (from + count > to) {
+            return -1;
+        }
+        int result = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+    
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+    
+    /**
+     * 公历日期转换为距1970-01-01的天数，算法与LocalDate.toEpochDay一致
+     */
+    static long toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - 719528;
+    }
+}
\ No newline at end of file
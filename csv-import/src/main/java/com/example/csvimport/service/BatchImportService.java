@@ -0,0 +1,227 @@
+package com.example.csvimport.service;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.ImportOptions;
+import com.example.csvimport.model.BatchImportReport;
+import com.example.csvimport.model.FileImportResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 多文件批量导入服务
+ * 在一个进程内并发导入目录或通配符匹配到的多个CSV文件，所有文件共用同一个连接池，
+ * 只需要一次Spring Boot启动和一次连接池初始化。
+ *
+ * 同时导入的文件数不超过fileParallelism，大文件先调度，减少最后只剩一个大文件在导入的时间。
+ * 加载引擎和连接池大小在开始前确定一次，每个文件使用各自的参数和配置副本。
+ * 单个文件失败不影响其他文件，结果汇总在报告中。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchImportService {
+    
+    // 目录模式下导入的文件扩展名
+    private static final String[] CSV_EXTENSIONS = {".csv", ".csv.gz", ".csv.zst", ".csv.zstd", ".zip"};
+    
+    private final CsvImportService csvImportService;
+    private final CsvService csvService;
+    private final DatabaseService databaseService;
+    
+    /**
+     * 判断输入是目录或通配符（而不是单个文件）
+     */
+    public static boolean isMultiFileInput(String input) {
+        return Files.isDirectory(Paths.get(input)) || containsGlob(input);
+    }
+    
+    /**
+     * 列出要导入的文件
+     * 目录：目录下（不递归）所有CSV文件和压缩CSV文件；通配符：最后一级路径按glob匹配，如 /data/orders_*.csv
+     *
+     * @return 按路径排序的文件列表
+     */
+    public List<Path> resolveFiles(String input) {
+        Path path = Paths.get(input);
+        List<Path> files = new ArrayList<>();
+        try {
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, BatchImportService::isCsvFile)) {
+                    stream.forEach(files::add);
+                }
+            } else {
+                Path directory = path.getParent() != null ? path.getParent() : Paths.get(".");
+                String glob = path.getFileName().toString();
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+                    for (Path file : stream) {
+                        if (Files.isRegularFile(file)) {
+                            files.add(file);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("列出CSV文件失败: {}", input, e);
+            throw new RuntimeException("列出CSV文件失败: " + input, e);
+        }
+        files.sort(Comparator.naturalOrder());
+        return files;
+    }
+    
+    /**
+     * 并发导入多个文件
+     *
+     * @param files 要导入的文件
+     * @param databaseConfig 数据库配置，所有文件共用同一个连接池，不会被修改
+     * @param options 每个文件的导入参数，不会被修改
+     * @return 汇总报告
+     */
+    public BatchImportReport importFiles(List<Path> files, DatabaseConfig databaseConfig, ImportOptions options) {
+        databaseConfig = databaseConfig.copy();
+        options = options.copy();
+        int fileParallelism = Math.max(1, Math.min(options.getFileParallelism(), files.size()));
+        log.info("开始批量导入，文件数: {}, 并发文件数: {}", files.size(), fileParallelism);
+        long startTime = System.currentTimeMillis();
+        
+        // 连接池在所有文件之间共享，按同时导入的文件数一次性分配足够的连接
+        int required = fileParallelism * (options.getWriterThreads() + 1);
+        if (databaseConfig.getMaximumPoolSize() < required) {
+            log.info("连接池最大连接数调整为 {} (并发文件数 {} × (写入线程数 {} + 1))",
+                    required, fileParallelism, options.getWriterThreads());
+            databaseConfig.setMaximumPoolSize(required);
+        }
+        // 各文件按同样的规则确定引擎，在这里确定一次，导入时不再改动
+        options.setLoadEngine(options.resolveLoadEngine());
+        if (options.getLoadEngine() == ImportOptions.LoadEngine.LOAD_DATA) {
+            databaseConfig.setAllowLoadLocalInfile(true);
+        }
+        if (options.getRejectFile() != null) {
+            // 各文件的列不同，不能写入同一个拒绝文件
+            log.warn("批量导入时忽略拒绝文件参数，每个文件的拒绝行写入各自目录下的 <表名>.rejects.csv");
+            options.setRejectFile(null);
+        }
+        databaseService.createConnection(databaseConfig);
+        
+        List<FileImportResult> results = new ArrayList<>();
+        List<FileImportResult> scheduled = new ArrayList<>();
+        Set<String> tableNames = new HashSet<>();
+        for (Path file : files) {
+            FileImportResult fileResult = new FileImportResult(file.toString(),
+                    csvService.extractTableName(file.toString()), sizeOf(file));
+            results.add(fileResult);
+            if (tableNames.add(fileResult.getTableName())) {
+                scheduled.add(fileResult);
+            } else {
+                fileResult.setError("表名冲突: 另一个文件也导入到表 " + fileResult.getTableName());
+                log.error("跳过文件 {}: {}", file, fileResult.getError());
+            }
+        }
+        
+        // 大文件先调度
+        scheduled.sort(Comparator.comparingLong(FileImportResult::getFileSize).reversed());
+        
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(fileParallelism,
+                runnable -> new Thread(runnable, "csv-file-" + threadCounter.incrementAndGet()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (FileImportResult fileResult : scheduled) {
+                // 导入过程会调整参数和配置（如确保连接池大小），每个文件各用一份副本
+                DatabaseConfig fileConfig = databaseConfig.copy();
+                ImportOptions fileOptions = options.copy();
+                futures.add(executor.submit(() -> importFile(fileResult, fileConfig, fileOptions)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("批量导入被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("批量导入失败", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        BatchImportReport report = new BatchImportReport(results, System.currentTimeMillis() - startTime, fileParallelism);
+        logReport(report);
+        return report;
+    }
+    
+    private void importFile(FileImportResult fileResult, DatabaseConfig databaseConfig, ImportOptions options) {
+        try {
+            fileResult.setResult(csvImportService.importCsv(fileResult.getFilePath(), databaseConfig, options));
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            fileResult.setError(cause.getMessage());
+            log.error("文件导入失败: {}", fileResult.getFilePath(), e);
+        }
+    }
+    
+    /**
+     * 输出每个文件的吞吐和汇总
+     */
+    private void logReport(BatchImportReport report) {
+        log.info("批量导入报告:");
+        log.info(String.format("%-40s %-24s %12s %10s %12s %10s  %s",
+                "文件", "表名", "行数", "耗时(s)", "行/秒", "MB/秒", "状态"));
+        for (FileImportResult file : report.getFiles()) {
+            String fileName = Paths.get(file.getFilePath()).getFileName().toString();
+            if (file.isSuccess()) {
+                log.info(String.format("%-40s %-24s %12d %10.1f %12.1f %10.2f  %s",
+                        fileName, file.getTableName(), file.getResult().getTotalRows(),
+                        file.getResult().getDurationMillis() / 1000.0, file.getResult().getRowsPerSecond(),
+                        file.getMegabytesPerSecond(), "成功"));
+            } else {
+                log.info(String.format("%-40s %-24s %12s %10s %12s %10s  失败: %s",
+                        fileName, file.getTableName(), "-", "-", "-", "-", file.getError()));
+            }
+        }
+        log.info("批量导入完成! 文件数: {} (成功 {}, 失败 {}), 总行数: {}, 耗时: {} 秒, 合计速度: {} 行/秒",
+                report.getFiles().size(), report.getSucceededCount(), report.getFailedCount(), report.getTotalRows(),
+                report.getDurationMillis() / 1000.0, String.format("%.1f", report.getRowsPerSecond()));
+    }
+    
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    private static boolean isCsvFile(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return false;
+        }
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        for (String extension : CSV_EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean containsGlob(String input) {
+        return input.indexOf('*') >= 0 || input.indexOf('?') >= 0 || input.indexOf('[') >= 0 || input.indexOf('{') >= 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.example.csvimport.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 写入会话
+ * 独占连接池中的一个连接，写入线程的所有批次都在这个连接上执行。
+ *
+ * 开启批量加载调优（tuned）时关闭 unique_checks 和 foreign_key_checks，减少二级唯一索引检查和外键查找。
+ * commitRows大于0时关闭自动提交，每累计 commitRows 行提交一次事务，避免每个批次一次刷盘。
+ * 关闭会话时恢复原有的会话变量和自动提交设置。
+ * 连接归还连接池后会被复用，HikariCP只会重置autocommit等JDBC状态，不会重置会话变量，所以必须显式恢复。
+ * 事务提交或回滚后通知 {@link TransactionListener}，用于只在数据提交后才落盘的附带输出（如拒绝文件）。
+ */
+@Slf4j
+public class BulkLoadSession implements AutoCloseable {
+    
+    private final Connection connection;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean tuned;
+    private final long commitRows;
+    private final List<TransactionListener> listeners = new ArrayList<>();
+    
+    private boolean originalAutoCommit = true;
+    private int originalUniqueChecks = 1;
+    private int originalForeignKeyChecks = 1;
+    private long uncommittedRows;
+    // 是否有尚未提交的批次，整批被拒绝的批次写入0行，但仍可能带有检查点日志和拒绝记录
+    private boolean uncommittedBatches;
+    private boolean completed;
+    
+    /**
+     * 事务监听器，参数为本会话的JdbcTemplate，即批次写入器收到的那一个
+     */
+    public interface TransactionListener {
+        /**
+         * 事务提交之后调用；自动提交模式下每个批次写入之后调用
+         */
+        void afterCommit(JdbcTemplate jdbcTemplate);
+        
+        /**
+         * 未提交的写入被回滚之后调用
+         */
+        void afterRollback(JdbcTemplate jdbcTemplate);
+    }
+    
+    private BulkLoadSession(Connection connection, boolean tuned, long commitRows) {
+        this.connection = connection;
+        this.jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        this.tuned = tuned;
+        this.commitRows = commitRows;
+    }
+    
+    /**
+     * 从数据源获取一个连接并开启会话
+     *
+     * @param tuned 是否启用批量加载调优
+     * @param commitRows 每个事务提交的行数，小于等于0时保持自动提交
+     */
+    public static BulkLoadSession open(DataSource dataSource, boolean tuned, long commitRows) throws SQLException {
+        Connection connection = dataSource.getConnection();
+        BulkLoadSession session = new BulkLoadSession(connection, tuned, commitRows);
+        try {
+            session.begin();
+            return session;
+        } catch (SQLException | RuntimeException e) {
+            connection.close();
+            throw e;
+        }
+    }
+    
+    private void begin() throws SQLException {
+        if (tuned) {
+            try (Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery("SELECT @@SESSION.unique_checks, @@SESSION.foreign_key_checks")) {
+                    if (rs.next()) {
+                        originalUniqueChecks = rs.getInt(1);
+                        originalForeignKeyChecks = rs.getInt(2);
+                    }
+                }
+                statement.execute("SET SESSION unique_checks = 0, foreign_key_checks = 0");
+            }
+        }
+        if (isTransactional()) {
+            originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+        }
+        log.debug("批量加载会话已开启，事务提交行数: {}", commitRows);
+    }
+    
+    /**
+     * 绑定在本会话连接上的JdbcTemplate
+     */
+    public JdbcTemplate getJdbcTemplate() {
+        return jdbcTemplate;
+    }
+    
+    /**
+     * 注册事务监听器，需在写入第一个批次之前调用
+     */
+    public void addTransactionListener(TransactionListener listener) {
+        listeners.add(listener);
+    }
+    
+    /**
+     * 每写入一个批次后调用，累计行数达到commitRows时提交事务
+     */
+    public void afterBatch(int rows) {
+        if (!isTransactional()) {
+            listeners.forEach(listener -> listener.afterCommit(jdbcTemplate));
+            return;
+        }
+        uncommittedRows += rows;
+        uncommittedBatches = true;
+        if (uncommittedRows >= commitRows) {
+            commit();
+        }
+    }
+    
+    /**
+     * 提交尚未提交的行
+     */
+    public void commit() {
+        if (!isTransactional() || !uncommittedBatches) {
+            return;
+        }
+        try {
+            connection.commit();
+            log.debug("事务提交完成，行数: {}", uncommittedRows);
+            uncommittedRows = 0;
+            uncommittedBatches = false;
+        } catch (SQLException e) {
+            throw new RuntimeException("提交事务失败", e);
+        }
+        listeners.forEach(listener -> listener.afterCommit(jdbcTemplate));
+    }
+    
+    /**
+     * 所有批次写入完成，提交剩余的行；未调用此方法就关闭会话时，未提交的行会被回滚
+     */
+    public void complete() {
+        commit();
+        completed = true;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            if (isTransactional() && !completed) {
+                rollbackQuietly();
+            }
+            restoreSession();
+        } finally {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                log.warn("关闭连接失败: {}", e.getMessage());
+            }
+        }
+    }
+    
+    private boolean isTransactional() {
+        return commitRows > 0;
+    }
+    
+    private void rollbackQuietly() {
+        try {
+            connection.rollback();
+            log.warn("写入会话未完成，已回滚 {} 行未提交数据", uncommittedRows);
+        } catch (SQLException e) {
+            log.warn("回滚事务失败: {}", e.getMessage());
+        }
+        // 回滚失败时连接随后被关闭，未提交的写入同样不会生效
+        listeners.forEach(listener -> listener.afterRollback(jdbcTemplate));
+    }
+    
+    private void restoreSession() {
+        try {
+            if (tuned) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute(String.format("SET SESSION unique_checks = %d, foreign_key_checks = %d",
+                            originalUniqueChecks, originalForeignKeyChecks));
+                }
+            }
+            if (isTransactional()) {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+        } catch (SQLException e) {
+            log.warn("恢复会话变量失败: {}", e.getMessage());
+        }
+    }
+}
\ No newline at end of file
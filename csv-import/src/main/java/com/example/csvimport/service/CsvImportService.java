@@ -1,12 +1,29 @@
 package com.example.csvimport.service;
 
 import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.DynamicJdbcTemplateConfig;
+import com.example.csvimport.config.ImportOptions;
+import com.example.csvimport.dialect.BulkLoader;
+import com.example.csvimport.dialect.SqlDialect;
+import com.example.csvimport.metrics.ImportMetrics;
+import com.example.csvimport.metrics.ImportProgress;
 import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.model.ImportCheckpoint;
+import com.example.csvimport.model.ImportResult;
+import com.example.csvimport.parser.CsvFileOpener;
+import com.example.csvimport.parser.CsvFileSplitter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * CSV导入主服务
@@ -16,78 +33,395 @@ import java.util.List;
 @RequiredArgsConstructor
 public class CsvImportService {
     
+    // 检查点模式下字节区间的目标长度，恢复时按同样的长度重新切分得到相同的区间
+    private static final long CHECKPOINT_RANGE_SIZE = 64L * 1024 * 1024;
+    
+    // swap模式下影子表名的后缀
+    private static final String STAGING_SUFFIX = "__staging";
+    
     private final DatabaseService databaseService;
     private final CsvService csvService;
+    private final ImportJournalService importJournalService;
+    private final ImportMetrics importMetrics;
     
     /**
      * 执行完整的CSV导入流程
-     * 
+     *
      * @param csvFilePath CSV文件路径
      * @param databaseConfig 数据库配置
-     * @param indexColumns 需要创建索引的列名
-     * @param batchSize 批量插入大小
-     * @param sampleSize 类型推断样本大小
+     * @param options 导入参数
+     * @return 导入结果
      */
-    public void importCsv(String csvFilePath, DatabaseConfig databaseConfig, 
-                         List<String> indexColumns, int batchSize, int sampleSize) {
+    public ImportResult importCsv(String csvFilePath, DatabaseConfig databaseConfig, ImportOptions options) {
         
         long startTime = System.currentTimeMillis();
         log.info("开始CSV导入流程: {}", csvFilePath);
+        ImportProgress progress = null;
+        RowQuarantine quarantine = null;
+        DynamicJdbcTemplateConfig.PoolLease poolLease = null;
         
         try {
-            // 1. 创建数据库连接
-            log.info("步骤1: 创建数据库连接");
-            databaseService.createConnection(databaseConfig);
+            boolean compressed = CsvFileOpener.isCompressed(Paths.get(csvFilePath));
+            if (options.isCheckpointEnabled() && compressed) {
+                throw new IllegalArgumentException("压缩文件只能顺序读取，不支持检查点和恢复导入: " + csvFilePath);
+            }
+            ImportOptions.WriteMode writeMode = options.getWriteMode();
+            List<String> keyColumns = options.getKeyColumns();
+            boolean hasKeys = keyColumns != null && !keyColumns.isEmpty();
+            if (writeMode == ImportOptions.WriteMode.UPSERT && !hasKeys) {
+                throw new IllegalArgumentException("upsert模式需要指定键列");
+            }
+            if (options.resolveLoadEngine() != options.getLoadEngine()) {
+                log.warn("{}不支持原生批量加载，改用批量插入", writeMode == ImportOptions.WriteMode.UPSERT ? "upsert模式" : "坏行隔离");
+                options.setLoadEngine(options.resolveLoadEngine());
+            }
+            SqlDialect dialect = SqlDialect.forUrl(databaseConfig.getUrl());
+            if (writeMode == ImportOptions.WriteMode.SWAP && !dialect.supportsTableSwap()) {
+                throw new IllegalArgumentException(dialect.getName() + "不支持swap模式");
+            }
+            if (options.isQuarantineEnabled() && !dialect.supportsSavepoints()) {
+                throw new IllegalArgumentException(dialect.getName() + "不支持保存点，无法启用坏行隔离");
+            }
             
-            // 2. 分析CSV文件结构和数据类型
-            log.info("步骤2: 分析CSV文件结构 (样本大小: {})", sampleSize);
-            List<ColumnInfo> columns = csvService.analyzeColumns(csvFilePath, sampleSize);
+            // 1. 创建数据库连接
+            log.info("步骤1: 创建数据库连接 ({})", dialect.getName());
+            ensurePoolSize(databaseConfig, options);
+            if (options.getLoadEngine() == ImportOptions.LoadEngine.LOAD_DATA) {
+                databaseConfig.setAllowLoadLocalInfile(true);
+            }
+            // 持有连接池租约直到导入结束，分析大文件期间不借出连接，连接池也不会被空闲淘汰
+            poolLease = databaseService.acquireConnection(databaseConfig);
+            AtomicReference<ImportOptions.LoadEngine> activeEngine = new AtomicReference<>(resolveLoadEngine(options));
             
-            // 3. 提取表名
+            // 2. 提取表名
             String tableName = csvService.extractTableName(csvFilePath);
-            log.info("目标表名: {}", tableName);
+            // swap模式下数据写入影子表，检查点日志也按影子表记录
+            String loadTableName = writeMode == ImportOptions.WriteMode.SWAP ? tableName + STAGING_SUFFIX : tableName;
+            log.info("目标表名: {} (写入模式: {}, 写入表: {})", tableName, writeMode, loadTableName);
+            // 压缩文件解压后的大小未知，不计算完成比例
+            progress = importMetrics.start(tableName, compressed ? 0 : Files.size(Paths.get(csvFilePath)));
             
-            // 4. 创建表
-            log.info("步骤3: 创建数据库表");
-            databaseService.createTable(tableName, columns);
+            List<ColumnInfo> columns;
+            ImportCheckpoint checkpoint = null;
+            if (options.isResume()) {
+                // 3. 恢复导入：沿用已有的表和检查点，不重建表
+                log.info("步骤2: 读取检查点日志并恢复导入");
+                checkpoint = loadCheckpoint(csvFilePath, loadTableName);
+                columns = databaseService.loadColumns(loadTableName);
+                if (columns.isEmpty()) {
+                    throw new IllegalStateException("目标表不存在，无法恢复导入: " + loadTableName);
+                }
+            } else {
+                // 3. 分析CSV文件结构和数据类型
+                log.info("步骤2: 分析CSV文件结构 (画像模式: {}, 样本大小: {})", options.getProfileMode(), options.getSampleSize());
+                columns = csvService.analyzeColumns(csvFilePath, options.getSampleSize(),
+                        options.getProfileMode(), options.getParseThreads());
+                
+                // 4. 创建表
+                log.info("步骤3: 准备数据库表");
+                columns = prepareTable(loadTableName, columns, writeMode, keyColumns);
+                if (options.isCheckpointEnabled()) {
+                    importJournalService.reset(databaseService.getJdbcTemplate(), loadTableName);
+                    checkpoint = new ImportCheckpoint(Files.size(Paths.get(csvFilePath)), options.getBatchSize());
+                }
+            }
             
             // 5. 流式导入数据
-            log.info("步骤4: 开始流式数据导入 (批次大小: {})", batchSize);
-            csvService.processDataStream(csvFilePath, columns, batchSize, 
-                    dataRows -> databaseService.batchInsert(tableName, columns, dataRows, batchSize));
+            List<String> upsertKeys = writeMode == ImportOptions.WriteMode.UPSERT ? keyColumns : null;
+            if (options.isQuarantineEnabled()) {
+                Path rejectFile = resolveRejectFile(csvFilePath, tableName, options);
+                quarantine = new RowQuarantine(rejectFile, options.getMaxErrors(), options.isResume(), progress);
+                log.info("启用坏行隔离，错误预算: {} 行，拒绝文件: {}", options.getMaxErrors(), rejectFile);
+            }
+            ImportPipeline.BatchWriter<ColumnarBatch> batchWriter =
+                    createBatchWriter(loadTableName, dialect, activeEngine, checkpoint, upsertKeys, quarantine);
+            // 检查点日志与数据在同一个事务中提交，坏行隔离依赖保存点回滚失败的批次，这两种模式下总是使用事务
+            long commitRows = checkpoint != null || quarantine != null ? Math.max(1, options.getCommitRows())
+                    : options.isBulkSession() ? options.getCommitRows() : 0;
+            int batchSize = checkpoint != null ? checkpoint.getBatchSize() : options.getBatchSize();
+            Consumer<Consumer<ColumnarBatch>> producer = createProducer(csvFilePath, columns, options, checkpoint, progress);
+            // upsert依赖唯一索引检测重复，不能关闭unique_checks
+            boolean tunedSession = options.isBulkSession() && writeMode != ImportOptions.WriteMode.UPSERT;
+            if (options.isBulkSession() && !tunedSession) {
+                log.warn("upsert模式下保持unique_checks和foreign_key_checks开启");
+            } else if (tunedSession && !dialect.supportsSessionTuning()) {
+                log.info("{}不支持写入会话调优，批量加载会话只分块提交事务", dialect.getName());
+            }
+            long loadStartTime = System.currentTimeMillis();
+            long totalRows;
+            // 被拒绝的行在所属会话提交后才写入拒绝文件
+            RowQuarantine sessionQuarantine = quarantine;
+            ImportPipeline<ColumnarBatch> pipeline = new ImportPipeline<>(
+                    () -> {
+                        BulkLoadSession session = databaseService.openSession(tunedSession, commitRows);
+                        if (sessionQuarantine != null) {
+                            session.addTransactionListener(sessionQuarantine);
+                        }
+                        return session;
+                    },
+                    options.getWriterThreads(),
+                    options.getQueueCapacity(),
+                    batchWriter,
+                    progress);
+            if (options.isPipelined()) {
+                log.info("步骤4: 开始流水线数据导入 (引擎: {}, 批次大小: {}, 解析线程数: {}, 写入线程数: {}, 批量加载会话: {}, 检查点: {})",
+                        activeEngine.get(), batchSize, options.getParseThreads(), options.getWriterThreads(),
+                        options.isBulkSession(), checkpoint != null);
+                totalRows = pipeline.run(producer);
+            } else {
+                log.info("步骤4: 开始流式数据导入 (引擎: {}, 批次大小: {}, 批量加载会话: {}, 检查点: {})",
+                        activeEngine.get(), batchSize, options.isBulkSession(), checkpoint != null);
+                totalRows = pipeline.runInline(producer);
+            }
+            long loadDuration = System.currentTimeMillis() - loadStartTime;
+            log.info("数据加载完成，引擎: {}, 行数: {}, 加载耗时: {} ms, 加载速度: {} 行/秒",
+                    activeEngine.get(), totalRows, loadDuration,
+                    String.format("%.1f", loadDuration > 0 ? totalRows * 1000.0 / loadDuration : totalRows));
             
-            // 6. 创建索引
+            // 6. 创建索引（数据加载完成后再建索引，避免加载期间逐行维护二级索引）
+            // swap模式在影子表上建索引，替换后正式表立即带有全部索引
+            List<String> indexColumns = options.getIndexColumns();
+            if (options.isResume() || writeMode == ImportOptions.WriteMode.APPEND
+                    || writeMode == ImportOptions.WriteMode.UPSERT) {
+                indexColumns = databaseService.findColumnsWithoutIndex(loadTableName, indexColumns);
+            }
             if (indexColumns != null && !indexColumns.isEmpty()) {
                 log.info("步骤5: 创建索引");
-                databaseService.createIndexes(tableName, indexColumns);
+                if (options.isBulkSession()) {
+                    databaseService.createIndexesInSinglePass(loadTableName, indexColumns);
+                } else {
+                    databaseService.createIndexes(loadTableName, indexColumns);
+                }
             } else {
                 log.info("跳过索引创建 - 未指定索引列");
             }
             
+            if (checkpoint != null) {
+                // 恢复导入时结果包含此前已经提交的行
+                totalRows += checkpoint.getCommittedRows();
+                importJournalService.clear(databaseService.getJdbcTemplate(), loadTableName);
+            }
+            
+            if (writeMode == ImportOptions.WriteMode.SWAP) {
+                log.info("步骤6: 用影子表替换正式表");
+                databaseService.swapTables(tableName, loadTableName);
+            }
+            
+            importMetrics.finish(progress, true);
             long endTime = System.currentTimeMillis();
-            long duration = endTime - startTime;
+            ImportResult result = new ImportResult(tableName, totalRows, endTime - startTime, activeEngine.get());
+            if (quarantine != null) {
+                result.setRejectedRows(quarantine.getRejectedRows());
+                if (quarantine.getRejectedRows() > 0) {
+                    log.warn("{} 行数据被拒绝，见拒绝文件: {}", quarantine.getRejectedRows(), quarantine.getRejectFile());
+                }
+            }
             
-            log.info("CSV导入完成! 表名: {}, 耗时: {} ms ({} 秒)", 
-                    tableName, duration, duration / 1000.0);
+            log.info("CSV导入完成! 表名: {}, 引擎: {}, 行数: {}, 耗时: {} ms ({} 秒), 速度: {} 行/秒",
+                    tableName, result.getLoadEngine(), totalRows, result.getDurationMillis(),
+                    result.getDurationMillis() / 1000.0, String.format("%.1f", result.getRowsPerSecond()));
+            return result;
             
         } catch (Exception e) {
+            if (progress != null) {
+                importMetrics.finish(progress, false);
+            }
             log.error("CSV导入失败", e);
             throw new RuntimeException("CSV导入失败", e);
+        } finally {
+            if (quarantine != null) {
+                try {
+                    quarantine.close();
+                } catch (IOException e) {
+                    log.warn("关闭拒绝文件失败: {}", e.getMessage());
+                }
+            }
+            if (poolLease != null) {
+                poolLease.close();
+            }
         }
     }
     
+    /**
+     * 执行完整的CSV导入流程
+     *
+     * @param csvFilePath CSV文件路径
+     * @param databaseConfig 数据库配置
+     * @param indexColumns 需要创建索引的列名
+     * @param batchSize 批量插入大小
+     * @param sampleSize 类型推断样本大小
+     */
+    public ImportResult importCsv(String csvFilePath, DatabaseConfig databaseConfig,
+                                  List<String> indexColumns, int batchSize, int sampleSize) {
+        return importCsv(csvFilePath, databaseConfig, new ImportOptions(indexColumns, batchSize, sampleSize));
+    }
+    
     /**
      * 使用默认参数导入CSV
      */
-    public void importCsv(String csvFilePath, DatabaseConfig databaseConfig) {
-        importCsv(csvFilePath, databaseConfig, null, 1000, 1000);
+    public ImportResult importCsv(String csvFilePath, DatabaseConfig databaseConfig) {
+        return importCsv(csvFilePath, databaseConfig, null, 1000, 1000);
     }
     
     /**
      * 使用默认参数导入CSV，并创建指定索引
      */
-    public void importCsv(String csvFilePath, DatabaseConfig databaseConfig, List<String> indexColumns) {
-        importCsv(csvFilePath, databaseConfig, indexColumns, 1000, 1000);
+    public ImportResult importCsv(String csvFilePath, DatabaseConfig databaseConfig, List<String> indexColumns) {
+        return importCsv(csvFilePath, databaseConfig, indexColumns, 1000, 1000);
+    }
+    
+    /**
+     * 按写入模式准备目标表
+     * replace / swap：删除并重建表（swap模式下是影子表）；append / upsert：表已存在时沿用表结构，不存在时创建
+     *
+     * @return 写入使用的列，沿用已有表时列类型取自表定义
+     */
+    private List<ColumnInfo> prepareTable(String tableName, List<ColumnInfo> columns,
+                                          ImportOptions.WriteMode writeMode, List<String> keyColumns) {
+        if (writeMode == ImportOptions.WriteMode.REPLACE || writeMode == ImportOptions.WriteMode.SWAP
+                || !databaseService.tableExists(tableName)) {
+            databaseService.createTable(tableName, columns, keyColumns);
+            return columns;
+        }
+        
+        log.info("沿用已有的表: {}", tableName);
+        List<ColumnInfo> aligned = databaseService.alignColumnsWithTable(tableName, columns);
+        if (writeMode == ImportOptions.WriteMode.UPSERT) {
+            databaseService.ensureUniqueKey(tableName, keyColumns);
+        }
+        return aligned;
+    }
+    
+    /**
+     * 拒绝文件路径：未指定时为CSV文件所在目录下的 <表名>.rejects.csv
+     */
+    private Path resolveRejectFile(String csvFilePath, String tableName, ImportOptions options) {
+        if (options.getRejectFile() != null && !options.getRejectFile().isEmpty()) {
+            return Paths.get(options.getRejectFile());
+        }
+        Path parent = Paths.get(csvFilePath).toAbsolutePath().getParent();
+        return parent.resolve(tableName + ".rejects.csv");
+    }
+    
+    /**
+     * 确定加载引擎：请求原生批量加载但不可用（如MySQL服务器未开启local_infile）时回退到批量插入
+     */
+    private ImportOptions.LoadEngine resolveLoadEngine(ImportOptions options) {
+        if (options.getLoadEngine() != ImportOptions.LoadEngine.LOAD_DATA) {
+            return options.getLoadEngine();
+        }
+        SqlDialect dialect = databaseService.getDialect();
+        if (!dialect.isBulkLoadAvailable(databaseService.getJdbcTemplate())) {
+            log.warn("{} 不可用，回退到批量插入", dialect.getBulkLoadName());
+            return ImportOptions.LoadEngine.BATCH_INSERT;
+        }
+        log.info("使用原生批量加载: {}", dialect.getBulkLoadName());
+        return options.getLoadEngine();
+    }
+    
+    /**
+     * 读取检查点日志，并确认CSV文件与上次导入时一致
+     */
+    private ImportCheckpoint loadCheckpoint(String csvFilePath, String tableName) throws IOException {
+        ImportCheckpoint checkpoint = importJournalService.load(databaseService.getJdbcTemplate(), tableName);
+        if (checkpoint == null) {
+            throw new IllegalStateException("没有找到可以恢复的检查点: " + tableName);
+        }
+        long fileSize = Files.size(Paths.get(csvFilePath));
+        if (fileSize != checkpoint.getFileSize()) {
+            throw new IllegalStateException(String.format("CSV文件大小 %d 与检查点记录的 %d 不一致，无法恢复导入",
+                    fileSize, checkpoint.getFileSize()));
+        }
+        return checkpoint;
+    }
+    
+    /**
+     * 创建批次写入器
+     * 原生批量加载（如LOAD DATA）执行时如果被服务器或驱动拒绝，当前批次以及之后的所有批次都改用批量插入；
+     * 启用坏行隔离时，被拒绝的行不写入表；启用检查点时，写入数据后在同一个会话中记录检查点日志
+     *
+     * @param upsertKeys 不为空时按这些键列更新已存在的行
+     * @param quarantine 不为空时隔离无法写入的行
+     */
+    private ImportPipeline.BatchWriter<ColumnarBatch> createBatchWriter(String tableName, SqlDialect dialect,
+            AtomicReference<ImportOptions.LoadEngine> activeEngine, ImportCheckpoint checkpoint, List<String> upsertKeys,
+            RowQuarantine quarantine) {
+        ImportPipeline.BatchWriter<ColumnarBatch> batchWriter =
+                createBatchWriter(tableName, dialect, activeEngine, upsertKeys);
+        if (quarantine != null) {
+            batchWriter = quarantine.wrap(batchWriter);
+        }
+        if (checkpoint == null) {
+            return batchWriter;
+        }
+        ImportPipeline.BatchWriter<ColumnarBatch> dataWriter = batchWriter;
+        return (jdbcTemplate, batch) -> {
+            int rows = dataWriter.write(jdbcTemplate, batch);
+            importJournalService.record(jdbcTemplate, tableName, checkpoint, batch, rows);
+            return rows;
+        };
+    }
+    
+    private ImportPipeline.BatchWriter<ColumnarBatch> createBatchWriter(String tableName, SqlDialect dialect,
+            AtomicReference<ImportOptions.LoadEngine> activeEngine, List<String> upsertKeys) {
+        BulkLoader bulkLoader = dialect.createBulkLoader();
+        return (jdbcTemplate, batch) -> {
+            if (activeEngine.get() == ImportOptions.LoadEngine.LOAD_DATA) {
+                try {
+                    return bulkLoader.loadBatch(jdbcTemplate, tableName, batch);
+                } catch (RuntimeException e) {
+                    if (!dialect.isBulkLoadRejected(e)) {
+                        throw e;
+                    }
+                    if (activeEngine.compareAndSet(ImportOptions.LoadEngine.LOAD_DATA, ImportOptions.LoadEngine.BATCH_INSERT)) {
+                        log.warn("{} 被拒绝，回退到批量插入: {}", dialect.getBulkLoadName(), e.getMessage());
+                    }
+                }
+            }
+            return databaseService.batchInsert(jdbcTemplate, tableName, batch, upsertKeys);
+        };
+    }
+    
+    /**
+     * 创建批次生产者：解析CSV为按列存储的批次并逐批交给流水线，解析线程数大于1时按字节区间并行解析
+     * 启用检查点时按固定长度的字节区间解析，跳过已完成的区间和已提交的批次
+     */
+    private Consumer<Consumer<ColumnarBatch>> createProducer(String csvFilePath, List<ColumnInfo> columns,
+            ImportOptions options, ImportCheckpoint checkpoint, ImportProgress progress) throws IOException {
+        if (checkpoint == null) {
+            return sink -> csvService.processColumnarStream(csvFilePath, columns, options.getBatchSize(),
+                    options.getParseThreads(), progress, batch -> {
+                        progress.onRejectedCells(batch.getRejectedCount());
+                        sink.accept(batch);
+                    });
+        }
+        
+        Path path = Paths.get(csvFilePath);
+        List<CsvFileSplitter.ByteRange> ranges = CsvFileSplitter.splitBySize(path, CHECKPOINT_RANGE_SIZE);
+        List<CsvFileSplitter.ByteRange> pending = checkpoint.pendingRanges(ranges);
+        if (!checkpoint.isEmpty()) {
+            log.info("从检查点恢复: 已提交 {} 行，从字节偏移 {} 继续，剩余区间 {}/{}",
+                    checkpoint.getCommittedRows(), checkpoint.getResumeOffset(ranges), pending.size(), ranges.size());
+        }
+        progress.setTotalBytes(pending.stream().mapToLong(range -> range.getEnd() - range.getStart()).sum());
+        return sink -> csvService.processColumnarRanges(csvFilePath, columns, checkpoint.getBatchSize(),
+                options.getParseThreads(), pending, progress, batch -> {
+                    if (!checkpoint.isCommitted(batch.getRangeStart(), batch.getFirstRecord())) {
+                        progress.onRejectedCells(batch.getRejectedCount());
+                        sink.accept(batch);
+                    }
+                });
+    }
+    
+    /**
+     * 保证连接池足够大：每个写入线程独占一个写入会话连接，另需一个连接执行建表和建索引
+     */
+    private void ensurePoolSize(DatabaseConfig databaseConfig, ImportOptions options) {
+        int required = options.getWriterThreads() + 1;
+        if (databaseConfig.getMaximumPoolSize() < required) {
+            log.warn("连接池最大连接数 {} 小于写入线程数+1，调整为 {}", databaseConfig.getMaximumPoolSize(), required);
+            databaseConfig.setMaximumPoolSize(required);
+        }
     }
     
     /**
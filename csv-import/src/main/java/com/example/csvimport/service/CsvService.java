@@ -1,6 +1,14 @@
 package com.example.csvimport.service;
 
+import com.example.csvimport.config.ImportOptions;
 import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnProfile;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.parser.CountingInputStream;
+import com.example.csvimport.parser.CsvFileOpener;
+import com.example.csvimport.parser.CsvFileSplitter;
+import com.example.csvimport.parser.ParseListener;
+import com.example.csvimport.parser.RangeInputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
@@ -8,15 +16,18 @@ import org.apache.commons.csv.CSVRecord;
 import org.springframework.stereotype.Service;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Consumer;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 /**
  * CSV处理服务
@@ -25,50 +36,69 @@ import java.util.regex.Pattern;
 @Service
 public class CsvService {
     
-    // 常用日期格式
-    private static final List<SimpleDateFormat> DATE_FORMATS = Arrays.asList(
-            new SimpleDateFormat("yyyy-MM-dd"),
-            new SimpleDateFormat("yyyy/MM/dd"),
-            new SimpleDateFormat("dd/MM/yyyy"),
-            new SimpleDateFormat("MM/dd/yyyy"),
-            new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"),
-            new SimpleDateFormat("yyyy/MM/dd HH:mm:ss"),
-            new SimpleDateFormat("dd/MM/yyyy HH:mm:ss"),
-            new SimpleDateFormat("MM/dd/yyyy HH:mm:ss")
-    );
-    
-    // 数字模式
-    private static final Pattern INTEGER_PATTERN = Pattern.compile("^-?\\d+$");
-    private static final Pattern LONG_PATTERN = Pattern.compile("^-?\\d{10,}$");
-    private static final Pattern DOUBLE_PATTERN = Pattern.compile("^-?\\d*\\.\\d+$");
-    private static final Pattern BOOLEAN_PATTERN = Pattern.compile("^(true|false|yes|no|1|0)$", Pattern.CASE_INSENSITIVE);
+    // 分层抽样时的区间数和单个区间的最小字节数
+    private static final int STRATIFIED_RANGES = 64;
+    private static final long STRATIFIED_MIN_RANGE_SIZE = 64 * 1024;
     
     /**
      * 解析CSV文件头部并推断列类型
      */
     public List<ColumnInfo> analyzeColumns(String csvFilePath, int sampleSize) {
+        return analyzeColumns(csvFilePath, sampleSize, ImportOptions.ProfileMode.SAMPLE, 1);
+    }
+    
+    /**
+     * 解析CSV文件头部，对数据做画像并推断列类型
+     * 压缩文件不能按字节区间读取：FULL模式顺序读取整个文件，STRATIFIED模式退化为读取文件开头的样本
+     *
+     * @param sampleSize SAMPLE/STRATIFIED模式下读取的记录数
+     * @param mode 画像模式
+     * @param parallelism STRATIFIED/FULL模式下的并行线程数，压缩文件为解压线程数
+     */
+    public List<ColumnInfo> analyzeColumns(String csvFilePath, int sampleSize,
+                                           ImportOptions.ProfileMode mode, int parallelism) {
         Path path = Paths.get(csvFilePath);
         if (!Files.exists(path)) {
             throw new RuntimeException("CSV文件不存在: " + csvFilePath);
         }
         
-        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
+        try (BufferedReader reader = CsvFileOpener.openReader(path, parallelism);
              CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
             
-            Map<String, String> headers = parser.getHeaderMap();
-            List<ColumnInfo> columns = new ArrayList<>();
+            Map<String, Integer> headers = parser.getHeaderMap();
+            log.info("CSV文件头部解析完成，列数: {}", headers.size());
+            log.info("列名: {}", headers.keySet());
+            
+            // 分析数据以推断类型
+            long startTime = System.currentTimeMillis();
+            boolean compressed = CsvFileOpener.isCompressed(path);
+            ColumnProfile[] profiles;
+            if (mode == ImportOptions.ProfileMode.SAMPLE || compressed) {
+                if (mode == ImportOptions.ProfileMode.STRATIFIED) {
+                    log.warn("压缩文件无法按字节区间抽样，改为读取文件开头的 {} 行样本", sampleSize);
+                }
+                profiles = newProfiles(headers.size());
+                long records = profileRecords(parser, profiles,
+                        mode == ImportOptions.ProfileMode.FULL ? Long.MAX_VALUE : sampleSize);
+                log.info("数据画像完成 (模式: {}), 分析了 {} 行样本数据", mode, records);
+            } else {
+                profiles = profileRanges(path, headers.size(), mode, sampleSize, parallelism);
+            }
+            log.info("数据画像耗时: {} ms", System.currentTimeMillis() - startTime);
             
             // 初始化列信息
+            List<ColumnInfo> columns = new ArrayList<>();
+            int i = 0;
             for (String header : headers.keySet()) {
-                columns.add(new ColumnInfo(header, ColumnInfo.JavaType.STRING));
+                ColumnProfile profile = profiles[i++];
+                ColumnInfo column = new ColumnInfo(header, profile.inferType());
+                column.updateVarcharLength(profile.getMaxLength());
+                column.setProfile(profile);
+                columns.add(column);
+                
+                log.info("列 '{}' 画像: {}", header, profile);
             }
             
-            log.info("CSV文件头部解析完成，列数: {}", columns.size());
-            log.info("列名: {}", headers.keySet());
-            
-            // 分析样本数据以推断类型
-            analyzeSampleData(parser, columns, sampleSize);
-            
             return columns;
             
         } catch (IOException e) {
@@ -78,185 +108,403 @@ public class CsvService {
     }
     
     /**
-     * 分析样本数据推断列类型
+     * 按字节区间并行画像
+     * FULL模式读取每个区间的全部记录；STRATIFIED模式把文件切分为较多的小区间，每个区间只读取前若干条记录，
+     * 使样本均匀分布在整个文件中
      */
-    private void analyzeSampleData(CSVParser parser, List<ColumnInfo> columns, int sampleSize) {
-        Map<Integer, Map<ColumnInfo.JavaType, Integer>> typeCounters = new HashMap<>();
-        Map<Integer, Integer> maxLengths = new HashMap<>();
+    private ColumnProfile[] profileRanges(Path path, int columnCount, ImportOptions.ProfileMode mode,
+                                          int sampleSize, int parallelism) throws IOException {
+        int threads = Math.max(1, parallelism);
+        List<CsvFileSplitter.ByteRange> ranges = mode == ImportOptions.ProfileMode.FULL
+                ? CsvFileSplitter.split(path, threads * 4)
+                : CsvFileSplitter.split(path, STRATIFIED_RANGES, STRATIFIED_MIN_RANGE_SIZE);
+        long recordsPerRange = mode == ImportOptions.ProfileMode.FULL
+                ? Long.MAX_VALUE
+                : Math.max(1, (sampleSize + ranges.size() - 1) / Math.max(1, ranges.size()));
         
-        // 初始化计数器
-        for (int i = 0; i < columns.size(); i++) {
-            typeCounters.put(i, new HashMap<>());
-            maxLengths.put(i, 0);
-        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
         
-        int recordCount = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ForkJoinTask<ColumnProfile[]>> tasks = new ArrayList<>();
+            for (CsvFileSplitter.ByteRange range : ranges) {
+                tasks.add(pool.submit(() -> profileRange(channel, range, columnCount, recordsPerRange)));
+            }
+            
+            ColumnProfile[] merged = newProfiles(columnCount);
+            for (ForkJoinTask<ColumnProfile[]> task : tasks) {
+                ColumnProfile[] profiles = task.get();
+                for (int i = 0; i < columnCount; i++) {
+                    merged[i].merge(profiles[i]);
+                }
+            }
+            
+            log.info("数据画像完成 (模式: {}), 线程数: {}, 区间数: {}, 分析了 {} 行数据",
+                    mode, threads, ranges.size(), columnCount > 0 ? merged[0].getCount() : 0);
+            return merged;
+            
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("数据画像被中断", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("数据画像失败", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private ColumnProfile[] profileRange(FileChannel channel, CsvFileSplitter.ByteRange range, int columnCount,
+                                         long maxRecords) throws IOException {
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                new RangeInputStream(channel, range.getStart(), range.getEnd()), StandardCharsets.UTF_8), 64 * 1024);
+             CSVParser parser = CSVFormat.DEFAULT.parse(reader)) {
+            
+            ColumnProfile[] profiles = newProfiles(columnCount);
+            profileRecords(parser, profiles, maxRecords);
+            return profiles;
+        }
+    }
+    
+    /**
+     * 读取最多maxRecords条记录更新列画像，缺失的列计为空值
+     *
+     * @return 读取的记录数
+     */
+    private long profileRecords(CSVParser parser, ColumnProfile[] profiles, long maxRecords) {
+        long recordCount = 0;
         for (CSVRecord record : parser) {
-            if (recordCount >= sampleSize) {
+            if (recordCount >= maxRecords) {
                 break;
             }
             
-            for (int i = 0; i < Math.min(record.size(), columns.size()); i++) {
-                String value = record.get(i);
-                if (value != null && !value.trim().isEmpty()) {
-                    ColumnInfo.JavaType detectedType = detectDataType(value.trim());
-                    typeCounters.get(i).merge(detectedType, 1, Integer::sum);
-                    maxLengths.put(i, Math.max(maxLengths.get(i), value.length()));
-                }
+            for (int i = 0; i < profiles.length; i++) {
+                profiles[i].add(i < record.size() ? record.get(i) : null);
             }
             recordCount++;
         }
+        return recordCount;
+    }
+    
+    private static ColumnProfile[] newProfiles(int columnCount) {
+        ColumnProfile[] profiles = new ColumnProfile[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            profiles[i] = new ColumnProfile();
+        }
+        return profiles;
+    }
+    
+    /**
+     * 流式处理CSV数据
+     */
+    public void processDataStream(String csvFilePath, List<ColumnInfo> columns, 
+                                  int batchSize, Consumer<List<List<String>>> batchProcessor) {
+        processBatches(csvFilePath, 1, batchSize, range -> new RowBatchBuilder(columns, batchSize),
+                ParseListener.NONE, batchProcessor);
+    }
+    
+    /**
+     * 按字节区间并行解析CSV数据
+     * 文件被切分为对齐到记录边界的字节区间，每个区间在独立的ForkJoin工作线程上解析；
+     * batchProcessor会被多个线程并发调用，必须是线程安全的，批次之间不保证文件顺序
+     *
+     * @param parallelism 解析线程数，小于等于1时退化为顺序解析
+     */
+    public void processDataStreamParallel(String csvFilePath, List<ColumnInfo> columns, int batchSize,
+                                          int parallelism, Consumer<List<List<String>>> batchProcessor) {
+        processBatches(csvFilePath, parallelism, batchSize, range -> new RowBatchBuilder(columns, batchSize),
+                ParseListener.NONE, batchProcessor);
+    }
+    
+    /**
+     * 解析CSV数据为按列存储的批次
+     * 单元格在解析线程中直接按列类型转换为基本类型数组，写入时不再逐个解析字符串
+     *
+     * @param parallelism 解析线程数，大于1时按字节区间并行解析，批次之间不保证文件顺序
+     */
+    public void processColumnarStream(String csvFilePath, List<ColumnInfo> columns, int batchSize,
+                                      int parallelism, Consumer<ColumnarBatch> batchProcessor) {
+        processColumnarStream(csvFilePath, columns, batchSize, parallelism, ParseListener.NONE, batchProcessor);
+    }
+    
+    /**
+     * 解析CSV数据为按列存储的批次，读取字节数和每个批次的解析耗时报告给listener
+     */
+    public void processColumnarStream(String csvFilePath, List<ColumnInfo> columns, int batchSize, int parallelism,
+                                      ParseListener listener, Consumer<ColumnarBatch> batchProcessor) {
+        processBatches(csvFilePath, parallelism, batchSize,
+                range -> new ColumnarBatchBuilder(columns, batchSize, range), listener, batchProcessor);
+    }
+    
+    /**
+     * 解析指定的字节区间为按列存储的批次，用于可恢复导入
+     * 每个批次都记录所在区间和区间内的起始记录序号；同一区间、同一批次大小下批次的划分是确定的，
+     * 重新解析时可以据此跳过已经提交的批次
+     *
+     * @param ranges 要解析的区间，必须对齐到记录边界且不含表头
+     * @param parallelism 解析线程数，批次之间不保证文件顺序
+     */
+    public void processColumnarRanges(String csvFilePath, List<ColumnInfo> columns, int batchSize, int parallelism,
+                                      List<CsvFileSplitter.ByteRange> ranges, Consumer<ColumnarBatch> batchProcessor) {
+        processColumnarRanges(csvFilePath, columns, batchSize, parallelism, ranges, ParseListener.NONE, batchProcessor);
+    }
+    
+    /**
+     * 解析指定的字节区间为按列存储的批次，读取字节数和每个批次的解析耗时报告给listener
+     */
+    public void processColumnarRanges(String csvFilePath, List<ColumnInfo> columns, int batchSize, int parallelism,
+                                      List<CsvFileSplitter.ByteRange> ranges, ParseListener listener,
+                                      Consumer<ColumnarBatch> batchProcessor) {
+        Path path = Paths.get(csvFilePath);
+        log.info("开始按区间解析CSV数据，解析线程数: {}, 区间数: {}, 批次大小: {}", parallelism, ranges.size(), batchSize);
+        long totalRecords = processRanges(path, ranges, Math.max(1, parallelism), batchSize,
+                range -> new ColumnarBatchBuilder(columns, batchSize, range), listener, batchProcessor);
+        log.info("CSV数据区间解析完成，总共处理 {} 行数据", totalRecords);
+    }
+    
+    /**
+     * 解析CSV并逐批交给batchProcessor
+     *
+     * @param builderFactory 为每个字节区间创建一个批次构建器，顺序解析时区间为null
+     */
+    private <B> void processBatches(String csvFilePath, int parallelism, int batchSize,
+                                    Function<CsvFileSplitter.ByteRange, BatchBuilder<B>> builderFactory,
+                                    ParseListener listener, Consumer<B> batchProcessor) {
+        Path path = Paths.get(csvFilePath);
         
-        // 根据统计结果确定最终类型
-        for (int i = 0; i < columns.size(); i++) {
-            ColumnInfo column = columns.get(i);
-            Map<ColumnInfo.JavaType, Integer> typeCounts = typeCounters.get(i);
-            
-            if (!typeCounts.isEmpty()) {
-                // 选择出现频率最高的类型
-                ColumnInfo.JavaType mostFrequentType = typeCounts.entrySet().stream()
-                        .max(Map.Entry.comparingByValue())
-                        .map(Map.Entry::getKey)
-                        .orElse(ColumnInfo.JavaType.STRING);
+        if (parallelism <= 1 || isCompressed(path)) {
+            // 压缩文件只能顺序解析，解析线程数用作解压线程数
+            try (BufferedReader reader = CsvFileOpener.openReader(path, parallelism, listener);
+                 CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
                 
-                // 如果大部分值都是同一类型，则使用该类型
-                int totalSamples = typeCounts.values().stream().mapToInt(Integer::intValue).sum();
-                int mostFrequentCount = typeCounts.get(mostFrequentType);
+                log.info("开始流式处理CSV数据，批次大小: {}", batchSize);
+                long totalRecords = readBatches(parser, builderFactory.apply(null), batchSize, listener,
+                        batchProcessor, true);
+                log.info("CSV数据流式处理完成，总共处理 {} 行数据", totalRecords);
                 
-                if (mostFrequentCount >= totalSamples * 0.8) { // 80%以上的值是同一类型
-                    column.setJavaType(mostFrequentType);
-                } else {
-                    column.setJavaType(ColumnInfo.JavaType.STRING); // 类型不一致，使用字符串
-                }
+            } catch (IOException e) {
+                log.error("流式处理CSV数据失败: {}", csvFilePath, e);
+                throw new RuntimeException("流式处理CSV数据失败", e);
+            }
+            return;
+        }
+        
+        List<CsvFileSplitter.ByteRange> ranges;
+        try {
+            // 区间数多于线程数，使各线程负载更均衡
+            ranges = CsvFileSplitter.split(path, parallelism * 4);
+        } catch (IOException e) {
+            log.error("并行解析CSV数据失败: {}", csvFilePath, e);
+            throw new RuntimeException("并行解析CSV数据失败", e);
+        }
+        log.info("开始并行解析CSV数据，解析线程数: {}, 区间数: {}, 批次大小: {}", 
+                parallelism, ranges.size(), batchSize);
+        long totalRecords = processRanges(path, ranges, parallelism, batchSize, builderFactory, listener, batchProcessor);
+        log.info("CSV数据并行解析完成，总共处理 {} 行数据", totalRecords);
+    }
+    
+    private static boolean isCompressed(Path path) {
+        try {
+            return CsvFileOpener.isCompressed(path);
+        } catch (IOException e) {
+            throw new RuntimeException("读取CSV文件失败", e);
+        }
+    }
+    
+    /**
+     * 在ForkJoin线程池中并行解析各字节区间
+     *
+     * @return 记录总数
+     */
+    private <B> long processRanges(Path path, List<CsvFileSplitter.ByteRange> ranges, int parallelism, int batchSize,
+                                   Function<CsvFileSplitter.ByteRange, BatchBuilder<B>> builderFactory,
+                                   ParseListener listener, Consumer<B> batchProcessor) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+            for (CsvFileSplitter.ByteRange range : ranges) {
+                tasks.add(pool.submit(() -> processRange(channel, range, builderFactory.apply(range), batchSize,
+                        listener, batchProcessor)));
             }
             
-            // 更新VARCHAR长度
-            column.updateVarcharLength(maxLengths.get(i));
+            long totalRecords = 0;
+            for (ForkJoinTask<Long> task : tasks) {
+                totalRecords += task.get();
+            }
+            return totalRecords;
             
-            log.debug("列 '{}' 类型推断结果: {} (样本数: {})", 
-                    column.getName(), column.getJavaType(), typeCounts.values().stream().mapToInt(Integer::intValue).sum());
+        } catch (IOException e) {
+            log.error("并行解析CSV数据失败: {}", path, e);
+            throw new RuntimeException("并行解析CSV数据失败", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("并行解析CSV数据被中断", e);
+        } catch (ExecutionException e) {
+            log.error("并行解析CSV数据失败: {}", path, e.getCause());
+            throw new RuntimeException("并行解析CSV数据失败", e.getCause());
+        } finally {
+            pool.shutdownNow();
         }
-        
-        log.info("数据类型推断完成，分析了 {} 行样本数据", recordCount);
     }
     
     /**
-     * 检测数据类型
+     * 解析单个字节区间，区间内不含表头
+     *
+     * @return 区间内的记录数
      */
-    private ColumnInfo.JavaType detectDataType(String value) {
-        if (value == null || value.trim().isEmpty()) {
-            return ColumnInfo.JavaType.STRING;
+    private <B> long processRange(FileChannel channel, CsvFileSplitter.ByteRange range, BatchBuilder<B> builder,
+                                  int batchSize, ParseListener listener, Consumer<B> batchProcessor) throws IOException {
+        InputStream in = new RangeInputStream(channel, range.getStart(), range.getEnd());
+        if (listener != ParseListener.NONE) {
+            in = new CountingInputStream(in, listener);
         }
-        
-        value = value.trim();
-        
-        // 检测布尔值
-        if (BOOLEAN_PATTERN.matcher(value).matches()) {
-            return ColumnInfo.JavaType.BOOLEAN;
+        try (Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+             CSVParser parser = CSVFormat.DEFAULT.parse(reader)) {
+            
+            long records = readBatches(parser, builder, batchSize, listener, batchProcessor, false);
+            log.debug("区间 {} 解析完成，记录数: {}", range, records);
+            return records;
         }
+    }
+    
+    /**
+     * 逐条读取记录并按批次交给batchProcessor
+     *
+     * @param listener 接收每个批次的解析耗时，耗时不含batchProcessor的执行时间（如等待写入队列）
+     * @param logProgress 是否按批次输出读取进度
+     * @return 记录数
+     */
+    private <B> long readBatches(CSVParser parser, BatchBuilder<B> builder, int batchSize, ParseListener listener,
+                                 Consumer<B> batchProcessor, boolean logProgress) {
+        long records = 0;
+        long batchStart = System.nanoTime();
         
-        // 检测整数
-        if (INTEGER_PATTERN.matcher(value).matches()) {
-            try {
-                long longValue = Long.parseLong(value);
-                if (longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
-                    return ColumnInfo.JavaType.INTEGER;
-                } else {
-                    return ColumnInfo.JavaType.LONG;
+        for (CSVRecord record : parser) {
+            // 批次满后读到下一条记录时才处理，这样最后一个批次总能被标记出来
+            if (builder.size() >= batchSize) {
+                listener.onBatchParsed(builder.size(), System.nanoTime() - batchStart);
+                batchProcessor.accept(builder.build(false));
+                batchStart = System.nanoTime();
+                
+                if (logProgress && records % (batchSize * 10L) == 0) {
+                    log.info("已读取 {} 行数据", records);
                 }
-            } catch (NumberFormatException e) {
-                // 继续检测其他类型
             }
+            
+            builder.add(record);
+            records++;
         }
         
-        // 检测长整数
-        if (LONG_PATTERN.matcher(value).matches()) {
-            try {
-                Long.parseLong(value);
-                return ColumnInfo.JavaType.LONG;
-            } catch (NumberFormatException e) {
-                // 继续检测其他类型
-            }
+        // 处理剩余的数据
+        if (builder.size() > 0) {
+            listener.onBatchParsed(builder.size(), System.nanoTime() - batchStart);
+            batchProcessor.accept(builder.build(true));
         }
+        return records;
+    }
+    
+    /**
+     * 批次构建器，每个解析线程独占一个
+     */
+    private interface BatchBuilder<B> {
+        void add(CSVRecord record);
         
-        // 检测浮点数
-        if (DOUBLE_PATTERN.matcher(value).matches()) {
-            try {
-                Double.parseDouble(value);
-                return ColumnInfo.JavaType.DOUBLE;
-            } catch (NumberFormatException e) {
-                // 继续检测其他类型
-            }
+        int size();
+        
+        /**
+         * 返回当前批次并开始一个新批次
+         *
+         * @param last 是否为解析范围内的最后一个批次
+         */
+        B build(boolean last);
+    }
+    
+    /**
+     * 按行构建批次，每行一个与列数一致的字符串列表
+     */
+    private static final class RowBatchBuilder implements BatchBuilder<List<List<String>>> {
+        private final List<ColumnInfo> columns;
+        private final int batchSize;
+        private List<List<String>> batch;
+        
+        RowBatchBuilder(List<ColumnInfo> columns, int batchSize) {
+            this.columns = columns;
+            this.batchSize = batchSize;
+            this.batch = new ArrayList<>(batchSize);
         }
         
-        // 检测日期
-        for (SimpleDateFormat format : DATE_FORMATS) {
-            try {
-                format.parse(value);
-                if (value.contains(":")) {
-                    return ColumnInfo.JavaType.TIMESTAMP;
+        @Override
+        public void add(CSVRecord record) {
+            List<String> row = new ArrayList<>(columns.size());
+            
+            // 确保行数据与列数匹配
+            for (int i = 0; i < columns.size(); i++) {
+                if (i < record.size()) {
+                    row.add(record.get(i));
                 } else {
-                    return ColumnInfo.JavaType.DATE;
+                    row.add(""); // 缺失的列用空字符串填充
                 }
-            } catch (ParseException e) {
-                // 继续尝试下一个格式
             }
+            batch.add(row);
+        }
+        
+        @Override
+        public int size() {
+            return batch.size();
         }
         
-        return ColumnInfo.JavaType.STRING;
+        @Override
+        public List<List<String>> build(boolean last) {
+            List<List<String>> result = batch;
+            batch = new ArrayList<>(batchSize);
+            return result;
+        }
     }
     
     /**
-     * 流式处理CSV数据
+     * 按列构建批次，单元格直接解析到列数组中
      */
-    public void processDataStream(String csvFilePath, List<ColumnInfo> columns, 
-                                  int batchSize, Consumer<List<List<String>>> batchProcessor) {
-        Path path = Paths.get(csvFilePath);
+    private static final class ColumnarBatchBuilder implements BatchBuilder<ColumnarBatch> {
+        private final List<ColumnInfo> columns;
+        private final int batchSize;
+        private final CsvFileSplitter.ByteRange range;
+        private ColumnarBatch batch;
+        // 已经交出的批次包含的记录数，即当前批次第一条记录在区间内的序号
+        private long builtRecords;
         
-        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8);
-             CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
-            
-            List<List<String>> batch = new ArrayList<>();
-            long totalRecords = 0;
-            
-            log.info("开始流式处理CSV数据，批次大小: {}", batchSize);
-            
-            for (CSVRecord record : parser) {
-                List<String> row = new ArrayList<>();
-                
-                // 确保行数据与列数匹配
-                for (int i = 0; i < columns.size(); i++) {
-                    if (i < record.size()) {
-                        row.add(record.get(i));
-                    } else {
-                        row.add(""); // 缺失的列用空字符串填充
-                    }
-                }
-                
-                batch.add(row);
-                totalRecords++;
-                
-                // 当批次达到指定大小时处理
-                if (batch.size() >= batchSize) {
-                    batchProcessor.accept(new ArrayList<>(batch));
-                    batch.clear();
-                    
-                    if (totalRecords % (batchSize * 10) == 0) {
-                        log.info("已读取 {} 行数据", totalRecords);
-                    }
-                }
+        ColumnarBatchBuilder(List<ColumnInfo> columns, int batchSize, CsvFileSplitter.ByteRange range) {
+            this.columns = columns;
+            this.batchSize = batchSize;
+            this.range = range;
+            this.batch = new ColumnarBatch(columns, batchSize);
+        }
+        
+        @Override
+        public void add(CSVRecord record) {
+            int present = Math.min(record.size(), columns.size());
+            for (int i = 0; i < present; i++) {
+                batch.setValue(i, record.get(i));
             }
-            
-            // 处理剩余的数据
-            if (!batch.isEmpty()) {
-                batchProcessor.accept(batch);
+            // 缺失的列为NULL
+            for (int i = present; i < columns.size(); i++) {
+                batch.setValue(i, null);
             }
-            
-            log.info("CSV数据流式处理完成，总共处理 {} 行数据", totalRecords);
-            
-        } catch (IOException e) {
-            log.error("流式处理CSV数据失败: {}", csvFilePath, e);
-            throw new RuntimeException("流式处理CSV数据失败", e);
+            batch.endRow();
+        }
+        
+        @Override
+        public int size() {
+            return batch.size();
+        }
+        
+        @Override
+        public ColumnarBatch build(boolean last) {
+            ColumnarBatch result = batch;
+            if (range != null) {
+                result.setSource(range.getStart(), builtRecords, last);
+            }
+            builtRecords += result.size();
+            batch = new ColumnarBatch(columns, batchSize);
+            return result;
         }
     }
     
@@ -265,7 +513,7 @@ public class CsvService {
      */
     public String extractTableName(String csvFilePath) {
         Path path = Paths.get(csvFilePath);
-        String fileName = path.getFileName().toString();
+        String fileName = CsvFileOpener.stripCompressionExtension(path.getFileName().toString());
         
         // 移除文件扩展名
         int lastDotIndex = fileName.lastIndexOf('.');
@@ -1,25 +1,44 @@
 package com.example.csvimport.service;
 
 import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.DynamicJdbcTemplateConfig;
+import com.example.csvimport.dialect.MySqlDialect;
+import com.example.csvimport.dialect.SqlDialect;
 import com.example.csvimport.model.ColumnInfo;
-import com.zaxxer.hikari.HikariConfig;
-import com.zaxxer.hikari.HikariDataSource;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.parser.TypedValueParser;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * 数据库操作服务
+ * DDL、元数据查询和写入语句按当前连接的方言生成（见 {@link SqlDialect}）
  */
 @Slf4j
 @Service
 public class DatabaseService {
     
-    private JdbcTemplate jdbcTemplate;
+    private volatile JdbcTemplate jdbcTemplate;
+    private volatile DatabaseConfig databaseConfig;
+    private volatile SqlDialect dialect = MySqlDialect.INSTANCE;
     private final DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory jdbcTemplateFactory;
     
     public DatabaseService(DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory jdbcTemplateFactory) {
@@ -33,43 +52,67 @@ public class DatabaseService {
         try {
             // 使用动态工厂创建JdbcTemplate
             this.jdbcTemplate = jdbcTemplateFactory.createJdbcTemplate(config);
-            log.info("数据库连接创建成功: {}", config.getUrl());
+            this.databaseConfig = config;
+            this.dialect = SqlDialect.forUrl(config.getUrl());
+            log.info("数据库连接创建成功: {} ({})", config.getUrl(), dialect.getName());
         } catch (Exception e) {
             log.error("创建数据库连接失败", e);
             throw new RuntimeException("创建数据库连接失败", e);
         }
     }
     
+    /**
+     * 获取连接池租约，租约关闭前连接池不会被空闲淘汰关闭
+     * 当前连接已经是同一个连接池时（如批量导入的各个文件）不再重新设置
+     *
+     * @return 租约，导入结束后关闭
+     */
+    public DynamicJdbcTemplateConfig.PoolLease acquireConnection(DatabaseConfig config) {
+        DynamicJdbcTemplateConfig.PoolLease lease;
+        try {
+            lease = jdbcTemplateFactory.acquire(config);
+        } catch (Exception e) {
+            log.error("创建数据库连接失败", e);
+            throw new RuntimeException("创建数据库连接失败", e);
+        }
+        if (lease.getJdbcTemplate() != jdbcTemplate) {
+            this.dialect = SqlDialect.forUrl(config.getUrl());
+            this.databaseConfig = config;
+            this.jdbcTemplate = lease.getJdbcTemplate();
+            log.info("数据库连接创建成功: {} ({})", config.getUrl(), dialect.getName());
+        }
+        return lease;
+    }
+    
     /**
      * 关闭当前数据库连接
      */
     public void closeConnection(DatabaseConfig config) {
         jdbcTemplateFactory.closeDataSource(config);
         this.jdbcTemplate = null;
+        this.databaseConfig = null;
     }
     
     /**
      * 创建表
      */
     public void createTable(String tableName, List<ColumnInfo> columns) {
+        createTable(tableName, columns, null);
+    }
+    
+    /**
+     * 删除并重新创建表
+     *
+     * @param keyColumns 键列，不为空时在这些列上建唯一索引
+     */
+    public void createTable(String tableName, List<ColumnInfo> columns, List<String> keyColumns) {
         try {
             // 先删除表（如果存在）
-            String dropSql = String.format("DROP TABLE IF EXISTS `%s`", tableName);
+            String dropSql = "DROP TABLE IF EXISTS " + dialect.quote(tableName);
             jdbcTemplate.execute(dropSql);
             log.info("删除已存在的表: {}", tableName);
             
-            // 构建创建表的SQL
-            StringBuilder createSql = new StringBuilder();
-            createSql.append(String.format("CREATE TABLE `%s` (", tableName));
-            
-            String columnDefinitions = columns.stream()
-                    .map(col -> String.format("`%s` %s", col.getName(), col.getSqlType()))
-                    .collect(Collectors.joining(", "));
-            
-            createSql.append(columnDefinitions);
-            createSql.append(") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
-            
-            jdbcTemplate.execute(createSql.toString());
+            jdbcTemplate.execute(dialect.createTableSql(tableName, columns, keyColumns, false));
             log.info("表创建成功: {} (列数: {})", tableName, columns.size());
             
         } catch (Exception e) {
@@ -78,25 +121,183 @@ public class DatabaseService {
         }
     }
     
+    /**
+     * 表不存在时创建表，已存在时保持不变
+     *
+     * @param keyColumns 键列，不为空时在这些列上建唯一索引
+     */
+    public void createTableIfNotExists(String tableName, List<ColumnInfo> columns, List<String> keyColumns) {
+        try {
+            jdbcTemplate.execute(dialect.createTableSql(tableName, columns, keyColumns, true));
+            log.info("确认表存在: {}", tableName);
+        } catch (Exception e) {
+            log.error("创建表失败: {}", tableName, e);
+            throw new RuntimeException("创建表失败: " + tableName, e);
+        }
+    }
+    
+    /**
+     * 表是否存在于当前库中
+     */
+    public boolean tableExists(String tableName) {
+        Integer count = jdbcTemplate.queryForObject(dialect.tableExistsSql(), Integer.class, tableName);
+        return count != null && count > 0;
+    }
+    
+    /**
+     * 按已存在的表调整列类型：追加或更新已有表时，值必须按表中的列类型写入，而不是按CSV推断的类型
+     * 返回的列保持CSV中的顺序
+     *
+     * @throws IllegalStateException CSV中有表中不存在的列时
+     */
+    public List<ColumnInfo> alignColumnsWithTable(String tableName, List<ColumnInfo> columns) {
+        Map<String, ColumnInfo> existing = new HashMap<>();
+        for (ColumnInfo column : loadColumns(tableName)) {
+            existing.put(column.getName().toLowerCase(), column);
+        }
+        
+        List<ColumnInfo> aligned = new ArrayList<>();
+        for (ColumnInfo column : columns) {
+            ColumnInfo tableColumn = existing.get(column.getName().toLowerCase());
+            if (tableColumn == null) {
+                throw new IllegalStateException(String.format("表 %s 中没有CSV列 %s", tableName, column.getName()));
+            }
+            if (tableColumn.getJavaType() != column.getJavaType()) {
+                log.info("列 '{}' 按表中的类型 {} 写入 (推断类型: {})",
+                        column.getName(), tableColumn.getSqlType(), column.getJavaType());
+            }
+            tableColumn.setName(column.getName());
+            tableColumn.setProfile(column.getProfile());
+            aligned.add(tableColumn);
+        }
+        return aligned;
+    }
+    
+    /**
+     * 确保表在键列上有唯一索引，upsert（ON DUPLICATE KEY UPDATE / ON CONFLICT / MERGE）依赖唯一索引判断重复
+     */
+    public void ensureUniqueKey(String tableName, List<String> keyColumns) {
+        Set<String> wanted = keyColumns.stream().map(String::toLowerCase).collect(Collectors.toSet());
+        for (List<String> index : dialect.loadIndexes(jdbcTemplate, tableName, true).values()) {
+            Set<String> indexColumns = new HashSet<>();
+            for (String column : index) {
+                indexColumns.add(column.toLowerCase());
+            }
+            if (indexColumns.equals(wanted)) {
+                return;
+            }
+        }
+        
+        try {
+            jdbcTemplate.execute(dialect.addUniqueKeySql(tableName, keyColumns));
+            log.info("唯一索引创建成功: {} on {}", keyColumns, tableName);
+        } catch (Exception e) {
+            log.error("创建唯一索引失败: {}", tableName, e);
+            throw new RuntimeException("创建唯一索引失败，表中可能已有重复的键: " + tableName, e);
+        }
+    }
+    
+    /**
+     * 把影子表替换为正式表，然后删除旧表
+     * MySQL用一条RENAME TABLE语句原子地替换；支持事务DDL的数据库（PostgreSQL）在一个事务中完成替换，
+     * 替换过程中读取正式表的查询要么看到旧数据，要么看到新数据，不会看到表不存在
+     */
+    public void swapTables(String tableName, String stagingTableName) {
+        try {
+            List<String> statements = new ArrayList<>(
+                    dialect.swapTablesSql(tableName, stagingTableName, tableExists(tableName)));
+            if (dialect.hasSchemaScopedIndexNames()) {
+                // 索引名在schema内唯一时，影子表上的索引名带有影子表名，替换后改为正式表的索引名
+                for (String indexName : dialect.loadIndexNames(jdbcTemplate, stagingTableName)) {
+                    if (indexName.contains(stagingTableName)) {
+                        statements.add(dialect.renameIndexSql(tableName, indexName,
+                                indexName.replace(stagingTableName, tableName)));
+                    }
+                }
+            }
+            if (dialect.supportsTransactionalDdl()) {
+                executeInTransaction(statements);
+            } else {
+                statements.forEach(jdbcTemplate::execute);
+            }
+            log.info("影子表 {} 已替换为 {}", stagingTableName, tableName);
+        } catch (Exception e) {
+            log.error("替换表失败: {} -> {}", stagingTableName, tableName, e);
+            throw new RuntimeException("替换表失败: " + tableName, e);
+        }
+    }
+    
+    /**
+     * 在一个事务中依次执行多条语句，任何一条失败时全部回滚
+     */
+    private void executeInTransaction(List<String> statements) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean originalAutoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(originalAutoCommit);
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * 读取已存在的表的列定义，按数据库列类型还原列的Java类型
+     * 恢复导入时沿用上次建表时的列类型，不重新推断
+     *
+     * @return 按列顺序排列的列信息；表不存在时返回空列表
+     */
+    public List<ColumnInfo> loadColumns(String tableName) {
+        try {
+            return jdbcTemplate.query(dialect.loadColumnsSql(), (rs, rowNum) -> {
+                        String dataType = rs.getString(2).toLowerCase(Locale.ROOT);
+                        String columnType = rs.getString(3).toLowerCase(Locale.ROOT);
+                        ColumnInfo column = new ColumnInfo(rs.getString(1), dialect.toJavaType(dataType, columnType));
+                        if (column.getJavaType() == ColumnInfo.JavaType.STRING) {
+                            column.setSqlType(columnType.toUpperCase());
+                        }
+                        return column;
+                    }, tableName);
+        } catch (Exception e) {
+            log.error("读取表结构失败: {}", tableName, e);
+            throw new RuntimeException("读取表结构失败: " + tableName, e);
+        }
+    }
+    
     /**
      * 批量插入数据
+     *
+     * @return 插入的行数
+     */
+    public int batchInsert(String tableName, List<ColumnInfo> columns, List<List<String>> dataRows, int batchSize) {
+        return batchInsert(jdbcTemplate, tableName, columns, dataRows, batchSize);
+    }
+    
+    /**
+     * 使用指定的JdbcTemplate批量插入数据
+     * 流水线模式下每个写入线程传入绑定在自己连接上的JdbcTemplate
+     *
+     * @return 插入的行数
      */
-    public void batchInsert(String tableName, List<ColumnInfo> columns, List<List<String>> dataRows, int batchSize) {
+    public int batchInsert(JdbcTemplate jdbcTemplate, String tableName, List<ColumnInfo> columns,
+                           List<List<String>> dataRows, int batchSize) {
         if (dataRows.isEmpty()) {
             log.warn("没有数据需要插入");
-            return;
+            return 0;
         }
         
         try {
             // 构建插入SQL
-            String placeholders = columns.stream()
-                    .map(col -> "?")
-                    .collect(Collectors.joining(", "));
-            
-            String insertSql = String.format("INSERT INTO `%s` (%s) VALUES (%s)",
-                    tableName,
-                    columns.stream().map(col -> "`" + col.getName() + "`").collect(Collectors.joining(", ")),
-                    placeholders);
+            String insertSql = dialect.insertSql(tableName, columnNames(columns));
+            TypedValueParser parser = new TypedValueParser();
             
             log.info("开始批量插入数据，总行数: {}, 批次大小: {}", dataRows.size(), batchSize);
             
@@ -112,18 +313,19 @@ public class DatabaseService {
                     for (int j = 0; j < row.size() && j < columns.size(); j++) {
                         String value = row.get(j);
                         ColumnInfo column = columns.get(j);
-                        setParameterValue(ps, j + 1, value, column);
+                        setParameterValue(ps, j + 1, value, column, parser);
                     }
                 });
                 
                 processedRows += batch.size();
                 if (processedRows % (batchSize * 10) == 0 || processedRows == totalRows) {
-                    log.info("已处理 {}/{} 行数据 ({:.1f}%)", 
-                            processedRows, totalRows, (double) processedRows / totalRows * 100);
+                    log.info("已处理 {}/{} 行数据 ({}%)", processedRows, totalRows,
+                            String.format("%.1f", (double) processedRows / totalRows * 100));
                 }
             }
             
             log.info("数据插入完成，共插入 {} 行", totalRows);
+            return totalRows;
             
         } catch (Exception e) {
             log.error("批量插入数据失败", e);
@@ -131,45 +333,163 @@ public class DatabaseService {
         }
     }
     
+    /**
+     * 使用指定的JdbcTemplate批量插入一个按列存储的批次
+     * 值在解析阶段已经转换为基本类型，这里直接按列类型绑定参数
+     *
+     * @return 插入的行数
+     */
+    public int batchInsert(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch) {
+        return batchInsert(jdbcTemplate, tableName, batch, null);
+    }
+    
+    /**
+     * 批量插入一个按列存储的批次，指定键列时按键更新已存在的行
+     *
+     * @param upsertKeys 键列，不为空时生成方言的upsert语句（如 INSERT ... ON DUPLICATE KEY UPDATE），更新所有非键列
+     * @return 批次的行数
+     */
+    public int batchInsert(JdbcTemplate jdbcTemplate, String tableName, ColumnarBatch batch, List<String> upsertKeys) {
+        if (batch.isEmpty()) {
+            log.warn("没有数据需要插入");
+            return 0;
+        }
+        
+        try {
+            List<ColumnInfo> columns = batch.getColumns();
+            String insertSql = upsertKeys != null && !upsertKeys.isEmpty()
+                    ? dialect.upsertSql(tableName, columnNames(columns), upsertKeys)
+                    : dialect.insertSql(tableName, columnNames(columns));
+            
+            jdbcTemplate.batchUpdate(insertSql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int row) throws SQLException {
+                    for (int j = 0; j < columns.size(); j++) {
+                        setParameterValue(ps, j + 1, batch, j, row);
+                    }
+                }
+                
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            
+            log.debug("批次插入完成，表: {}, 行数: {}", tableName, batch.size());
+            return batch.size();
+            
+        } catch (Exception e) {
+            log.error("批量插入数据失败", e);
+            throw new RuntimeException("批量插入数据失败", e);
+        }
+    }
+    
+    private static List<String> columnNames(List<ColumnInfo> columns) {
+        return columns.stream().map(ColumnInfo::getName).collect(Collectors.toList());
+    }
+    
     /**
      * 设置PreparedStatement参数值
+     * 按列类型解析字符串，解析失败时作为字符串处理
      */
-    private void setParameterValue(PreparedStatement ps, int parameterIndex, String value, ColumnInfo column) throws SQLException {
-        if (value == null || value.trim().isEmpty()) {
+    private void setParameterValue(PreparedStatement ps, int parameterIndex, String value, ColumnInfo column,
+                                   TypedValueParser parser) throws SQLException {
+        if (TypedValueParser.isBlank(value)) {
             ps.setNull(parameterIndex, column.getSqlTypeCode());
             return;
         }
         
-        try {
-            switch (column.getJavaType()) {
-                case INTEGER:
-                    ps.setInt(parameterIndex, Integer.parseInt(value.trim()));
-                    break;
-                case LONG:
-                    ps.setLong(parameterIndex, Long.parseLong(value.trim()));
-                    break;
-                case DOUBLE:
-                    ps.setDouble(parameterIndex, Double.parseDouble(value.trim()));
-                    break;
-                case BOOLEAN:
-                    ps.setBoolean(parameterIndex, Boolean.parseBoolean(value.trim()));
-                    break;
-                case DATE:
-                    ps.setDate(parameterIndex, java.sql.Date.valueOf(value.trim()));
-                    break;
-                case TIMESTAMP:
-                    ps.setTimestamp(parameterIndex, java.sql.Timestamp.valueOf(value.trim()));
-                    break;
-                default:
-                    ps.setString(parameterIndex, value);
-                    break;
-            }
-        } catch (Exception e) {
-            // 如果类型转换失败，则作为字符串处理
-            ps.setString(parameterIndex, value);
+        switch (column.getJavaType()) {
+            case INTEGER:
+                if (parser.parseInt(value)) {
+                    ps.setInt(parameterIndex, parser.intValue());
+                    return;
+                }
+                break;
+            case LONG:
+                if (parser.parseLong(value)) {
+                    ps.setLong(parameterIndex, parser.longValue());
+                    return;
+                }
+                break;
+            case DOUBLE:
+                if (parser.parseDouble(value)) {
+                    ps.setDouble(parameterIndex, parser.doubleValue());
+                    return;
+                }
+                break;
+            case BOOLEAN:
+                ps.setBoolean(parameterIndex, parser.parseBoolean(value) == 1);
+                return;
+            case DATE:
+                if (parser.parseDate(value)) {
+                    ps.setDate(parameterIndex, java.sql.Date.valueOf(LocalDate.ofEpochDay(parser.longValue())));
+                    return;
+                }
+                break;
+            case TIMESTAMP:
+                if (parser.parseTimestamp(value)) {
+                    ps.setTimestamp(parameterIndex, toTimestamp(parser.longValue(), parser.nanos()));
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        
+        // 字符串列，或者类型转换失败时作为字符串处理
+        ps.setString(parameterIndex, value);
+    }
+    
+    /**
+     * 按列类型设置按列存储批次中一个单元格的参数值
+     */
+    private void setParameterValue(PreparedStatement ps, int parameterIndex, ColumnarBatch batch,
+                                   int column, int row) throws SQLException {
+        ColumnInfo columnInfo = batch.getColumns().get(column);
+        if (batch.isNull(column, row)) {
+            ps.setNull(parameterIndex, columnInfo.getSqlTypeCode());
+            return;
+        }
+        
+        String unparsed = batch.getUnparsed(column, row);
+        if (unparsed != null) {
+            ps.setString(parameterIndex, unparsed);
+            return;
+        }
+        
+        switch (columnInfo.getJavaType()) {
+            case INTEGER:
+                ps.setInt(parameterIndex, batch.getInt(column, row));
+                break;
+            case LONG:
+                ps.setLong(parameterIndex, batch.getLong(column, row));
+                break;
+            case DOUBLE:
+                ps.setDouble(parameterIndex, batch.getDouble(column, row));
+                break;
+            case BOOLEAN:
+                ps.setBoolean(parameterIndex, batch.getBoolean(column, row));
+                break;
+            case DATE:
+                ps.setDate(parameterIndex, java.sql.Date.valueOf(LocalDate.ofEpochDay(batch.getEpochDay(column, row))));
+                break;
+            case TIMESTAMP:
+                ps.setTimestamp(parameterIndex, toTimestamp(batch.getEpochSecond(column, row), batch.getNanos(column, row)));
+                break;
+            default:
+                ps.setString(parameterIndex, batch.getString(column, row));
+                break;
         }
     }
     
+    /**
+     * 把本地时间的纪元秒和纳秒转换为Timestamp，与Timestamp.valueOf(String)一样按JVM默认时区解释
+     */
+    private static Timestamp toTimestamp(long epochSecond, int nanos) {
+        return Timestamp.valueOf(LocalDateTime.ofEpochSecond(epochSecond, nanos, ZoneOffset.UTC));
+    }
+    
     /**
      * 创建索引
      */
@@ -181,11 +501,8 @@ public class DatabaseService {
         
         try {
             for (String columnName : indexColumns) {
-                String indexName = String.format("idx_%s_%s", tableName, columnName);
-                String createIndexSql = String.format("CREATE INDEX `%s` ON `%s` (`%s`)", 
-                        indexName, tableName, columnName);
-                
-                jdbcTemplate.execute(createIndexSql);
+                String indexName = SqlDialect.indexName(tableName, columnName);
+                jdbcTemplate.execute(dialect.createIndexSql(indexName, tableName, columnName));
                 log.info("索引创建成功: {} on {}.{}", indexName, tableName, columnName);
             }
         } catch (Exception e) {
@@ -194,13 +511,68 @@ public class DatabaseService {
         }
     }
     
+    /**
+     * 过滤掉已经创建过索引的列（按 idx_表名_列名 判断），恢复导入时索引可能已经部分创建
+     */
+    public List<String> findColumnsWithoutIndex(String tableName, List<String> indexColumns) {
+        if (indexColumns == null || indexColumns.isEmpty()) {
+            return indexColumns;
+        }
+        
+        Set<String> existing = dialect.loadIndexNames(jdbcTemplate, tableName);
+        return indexColumns.stream()
+                .filter(columnName -> !existing.contains(SqlDialect.indexName(tableName, columnName)))
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 在一条ALTER TABLE语句中创建所有索引
+     * InnoDB只需扫描一次聚簇索引，对每个二级索引排序后自底向上构建，比逐个CREATE INDEX少扫描N-1次全表
+     * 方言不支持时逐个创建
+     */
+    public void createIndexesInSinglePass(String tableName, List<String> indexColumns) {
+        if (indexColumns == null || indexColumns.isEmpty()) {
+            log.info("没有指定索引列");
+            return;
+        }
+        if (!dialect.supportsSinglePassIndexBuild()) {
+            createIndexes(tableName, indexColumns);
+            return;
+        }
+        
+        try {
+            String addIndexes = indexColumns.stream()
+                    .map(columnName -> String.format("ADD INDEX %s (%s)",
+                            dialect.quote(SqlDialect.indexName(tableName, columnName)), dialect.quote(columnName)))
+                    .collect(Collectors.joining(", "));
+            String alterSql = String.format("ALTER TABLE %s %s", dialect.quote(tableName), addIndexes);
+            
+            long startTime = System.currentTimeMillis();
+            jdbcTemplate.execute(alterSql);
+            log.info("索引创建成功: {} on {}, 耗时: {} ms", indexColumns, tableName, System.currentTimeMillis() - startTime);
+        } catch (Exception e) {
+            log.error("创建索引失败", e);
+            throw new RuntimeException("创建索引失败", e);
+        }
+    }
+    
+    /**
+     * 从当前连接池中取出一个连接，开启写入会话
+     *
+     * @param tuned 是否启用批量加载调优，只有支持会话调优的数据库（MySQL）生效
+     * @param commitRows 每个事务提交的行数，小于等于0时保持自动提交
+     */
+    public BulkLoadSession openSession(boolean tuned, long commitRows) throws SQLException {
+        return BulkLoadSession.open(jdbcTemplate.getDataSource(), tuned && dialect.supportsSessionTuning(), commitRows);
+    }
+    
     /**
      * 关闭连接
      */
     public void closeConnection() {
         try {
-            if (dataSource != null && !dataSource.isClosed()) {
-                dataSource.close();
+            if (databaseConfig != null) {
+                closeConnection(databaseConfig);
                 log.info("数据库连接已关闭");
             }
         } catch (Exception e) {
@@ -214,4 +586,11 @@ public class DatabaseService {
     public JdbcTemplate getJdbcTemplate() {
         return jdbcTemplate;
     }
+    
+    /**
+     * 获取当前连接的数据库方言
+     */
+    public SqlDialect getDialect() {
+        return dialect;
+    }
 }
\ No newline at end of file
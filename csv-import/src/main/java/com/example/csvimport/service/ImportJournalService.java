@@ -0,0 +1,115 @@
+package com.example.csvimport.service;
+
+import com.example.csvimport.dialect.SqlDialect;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.model.ImportCheckpoint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 导入检查点日志服务
+ * 日志保存在目标库的 csv_import_journal 表中，每个已提交的批次一行，记录批次所在字节区间的起始偏移、
+ * 区间内第一条记录的序号和行数。
+ *
+ * 日志行由写入线程用写入数据的同一个会话插入，与批次数据在同一个事务中提交：
+ * 事务回滚时数据和日志一起回滚，日志中的批次一定已经写入目标表，恢复导入时不会重复或遗漏。
+ * 标识符按当前连接的方言引用
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ImportJournalService {
+    
+    public static final String JOURNAL_TABLE = "csv_import_journal";
+    
+    private final DatabaseService databaseService;
+    
+    private String createTableSql(SqlDialect dialect) {
+        return "CREATE TABLE IF NOT EXISTS " + dialect.quote(JOURNAL_TABLE) + " ("
+                + dialect.quote("table_name") + " VARCHAR(64) NOT NULL, "
+                + dialect.quote("file_size") + " BIGINT NOT NULL, "
+                + dialect.quote("batch_size") + " INT NOT NULL, "
+                + dialect.quote("range_start") + " BIGINT NOT NULL, "
+                + dialect.quote("first_record") + " BIGINT NOT NULL, "
+                + dialect.quote("row_count") + " INT NOT NULL, "
+                + dialect.quote("last_in_range") + " BOOLEAN NOT NULL, "
+                + dialect.quote("committed_at") + " TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+                + "PRIMARY KEY (" + dialect.quoteColumns(List.of("table_name", "range_start", "first_record")) + ")"
+                + ")" + dialect.tableOptions();
+    }
+    
+    /**
+     * 开始一次新的导入：确保日志表存在并清除该表以前的日志
+     */
+    public void reset(JdbcTemplate jdbcTemplate, String tableName) {
+        SqlDialect dialect = databaseService.getDialect();
+        try {
+            jdbcTemplate.execute(createTableSql(dialect));
+            int removed = jdbcTemplate.update(deleteSql(dialect), tableName);
+            log.info("检查点日志已初始化: {} (清除旧记录 {} 条)", tableName, removed);
+        } catch (Exception e) {
+            log.error("初始化检查点日志失败: {}", tableName, e);
+            throw new RuntimeException("初始化检查点日志失败: " + tableName, e);
+        }
+    }
+    
+    /**
+     * 读取上次导入的检查点
+     *
+     * @return 检查点；没有任何已提交的批次时返回null
+     */
+    public ImportCheckpoint load(JdbcTemplate jdbcTemplate, String tableName) {
+        SqlDialect dialect = databaseService.getDialect();
+        try {
+            jdbcTemplate.execute(createTableSql(dialect));
+            ImportCheckpoint[] checkpoint = new ImportCheckpoint[1];
+            jdbcTemplate.query("SELECT " + dialect.quoteColumns(List.of("file_size", "batch_size", "range_start",
+                    "first_record", "row_count", "last_in_range")) + " FROM " + dialect.quote(JOURNAL_TABLE)
+                    + " WHERE " + dialect.quote("table_name") + " = ?", rs -> {
+                        if (checkpoint[0] == null) {
+                            checkpoint[0] = new ImportCheckpoint(rs.getLong(1), rs.getInt(2));
+                        }
+                        checkpoint[0].addBatch(rs.getLong(3), rs.getLong(4), rs.getInt(5), rs.getBoolean(6));
+                    }, tableName);
+            return checkpoint[0];
+        } catch (Exception e) {
+            log.error("读取检查点日志失败: {}", tableName, e);
+            throw new RuntimeException("读取检查点日志失败: " + tableName, e);
+        }
+    }
+    
+    /**
+     * 在写入会话的当前事务中记录一个批次
+     *
+     * @param jdbcTemplate 写入该批次数据的会话
+     * @param rowCount 该批次实际写入的行数（隔离坏行后可能少于批次行数）
+     */
+    public void record(JdbcTemplate jdbcTemplate, String tableName, ImportCheckpoint checkpoint,
+                       ColumnarBatch batch, int rowCount) {
+        jdbcTemplate.update(databaseService.getDialect().insertSql(JOURNAL_TABLE, List.of("table_name", "file_size",
+                        "batch_size", "range_start", "first_record", "row_count", "last_in_range")),
+                tableName, checkpoint.getFileSize(), checkpoint.getBatchSize(), batch.getRangeStart(),
+                batch.getFirstRecord(), rowCount, batch.isLastInRange());
+    }
+    
+    /**
+     * 导入成功后清除日志
+     */
+    public void clear(JdbcTemplate jdbcTemplate, String tableName) {
+        try {
+            jdbcTemplate.update(deleteSql(databaseService.getDialect()), tableName);
+            log.info("检查点日志已清除: {}", tableName);
+        } catch (Exception e) {
+            // 残留的日志只会在下次以resume方式导入同名表时被读取，不影响本次结果
+            log.warn("清除检查点日志失败: {}", tableName, e);
+        }
+    }
+    
+    private static String deleteSql(SqlDialect dialect) {
+        return "DELETE FROM " + dialect.quote(JOURNAL_TABLE) + " WHERE " + dialect.quote("table_name") + " = ?";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,264 @@
+package com.example.csvimport.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 解析/写入流水线
+ * 解析线程把批次放入有界队列，N个写入线程各自持有一个写入会话（独立连接）并发写入；
+ * 队列满时解析线程阻塞，形成背压，避免解析速度超过写入速度时内存膨胀
+ *
+ * @param <T> 批次类型
+ */
+@Slf4j
+public class ImportPipeline<T> {
+    
+    // 队列结束标记
+    private static final Object END_OF_STREAM = new Object();
+    
+    // 阻塞等待时检查失败状态的间隔
+    private static final long POLL_INTERVAL_MS = 100;
+    
+    private final SessionFactory sessionFactory;
+    private final int writerThreads;
+    private final int queueCapacity;
+    private final BatchWriter<T> batchWriter;
+    private final PipelineListener listener;
+    
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    
+    /**
+     * 批次写入器，使用写入线程独占的JdbcTemplate写入一个批次
+     */
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        /**
+         * @return 实际写入的行数
+         */
+        int write(JdbcTemplate jdbcTemplate, T batch);
+    }
+    
+    /**
+     * 流水线事件监听器，用于统计各阶段的耗时；会被解析线程和写入线程并发调用，实现必须是线程安全的
+     */
+    public interface PipelineListener {
+        
+        PipelineListener NONE = new PipelineListener() {
+        };
+        
+        /**
+         * 解析/写入队列已创建，只在run中调用
+         */
+        default void onQueueCreated(BlockingQueue<?> queue, int capacity) {
+        }
+        
+        /**
+         * 解析线程因队列已满阻塞了nanos纳秒
+         */
+        default void onQueueWait(long nanos) {
+        }
+        
+        /**
+         * 写入了一个批次
+         *
+         * @param rows 写入的行数
+         * @param nanos 写入耗时
+         */
+        default void onBatchWritten(int rows, long nanos) {
+        }
+    }
+    
+    /**
+     * 写入会话工厂，每个写入线程调用一次
+     */
+    @FunctionalInterface
+    public interface SessionFactory {
+        BulkLoadSession open() throws SQLException;
+    }
+    
+    public ImportPipeline(SessionFactory sessionFactory, int writerThreads, int queueCapacity, BatchWriter<T> batchWriter) {
+        this(sessionFactory, writerThreads, queueCapacity, batchWriter, PipelineListener.NONE);
+    }
+    
+    public ImportPipeline(SessionFactory sessionFactory, int writerThreads, int queueCapacity, BatchWriter<T> batchWriter,
+                          PipelineListener listener) {
+        if (writerThreads < 1) {
+            throw new IllegalArgumentException("写入线程数必须大于0: " + writerThreads);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("队列容量必须大于0: " + queueCapacity);
+        }
+        this.sessionFactory = sessionFactory;
+        this.writerThreads = writerThreads;
+        this.queueCapacity = queueCapacity;
+        this.batchWriter = batchWriter;
+        this.listener = listener;
+    }
+    
+    /**
+     * 运行流水线
+     *
+     * @param producer 批次生产者，在调用线程中执行，每解析出一个批次就交给传入的Consumer
+     * @return 所有写入线程写入的总行数
+     */
+    public long run(Consumer<Consumer<T>> producer) {
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(queueCapacity);
+        listener.onQueueCreated(queue, queueCapacity);
+        ExecutorService executor = Executors.newFixedThreadPool(writerThreads, newWriterThreadFactory());
+        List<Future<?>> writers = new ArrayList<>();
+        
+        log.info("启动导入流水线，写入线程数: {}, 队列容量: {}", writerThreads, queueCapacity);
+        
+        try {
+            for (int i = 0; i < writerThreads; i++) {
+                writers.add(executor.submit(() -> runWriter(queue)));
+            }
+            
+            try {
+                producer.accept(batch -> enqueue(queue, batch));
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            }
+            
+            // 每个写入线程一个结束标记
+            for (int i = 0; i < writerThreads && failure.get() == null; i++) {
+                enqueueQuietly(queue, END_OF_STREAM);
+            }
+            
+            for (Future<?> writer : writers) {
+                awaitWriter(writer);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        Throwable cause = failure.get();
+        if (cause != null) {
+            throw new RuntimeException("流水线导入失败", cause);
+        }
+        
+        log.info("导入流水线完成，共写入 {} 行", totalRows.get());
+        return totalRows.get();
+    }
+    
+    /**
+     * 不启动写入线程，在调用线程中使用单个写入会话直接写入
+     * 生产者可能从多个解析线程并发投递批次，写入在会话上串行执行
+     *
+     * @param producer 批次生产者
+     * @return 写入的总行数
+     */
+    public long runInline(Consumer<Consumer<T>> producer) {
+        try (BulkLoadSession session = sessionFactory.open()) {
+            producer.accept(batch -> {
+                synchronized (session) {
+                    writeBatch(session, batch);
+                }
+            });
+            session.complete();
+        } catch (SQLException e) {
+            throw new RuntimeException("打开写入会话失败", e);
+        }
+        return totalRows.get();
+    }
+    
+    /**
+     * 写入线程主循环
+     */
+    @SuppressWarnings("unchecked")
+    private void runWriter(BlockingQueue<Object> queue) {
+        try (BulkLoadSession session = sessionFactory.open()) {
+            while (failure.get() == null) {
+                Object item = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                if (item == null) {
+                    continue;
+                }
+                if (item == END_OF_STREAM) {
+                    session.complete();
+                    return;
+                }
+                writeBatch(session, (T) item);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (Throwable t) {
+            log.error("写入线程失败", t);
+            failure.compareAndSet(null, t);
+        }
+    }
+    
+    private void writeBatch(BulkLoadSession session, T batch) {
+        long start = System.nanoTime();
+        int rows = batchWriter.write(session.getJdbcTemplate(), batch);
+        session.afterBatch(rows);
+        listener.onBatchWritten(rows, System.nanoTime() - start);
+        totalRows.addAndGet(rows);
+    }
+    
+    /**
+     * 放入队列，队列满时阻塞；写入线程失败时立即中止解析
+     */
+    private void enqueue(BlockingQueue<Object> queue, Object item) {
+        if (queue.offer(item)) {
+            return;
+        }
+        long waitStart = System.nanoTime();
+        try {
+            while (!queue.offer(item, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    throw new IllegalStateException("写入线程已失败，停止解析");
+                }
+            }
+            listener.onQueueWait(System.nanoTime() - waitStart);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("解析线程被中断", e);
+        }
+    }
+    
+    private void enqueueQuietly(BlockingQueue<Object> queue, Object item) {
+        try {
+            enqueue(queue, item);
+        } catch (IllegalStateException e) {
+            // 写入线程已失败，无需再投递结束标记
+        }
+    }
+    
+    private void awaitWriter(Future<?> writer) {
+        try {
+            writer.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (ExecutionException e) {
+            failure.compareAndSet(null, e.getCause());
+        }
+    }
+    
+    private static ThreadFactory newWriterThreadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "csv-writer-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
\ No newline at end of file
@@ -0,0 +1,278 @@
+package com.example.csvimport.service;
+
+import com.example.csvimport.metrics.ImportProgress;
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * 坏行隔离
+ * 包装批次写入器：写入前把无法按列类型解析的行移出批次；批次因数据错误写入失败时回滚到保存点，
+ * 把批次二分后分别重试，直到定位出单个失败的行。被拒绝的行连同原因写入拒绝文件，
+ * 拒绝的总行数超过错误预算时中止导入。写入器会被多个写入线程并发调用，拒绝文件的写入是同步的。
+ *
+ * 被拒绝的行先按写入会话暂存，会话的事务提交后才写入拒绝文件；事务回滚时丢弃并从错误预算中扣回。
+ * 回滚的批次在恢复导入（--resume）时会被重新写入，其中的坏行只会在重放的那一次提交后记录一次
+ */
+@Slf4j
+public class RowQuarantine implements Closeable, BulkLoadSession.TransactionListener {
+    
+    // 数据错误的SQLState类别：22 数据异常，23 违反完整性约束
+    private static final String SQLSTATE_DATA_EXCEPTION = "22";
+    private static final String SQLSTATE_CONSTRAINT_VIOLATION = "23";
+    
+    // MySQL中按数据错误处理的错误码：值不正确、被截断、超出范围、列不能为NULL、数据过长、重复键、外键约束
+    private static final Set<Integer> DATA_ERROR_CODES = Set.of(1366, 1292, 1265, 1264, 1048, 1406, 1062, 1452);
+    
+    private final Path rejectFile;
+    private final long maxErrors;
+    private final ImportProgress progress;
+    private final AtomicLong rejectedRows = new AtomicLong();
+    // 写入会话的JdbcTemplate -> 尚未提交的被拒绝行
+    private final Map<JdbcTemplate, List<Rejected>> pending = new ConcurrentHashMap<>();
+    private CSVPrinter printer;
+    
+    /**
+     * @param rejectFile 拒绝文件
+     * @param maxErrors 错误预算，拒绝的行数超过该值时中止导入
+     * @param append 是否追加到已有的拒绝文件（恢复导入时），否则覆盖
+     * @param progress 导入进度，用于统计拒绝的行数
+     */
+    public RowQuarantine(Path rejectFile, long maxErrors, boolean append, ImportProgress progress) throws IOException {
+        this.rejectFile = rejectFile;
+        this.maxErrors = maxErrors;
+        this.progress = progress;
+        if (!append) {
+            Files.deleteIfExists(rejectFile);
+        }
+    }
+    
+    /**
+     * 包装批次写入器，返回的写入器只写入通过检查的行
+     */
+    public ImportPipeline.BatchWriter<ColumnarBatch> wrap(ImportPipeline.BatchWriter<ColumnarBatch> writer) {
+        return (jdbcTemplate, batch) -> {
+            ColumnarBatch accepted = rejectUnparsedRows(jdbcTemplate, batch);
+            if (accepted.size() == 0) {
+                return 0;
+            }
+            return writeOrBisect(writer, jdbcTemplate, accepted);
+        };
+    }
+    
+    /**
+     * 已拒绝的行数，包括尚未提交的
+     */
+    public long getRejectedRows() {
+        return rejectedRows.get();
+    }
+    
+    /**
+     * 会话的事务已提交，把暂存的被拒绝行写入拒绝文件
+     */
+    @Override
+    public void afterCommit(JdbcTemplate jdbcTemplate) {
+        List<Rejected> committed = pending.remove(jdbcTemplate);
+        if (committed == null || committed.isEmpty()) {
+            return;
+        }
+        print(committed);
+        if (progress != null) {
+            progress.onRejectedRows(committed.size());
+        }
+    }
+    
+    /**
+     * 会话的事务已回滚，丢弃暂存的被拒绝行，重放时会再次拒绝
+     */
+    @Override
+    public void afterRollback(JdbcTemplate jdbcTemplate) {
+        List<Rejected> discarded = pending.remove(jdbcTemplate);
+        if (discarded != null) {
+            rejectedRows.addAndGet(-discarded.size());
+        }
+    }
+    
+    public Path getRejectFile() {
+        return rejectFile;
+    }
+    
+    /**
+     * 把含有无法解析的单元格的行写入拒绝文件，返回剩下的行
+     */
+    private ColumnarBatch rejectUnparsedRows(JdbcTemplate jdbcTemplate, ColumnarBatch batch) {
+        if (batch.getRejectedCount() == 0) {
+            return batch;
+        }
+        List<Integer> accepted = new ArrayList<>(batch.size());
+        for (int row = 0; row < batch.size(); row++) {
+            if (batch.isRejected(row)) {
+                reject(jdbcTemplate, batch, row, describeUnparsed(batch, row));
+            } else {
+                accepted.add(row);
+            }
+        }
+        return batch.select(accepted.stream().mapToInt(Integer::intValue).toArray());
+    }
+    
+    /**
+     * 在保存点内写入批次，因数据错误失败时回滚到保存点，二分后分别重试
+     */
+    private int writeOrBisect(ImportPipeline.BatchWriter<ColumnarBatch> writer, JdbcTemplate jdbcTemplate,
+                              ColumnarBatch batch) {
+        Savepoint savepoint = jdbcTemplate.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            int rows = writer.write(jdbcTemplate, batch);
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.releaseSavepoint(savepoint);
+                return null;
+            });
+            return rows;
+        } catch (RuntimeException e) {
+            if (!isDataError(e)) {
+                throw e;
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            if (batch.size() == 1) {
+                reject(jdbcTemplate, batch, 0, rootMessage(e));
+                return 0;
+            }
+            int middle = batch.size() / 2;
+            log.debug("批次写入失败，拆分为 {} + {} 行重试: {}", middle, batch.size() - middle, rootMessage(e));
+            return writeOrBisect(writer, jdbcTemplate, batch.select(IntStream.range(0, middle).toArray()))
+                    + writeOrBisect(writer, jdbcTemplate, batch.select(IntStream.range(middle, batch.size()).toArray()));
+        }
+    }
+    
+    /**
+     * 暂存一行，等会话提交后写入拒绝文件；超过错误预算时抛出异常中止导入
+     */
+    private void reject(JdbcTemplate jdbcTemplate, ColumnarBatch batch, int row, String reason) {
+        long rejected = rejectedRows.incrementAndGet();
+        List<String> record = new ArrayList<>(batch.getColumns().size() + 1);
+        record.add(reason);
+        for (int column = 0; column < batch.getColumns().size(); column++) {
+            record.add(batch.getText(column, row));
+        }
+        // 每个会话只由一个写入线程使用
+        pending.computeIfAbsent(jdbcTemplate, key -> new ArrayList<>()).add(new Rejected(batch.getColumns(), record));
+        if (rejected > maxErrors) {
+            throw new IllegalStateException(String.format(
+                    "拒绝的行数超过错误预算 %d，导入中止，已提交批次中被拒绝的行见 %s，最后一行被拒绝的原因: %s",
+                    maxErrors, rejectFile, reason));
+        }
+    }
+    
+    private synchronized void print(List<Rejected> rejected) {
+        try {
+            if (printer == null) {
+                List<ColumnInfo> columns = rejected.get(0).columns;
+                boolean writeHeader = !Files.exists(rejectFile) || Files.size(rejectFile) == 0;
+                Writer writer = Files.newBufferedWriter(rejectFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+                if (writeHeader) {
+                    List<String> header = new ArrayList<>(columns.size() + 1);
+                    header.add("reason");
+                    columns.forEach(column -> header.add(column.getName()));
+                    printer.printRecord(header);
+                }
+            }
+            for (Rejected row : rejected) {
+                printer.printRecord(row.record);
+            }
+            // 导入可能随后因超过错误预算中止，每次提交后立即落盘
+            printer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("写入拒绝文件失败: " + rejectFile, e);
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        // 没有提交的会话的被拒绝行不写入
+        pending.clear();
+        if (printer != null) {
+            printer.close();
+            printer = null;
+        }
+    }
+    
+    /**
+     * 一行被拒绝的记录：原因和各列的原始值
+     */
+    private static final class Rejected {
+        private final List<ColumnInfo> columns;
+        private final List<String> record;
+        
+        private Rejected(List<ColumnInfo> columns, List<String> record) {
+            this.columns = columns;
+            this.record = record;
+        }
+    }
+    
+    private static String describeUnparsed(ColumnarBatch batch, int row) {
+        List<String> reasons = new ArrayList<>();
+        for (int column = 0; column < batch.getColumns().size(); column++) {
+            String unparsed = batch.getUnparsed(column, row);
+            if (unparsed != null) {
+                ColumnInfo info = batch.getColumns().get(column);
+                reasons.add(String.format("列 %s 的值 '%s' 不是有效的 %s", info.getName(), unparsed, info.getJavaType()));
+            }
+        }
+        return String.join("; ", reasons);
+    }
+    
+    /**
+     * 判断异常是否由行数据本身引起（类型转换、截断、约束冲突），此类错误可以通过拒绝该行继续导入
+     */
+    static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                String sqlState = sqlException.getSQLState();
+                if (sqlState != null && (sqlState.startsWith(SQLSTATE_DATA_EXCEPTION)
+                        || sqlState.startsWith(SQLSTATE_CONSTRAINT_VIOLATION))) {
+                    return true;
+                }
+                if (DATA_ERROR_CODES.contains(sqlException.getErrorCode())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.toString();
+    }
+}
\ No newline at end of file
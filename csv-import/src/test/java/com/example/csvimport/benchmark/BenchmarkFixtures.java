@@ -0,0 +1,157 @@
+package com.example.csvimport.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试数据
+ * 按固定随机种子生成窄表和宽表的CSV文件，每次运行的数据完全相同，前后结果可以直接比较。
+ * 列按 INTEGER / LONG / DOUBLE / BOOLEAN / DATE / TIMESTAMP / STRING / STRING 循环，
+ * 最后一个字符串列包含逗号，需要引号转义；约2%的单元格为空。
+ */
+public final class BenchmarkFixtures {
+    
+    // 每个文件的数据行数，基准方法用它作为 @OperationsPerInvocation，得到的吞吐量单位是行/秒
+    static final int ROWS = 50_000;
+    
+    static final int BATCH_SIZE = 1000;
+    
+    private static final ColumnInfo.JavaType[] TYPES = {
+            ColumnInfo.JavaType.INTEGER, ColumnInfo.JavaType.LONG, ColumnInfo.JavaType.DOUBLE,
+            ColumnInfo.JavaType.BOOLEAN, ColumnInfo.JavaType.DATE, ColumnInfo.JavaType.TIMESTAMP,
+            ColumnInfo.JavaType.STRING, ColumnInfo.JavaType.STRING
+    };
+    
+    private static final LocalDate BASE_DATE = LocalDate.of(2020, 1, 1);
+    
+    private BenchmarkFixtures() {
+    }
+    
+    /**
+     * 表的形状
+     */
+    public enum Shape {
+        // 8列
+        NARROW(8),
+        // 64列
+        WIDE(64);
+        
+        private final int columnCount;
+        
+        Shape(int columnCount) {
+            this.columnCount = columnCount;
+        }
+        
+        int getColumnCount() {
+            return columnCount;
+        }
+    }
+    
+    /**
+     * 与生成的数据一致的列定义
+     */
+    static List<ColumnInfo> columns(Shape shape) {
+        List<ColumnInfo> columns = new ArrayList<>();
+        for (int i = 0; i < shape.getColumnCount(); i++) {
+            ColumnInfo column = new ColumnInfo("c" + i, TYPES[i % TYPES.length]);
+            if (column.getJavaType() == ColumnInfo.JavaType.STRING) {
+                column.updateVarcharLength(32);
+            }
+            columns.add(column);
+        }
+        return columns;
+    }
+    
+    /**
+     * 生成单元格，cells[row][column]
+     */
+    static String[][] cells(Shape shape, int rows) {
+        Random random = new Random(42);
+        String[][] cells = new String[rows][shape.getColumnCount()];
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < shape.getColumnCount(); column++) {
+                cells[row][column] = random.nextInt(50) == 0 ? "" : value(random, column);
+            }
+        }
+        return cells;
+    }
+    
+    /**
+     * 写出带表头的CSV文件
+     */
+    static Path writeCsv(Shape shape, int rows) throws IOException {
+        Path file = Files.createTempFile("csv-import-bench-" + shape.name().toLowerCase() + "-", ".csv");
+        file.toFile().deleteOnExit();
+        String[] headers = columns(shape).stream().map(ColumnInfo::getName).toArray(String[]::new);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(headers))) {
+            for (String[] row : cells(shape, rows)) {
+                printer.printRecord((Object[]) row);
+            }
+        }
+        return file;
+    }
+    
+    /**
+     * 把单元格填充为按列存储的批次
+     */
+    static List<ColumnarBatch> toBatches(List<ColumnInfo> columns, String[][] cells) {
+        List<ColumnarBatch> batches = new ArrayList<>();
+        ColumnarBatch batch = null;
+        for (String[] row : cells) {
+            if (batch == null || batch.isFull()) {
+                batch = new ColumnarBatch(columns, BATCH_SIZE);
+                batches.add(batch);
+            }
+            for (int column = 0; column < row.length; column++) {
+                batch.setValue(column, row[column]);
+            }
+            batch.endRow();
+        }
+        return batches;
+    }
+    
+    /**
+     * 关闭INFO/DEBUG日志，避免日志输出计入测量结果
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+    
+    private static String value(Random random, int column) {
+        switch (column % TYPES.length) {
+            case 0:
+                return Integer.toString(random.nextInt(1_000_000));
+            case 1:
+                return Long.toString(10_000_000_000L + random.nextInt(Integer.MAX_VALUE));
+            case 2:
+                return Double.toString(random.nextInt(10_000_000) / 100.0);
+            case 3:
+                return random.nextBoolean() ? "true" : "false";
+            case 4:
+                return BASE_DATE.plusDays(random.nextInt(2000)).toString();
+            case 5:
+                return String.format("%s %02d:%02d:%02d", BASE_DATE.plusDays(random.nextInt(2000)),
+                        random.nextInt(24), random.nextInt(60), random.nextInt(60));
+            case 6:
+                return "name_" + random.nextInt(100_000);
+            default:
+                return "city " + random.nextInt(1000) + ", district " + random.nextInt(100);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.csvimport.benchmark;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 行转换基准：把已经切分好的字符串单元格按列类型转换为按列存储的批次，不含文件读取和CSV解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertBenchmark {
+    
+    @Param({"NARROW", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+    
+    private List<ColumnInfo> columns;
+    private String[][] cells;
+    
+    @Setup
+    public void setUp() {
+        columns = BenchmarkFixtures.columns(shape);
+        cells = BenchmarkFixtures.cells(shape, BenchmarkFixtures.ROWS);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public List<ColumnarBatch> toColumnarBatches() {
+        return BenchmarkFixtures.toBatches(columns, cells);
+    }
+}
\ No newline at end of file
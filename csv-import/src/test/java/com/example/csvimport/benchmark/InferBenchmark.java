@@ -0,0 +1,86 @@
+package com.example.csvimport.benchmark;
+
+import com.example.csvimport.config.ImportOptions;
+import com.example.csvimport.model.ColumnProfile;
+import com.example.csvimport.parser.TypeClassifier;
+import com.example.csvimport.service.CsvService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 类型推断基准
+ * classify只测单元格分类（TypeClassifier），profile测每列的完整画像（分类、长度、取值范围、基数估计），
+ * analyzeFull测从文件读取并画像的完整流程（FULL模式，单线程）。
+ * FULL模式的画像在ForkJoin工作线程上执行，-prof gc 的每行分配量不包含这部分。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InferBenchmark {
+    
+    @Param({"NARROW", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+    
+    private final CsvService csvService = new CsvService();
+    private String csvFilePath;
+    private String[][] cells;
+    
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkFixtures.quietLogging();
+        csvFilePath = BenchmarkFixtures.writeCsv(shape, BenchmarkFixtures.ROWS).toString();
+        cells = BenchmarkFixtures.cells(shape, BenchmarkFixtures.ROWS);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public int classify() {
+        int masks = 0;
+        for (String[] row : cells) {
+            for (String value : row) {
+                masks |= TypeClassifier.classify(value);
+            }
+        }
+        return masks;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public void profile(Blackhole blackhole) {
+        ColumnProfile[] profiles = new ColumnProfile[shape.getColumnCount()];
+        for (int i = 0; i < profiles.length; i++) {
+            profiles[i] = new ColumnProfile();
+        }
+        for (String[] row : cells) {
+            for (int i = 0; i < row.length; i++) {
+                profiles[i].add(row[i]);
+            }
+        }
+        for (ColumnProfile profile : profiles) {
+            blackhole.consume(profile.inferType());
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public Object analyzeFull() {
+        return csvService.analyzeColumns(csvFilePath, 0, ImportOptions.ProfileMode.FULL, 1);
+    }
+}
\ No newline at end of file
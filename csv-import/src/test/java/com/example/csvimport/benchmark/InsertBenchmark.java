@@ -0,0 +1,88 @@
+package com.example.csvimport.benchmark;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.service.DatabaseService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 批量插入基准：用DatabaseService.batchInsert把按列存储的批次写入嵌入式H2（MySQL兼容模式）
+ * 测量的是客户端一侧的开销（参数绑定、JDBC批处理），H2的写入速度与MySQL服务器无关，
+ * 结果只用于前后比较，不代表对真实MySQL的导入速度。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertBenchmark {
+    
+    private static final String TABLE_NAME = "bench";
+    
+    @Param({"NARROW", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+    
+    private final DatabaseService databaseService = new DatabaseService(null);
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private List<ColumnarBatch> batches;
+    
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.quietLogging();
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:csv_import_bench;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setMaximumPoolSize(1);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        
+        List<ColumnInfo> columns = BenchmarkFixtures.columns(shape);
+        jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS `%s`", TABLE_NAME));
+        jdbcTemplate.execute(String.format("CREATE TABLE `%s` (%s)", TABLE_NAME, columns.stream()
+                .map(col -> String.format("`%s` %s", col.getName(), col.getSqlType()))
+                .collect(Collectors.joining(", "))));
+        batches = BenchmarkFixtures.toBatches(columns, BenchmarkFixtures.cells(shape, BenchmarkFixtures.ROWS));
+    }
+    
+    /**
+     * 每次调用前清空表，避免表越来越大影响后面的测量
+     */
+    @Setup(Level.Invocation)
+    public void truncate() {
+        jdbcTemplate.execute(String.format("TRUNCATE TABLE `%s`", TABLE_NAME));
+    }
+    
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public int batchInsert() {
+        int rows = 0;
+        for (ColumnarBatch batch : batches) {
+            rows += databaseService.batchInsert(jdbcTemplate, TABLE_NAME, batch);
+        }
+        return rows;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.example.csvimport.benchmark;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.service.CsvService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析阶段基准：单线程读取整个CSV文件
+ * parseRows只切分为字符串行（processDataStream），parseColumnar同时把单元格转换为按列存储的批次
+ * （processColumnarStream，导入时实际使用的路径），两者之差即行转换的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParseBenchmark {
+    
+    @Param({"NARROW", "WIDE"})
+    private BenchmarkFixtures.Shape shape;
+    
+    private final CsvService csvService = new CsvService();
+    private String csvFilePath;
+    private List<ColumnInfo> columns;
+    
+    @Setup
+    public void setUp() throws IOException {
+        BenchmarkFixtures.quietLogging();
+        csvFilePath = BenchmarkFixtures.writeCsv(shape, BenchmarkFixtures.ROWS).toString();
+        columns = BenchmarkFixtures.columns(shape);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public void parseRows(Blackhole blackhole) {
+        csvService.processDataStream(csvFilePath, columns, BenchmarkFixtures.BATCH_SIZE, blackhole::consume);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkFixtures.ROWS)
+    public void parseColumnar(Blackhole blackhole) {
+        csvService.processColumnarStream(csvFilePath, columns, BenchmarkFixtures.BATCH_SIZE, 1, blackhole::consume);
+    }
+}
\ No newline at end of file
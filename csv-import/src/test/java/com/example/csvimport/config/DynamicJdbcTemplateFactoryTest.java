@@ -0,0 +1,143 @@
+package com.example.csvimport.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DynamicJdbcTemplateFactoryTest {
+    
+    private DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory factory;
+    
+    @AfterEach
+    void tearDown() {
+        if (factory != null) {
+            factory.closeAllDataSources();
+        }
+    }
+    
+    @Test
+    void testReusesPoolForEquivalentUrl() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 100);
+        
+        JdbcTemplate first = factory.createJdbcTemplate(config("jdbc:h2:mem:reuse?a=1&b=2", 5));
+        JdbcTemplate second = factory.createJdbcTemplate(config(" JDBC:H2:mem:reuse?b=2&a=1", 5));
+        
+        assertSame(first, second);
+        assertEquals(List.of("jdbc:h2:mem:reuse?a=1&b=2"), poolUrls());
+    }
+    
+    @Test
+    void testGrowsExistingPool() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 100);
+        
+        factory.createJdbcTemplate(config("jdbc:h2:mem:grow", 2));
+        factory.createJdbcTemplate(config("jdbc:h2:mem:grow", 8));
+        
+        assertEquals(8, factory.getPoolStats().get(0).getMaximumPoolSize());
+        assertEquals(8, factory.getTotalMaximumConnections());
+    }
+    
+    @Test
+    void testEvictsIdlePools() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ZERO, 100);
+        
+        factory.createJdbcTemplate(config("jdbc:h2:mem:idle", 2));
+        factory.evictIdle();
+        
+        assertTrue(factory.getPoolStats().isEmpty());
+    }
+    
+    @Test
+    void testKeepsPoolsWithBorrowedConnections() throws Exception {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ZERO, 100);
+        
+        JdbcTemplate jdbcTemplate = factory.createJdbcTemplate(config("jdbc:h2:mem:busy", 2));
+        try (Connection ignored = jdbcTemplate.getDataSource().getConnection()) {
+            factory.evictIdle();
+            assertEquals(1, factory.getPoolStats().get(0).getActiveConnections());
+        }
+    }
+    
+    @Test
+    void testKeepsLeasedPoolsUntilReleased() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ZERO, 100);
+        
+        DynamicJdbcTemplateConfig.PoolLease lease = factory.acquire(config("jdbc:h2:mem:leased", 2));
+        factory.evictIdle();
+        assertEquals(1, factory.getPoolStats().get(0).getLeases());
+        assertSame(lease.getJdbcTemplate(), factory.createJdbcTemplate(config("jdbc:h2:mem:leased", 2)));
+        
+        lease.close();
+        lease.close();
+        factory.evictIdle();
+        assertTrue(factory.getPoolStats().isEmpty());
+    }
+    
+    @Test
+    void testClosingOnePoolKeepsOtherPoolForSameUrl() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 100);
+        
+        DatabaseConfig other = config("jdbc:h2:mem:shared", 2);
+        other.setAllowLoadLocalInfile(true);
+        JdbcTemplate first = factory.createJdbcTemplate(config("jdbc:h2:mem:shared", 2));
+        JdbcTemplate second = factory.createJdbcTemplate(other);
+        
+        assertNotSame(first, second);
+        
+        factory.closeDataSource(other);
+        assertEquals(List.of("jdbc:h2:mem:shared"), poolUrls());
+        assertSame(first, factory.createJdbcTemplate(config("jdbc:h2:mem:shared", 2)));
+    }
+    
+    @Test
+    void testEvictsLeastRecentlyUsedPoolWhenOverCap() throws Exception {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 10);
+        
+        factory.createJdbcTemplate(config("jdbc:h2:mem:lru1", 4));
+        Thread.sleep(5);
+        factory.createJdbcTemplate(config("jdbc:h2:mem:lru2", 4));
+        factory.createJdbcTemplate(config("jdbc:h2:mem:lru3", 4));
+        
+        assertEquals(List.of("jdbc:h2:mem:lru2", "jdbc:h2:mem:lru3"), poolUrls());
+        assertEquals(8, factory.getTotalMaximumConnections());
+    }
+    
+    @Test
+    void testFailsWhenCapReachedByBusyPools() throws Exception {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 6);
+        
+        JdbcTemplate busy = factory.createJdbcTemplate(config("jdbc:h2:mem:cap1", 4));
+        try (Connection ignored = busy.getDataSource().getConnection()) {
+            assertThrows(IllegalStateException.class, () -> factory.createJdbcTemplate(config("jdbc:h2:mem:cap2", 4)));
+        }
+    }
+    
+    @Test
+    void testNormalizeUrl() {
+        assertEquals("jdbc:mysql://db.example.com:3306/Sales?a=1&useSSL=false",
+                DynamicJdbcTemplateConfig.normalizeUrl("jdbc:mysql://DB.example.com:3306/Sales?useSSL=false&&a=1"));
+        assertEquals("jdbc:mysql://localhost/test", DynamicJdbcTemplateConfig.normalizeUrl("jdbc:mysql://localhost/test?"));
+    }
+    
+    private List<String> poolUrls() {
+        return factory.getPoolStats().stream()
+                .map(DynamicJdbcTemplateConfig.PoolStats::getUrl)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+    
+    private static DatabaseConfig config(String url, int maximumPoolSize) {
+        DatabaseConfig config = new DatabaseConfig(url, "sa", "");
+        config.setDriverClassName("org.h2.Driver");
+        config.setMaximumPoolSize(maximumPoolSize);
+        config.setMinimumIdle(1);
+        return config;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.DynamicJdbcTemplateConfig;
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.service.DatabaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DuckDbDialectTest {
+    
+    private static final List<ColumnInfo> COLUMNS = List.of(
+            new ColumnInfo("id", ColumnInfo.JavaType.LONG),
+            new ColumnInfo("name", ColumnInfo.JavaType.STRING),
+            new ColumnInfo("score", ColumnInfo.JavaType.DOUBLE),
+            new ColumnInfo("day", ColumnInfo.JavaType.DATE),
+            new ColumnInfo("seen_at", ColumnInfo.JavaType.TIMESTAMP)
+    );
+    
+    @TempDir
+    Path tempDir;
+    
+    private DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory factory;
+    private DatabaseService databaseService;
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 100);
+        databaseService = new DatabaseService(factory);
+        DatabaseConfig config = new DatabaseConfig("jdbc:duckdb:" + tempDir.resolve("test.duckdb"), null, null);
+        config.setMinimumIdle(1);
+        databaseService.createConnection(config);
+        jdbcTemplate = databaseService.getJdbcTemplate();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        factory.closeAllDataSources();
+    }
+    
+    @Test
+    void testAppenderLoadsTypedValues() {
+        assertSame(DuckDbDialect.INSTANCE, databaseService.getDialect());
+        databaseService.createTable("events", COLUMNS, null);
+        
+        ColumnarBatch batch = new ColumnarBatch(COLUMNS, 2);
+        String[][] rows = {
+                {"9000000000", "a", "1.5", "2024-01-02", "2024-01-02 03:04:05.123"},
+                {"2", "", "", "", ""}
+        };
+        for (String[] row : rows) {
+            for (int j = 0; j < row.length; j++) {
+                batch.setValue(j, row[j]);
+            }
+            batch.endRow();
+        }
+        
+        assertEquals(2, DuckDbDialect.INSTANCE.createBulkLoader().loadBatch(jdbcTemplate, "events", batch));
+        List<Map<String, Object>> result = jdbcTemplate.queryForList("SELECT * FROM \"events\" ORDER BY \"id\" DESC");
+        assertEquals(9000000000L, result.get(0).get("id"));
+        assertEquals(1.5, result.get(0).get("score"));
+        assertEquals("2024-01-02", result.get(0).get("day").toString());
+        assertEquals(java.sql.Timestamp.valueOf("2024-01-02 03:04:05.123"), result.get(0).get("seen_at"));
+        assertNull(result.get(1).get("name"));
+        assertNull(result.get(1).get("day"));
+        assertNull(result.get(1).get("seen_at"));
+    }
+    
+    @Test
+    void testIndexesAndUpsert() {
+        databaseService.createTable("events", COLUMNS, List.of("id"));
+        databaseService.createIndexesInSinglePass("events", List.of("name"));
+        
+        assertEquals(List.of("id"), List.copyOf(DuckDbDialect.INSTANCE.loadIndexes(jdbcTemplate, "events", true).values()).get(0));
+        assertTrue(DuckDbDialect.INSTANCE.loadIndexNames(jdbcTemplate, "events").contains("idx_events_name"));
+        assertTrue(databaseService.findColumnsWithoutIndex("events", List.of("name", "score")).contains("score"));
+        
+        jdbcTemplate.update("INSERT INTO \"events\" (\"id\", \"score\") VALUES (1, 1.0)");
+        jdbcTemplate.update(DuckDbDialect.INSTANCE.upsertSql("events", List.of("id", "score"), List.of("id")), 1L, 2.0);
+        assertEquals(2.0, jdbcTemplate.queryForObject("SELECT \"score\" FROM \"events\" WHERE \"id\" = 1", Double.class));
+    }
+    
+    @Test
+    void testLoadColumns() {
+        databaseService.createTable("events", COLUMNS, null);
+        
+        List<ColumnInfo> loaded = databaseService.loadColumns("events");
+        
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            assertEquals(COLUMNS.get(i).getJavaType(), loaded.get(i).getJavaType());
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.DynamicJdbcTemplateConfig;
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.service.DatabaseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class H2DialectTest {
+    
+    private static final List<ColumnInfo> COLUMNS = List.of(
+            new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+            new ColumnInfo("name", ColumnInfo.JavaType.STRING),
+            new ColumnInfo("day", ColumnInfo.JavaType.DATE),
+            new ColumnInfo("active", ColumnInfo.JavaType.BOOLEAN)
+    );
+    
+    private DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory factory;
+    private DatabaseService databaseService;
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        factory = new DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory(Duration.ofMinutes(10), 100);
+        databaseService = new DatabaseService(factory);
+        databaseService.createConnection(new DatabaseConfig("jdbc:h2:mem:dialect;DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate = databaseService.getJdbcTemplate();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+        factory.closeAllDataSources();
+    }
+    
+    @Test
+    void testCsvReadLoadsNullsAndQuotedValues() {
+        assertSame(H2Dialect.INSTANCE, databaseService.getDialect());
+        databaseService.createTable("people", COLUMNS, null);
+        
+        ColumnarBatch batch = batch(new String[][]{
+                {"1", "Smith, \"Jr\"", "2024-01-02", "true"},
+                {"2", "", "", "false"},
+                {"3", "\\N", "2024-02-29", ""}
+        });
+        int rows = H2Dialect.INSTANCE.createBulkLoader().loadBatch(jdbcTemplate, "people", batch);
+        
+        assertEquals(3, rows);
+        List<Map<String, Object>> result = jdbcTemplate.queryForList("SELECT * FROM \"people\" ORDER BY \"id\"");
+        assertEquals("Smith, \"Jr\"", result.get(0).get("name"));
+        assertEquals(java.sql.Date.valueOf("2024-01-02"), result.get(0).get("day"));
+        assertEquals(true, result.get(0).get("active"));
+        assertNull(result.get(1).get("name"));
+        assertNull(result.get(1).get("day"));
+        assertEquals("\\N", result.get(2).get("name"));
+        assertNull(result.get(2).get("active"));
+    }
+    
+    @Test
+    void testUpsertWithMerge() {
+        databaseService.createTable("people", COLUMNS, List.of("id"));
+        
+        databaseService.batchInsert(jdbcTemplate, "people", batch(new String[][]{{"1", "a", "2024-01-01", "true"}}), List.of("id"));
+        databaseService.batchInsert(jdbcTemplate, "people", batch(new String[][]{{"1", "b", "2024-01-01", "true"}}), List.of("id"));
+        
+        assertEquals("b", jdbcTemplate.queryForObject("SELECT \"name\" FROM \"people\" WHERE \"id\" = 1", String.class));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"people\"", Integer.class));
+    }
+    
+    @Test
+    void testLoadColumnsAndUniqueKey() {
+        databaseService.createTable("people", COLUMNS, List.of("id"));
+        
+        List<ColumnInfo> loaded = databaseService.loadColumns("people");
+        assertEquals(List.of(ColumnInfo.JavaType.INTEGER, ColumnInfo.JavaType.STRING, ColumnInfo.JavaType.DATE,
+                ColumnInfo.JavaType.BOOLEAN), loaded.stream().map(ColumnInfo::getJavaType).collect(java.util.stream.Collectors.toList()));
+        assertTrue(databaseService.tableExists("people"));
+        
+        // 建表时的唯一约束已覆盖键列，不会重复创建
+        databaseService.ensureUniqueKey("people", List.of("id"));
+        assertEquals(1, H2Dialect.INSTANCE.loadIndexes(jdbcTemplate, "people", true).size());
+    }
+    
+    @Test
+    void testSwapRenamesStagingIndexes() {
+        databaseService.createTable("orders", COLUMNS, List.of("id"));
+        databaseService.createIndexes("orders", List.of("name"));
+        databaseService.createTable("orders__staging", COLUMNS, List.of("id"));
+        databaseService.createIndexesInSinglePass("orders__staging", List.of("name"));
+        
+        databaseService.swapTables("orders", "orders__staging");
+        
+        assertTrue(databaseService.tableExists("orders"));
+        assertFalse(databaseService.tableExists("orders__staging"));
+        Set<String> indexNames = H2Dialect.INSTANCE.loadIndexNames(jdbcTemplate, "orders");
+        assertTrue(indexNames.contains("idx_orders_name"));
+        assertTrue(databaseService.findColumnsWithoutIndex("orders", List.of("name")).isEmpty());
+        
+        // 再次替换时影子表可以使用同样的索引名
+        databaseService.createTable("orders__staging", COLUMNS, List.of("id"));
+        databaseService.createIndexes("orders__staging", List.of("name"));
+        databaseService.swapTables("orders", "orders__staging");
+        assertTrue(H2Dialect.INSTANCE.loadIndexNames(jdbcTemplate, "orders").contains("idx_orders_name"));
+    }
+    
+    static ColumnarBatch batch(String[][] rows) {
+        ColumnarBatch batch = new ColumnarBatch(COLUMNS, rows.length);
+        for (String[] row : rows) {
+            for (int j = 0; j < row.length; j++) {
+                batch.setValue(j, row[j]);
+            }
+            batch.endRow();
+        }
+        return batch;
+    }
+}
\ No newline at end of file
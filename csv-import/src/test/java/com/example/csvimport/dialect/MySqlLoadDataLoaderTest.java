@@ -0,0 +1,99 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MySqlLoadDataLoaderTest {
+    
+    private MySqlLoadDataLoader loadDataLoader;
+    
+    @BeforeEach
+    void setUp() {
+        loadDataLoader = new MySqlLoadDataLoader(MySqlDialect.INSTANCE);
+    }
+    
+    @Test
+    void testEncodeRows() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING),
+                new ColumnInfo("active", ColumnInfo.JavaType.BOOLEAN)
+        );
+        List<List<String>> rows = List.of(
+                Arrays.asList(" 1 ", "tab\there", "yes"),
+                Arrays.asList("2", "line\nbreak\\slash", "FALSE"),
+                Arrays.asList("", null, " ")
+        );
+        
+        String encoded = new String(loadDataLoader.encodeRows(toBatch(columns, rows)), StandardCharsets.UTF_8);
+        
+        assertEquals("1\ttab\\there\t1\n" +
+                     "2\tline\\nbreak\\\\slash\t0\n" +
+                     "\\N\t\\N\t\\N\n", encoded);
+    }
+    
+    @Test
+    void testEncodeTypedRows() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("amount", ColumnInfo.JavaType.DOUBLE),
+                new ColumnInfo("day", ColumnInfo.JavaType.DATE),
+                new ColumnInfo("created", ColumnInfo.JavaType.TIMESTAMP),
+                new ColumnInfo("total", ColumnInfo.JavaType.LONG)
+        );
+        List<List<String>> rows = List.of(
+                Arrays.asList("12.5", "2024-2-9", "2024-02-09 08:05:03.25", "9999999999"),
+                Arrays.asList("n/a", "09/02/2024", "2024-02-09 08:05:03", "12x")
+        );
+        
+        String encoded = new String(loadDataLoader.encodeRows(toBatch(columns, rows)), StandardCharsets.UTF_8);
+        
+        // 无法解析的值按原样输出，由服务器处理
+        assertEquals("12.5\t2024-02-09\t2024-02-09 08:05:03.250000\t9999999999\n" +
+                     "n/a\t09/02/2024\t2024-02-09 08:05:03\t12x\n", encoded);
+    }
+    
+    private static ColumnarBatch toBatch(List<ColumnInfo> columns, List<List<String>> rows) {
+        ColumnarBatch batch = new ColumnarBatch(columns, rows.size());
+        for (List<String> row : rows) {
+            for (int j = 0; j < columns.size(); j++) {
+                batch.setValue(j, row.get(j));
+            }
+            batch.endRow();
+        }
+        return batch;
+    }
+    
+    @Test
+    void testBuildLoadDataSql() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING)
+        );
+        
+        String sql = loadDataLoader.buildLoadDataSql("users", columns);
+        
+        assertTrue(sql.startsWith("LOAD DATA LOCAL INFILE 'stream' INTO TABLE `users`"));
+        assertTrue(sql.endsWith("(`id`, `name`)"));
+    }
+    
+    @Test
+    void testIsLocalInfileRejected() {
+        SQLException serverDisabled = new SQLException("Loading local data is disabled", "42000", 3948);
+        assertTrue(MySqlLoadDataLoader.isLocalInfileRejected(
+                new DataAccessResourceFailureException("LOAD DATA failed", serverDisabled)));
+        
+        SQLException duplicate = new SQLException("Duplicate entry", "23000", 1062);
+        assertFalse(MySqlLoadDataLoader.isLocalInfileRejected(
+                new DataAccessResourceFailureException("LOAD DATA failed", duplicate)));
+    }
+}
\ No newline at end of file
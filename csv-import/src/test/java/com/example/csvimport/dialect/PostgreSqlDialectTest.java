@@ -0,0 +1,72 @@
+package com.example.csvimport.dialect;
+
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgreSqlDialectTest {
+    
+    private final PostgreSqlDialect dialect = PostgreSqlDialect.INSTANCE;
+    
+    @Test
+    void testForUrl() {
+        assertSame(PostgreSqlDialect.INSTANCE, SqlDialect.forUrl("jdbc:postgresql://localhost:5432/test"));
+        assertSame(MySqlDialect.INSTANCE, SqlDialect.forUrl(" JDBC:MYSQL://localhost:3306/test"));
+        assertThrows(IllegalArgumentException.class, () -> SqlDialect.forUrl("jdbc:oracle:thin:@localhost:1521:xe"));
+    }
+    
+    @Test
+    void testCreateTableTranslatesTypes() {
+        ColumnInfo text = new ColumnInfo("note", ColumnInfo.JavaType.STRING);
+        text.updateVarcharLength(1000);
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("score", ColumnInfo.JavaType.DOUBLE),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING),
+                text
+        );
+        
+        assertEquals("CREATE TABLE \"events\" (\"id\" INTEGER, \"score\" DOUBLE PRECISION, \"name\" VARCHAR(255), "
+                + "\"note\" TEXT, UNIQUE (\"id\"))", dialect.createTableSql("events", columns, List.of("id"), false));
+    }
+    
+    @Test
+    void testUpsertUsesOnConflict() {
+        assertEquals("INSERT INTO \"users\" (\"id\", \"name\") VALUES (?, ?) ON CONFLICT (\"id\") DO UPDATE SET \"name\" = EXCLUDED.\"name\"",
+                dialect.upsertSql("users", List.of("id", "name"), List.of("id")));
+        assertEquals("INSERT INTO \"users\" (\"id\") VALUES (?) ON CONFLICT (\"id\") DO NOTHING",
+                dialect.upsertSql("users", List.of("id"), List.of("id")));
+    }
+    
+    @Test
+    void testSwapInOneTransaction() {
+        assertTrue(dialect.supportsTransactionalDdl());
+        assertEquals(List.of("DROP TABLE IF EXISTS \"orders__old\"",
+                "ALTER TABLE \"orders\" RENAME TO \"orders__old\"",
+                "ALTER TABLE \"orders__staging\" RENAME TO \"orders\"",
+                "DROP TABLE \"orders__old\""), dialect.swapTablesSql("orders", "orders__staging", true));
+    }
+    
+    @Test
+    void testCopyTextEncoding() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING)
+        );
+        ColumnarBatch batch = new ColumnarBatch(columns, 2);
+        batch.setValue(0, "1");
+        batch.setValue(1, "a\tb\\c");
+        batch.endRow();
+        batch.setValue(0, "2");
+        batch.setValue(1, "");
+        batch.endRow();
+        
+        assertEquals("COPY \"events\" (\"id\", \"name\") FROM STDIN", new PostgresCopyLoader(dialect).buildCopySql("events", columns));
+        assertEquals("1\ta\\tb\\\\c\n2\t\\N\n", new String(RowTextEncoder.encodeTabSeparated(batch), StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,106 @@
+package com.example.csvimport.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportMetricsTest {
+    
+    private MeterRegistry registry;
+    private ImportMetrics importMetrics;
+    
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        importMetrics = new ImportMetrics(registry, 2);
+    }
+    
+    @Test
+    void testCountersAndTimersAreTaggedByTable() {
+        ImportProgress progress = importMetrics.start("orders", 1000);
+        progress.onBytesRead(250);
+        progress.onBatchParsed(100, TimeUnit.MILLISECONDS.toNanos(5));
+        progress.onRejectedCells(3);
+        progress.onBatchWritten(100, TimeUnit.MILLISECONDS.toNanos(20));
+        
+        assertEquals(250, registry.get("csv.import.bytes.read").tag("table", "orders").functionCounter().count());
+        assertEquals(100, registry.get("csv.import.rows").tag("stage", "parse").functionCounter().count());
+        assertEquals(100, registry.get("csv.import.rows").tag("stage", "insert").functionCounter().count());
+        assertEquals(3, registry.get("csv.import.rejected.cells").functionCounter().count());
+        assertEquals(1, registry.get("csv.import.batch").tag("stage", "insert").timer().count());
+        assertEquals(0.25, registry.get("csv.import.progress").gauge().value(), 1e-9);
+        assertTrue(progress.getEtaSeconds() >= 0);
+        
+        importMetrics.finish(progress, true);
+        assertEquals(ImportProgress.Status.SUCCEEDED, progress.getStatus());
+        assertEquals(1.0, progress.getFractionDone());
+        assertEquals(0, progress.getEtaSeconds());
+    }
+    
+    @Test
+    void testUnknownSizeHasNoEta() {
+        ImportProgress progress = importMetrics.start("compressed", 0);
+        progress.onBytesRead(4096);
+        
+        assertTrue(Double.isNaN(progress.getFractionDone()));
+        assertTrue(Double.isNaN(progress.getEtaSeconds()));
+    }
+    
+    @Test
+    void testBottleneckFollowsQueueDepth() {
+        ImportProgress progress = importMetrics.start("events", 1000);
+        BlockingQueue<Object> queue = new ArrayBlockingQueue<>(4);
+        progress.onQueueCreated(queue, 4);
+        progress.onBatchParsed(10, 1000);
+        assertEquals("parse", progress.getBottleneck());
+        
+        for (int i = 0; i < 4; i++) {
+            queue.add(i);
+        }
+        assertEquals(4, registry.get("csv.import.queue.depth").gauge().value());
+        assertEquals("insert", progress.getBottleneck());
+    }
+    
+    @Test
+    void testOnlyRecentFinishedImportsKeepMeters() {
+        ImportProgress running = importMetrics.start("running", 100);
+        for (int i = 0; i < 5; i++) {
+            importMetrics.finish(importMetrics.start("file" + i, 100), true);
+        }
+        
+        assertEquals(List.of("running", "file3", "file4"),
+                importMetrics.getImports().stream().map(ImportProgress::getTableName).collect(Collectors.toList()));
+        assertNull(registry.find("csv.import.rows").tag("table", "file0").functionCounter());
+        assertNull(registry.find("csv.import.batch").tag("table", "file2").timer());
+        assertNotNull(registry.find("csv.import.batch").tag("table", "file4").timer());
+        assertNotNull(registry.find("csv.import.batch").tag("table", "running").timer());
+        
+        importMetrics.finish(running, true);
+        assertEquals(List.of("file3", "file4"),
+                importMetrics.getImports().stream().map(ImportProgress::getTableName).collect(Collectors.toList()));
+        assertEquals(2 * running.getMeters().size(), registry.getMeters().size());
+    }
+    
+    @Test
+    void testRestartReplacesMeters() {
+        ImportProgress first = importMetrics.start("orders", 100);
+        first.onBatchWritten(50, 1000);
+        importMetrics.finish(first, false);
+        
+        ImportProgress second = importMetrics.start("orders", 100);
+        second.onBatchWritten(7, 1000);
+        
+        assertEquals(7, registry.get("csv.import.rows").tag("stage", "insert").functionCounter().count());
+        assertEquals(1, importMetrics.getImports().size());
+        assertTrue(importMetrics.renderProgress().contains("orders"));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.example.csvimport.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnProfileTest {
+    
+    @Test
+    void testTypeWidensMonotonically() {
+        ColumnProfile profile = new ColumnProfile();
+        profile.add("1");
+        profile.add("0");
+        assertEquals(ColumnInfo.JavaType.BOOLEAN, profile.inferType());
+        
+        profile.add("42");
+        assertEquals(ColumnInfo.JavaType.INTEGER, profile.inferType());
+        
+        profile.add("3000000000");
+        assertEquals(ColumnInfo.JavaType.LONG, profile.inferType());
+        
+        profile.add("2.5");
+        assertEquals(ColumnInfo.JavaType.DOUBLE, profile.inferType());
+        
+        // 空值不影响类型
+        profile.add(" ");
+        assertEquals(ColumnInfo.JavaType.DOUBLE, profile.inferType());
+        
+        // 一个不兼容的值就会加宽为字符串，而不是被多数投票忽略
+        profile.add("n/a");
+        assertEquals(ColumnInfo.JavaType.STRING, profile.inferType());
+        
+        assertEquals(1, profile.getNullCount());
+        assertEquals(6, profile.getNonNullCount());
+        assertEquals(10, profile.getMaxLength());
+        assertEquals(0.0, profile.getMinValue());
+        assertEquals(3_000_000_000.0, profile.getMaxValue());
+    }
+    
+    @Test
+    void testDateWidensToTimestamp() {
+        ColumnProfile profile = new ColumnProfile();
+        profile.add("2024-01-15");
+        assertEquals(ColumnInfo.JavaType.DATE, profile.inferType());
+        
+        profile.add("2024-01-15 10:00:00");
+        assertEquals(ColumnInfo.JavaType.TIMESTAMP, profile.inferType());
+        assertNull(profile.getMinValue());
+    }
+    
+    @Test
+    void testMergeCombinesStatistics() {
+        ColumnProfile first = new ColumnProfile();
+        ColumnProfile second = new ColumnProfile();
+        for (int i = 0; i < 1000; i++) {
+            first.add(Integer.toString(i));
+            second.add(Integer.toString(i + 500));
+        }
+        second.add(null);
+        
+        first.merge(second);
+        
+        assertEquals(ColumnInfo.JavaType.INTEGER, first.inferType());
+        assertEquals(2001, first.getCount());
+        assertEquals(1, first.getNullCount());
+        assertEquals(0.0, first.getMinValue());
+        assertEquals(1499.0, first.getMaxValue());
+        assertEquals(1500, first.getDistinctEstimate(), 1500 * 0.05);
+    }
+    
+    @Test
+    void testDistinctEstimate() {
+        ColumnProfile profile = new ColumnProfile();
+        for (int i = 0; i < 200_000; i++) {
+            profile.add("user-" + (i % 100_000));
+        }
+        
+        assertEquals(100_000, profile.getDistinctEstimate(), 100_000 * 0.05);
+        
+        ColumnProfile empty = new ColumnProfile();
+        assertEquals(0, empty.getDistinctEstimate());
+        assertEquals(ColumnInfo.JavaType.STRING, empty.inferType());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,58 @@
+package com.example.csvimport.model;
+
+import com.example.csvimport.parser.CsvFileSplitter;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportCheckpointTest {
+    
+    private final List<CsvFileSplitter.ByteRange> ranges = List.of(
+            new CsvFileSplitter.ByteRange(10, 100),
+            new CsvFileSplitter.ByteRange(100, 200),
+            new CsvFileSplitter.ByteRange(200, 300));
+    
+    @Test
+    void testRangeCompleteOnlyWhenAllBatchesCommitted() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(300, 10);
+        checkpoint.addBatch(10, 0, 10, false);
+        checkpoint.addBatch(10, 20, 5, true);
+        
+        // 中间的批次尚未提交
+        assertFalse(checkpoint.isRangeComplete(10));
+        assertTrue(checkpoint.isCommitted(10, 20));
+        assertFalse(checkpoint.isCommitted(10, 10));
+        
+        checkpoint.addBatch(10, 10, 10, false);
+        assertTrue(checkpoint.isRangeComplete(10));
+        assertEquals(25, checkpoint.getCommittedRows());
+    }
+    
+    @Test
+    void testResumeOffsetAndPendingRanges() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(300, 10);
+        assertTrue(checkpoint.isEmpty());
+        assertEquals(10, checkpoint.getResumeOffset(ranges));
+        
+        checkpoint.addBatch(10, 0, 7, true);
+        // 第三个区间已完成，但第二个区间未完成，恢复偏移停在第二个区间的起点
+        checkpoint.addBatch(200, 0, 3, true);
+        checkpoint.addBatch(100, 0, 10, false);
+        
+        assertEquals(100, checkpoint.getResumeOffset(ranges));
+        List<CsvFileSplitter.ByteRange> pending = checkpoint.pendingRanges(ranges);
+        assertEquals(1, pending.size());
+        assertEquals(100, pending.get(0).getStart());
+        assertEquals(20, checkpoint.getCommittedRows());
+    }
+    
+    @Test
+    void testDuplicateBatchCountedOnce() {
+        ImportCheckpoint checkpoint = new ImportCheckpoint(300, 10);
+        checkpoint.addBatch(10, 0, 10, false);
+        checkpoint.addBatch(10, 0, 10, false);
+        assertEquals(10, checkpoint.getCommittedRows());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,227 @@
+package com.example.csvimport.parser;
+
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvFileOpenerTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testPlainFileIsNotCompressed() throws IOException {
+        Path file = tempDir.resolve("plain.csv");
+        Files.write(file, csv(10));
+        
+        assertEquals(CsvFileOpener.Compression.NONE, CsvFileOpener.detect(file));
+        assertArrayEquals(csv(10), readAll(file, 4));
+    }
+    
+    @Test
+    void testMultiMemberGzip() throws IOException {
+        byte[] first = csv(100);
+        byte[] second = "more,rows\n".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(gzip(first));
+        out.write(gzip(second));
+        Path file = tempDir.resolve("data.csv.gz");
+        Files.write(file, out.toByteArray());
+        
+        assertEquals(CsvFileOpener.Compression.GZIP, CsvFileOpener.detect(file));
+        assertArrayEquals(concat(first, second), readAll(file, 1));
+        // 普通gzip没有BGZF块长度，多线程时也按顺序解压
+        assertArrayEquals(concat(first, second), readAll(file, 4));
+    }
+    
+    @Test
+    void testBgzfParallelDecompression() throws IOException {
+        byte[] data = csv(200_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int offset = 0; offset < data.length; offset += 60_000) {
+            out.write(bgzfBlock(data, offset, Math.min(60_000, data.length - offset)));
+        }
+        Path file = tempDir.resolve("data.csv.bgz");
+        Files.write(file, out.toByteArray());
+        
+        assertTrue(ParallelFrameInputStream.isSplittable(file, CsvFileOpener::bgzfBlockEnd, Long.MAX_VALUE));
+        assertArrayEquals(data, readAll(file, 4));
+    }
+    
+    @Test
+    void testZstdMultiFrameParallelDecompression() throws IOException {
+        byte[] data = csv(200_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int offset = 0; offset < data.length; offset += 500_000) {
+            out.write(zstd(data, offset, Math.min(500_000, data.length - offset)));
+        }
+        Path file = tempDir.resolve("data.csv.zst");
+        Files.write(file, out.toByteArray());
+        
+        assertEquals(CsvFileOpener.Compression.ZSTD, CsvFileOpener.detect(file));
+        assertTrue(ParallelFrameInputStream.isSplittable(file, CsvFileOpener::zstdFrameEnd, Long.MAX_VALUE));
+        assertArrayEquals(data, readAll(file, 1));
+        assertArrayEquals(data, readAll(file, 4));
+    }
+    
+    @Test
+    void testLargeLaterFrameIsDecodedSequentially() throws IOException {
+        byte[] data = csv(100_000);
+        int[] frameLengths = {100_000, 100_000, 1_000_000, 100_000};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int offset = 0;
+        for (int i = 0; i < frameLengths.length; i++) {
+            int length = i == frameLengths.length - 1 ? data.length - offset : frameLengths[i];
+            out.write(zstd(data, offset, length));
+            offset += length;
+        }
+        Path file = tempDir.resolve("large-frame.csv.zst");
+        Files.write(file, out.toByteArray());
+        long maxFrameSize = zstd(data, 0, 500_000).length;
+        
+        // 第一个帧不超过上限，第三个帧压缩后超过上限，只有它在读取线程上解压
+        assertTrue(ParallelFrameInputStream.isSplittable(file, CsvFileOpener::zstdFrameEnd, maxFrameSize));
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        try (InputStream in = new ParallelFrameInputStream(file, CsvFileOpener::zstdFrameEnd, recording(threads), 4,
+                maxFrameSize, Integer.MAX_VALUE - 1)) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+        assertEquals(1, threads.stream().filter(Thread.currentThread().getName()::equals).count());
+    }
+    
+    @Test
+    void testChunkOverDecodedLimitIsDecodedSequentially() throws IOException {
+        byte[] data = csv(200_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int offset = 0; offset < data.length; offset += 60_000) {
+            out.write(bgzfBlock(data, offset, Math.min(60_000, data.length - offset)));
+        }
+        Path file = tempDir.resolve("limit.csv.bgz");
+        Files.write(file, out.toByteArray());
+        
+        // 每个任务解压后都超过上限，线程池放弃后由读取线程重新解压
+        List<String> threads = Collections.synchronizedList(new ArrayList<>());
+        try (InputStream in = new ParallelFrameInputStream(file, CsvFileOpener::bgzfBlockEnd, recording(threads), 4,
+                Long.MAX_VALUE, 100_000)) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+        assertTrue(threads.contains(Thread.currentThread().getName()));
+    }
+    
+    @Test
+    void testZipPrefersCsvEntry() throws IOException {
+        Path file = tempDir.resolve("bundle.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("README.txt"));
+            zip.write("readme".getBytes(StandardCharsets.UTF_8));
+            zip.putNextEntry(new ZipEntry("data/users.csv"));
+            zip.write(csv(50));
+        }
+        
+        assertEquals(CsvFileOpener.Compression.ZIP, CsvFileOpener.detect(file));
+        assertArrayEquals(csv(50), readAll(file, 1));
+    }
+    
+    @Test
+    void testStripCompressionExtension() {
+        assertEquals("users.csv", CsvFileOpener.stripCompressionExtension("users.csv.gz"));
+        assertEquals("users.csv", CsvFileOpener.stripCompressionExtension("users.csv.ZST"));
+        assertEquals("users.csv", CsvFileOpener.stripCompressionExtension("users.csv"));
+    }
+    
+    private static byte[] csv(int rows) {
+        StringBuilder sb = new StringBuilder("id,name\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append(i).append(",name").append(i).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static byte[] readAll(Path file, int threads) throws IOException {
+        try (InputStream in = CsvFileOpener.open(file, threads)) {
+            return in.readAllBytes();
+        }
+    }
+    
+    private static byte[] concat(byte[] a, byte[] b) {
+        byte[] result = new byte[a.length + b.length];
+        System.arraycopy(a, 0, result, 0, a.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+    
+    /**
+     * gzip或zstd解压器，记录每次解压所在的线程
+     */
+    private static ParallelFrameInputStream.FrameDecoder recording(List<String> threads) {
+        return in -> {
+            threads.add(Thread.currentThread().getName());
+            byte[] head = new byte[2];
+            in.mark(2);
+            in.readNBytes(head, 0, 2);
+            in.reset();
+            return (head[0] & 0xFF) == 0x1F ? new GZIPInputStream(in) : new ZstdInputStream(in);
+        };
+    }
+    
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.toByteArray();
+    }
+    
+    private static byte[] zstd(byte[] data, int offset, int length) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream zstd = new ZstdOutputStream(out)) {
+            zstd.write(data, offset, length);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * 按BGZF格式压缩一个块：带 'B','C' 额外字段的gzip member
+     */
+    private static byte[] bgzfBlock(byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data, offset, length);
+        deflater.finish();
+        byte[] compressed = new byte[length + 1024];
+        int compressedLength = deflater.deflate(compressed);
+        deflater.end();
+        
+        CRC32 crc = new CRC32();
+        crc.update(data, offset, length);
+        
+        ByteBuffer block = ByteBuffer.allocate(18 + compressedLength + 8).order(ByteOrder.LITTLE_ENDIAN);
+        block.put(new byte[]{0x1F, (byte) 0x8B, 8, 4, 0, 0, 0, 0, 0, (byte) 0xFF});
+        block.putShort((short) 6).put((byte) 'B').put((byte) 'C').putShort((short) 2);
+        block.putShort((short) (block.capacity() - 1));
+        block.put(compressed, 0, compressedLength);
+        block.putInt((int) crc.getValue()).putInt(length);
+        return block.array();
+    }
+}
\ No newline at end of file
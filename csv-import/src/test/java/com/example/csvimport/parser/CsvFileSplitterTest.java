@@ -0,0 +1,89 @@
+package com.example.csvimport.parser;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvFileSplitterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testSplitAlignsToRecordBoundariesWithQuotedNewlines() throws IOException {
+        // 每行的description字段都包含引号内换行和转义引号，切分点很容易落在引号字段内部
+        StringBuilder csv = new StringBuilder("id,description,city\n");
+        for (int i = 0; i < 2000; i++) {
+            csv.append(i).append(",\"line one\nline \"\"two\"\"\n,with comma\",北京\n");
+        }
+        Path csvFile = tempDir.resolve("quoted.csv");
+        Files.write(csvFile, csv.toString().getBytes(StandardCharsets.UTF_8));
+        
+        List<CsvFileSplitter.ByteRange> ranges = CsvFileSplitter.split(csvFile, 16, 1024);
+        
+        assertTrue(ranges.size() > 1);
+        assertEquals("id,description,city\n".length(), ranges.get(0).getStart());
+        assertEquals(Files.size(csvFile), ranges.get(ranges.size() - 1).getEnd());
+        for (int i = 1; i < ranges.size(); i++) {
+            assertEquals(ranges.get(i - 1).getEnd(), ranges.get(i).getStart());
+        }
+        
+        List<CSVRecord> records = parseRanges(csvFile, ranges);
+        assertEquals(2000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            CSVRecord record = records.get(i);
+            assertEquals(String.valueOf(i), record.get(0));
+            assertEquals("line one\nline \"two\"\n,with comma", record.get(1));
+            assertEquals("北京", record.get(2));
+        }
+    }
+    
+    @Test
+    void testSmallFileIsSingleRange() throws IOException {
+        Path csvFile = tempDir.resolve("small.csv");
+        Files.write(csvFile, "a,b\n1,2\n3,4".getBytes(StandardCharsets.UTF_8));
+        
+        List<CsvFileSplitter.ByteRange> ranges = CsvFileSplitter.split(csvFile, 8);
+        
+        assertEquals(1, ranges.size());
+        assertEquals(4, ranges.get(0).getStart());
+        assertEquals(Files.size(csvFile), ranges.get(0).getEnd());
+    }
+    
+    @Test
+    void testHeaderOnlyFileHasNoRanges() throws IOException {
+        Path csvFile = tempDir.resolve("header_only.csv");
+        Files.write(csvFile, "a,b\n".getBytes(StandardCharsets.UTF_8));
+        
+        assertTrue(CsvFileSplitter.split(csvFile, 8).isEmpty());
+    }
+    
+    private List<CSVRecord> parseRanges(Path csvFile, List<CsvFileSplitter.ByteRange> ranges) throws IOException {
+        List<CSVRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            for (CsvFileSplitter.ByteRange range : ranges) {
+                try (Reader reader = new InputStreamReader(
+                        new RangeInputStream(channel, range.getStart(), range.getEnd()), StandardCharsets.UTF_8);
+                     CSVParser parser = CSVFormat.DEFAULT.parse(reader)) {
+                    records.addAll(parser.getRecords());
+                }
+            }
+        }
+        return records;
+    }
+}
\ No newline at end of file
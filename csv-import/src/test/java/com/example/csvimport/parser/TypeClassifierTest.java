@@ -0,0 +1,94 @@
+package com.example.csvimport.parser;
+
+import com.example.csvimport.model.ColumnInfo.JavaType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypeClassifierTest {
+    
+    @Test
+    void testClassifyBoolean() {
+        for (String value : new String[]{"true", "FALSE", " Yes ", "no"}) {
+            assertEquals(TypeClassifier.mask(JavaType.BOOLEAN), TypeClassifier.classify(value), value);
+        }
+        
+        // 0和1既是布尔值也是整数
+        int one = TypeClassifier.classify("1");
+        assertTrue(TypeClassifier.matches(one, JavaType.BOOLEAN));
+        assertTrue(TypeClassifier.matches(one, JavaType.INTEGER));
+        assertFalse(TypeClassifier.matches(TypeClassifier.classify("-1"), JavaType.BOOLEAN));
+        assertFalse(TypeClassifier.matches(TypeClassifier.classify("01"), JavaType.BOOLEAN));
+    }
+    
+    @Test
+    void testClassifyIntegers() {
+        int small = TypeClassifier.classify("-2147483648");
+        assertTrue(TypeClassifier.matches(small, JavaType.INTEGER));
+        assertTrue(TypeClassifier.matches(small, JavaType.LONG));
+        assertTrue(TypeClassifier.matches(small, JavaType.DOUBLE));
+        
+        int large = TypeClassifier.classify("2147483648");
+        assertFalse(TypeClassifier.matches(large, JavaType.INTEGER));
+        assertTrue(TypeClassifier.matches(large, JavaType.LONG));
+        
+        // 超出long范围只能作为DOUBLE
+        assertEquals(TypeClassifier.mask(JavaType.DOUBLE), TypeClassifier.classify("92233720368547758070"));
+    }
+    
+    @Test
+    void testClassifyDouble() {
+        for (String value : new String[]{"3.14", "-.5", "5.", "1e10", "2.5E-3"}) {
+            assertEquals(TypeClassifier.mask(JavaType.DOUBLE), TypeClassifier.classify(value), value);
+        }
+        for (String value : new String[]{".", "1.2.3", "1e", "-", "12abc", "NaN"}) {
+            assertEquals(0, TypeClassifier.classify(value), value);
+        }
+    }
+    
+    @Test
+    void testClassifyDateAndTimestamp() {
+        int date = TypeClassifier.mask(JavaType.DATE) | TypeClassifier.mask(JavaType.TIMESTAMP);
+        assertEquals(date, TypeClassifier.classify("2024-02-29"));
+        assertEquals(date, TypeClassifier.classify("2024/2/9"));
+        assertEquals(TypeClassifier.mask(JavaType.TIMESTAMP), TypeClassifier.classify("2024-01-15 13:45:30"));
+        assertEquals(TypeClassifier.mask(JavaType.TIMESTAMP), TypeClassifier.classify("2024-01-15 13:45:30.123456"));
+        
+        // 非法日期、分隔符不一致或写入时无法解析的格式
+        for (String value : new String[]{"2023-02-29", "2024-13-01", "2024-01/15", "15/01/2024",
+                "2024-01-15 24:00:00", "2024-01-15 13:45", "2024-01-15T13:45:30"}) {
+            assertEquals(0, TypeClassifier.classify(value), value);
+        }
+    }
+    
+    @Test
+    void testClassifiedValuesAreParseable() {
+        TypedValueParser parser = new TypedValueParser();
+        String[] values = {"1", "-42", "9999999999", "3.5e2", "2024/01/15", "2024-01-15 13:45:30.5", "yes"};
+        for (String value : values) {
+            int mask = TypeClassifier.classify(value);
+            if (TypeClassifier.matches(mask, JavaType.INTEGER)) {
+                assertTrue(parser.parseInt(value), value);
+            }
+            if (TypeClassifier.matches(mask, JavaType.LONG)) {
+                assertTrue(parser.parseLong(value), value);
+            }
+            if (TypeClassifier.matches(mask, JavaType.DOUBLE)) {
+                assertTrue(parser.parseDouble(value), value);
+            }
+            if (TypeClassifier.matches(mask, JavaType.BOOLEAN)) {
+                assertNotEquals(-1, parser.parseBoolean(value), value);
+            }
+            if (TypeClassifier.matches(mask, JavaType.DATE)) {
+                assertTrue(parser.parseDate(value), value);
+            }
+        }
+    }
+    
+    @Test
+    void testClassifyBlank() {
+        assertEquals(0, TypeClassifier.classify(null));
+        assertEquals(0, TypeClassifier.classify("   "));
+        assertEquals(0, TypeClassifier.classify("hello"));
+    }
+}
\ No newline at end of file
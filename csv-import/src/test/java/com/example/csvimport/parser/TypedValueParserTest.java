@@ -0,0 +1,114 @@
+package com.example.csvimport.parser;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TypedValueParserTest {
+    
+    private TypedValueParser parser;
+    
+    @BeforeEach
+    void setUp() {
+        parser = new TypedValueParser();
+    }
+    
+    @Test
+    void testParseInt() {
+        assertTrue(parser.parseInt(" 42 "));
+        assertEquals(42, parser.intValue());
+        assertTrue(parser.parseInt("-2147483648"));
+        assertEquals(Integer.MIN_VALUE, parser.intValue());
+        assertTrue(parser.parseInt("+7"));
+        assertEquals(7, parser.intValue());
+        
+        assertFalse(parser.parseInt("2147483648"));
+        assertFalse(parser.parseInt("12a"));
+        assertFalse(parser.parseInt("-"));
+        assertFalse(parser.parseInt("  "));
+    }
+    
+    @Test
+    void testParseLong() {
+        assertTrue(parser.parseLong("-9223372036854775808"));
+        assertEquals(Long.MIN_VALUE, parser.longValue());
+        assertTrue(parser.parseLong("9223372036854775807"));
+        assertEquals(Long.MAX_VALUE, parser.longValue());
+        
+        assertFalse(parser.parseLong("9223372036854775808"));
+        assertFalse(parser.parseLong("1.0"));
+    }
+    
+    @Test
+    void testParseDoubleMatchesJdk() {
+        String[] values = {"0", "3.14", "-0.5", ".25", "5.", "1e10", "2.5E-3", "123456789.123456",
+                "0.1", "9007199254740993", "1.7976931348623157E308", "4.9e-324", "-0.0", "00012.5000"};
+        for (String value : values) {
+            assertTrue(parser.parseDouble(value), value);
+            assertEquals(Double.parseDouble(value), parser.doubleValue(), value);
+        }
+        
+        assertFalse(parser.parseDouble("1.2.3"));
+        assertFalse(parser.parseDouble("1e"));
+        assertFalse(parser.parseDouble("."));
+        assertFalse(parser.parseDouble("NaN"));
+        assertFalse(parser.parseDouble("abc"));
+    }
+    
+    @Test
+    void testParseBoolean() {
+        assertEquals(1, parser.parseBoolean("TRUE"));
+        assertEquals(1, parser.parseBoolean(" yes "));
+        assertEquals(1, parser.parseBoolean("1"));
+        assertEquals(0, parser.parseBoolean("False"));
+        assertEquals(0, parser.parseBoolean("no"));
+        assertEquals(0, parser.parseBoolean("0"));
+        assertEquals(-1, parser.parseBoolean("tru"));
+        assertEquals(-1, parser.parseBoolean("2"));
+    }
+    
+    @Test
+    void testParseDate() {
+        assertTrue(parser.parseDate("2024-02-29"));
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), parser.longValue());
+        assertTrue(parser.parseDate("1969-7-4"));
+        assertEquals(LocalDate.of(1969, 7, 4).toEpochDay(), parser.longValue());
+        
+        assertFalse(parser.parseDate("2023-02-29"));
+        assertFalse(parser.parseDate("2024-13-01"));
+        assertFalse(parser.parseDate("2024/01-01"));
+        assertTrue(parser.parseDate("2024/01/01"));
+        assertEquals(LocalDate.of(2024, 1, 1).toEpochDay(), parser.longValue());
+        assertFalse(parser.parseDate("24-01-01"));
+    }
+    
+    @Test
+    void testParseTimestamp() {
+        assertTrue(parser.parseTimestamp("2024-01-15 13:45:30"));
+        assertEquals(LocalDateTime.of(2024, 1, 15, 13, 45, 30).toEpochSecond(ZoneOffset.UTC), parser.longValue());
+        assertEquals(0, parser.nanos());
+        
+        assertTrue(parser.parseTimestamp("2024-01-15 13:45:30.123"));
+        assertEquals(123_000_000, parser.nanos());
+        
+        assertFalse(parser.parseTimestamp("2024-01-15"));
+        assertFalse(parser.parseTimestamp("2024-01-15 24:00:00"));
+        assertFalse(parser.parseTimestamp("2024-01-15 13:45"));
+        assertFalse(parser.parseTimestamp("2024-01-15 13:45:30."));
+    }
+    
+    @Test
+    void testToEpochDayMatchesLocalDate() {
+        for (int year : new int[]{1, 1600, 1900, 1969, 1970, 2000, 2024, 9999}) {
+            for (int month = 1; month <= 12; month++) {
+                assertEquals(LocalDate.of(year, month, 1).toEpochDay(), TypedValueParser.toEpochDay(year, month, 1));
+                assertEquals(LocalDate.of(year, month, 28).toEpochDay(), TypedValueParser.toEpochDay(year, month, 28));
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.example.csvimport.service;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.ImportOptions;
+import com.example.csvimport.model.BatchImportReport;
+import com.example.csvimport.model.FileImportResult;
+import com.example.csvimport.model.ImportResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BatchImportServiceTest {
+    
+    private CsvImportService csvImportService;
+    private DatabaseService databaseService;
+    private BatchImportService batchImportService;
+    
+    @TempDir
+    Path tempDir;
+    
+    @BeforeEach
+    void setUp() {
+        csvImportService = mock(CsvImportService.class);
+        databaseService = mock(DatabaseService.class);
+        batchImportService = new BatchImportService(csvImportService, new CsvService(), databaseService);
+    }
+    
+    @Test
+    void testResolveDirectoryAndGlob() throws IOException {
+        Files.write(tempDir.resolve("a.csv"), "id\n1\n".getBytes());
+        Files.write(tempDir.resolve("b.csv.gz"), new byte[0]);
+        Files.write(tempDir.resolve("notes.txt"), "x".getBytes());
+        Files.createDirectory(tempDir.resolve("sub.csv"));
+        
+        List<Path> files = batchImportService.resolveFiles(tempDir.toString());
+        assertEquals(List.of(tempDir.resolve("a.csv"), tempDir.resolve("b.csv.gz")), files);
+        
+        List<Path> globbed = batchImportService.resolveFiles(tempDir.resolve("*.txt").toString());
+        assertEquals(List.of(tempDir.resolve("notes.txt")), globbed);
+        
+        assertTrue(BatchImportService.isMultiFileInput(tempDir.toString()));
+        assertTrue(BatchImportService.isMultiFileInput(tempDir.resolve("*.csv").toString()));
+        assertFalse(BatchImportService.isMultiFileInput(tempDir.resolve("a.csv").toString()));
+    }
+    
+    @Test
+    void testImportFilesRespectsParallelismAndCollectsFailures() throws IOException {
+        for (int i = 0; i < 6; i++) {
+            Files.write(tempDir.resolve("file" + i + ".csv"), "id\n1\n".getBytes());
+        }
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(csvImportService.importCsv(anyString(), any(DatabaseConfig.class), any(ImportOptions.class)))
+                .thenAnswer(invocation -> {
+                    String path = invocation.getArgument(0);
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                        if (path.endsWith("file3.csv")) {
+                            throw new RuntimeException("CSV导入失败", new IllegalStateException("坏数据"));
+                        }
+                        return new ImportResult("t", 10, 50, ImportOptions.LoadEngine.BATCH_INSERT);
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                });
+        
+        ImportOptions options = new ImportOptions();
+        options.setFileParallelism(2);
+        options.setWriterThreads(3);
+        DatabaseConfig config = new DatabaseConfig("jdbc:mysql://localhost:3306/test", "root", "pw");
+        config.setMaximumPoolSize(2);
+        
+        BatchImportReport report = batchImportService.importFiles(
+                batchImportService.resolveFiles(tempDir.toString()), config, options);
+        
+        assertEquals(6, report.getFiles().size());
+        assertEquals(5, report.getSucceededCount());
+        assertEquals(50, report.getTotalRows());
+        assertTrue(maxRunning.get() <= 2);
+        FileImportResult failed = report.getFiles().stream().filter(file -> !file.isSuccess()).findFirst().orElseThrow();
+        assertEquals("坏数据", failed.getError());
+        
+        // 连接池按并发文件数一次性分配并只创建一次，调用方的配置不被修改
+        assertEquals(2, config.getMaximumPoolSize());
+        verify(databaseService, times(1)).createConnection(argThat(created -> created.getMaximumPoolSize() == 8));
+    }
+    
+    @Test
+    void testEachFileGetsItsOwnOptionsAndConfig() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            Files.write(tempDir.resolve("file" + i + ".csv"), "id\n1\n".getBytes());
+        }
+        Set<Object> seen = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        when(csvImportService.importCsv(anyString(), any(DatabaseConfig.class), any(ImportOptions.class)))
+                .thenAnswer(invocation -> {
+                    DatabaseConfig fileConfig = invocation.getArgument(1);
+                    ImportOptions fileOptions = invocation.getArgument(2);
+                    seen.add(fileConfig);
+                    seen.add(fileOptions);
+                    // 坏行隔离不支持原生批量加载，开始前已确定为批量插入
+                    assertEquals(ImportOptions.LoadEngine.BATCH_INSERT, fileOptions.getLoadEngine());
+                    assertFalse(fileConfig.isAllowLoadLocalInfile());
+                    return new ImportResult("t", 1, 1, ImportOptions.LoadEngine.BATCH_INSERT);
+                });
+        
+        ImportOptions options = new ImportOptions();
+        options.setLoadEngine(ImportOptions.LoadEngine.LOAD_DATA);
+        options.setMaxErrors(0);
+        options.setRejectFile("rejects.csv");
+        DatabaseConfig config = new DatabaseConfig("jdbc:mysql://localhost:3306/test", "root", "pw");
+        
+        BatchImportReport report = batchImportService.importFiles(
+                batchImportService.resolveFiles(tempDir.toString()), config, options);
+        
+        assertEquals(3, report.getSucceededCount());
+        assertEquals(6, seen.size());
+        assertEquals(ImportOptions.LoadEngine.LOAD_DATA, options.getLoadEngine());
+        assertEquals("rejects.csv", options.getRejectFile());
+    }
+    
+    @Test
+    void testDuplicateTableNamesAreRejected() throws IOException {
+        Files.write(tempDir.resolve("orders.csv"), "id\n1\n".getBytes());
+        Files.write(tempDir.resolve("orders.csv.gz"), new byte[0]);
+        when(csvImportService.importCsv(anyString(), any(DatabaseConfig.class), any(ImportOptions.class)))
+                .thenReturn(new ImportResult("orders", 1, 1, ImportOptions.LoadEngine.BATCH_INSERT));
+        
+        BatchImportReport report = batchImportService.importFiles(batchImportService.resolveFiles(tempDir.toString()),
+                new DatabaseConfig("jdbc:mysql://localhost:3306/test", "root", "pw"), new ImportOptions());
+        
+        assertEquals(1, report.getSucceededCount());
+        assertEquals(1, report.getFailedCount());
+        verify(csvImportService, times(1)).importCsv(anyString(), any(DatabaseConfig.class), any(ImportOptions.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.example.csvimport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.mockito.Mockito.*;
+
+class BulkLoadSessionTest {
+    
+    private DataSource dataSource;
+    private Connection connection;
+    private Statement statement;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        statement = mock(Statement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt(1)).thenReturn(1);
+        when(resultSet.getInt(2)).thenReturn(1);
+    }
+    
+    @Test
+    void testTunedSessionCommitsInChunksAndRestores() throws SQLException {
+        try (BulkLoadSession session = BulkLoadSession.open(dataSource, true, 100)) {
+            session.afterBatch(60);
+            verify(connection, never()).commit();
+            session.afterBatch(60);
+            verify(connection, times(1)).commit();
+            session.afterBatch(10);
+            session.complete();
+            verify(connection, times(2)).commit();
+        }
+        
+        InOrder inOrder = inOrder(statement, connection);
+        inOrder.verify(statement).execute("SET SESSION unique_checks = 0, foreign_key_checks = 0");
+        inOrder.verify(connection).setAutoCommit(false);
+        inOrder.verify(statement).execute("SET SESSION unique_checks = 1, foreign_key_checks = 1");
+        inOrder.verify(connection).setAutoCommit(true);
+        inOrder.verify(connection).close();
+        verify(connection, never()).rollback();
+    }
+    
+    @Test
+    void testListenersFollowCommitAndRollback() throws SQLException {
+        BulkLoadSession.TransactionListener listener = mock(BulkLoadSession.TransactionListener.class);
+        try (BulkLoadSession session = BulkLoadSession.open(dataSource, false, 100)) {
+            session.addTransactionListener(listener);
+            // 整批被拒绝的批次没有写入行，仍然需要提交
+            session.afterBatch(0);
+            session.complete();
+            verify(connection).commit();
+            verify(listener).afterCommit(session.getJdbcTemplate());
+        }
+        
+        try (BulkLoadSession session = BulkLoadSession.open(dataSource, false, 100)) {
+            session.addTransactionListener(listener);
+            session.afterBatch(50);
+            verify(listener, never()).afterRollback(any());
+        }
+        verify(connection).rollback();
+        verify(listener).afterRollback(any());
+        verify(listener, times(1)).afterCommit(any());
+    }
+    
+    @Test
+    void testIncompleteSessionRollsBack() throws SQLException {
+        try (BulkLoadSession session = BulkLoadSession.open(dataSource, true, 100)) {
+            session.afterBatch(50);
+        }
+        
+        verify(connection, never()).commit();
+        verify(connection).rollback();
+        verify(connection).close();
+    }
+    
+    @Test
+    void testUntunedTransactionalSessionCommitsWithoutSessionVariables() throws SQLException {
+        try (BulkLoadSession session = BulkLoadSession.open(dataSource, false, 1)) {
+            session.afterBatch(10);
+            session.afterBatch(10);
+            session.complete();
+        }
+        
+        verify(connection, never()).createStatement();
+        verify(connection).setAutoCommit(false);
+        verify(connection, times(2)).commit();
+        verify(connection).setAutoCommit(true);
+        verify(connection).close();
+    }
+    
+    @Test
+    void testUntunedSessionLeavesConnectionUntouched() throws SQLException {
+        try (BulkLoadSession session = BulkLoadSession.open(dataSource, false, 0)) {
+            session.afterBatch(500);
+            session.complete();
+        }
+        
+        verify(connection, never()).createStatement();
+        verify(connection, never()).setAutoCommit(anyBoolean());
+        verify(connection, never()).commit();
+        verify(connection).close();
+    }
+}
\ No newline at end of file
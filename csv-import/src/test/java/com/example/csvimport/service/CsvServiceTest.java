@@ -1,15 +1,24 @@
 package com.example.csvimport.service;
 
+import com.example.csvimport.config.ImportOptions;
 import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import com.example.csvimport.parser.CsvFileSplitter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,6 +67,66 @@ class CsvServiceTest {
         assertEquals(ColumnInfo.JavaType.DATE, columns.get(5).getJavaType());    // created_date
     }
     
+    @Test
+    void testAnalyzeColumnsUpdatesSqlType() throws IOException {
+        Path csvFile = tempDir.resolve("sql_types.csv");
+        String csvContent = "id,flag,big,created\n" +
+                           "1,0,9999999999,2023-01-01 08:00:00\n" +
+                           "2,1,10000000000,2023/01/02 09:30:15.5\n";
+        Files.write(csvFile, csvContent.getBytes());
+        
+        List<ColumnInfo> columns = csvService.analyzeColumns(csvFile.toString(), 100);
+        
+        assertEquals("INT", columns.get(0).getSqlType());
+        assertEquals(ColumnInfo.JavaType.BOOLEAN, columns.get(1).getJavaType());
+        assertEquals("BOOLEAN", columns.get(1).getSqlType());
+        assertEquals("BIGINT", columns.get(2).getSqlType());
+        assertEquals(ColumnInfo.JavaType.TIMESTAMP, columns.get(3).getJavaType());
+        assertEquals("TIMESTAMP", columns.get(3).getSqlType());
+    }
+    
+    @Test
+    void testAnalyzeColumnsFullProfile() throws IOException {
+        // 第5000行才出现超出INT范围的值和超长字符串
+        Path csvFile = tempDir.resolve("full_profile.csv");
+        StringBuilder csvContent = new StringBuilder("id,code\n");
+        for (int i = 1; i < 5000; i++) {
+            csvContent.append(i).append(",c").append(i % 10).append('\n');
+        }
+        csvContent.append("3000000000,").append("x".repeat(300)).append('\n');
+        Files.write(csvFile, csvContent.toString().getBytes());
+        
+        List<ColumnInfo> sampled = csvService.analyzeColumns(csvFile.toString(), 100);
+        assertEquals(ColumnInfo.JavaType.INTEGER, sampled.get(0).getJavaType());
+        
+        List<ColumnInfo> columns = csvService.analyzeColumns(csvFile.toString(), 100,
+                ImportOptions.ProfileMode.FULL, 4);
+        
+        assertEquals(ColumnInfo.JavaType.LONG, columns.get(0).getJavaType());
+        assertEquals("BIGINT", columns.get(0).getSqlType());
+        assertEquals("TEXT", columns.get(1).getSqlType());
+        assertEquals(5000, columns.get(0).getProfile().getCount());
+        assertEquals(3_000_000_000.0, columns.get(0).getProfile().getMaxValue());
+        assertEquals(11, columns.get(1).getProfile().getDistinctEstimate());
+    }
+    
+    @Test
+    void testAnalyzeAndStreamGzipFile() throws IOException {
+        Path csvFile = tempDir.resolve("orders.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(csvFile))) {
+            out.write("id,amount\n1,9.5\n2,10\n3,\n".getBytes());
+        }
+        
+        List<ColumnInfo> columns = csvService.analyzeColumns(csvFile.toString(), 100, ImportOptions.ProfileMode.FULL, 2);
+        assertEquals(ColumnInfo.JavaType.INTEGER, columns.get(0).getJavaType());
+        assertEquals(ColumnInfo.JavaType.DOUBLE, columns.get(1).getJavaType());
+        
+        List<ColumnarBatch> batches = new ArrayList<>();
+        csvService.processColumnarStream(csvFile.toString(), columns, 2, 4, batches::add);
+        assertEquals(3, batches.stream().mapToInt(ColumnarBatch::size).sum());
+        assertEquals("orders", csvService.extractTableName(csvFile.toString()));
+    }
+    
     @Test
     void testExtractTableName() {
         // 测试正常文件名
@@ -109,6 +178,105 @@ class CsvServiceTest {
         assertEquals("value3", batches.get(0).get(0).get(2));
     }
     
+    @Test
+    void testProcessDataStreamParallel() throws IOException {
+        // 创建测试CSV文件
+        Path csvFile = tempDir.resolve("parallel_test.csv");
+        StringBuilder csvContent = new StringBuilder("col1,col2\n");
+        for (int i = 0; i < 100; i++) {
+            csvContent.append(i).append(",\"multi\nline\"\n");
+        }
+        Files.write(csvFile, csvContent.toString().getBytes());
+        
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("col1", ColumnInfo.JavaType.STRING),
+                new ColumnInfo("col2", ColumnInfo.JavaType.STRING)
+        );
+        
+        // batchProcessor会被并发调用
+        List<List<String>> rows = Collections.synchronizedList(new ArrayList<>());
+        
+        csvService.processDataStreamParallel(csvFile.toString(), columns, 30, 4, rows::addAll);
+        
+        assertEquals(100, rows.size());
+        assertTrue(rows.stream().allMatch(row -> "multi\nline".equals(row.get(1))));
+    }
+    
+    @Test
+    void testProcessColumnarStream() throws IOException {
+        Path csvFile = tempDir.resolve("columnar_test.csv");
+        String csvContent = "id,price,name,created\n" +
+                           "1, 9.99 ,apple,2024-01-15\n" +
+                           "2,,banana,not-a-date\n" +
+                           "3,1.5\n";
+        Files.write(csvFile, csvContent.getBytes());
+        
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("price", ColumnInfo.JavaType.DOUBLE),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING),
+                new ColumnInfo("created", ColumnInfo.JavaType.DATE)
+        );
+        
+        List<ColumnarBatch> batches = new ArrayList<>();
+        csvService.processColumnarStream(csvFile.toString(), columns, 2, 1, batches::add);
+        
+        assertEquals(2, batches.size());
+        ColumnarBatch first = batches.get(0);
+        assertEquals(2, first.size());
+        assertEquals(1, first.getInt(0, 0));
+        assertEquals(9.99, first.getDouble(1, 0));
+        assertEquals("apple", first.getString(2, 0));
+        assertEquals(LocalDate.of(2024, 1, 15).toEpochDay(), first.getEpochDay(3, 0));
+        
+        // 空值记为NULL，无法解析的值保留原文
+        assertTrue(first.isNull(1, 1));
+        assertEquals("not-a-date", first.getUnparsed(3, 1));
+        
+        // 缺失的列为NULL
+        ColumnarBatch second = batches.get(1);
+        assertEquals(1, second.size());
+        assertEquals(1.5, second.getDouble(1, 0));
+        assertTrue(second.isNull(2, 0));
+        assertTrue(second.isNull(3, 0));
+    }
+    
+    @Test
+    void testProcessColumnarRangesTagsBatchSource() throws IOException {
+        Path csvFile = tempDir.resolve("ranges_test.csv");
+        StringBuilder csvContent = new StringBuilder("id,name\n");
+        for (int i = 0; i < 100; i++) {
+            csvContent.append(i).append(",name").append(i).append('\n');
+        }
+        Files.write(csvFile, csvContent.toString().getBytes());
+        
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING)
+        );
+        List<CsvFileSplitter.ByteRange> ranges = CsvFileSplitter.splitBySize(csvFile, 256);
+        assertTrue(ranges.size() > 1);
+        assertEquals(ranges.toString(), CsvFileSplitter.splitBySize(csvFile, 256).toString(),
+                "同一文件重复切分应得到相同的区间");
+        
+        List<ColumnarBatch> batches = Collections.synchronizedList(new ArrayList<>());
+        csvService.processColumnarRanges(csvFile.toString(), columns, 10, 2, ranges, batches::add);
+        
+        assertEquals(100, batches.stream().mapToInt(ColumnarBatch::size).sum());
+        for (CsvFileSplitter.ByteRange range : ranges) {
+            List<ColumnarBatch> inRange = batches.stream()
+                    .filter(batch -> batch.getRangeStart() == range.getStart())
+                    .sorted(Comparator.comparingLong(ColumnarBatch::getFirstRecord))
+                    .collect(Collectors.toList());
+            assertFalse(inRange.isEmpty());
+            // 批次按批次大小连续编号，只有最后一个批次被标记
+            for (int i = 0; i < inRange.size(); i++) {
+                assertEquals(i * 10L, inRange.get(i).getFirstRecord());
+                assertEquals(i == inRange.size() - 1, inRange.get(i).isLastInRange());
+            }
+        }
+    }
+    
     @Test
     void testAnalyzeColumnsWithMixedTypes() throws IOException {
         // 创建包含混合类型的测试CSV文件
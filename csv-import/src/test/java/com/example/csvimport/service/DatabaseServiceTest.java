@@ -0,0 +1,89 @@
+package com.example.csvimport.service;
+
+import com.example.csvimport.config.DatabaseConfig;
+import com.example.csvimport.config.DynamicJdbcTemplateConfig;
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DatabaseServiceTest {
+    
+    private JdbcTemplate jdbcTemplate;
+    private DatabaseService databaseService;
+    
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory factory =
+                mock(DynamicJdbcTemplateConfig.DynamicJdbcTemplateFactory.class);
+        when(factory.createJdbcTemplate(any())).thenReturn(jdbcTemplate);
+        databaseService = new DatabaseService(factory);
+        databaseService.createConnection(new DatabaseConfig("jdbc:mysql://localhost:3306/test", "root", ""));
+    }
+    
+    @Test
+    void testUpsertUpdatesNonKeyColumns() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING),
+                new ColumnInfo("score", ColumnInfo.JavaType.DOUBLE)
+        );
+        ColumnarBatch batch = new ColumnarBatch(columns, 1);
+        batch.setValue(0, "1");
+        batch.setValue(1, "a");
+        batch.setValue(2, "1.5");
+        batch.endRow();
+        
+        databaseService.batchInsert(jdbcTemplate, "users", batch, List.of("id"));
+        
+        verify(jdbcTemplate).batchUpdate(eq("INSERT INTO `users` (`id`, `name`, `score`) VALUES (?, ?, ?)"
+                + " ON DUPLICATE KEY UPDATE `name` = VALUES(`name`), `score` = VALUES(`score`)"),
+                any(BatchPreparedStatementSetter.class));
+    }
+    
+    @Test
+    void testCreateTableWithUniqueKey() {
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+                new ColumnInfo("day", ColumnInfo.JavaType.DATE)
+        );
+        
+        databaseService.createTable("events", columns, List.of("id", "day"));
+        
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS `events`");
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE `events` (`id` INT, `day` DATE, "
+                + "UNIQUE KEY `uk_events` (`id`, `day`)) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci");
+    }
+    
+    @Test
+    void testSwapTablesRenamesAtomically() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("orders"))).thenReturn(1);
+        
+        databaseService.swapTables("orders", "orders__staging");
+        
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE IF EXISTS `orders__old`");
+        inOrder.verify(jdbcTemplate).execute("RENAME TABLE `orders` TO `orders__old`, `orders__staging` TO `orders`");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE `orders__old`");
+    }
+    
+    @Test
+    void testSwapTablesWithoutLiveTable() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq("orders"))).thenReturn(0);
+        
+        databaseService.swapTables("orders", "orders__staging");
+        
+        verify(jdbcTemplate).execute("RENAME TABLE `orders__staging` TO `orders`");
+        verify(jdbcTemplate, never()).execute("DROP TABLE `orders__old`");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+package com.example.csvimport.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ImportPipelineTest {
+    
+    private DataSource dataSource;
+    private ImportPipeline.SessionFactory sessionFactory;
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        sessionFactory = () -> BulkLoadSession.open(dataSource, false, 0);
+    }
+    
+    @Test
+    void testRunCountsAllRows() {
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        ImportPipeline<List<Integer>> pipeline = new ImportPipeline<>(sessionFactory, 4, 2, (jdbcTemplate, batch) -> {
+            writerThreads.add(Thread.currentThread().getName());
+            return batch.size();
+        });
+        
+        // 100个批次，每批10行
+        long totalRows = pipeline.run(sink -> {
+            for (int i = 0; i < 100; i++) {
+                sink.accept(List.of(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+            }
+        });
+        
+        assertEquals(1000, totalRows);
+        assertFalse(writerThreads.isEmpty());
+        assertTrue(writerThreads.stream().allMatch(name -> name.startsWith("csv-writer-")));
+    }
+    
+    @Test
+    void testRunOpensOneConnectionPerWriter() throws SQLException {
+        ImportPipeline<List<Integer>> pipeline = new ImportPipeline<>(sessionFactory, 3, 2, (jdbcTemplate, batch) -> batch.size());
+        
+        pipeline.run(sink -> sink.accept(List.of(1)));
+        
+        verify(dataSource, times(3)).getConnection();
+    }
+    
+    @Test
+    void testWriterFailureStopsProducer() {
+        ImportPipeline<List<Integer>> pipeline = new ImportPipeline<>(sessionFactory, 2, 1, (jdbcTemplate, batch) -> {
+            throw new IllegalStateException("写入失败");
+        });
+        
+        RuntimeException e = assertThrows(RuntimeException.class, () -> pipeline.run(sink -> {
+            // 写入线程失败后，队列写满时生产者必须被中止，而不是永久阻塞
+            for (int i = 0; i < 10_000; i++) {
+                sink.accept(List.of(i));
+            }
+        }));
+        
+        assertEquals("写入失败", e.getCause().getMessage());
+    }
+    
+    @Test
+    void testProducerFailureIsReported() {
+        ImportPipeline<List<Integer>> pipeline = new ImportPipeline<>(sessionFactory, 2, 4, (jdbcTemplate, batch) -> batch.size());
+        
+        RuntimeException e = assertThrows(RuntimeException.class, () -> pipeline.run(sink -> {
+            sink.accept(List.of(1));
+            throw new IllegalArgumentException("解析失败");
+        }));
+        
+        assertEquals("解析失败", e.getCause().getMessage());
+    }
+    
+    @Test
+    void testRunInlineWritesOnCallerThread() throws SQLException {
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        ImportPipeline<List<Integer>> pipeline = new ImportPipeline<>(sessionFactory, 1, 1, (jdbcTemplate, batch) -> {
+            writerThreads.add(Thread.currentThread().getName());
+            return batch.size();
+        });
+        
+        long totalRows = pipeline.runInline(sink -> {
+            for (int i = 0; i < 10; i++) {
+                sink.accept(List.of(1, 2, 3));
+            }
+        });
+        
+        assertEquals(30, totalRows);
+        assertEquals(Set.of(Thread.currentThread().getName()), writerThreads);
+        verify(dataSource, times(1)).getConnection();
+    }
+}
\ No newline at end of file
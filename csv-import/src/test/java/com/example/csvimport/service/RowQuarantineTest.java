@@ -0,0 +1,184 @@
+package com.example.csvimport.service;
+
+import com.example.csvimport.metrics.ImportMetrics;
+import com.example.csvimport.metrics.ImportProgress;
+import com.example.csvimport.model.ColumnInfo;
+import com.example.csvimport.model.ColumnarBatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class RowQuarantineTest {
+    
+    private static final List<ColumnInfo> COLUMNS = List.of(
+            new ColumnInfo("id", ColumnInfo.JavaType.INTEGER),
+            new ColumnInfo("name", ColumnInfo.JavaType.STRING)
+    );
+    
+    @TempDir
+    Path tempDir;
+    
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<String> written = new ArrayList<>();
+    
+    /**
+     * 批次中有name为bad的行时整批失败，模拟违反约束
+     */
+    private final ImportPipeline.BatchWriter<ColumnarBatch> writer = (jdbc, batch) -> {
+        for (int row = 0; row < batch.size(); row++) {
+            if ("bad".equals(batch.getString(1, row))) {
+                throw new DataIntegrityViolationException("写入失败",
+                        new SQLException("Duplicate entry 'bad'", "23000", 1062));
+            }
+        }
+        for (int row = 0; row < batch.size(); row++) {
+            written.add(batch.getString(1, row));
+        }
+        return batch.size();
+    };
+    
+    @Test
+    void testBisectsFailingRowsOutOfBatch() throws Exception {
+        Path rejectFile = tempDir.resolve("users.rejects.csv");
+        ColumnarBatch batch = batch("1", "a", "2", "bad", "3", "b", "4", "c", "5", "bad");
+        
+        int rows;
+        try (RowQuarantine quarantine = new RowQuarantine(rejectFile, 10, false, null)) {
+            rows = quarantine.wrap(writer).write(jdbcTemplate, batch);
+            assertEquals(2, quarantine.getRejectedRows());
+            quarantine.afterCommit(jdbcTemplate);
+        }
+        
+        assertEquals(3, rows);
+        assertEquals(List.of("a", "b", "c"), written);
+        List<String> lines = Files.readAllLines(rejectFile, StandardCharsets.UTF_8);
+        assertEquals("reason,id,name", lines.get(0));
+        assertEquals("Duplicate entry 'bad',2,bad", lines.get(1));
+        assertEquals("Duplicate entry 'bad',5,bad", lines.get(2));
+    }
+    
+    @Test
+    void testRejectsUnparsedRowsBeforeWriting() throws Exception {
+        Path rejectFile = tempDir.resolve("users.rejects.csv");
+        ColumnarBatch batch = batch("1", "a", "x1", "b", "3", "c");
+        
+        try (RowQuarantine quarantine = new RowQuarantine(rejectFile, 10, false, null)) {
+            assertEquals(2, quarantine.wrap(writer).write(jdbcTemplate, batch));
+            quarantine.afterCommit(jdbcTemplate);
+        }
+        
+        assertEquals(List.of("a", "c"), written);
+        List<String> lines = Files.readAllLines(rejectFile, StandardCharsets.UTF_8);
+        assertEquals("列 id 的值 'x1' 不是有效的 INTEGER,x1,b", lines.get(1));
+    }
+    
+    @Test
+    void testRejectsUnrecognizedBooleans() throws Exception {
+        Path rejectFile = tempDir.resolve("flags.rejects.csv");
+        List<ColumnInfo> columns = List.of(
+                new ColumnInfo("active", ColumnInfo.JavaType.BOOLEAN),
+                new ColumnInfo("name", ColumnInfo.JavaType.STRING)
+        );
+        ColumnarBatch batch = new ColumnarBatch(columns, 3);
+        for (String[] row : new String[][]{{"yes", "a"}, {"maybe", "b"}, {"0", "c"}}) {
+            batch.setValue(0, row[0]);
+            batch.setValue(1, row[1]);
+            batch.endRow();
+        }
+        
+        try (RowQuarantine quarantine = new RowQuarantine(rejectFile, 10, false, null)) {
+            assertEquals(2, quarantine.wrap(writer).write(jdbcTemplate, batch));
+            assertEquals(1, quarantine.getRejectedRows());
+            quarantine.afterCommit(jdbcTemplate);
+        }
+        
+        assertEquals(List.of("a", "c"), written);
+        List<String> lines = Files.readAllLines(rejectFile, StandardCharsets.UTF_8);
+        assertEquals("列 active 的值 'maybe' 不是有效的 BOOLEAN,maybe,b", lines.get(1));
+    }
+    
+    @Test
+    void testAbortsWhenErrorBudgetExhausted() throws Exception {
+        Path rejectFile = tempDir.resolve("users.rejects.csv");
+        ColumnarBatch batch = batch("1", "bad", "2", "bad", "3", "a");
+        
+        try (RowQuarantine quarantine = new RowQuarantine(rejectFile, 1, false, null)) {
+            IllegalStateException e = assertThrows(IllegalStateException.class,
+                    () -> quarantine.wrap(writer).write(jdbcTemplate, batch));
+            assertTrue(e.getMessage().contains("Duplicate entry 'bad'"));
+            quarantine.afterRollback(jdbcTemplate);
+            assertEquals(0, quarantine.getRejectedRows());
+        }
+        
+        // 中止的事务被回滚，其中的坏行在恢复导入重放时才记录
+        assertFalse(Files.exists(rejectFile));
+    }
+    
+    @Test
+    void testRejectsAreWrittenOnlyAfterCommit() throws Exception {
+        Path rejectFile = tempDir.resolve("users.rejects.csv");
+        JdbcTemplate otherSession = mock(JdbcTemplate.class);
+        ImportProgress progress = new ImportMetrics(new SimpleMeterRegistry(), 1).start("users", 0);
+        
+        try (RowQuarantine quarantine = new RowQuarantine(rejectFile, 3, false, progress)) {
+            ImportPipeline.BatchWriter<ColumnarBatch> wrapped = quarantine.wrap(writer);
+            wrapped.write(jdbcTemplate, batch("1", "bad", "2", "a"));
+            wrapped.write(otherSession, batch("3", "bad", "4", "b"));
+            assertFalse(Files.exists(rejectFile));
+            
+            // 回滚的批次不写入拒绝文件，也不占用错误预算；重放时再次拒绝
+            quarantine.afterRollback(otherSession);
+            assertEquals(1, quarantine.getRejectedRows());
+            wrapped.write(otherSession, batch("3", "bad", "4", "b"));
+            wrapped.write(otherSession, batch("5", "bad", "6", "c"));
+            assertEquals(3, quarantine.getRejectedRows());
+            
+            quarantine.afterCommit(otherSession);
+            assertEquals(List.of("reason,id,name", "Duplicate entry 'bad',3,bad", "Duplicate entry 'bad',5,bad"),
+                    Files.readAllLines(rejectFile, StandardCharsets.UTF_8));
+            quarantine.afterCommit(jdbcTemplate);
+        }
+        
+        assertEquals(4, Files.readAllLines(rejectFile, StandardCharsets.UTF_8).size());
+        assertEquals(3, progress.getRejectedRows());
+    }
+    
+    @Test
+    void testNonDataErrorsAreRethrown() throws Exception {
+        Path rejectFile = tempDir.resolve("users.rejects.csv");
+        ImportPipeline.BatchWriter<ColumnarBatch> failing = (jdbc, batch) -> {
+            throw new DataAccessResourceFailureException("连接断开",
+                    new SQLException("Communications link failure", "08S01", 0));
+        };
+        
+        try (RowQuarantine quarantine = new RowQuarantine(rejectFile, 10, false, null)) {
+            assertThrows(DataAccessResourceFailureException.class,
+                    () -> quarantine.wrap(failing).write(jdbcTemplate, batch("1", "a")));
+            assertEquals(0, quarantine.getRejectedRows());
+        }
+        assertFalse(Files.exists(rejectFile));
+    }
+    
+    private static ColumnarBatch batch(String... values) {
+        ColumnarBatch batch = new ColumnarBatch(COLUMNS, values.length / 2);
+        for (int i = 0; i < values.length; i += 2) {
+            batch.setValue(0, values[i]);
+            batch.setValue(1, values[i + 1]);
+            batch.endRow();
+        }
+        return batch;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+package com.example.csvview.columnar;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 逐个追加值来构建一列
+ * 先按字典编码累积；累积到判断行数（或构建时行数不足）仍有超过一半的值互不相同，
+ * 说明是高基数列，转为UTF-8连续字节存储。
+ * 行数未知时判断行数为 {@link #DECISION_ROWS}；已知行数时（如解码数据页）取行数的1/16，
+ * 至少 {@link #MIN_DECISION_ROWS} 行，之后的高基数值直接复制字节
+ */
+public class ColumnBuilder {
+
+    static final int DECISION_ROWS = 1024;
+    static final int MIN_DECISION_ROWS = 64;
+
+    private final int decisionRows;
+
+    private Map<String, Integer> dictionary = new HashMap<>();
+    private List<String> values = new ArrayList<>();
+    private int[] codes = new int[16];
+
+    private byte[] arena;
+    private int arenaLength;
+    private int[] offsets;
+
+    private int size;
+    private boolean decided;
+
+    public ColumnBuilder() {
+        this.decisionRows = DECISION_ROWS;
+    }
+
+    /**
+     * @param expectedRows 这一列将要追加的行数
+     */
+    public ColumnBuilder(int expectedRows) {
+        this.decisionRows = Math.min(DECISION_ROWS, Math.max(MIN_DECISION_ROWS, expectedRows / 16));
+    }
+
+    /**
+     * 追加一个值
+     * @param value 值，null按空字符串处理
+     */
+    public void add(String value) {
+        if (value == null) {
+            value = "";
+        }
+        if (arena != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            appendBytes(bytes, 0, bytes.length);
+            return;
+        }
+        Integer code = dictionary.get(value);
+        if (code == null) {
+            code = values.size();
+            dictionary.put(value, code);
+            values.add(value);
+        }
+        if (size == codes.length) {
+            codes = Arrays.copyOf(codes, size * 2);
+        }
+        codes[size++] = code;
+        if (!decided && size >= decisionRows) {
+            decide();
+        }
+    }
+
+    /**
+     * 追加一个UTF-8编码的值，高基数列直接复制字节，不创建String
+     */
+    public void addUtf8(byte[] bytes, int offset, int length) {
+        if (arena != null) {
+            appendBytes(bytes, offset, length);
+        } else {
+            add(new String(bytes, offset, length, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * @return 构建好的列，之后不能再追加
+     */
+    public StringColumn build() {
+        if (!decided) {
+            decide();
+        }
+        if (arena != null) {
+            return new Utf8ArenaColumn(Arrays.copyOf(arena, arenaLength), Arrays.copyOf(offsets, size + 1));
+        }
+        return new DictionaryColumn(values.toArray(new String[0]), Arrays.copyOf(codes, size), false);
+    }
+
+    private void decide() {
+        decided = true;
+        if (values.size() * 2L <= size) {
+            return;
+        }
+        // 高基数列：把已累积的值按行写入连续字节
+        arena = new byte[Math.max(64, size * 16)];
+        offsets = new int[Math.max(16, size * 2)];
+        int rows = size;
+        size = 0;
+        for (int i = 0; i < rows; i++) {
+            byte[] bytes = values.get(codes[i]).getBytes(StandardCharsets.UTF_8);
+            appendBytes(bytes, 0, bytes.length);
+        }
+        dictionary = null;
+        values = null;
+        codes = null;
+    }
+
+    private void appendBytes(byte[] bytes, int offset, int length) {
+        if (arenaLength + length > arena.length) {
+            long capacity = Math.max((long) arena.length * 2, (long) arenaLength + length);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("单列数据超过2GB，无法按列存储");
+            }
+            arena = Arrays.copyOf(arena, (int) capacity);
+        }
+        System.arraycopy(bytes, offset, arena, arenaLength, length);
+        arenaLength += length;
+        if (size + 1 == offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        offsets[++size] = arenaLength;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,162 @@
+package com.example.csvview.columnar;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 按列紧凑存储的表
+ * 每列根据基数选择字典编码或UTF-8连续字节，{@link #rows()} 以只读的行视图提供原来的 List&lt;List&lt;String&gt;&gt; 接口，
+ * 读取单元格时才取出对应的值
+ */
+public class ColumnarTable {
+
+    private final StringColumn[] columns;
+    private final int rowCount;
+    private final RowList rows = new RowList();
+
+    private ColumnarTable(StringColumn[] columns, int rowCount) {
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public StringColumn getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * @return 只读的行视图
+     */
+    public List<List<String>> rows() {
+        return rows;
+    }
+
+    /**
+     * @return 估算的堆内存占用（字节）
+     */
+    public long estimatedBytes() {
+        long bytes = 32L + 8L * columns.length;
+        for (StringColumn column : columns) {
+            bytes += column.estimatedBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 按行追加数据来构建表
+     * @param columnCount 列数
+     * @return 构建器
+     */
+    public static Builder builder(int columnCount) {
+        return new Builder(columnCount, -1);
+    }
+
+    /**
+     * 按行追加已知行数的数据来构建表，列能更早判断是否为高基数列
+     * @param columnCount 列数
+     * @param expectedRows 行数
+     * @return 构建器
+     */
+    public static Builder builder(int columnCount, int expectedRows) {
+        return new Builder(columnCount, expectedRows);
+    }
+
+    /**
+     * 表的构建器
+     */
+    public static class Builder {
+
+        private final ColumnBuilder[] columns;
+        private int rowCount;
+
+        private Builder(int columnCount, int expectedRows) {
+            columns = new ColumnBuilder[columnCount];
+            for (int i = 0; i < columnCount; i++) {
+                columns[i] = expectedRows < 0 ? new ColumnBuilder() : new ColumnBuilder(expectedRows);
+            }
+        }
+
+        /**
+         * 追加一行，列数必须与表一致
+         */
+        public Builder addRow(List<String> row) {
+            if (row.size() != columns.length) {
+                throw new IllegalArgumentException("第" + (rowCount + 1) + "行有" + row.size() + "列，表有" + columns.length + "列");
+            }
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].add(row.get(i));
+            }
+            rowCount++;
+            return this;
+        }
+
+        /**
+         * 按列追加UTF-8编码的单元格，调用方负责每行为每列各追加一次，并在行结束时调用 {@link #endRow()}
+         */
+        public void addUtf8(int column, byte[] bytes, int offset, int length) {
+            columns[column].addUtf8(bytes, offset, length);
+        }
+
+        public void endRow() {
+            rowCount++;
+        }
+
+        public ColumnarTable build() {
+            StringColumn[] built = new StringColumn[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                built[i] = columns[i].build();
+            }
+            return new ColumnarTable(built, rowCount);
+        }
+    }
+
+    /**
+     * 行视图，供查询等需要按列访问的代码取回底层的表
+     */
+    public final class RowList extends AbstractList<List<String>> implements RandomAccess {
+
+        public ColumnarTable getTable() {
+            return ColumnarTable.this;
+        }
+
+        @Override
+        public List<String> get(int index) {
+            if (index < 0 || index >= rowCount) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + rowCount);
+            }
+            return new Row(index);
+        }
+
+        @Override
+        public int size() {
+            return rowCount;
+        }
+    }
+
+    private final class Row extends AbstractList<String> implements RandomAccess {
+
+        private final int row;
+
+        Row(int row) {
+            this.row = row;
+        }
+
+        @Override
+        public String get(int index) {
+            return columns[index].get(row);
+        }
+
+        @Override
+        public int size() {
+            return columns.length;
+        }
+    }
+}
\ No newline at end of file
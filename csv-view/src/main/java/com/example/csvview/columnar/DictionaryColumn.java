@@ -0,0 +1,138 @@
+package com.example.csvview.columnar;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 字典编码的列
+ * 每个不同的值在字典中只保存一次，每行只保存一个int编码，适合状态、城市、日期这类低基数列。
+ * 排序后的列（{@link #isSorted()}）字典按 {@link ValueOrder} 排列，编码的大小顺序就是值的排序顺序，
+ * 查询时排序和比较过滤都只需要比较整数
+ */
+public final class DictionaryColumn implements StringColumn {
+
+    private final String[] dictionary;
+    private final int[] codes;
+    private final boolean sorted;
+    /** 字典不会改变，堆内存占用只在第一次需要时统计 */
+    private volatile long estimatedBytes;
+
+    DictionaryColumn(String[] dictionary, int[] codes, boolean sorted) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+        this.sorted = sorted;
+    }
+
+    /**
+     * 对行列表中的一列做字典编码，字典按值排序
+     * @param rows 全部行
+     * @param column 列序号
+     * @return 字典已排序的列
+     */
+    public static DictionaryColumn sortedOf(List<List<String>> rows, int column) {
+        int rowCount = rows.size();
+        int[] codes = new int[rowCount];
+        Map<String, Integer> firstCodes = new HashMap<>();
+        for (int start = 0; start < rowCount; start += 1024) {
+            // 分批读取，磁盘存储的文件每批只加载所需的数据页
+            List<List<String>> batch = rows.subList(start, Math.min(start + 1024, rowCount));
+            for (int i = 0; i < batch.size(); i++) {
+                String value = batch.get(i).get(column);
+                Integer code = firstCodes.get(value);
+                if (code == null) {
+                    code = firstCodes.size();
+                    firstCodes.put(value, code);
+                }
+                codes[start + i] = code;
+            }
+        }
+        String[] dictionary = new String[firstCodes.size()];
+        for (Map.Entry<String, Integer> entry : firstCodes.entrySet()) {
+            dictionary[entry.getValue()] = entry.getKey();
+        }
+        return new DictionaryColumn(dictionary, codes, false).sorted();
+    }
+
+    /**
+     * @return 字典按值排序的同一列，已排序时返回自身
+     */
+    public DictionaryColumn sorted() {
+        if (sorted) {
+            return this;
+        }
+        // 字典排序后把编码重新映射为排序后的位置
+        String[] sortedDictionary = ValueOrder.sort(Arrays.asList(dictionary));
+        Map<String, Integer> positions = new HashMap<>(sortedDictionary.length * 2);
+        for (int i = 0; i < sortedDictionary.length; i++) {
+            positions.put(sortedDictionary[i], i);
+        }
+        int[] remap = new int[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            remap[i] = positions.get(dictionary[i]);
+        }
+        int[] sortedCodes = new int[codes.length];
+        for (int i = 0; i < codes.length; i++) {
+            sortedCodes[i] = remap[codes[i]];
+        }
+        return new DictionaryColumn(sortedDictionary, sortedCodes, true);
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    @Override
+    public int size() {
+        return codes.length;
+    }
+
+    @Override
+    public String get(int row) {
+        return dictionary[codes[row]];
+    }
+
+    public int[] getCodes() {
+        return codes;
+    }
+
+    public int getDictionarySize() {
+        return dictionary.length;
+    }
+
+    /**
+     * @param code 编码
+     * @return 编码对应的值
+     */
+    public String getDictionaryValue(int code) {
+        return dictionary[code];
+    }
+
+    /**
+     * 对字典中的每个值求一次谓词，得到按编码查询的结果表
+     * @param predicate 值的谓词
+     * @return 下标为编码，值为是否满足
+     */
+    public boolean[] matchingCodes(Predicate<String> predicate) {
+        boolean[] matches = new boolean[dictionary.length];
+        for (int i = 0; i < dictionary.length; i++) {
+            matches[i] = predicate.test(dictionary[i]);
+        }
+        return matches;
+    }
+
+    @Override
+    public long estimatedBytes() {
+        long bytes = estimatedBytes;
+        if (bytes == 0) {
+            bytes = 48L + 4L * codes.length + 4L * dictionary.length;
+            for (String value : dictionary) {
+                bytes += StringColumn.stringBytes(value);
+            }
+            estimatedBytes = bytes;
+        }
+        return bytes;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.csvview.columnar;
+
+/**
+ * 按列紧凑存储的一列字符串
+ */
+public interface StringColumn {
+
+    /**
+     * @return 行数
+     */
+    int size();
+
+    /**
+     * @param row 行号（从0开始）
+     * @return 该行的值，不会为null
+     */
+    String get(int row);
+
+    /**
+     * @return 估算的堆内存占用（字节）
+     */
+    long estimatedBytes();
+
+    /**
+     * 估算一个String对象（含内部数组）的堆内存占用
+     */
+    static long stringBytes(String value) {
+        return 48L + 2L * value.length();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.example.csvview.columnar;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 把整列的UTF-8字节连续存放在一个数组中，用偏移量数组定位每行
+ * 适合几乎每行都不同的高基数列，每个单元格只占字节本身加一个int偏移量，读取时才创建String
+ */
+public final class Utf8ArenaColumn implements StringColumn {
+
+    private final byte[] arena;
+    private final int[] offsets;
+
+    /**
+     * @param arena 连续的UTF-8字节
+     * @param offsets 每行的起始偏移量，长度为行数+1，最后一个是结束位置
+     */
+    Utf8ArenaColumn(byte[] arena, int[] offsets) {
+        this.arena = arena;
+        this.offsets = offsets;
+    }
+
+    @Override
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public String get(int row) {
+        return new String(arena, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long estimatedBytes() {
+        return 32L + arena.length + 4L * offsets.length;
+    }
+}
\ No newline at end of file
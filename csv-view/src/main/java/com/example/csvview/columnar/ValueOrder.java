@@ -0,0 +1,105 @@
+package com.example.csvview.columnar;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 值的排序规则：空值最前，数字按数值比较并排在文本之前，文本按字符串比较
+ */
+public final class ValueOrder {
+
+    public static final Comparator<String> COMPARATOR = (a, b) -> {
+        if (a.isEmpty() || b.isEmpty()) {
+            return Boolean.compare(!a.isEmpty(), !b.isEmpty());
+        }
+        Double x = parseNumber(a);
+        Double y = parseNumber(b);
+        if (x != null && y != null) {
+            int result = Double.compare(x, y);
+            return result != 0 ? result : a.compareTo(b);
+        }
+        if (x != null || y != null) {
+            return x != null ? -1 : 1;
+        }
+        return a.compareTo(b);
+    };
+
+    private ValueOrder() {
+    }
+
+    /**
+     * 按 {@link #COMPARATOR} 排序，与直接使用比较器的结果相同，
+     * 但先把值分为空值、数字和文本三段，每个数字只解析一次
+     * @param values 互不相同的值
+     * @return 排好序的数组
+     */
+    public static String[] sort(Collection<String> values) {
+        List<NumberValue> numbers = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        boolean hasEmpty = false;
+        for (String value : values) {
+            if (value.isEmpty()) {
+                hasEmpty = true;
+                continue;
+            }
+            Double number = parseNumber(value);
+            if (number != null) {
+                numbers.add(new NumberValue(number, value));
+            } else {
+                texts.add(value);
+            }
+        }
+        numbers.sort(null);
+        Collections.sort(texts);
+
+        String[] sorted = new String[values.size()];
+        int index = 0;
+        if (hasEmpty) {
+            sorted[index++] = "";
+        }
+        for (NumberValue number : numbers) {
+            sorted[index++] = number.text;
+        }
+        for (String text : texts) {
+            sorted[index++] = text;
+        }
+        return sorted;
+    }
+
+    private static final class NumberValue implements Comparable<NumberValue> {
+        private final double number;
+        private final String text;
+
+        NumberValue(double number, String text) {
+            this.number = number;
+            this.text = text;
+        }
+
+        @Override
+        public int compareTo(NumberValue other) {
+            int result = Double.compare(number, other.number);
+            return result != 0 ? result : text.compareTo(other.text);
+        }
+    }
+
+    /**
+     * 按排序规则识别数字：首字符是数字、正负号或小数点，且能解析为非NaN的double
+     * @param value 非空的值
+     * @return 数值，不是数字时返回null
+     */
+    public static Double parseNumber(String value) {
+        char first = value.charAt(0);
+        if (!(first >= '0' && first <= '9') && first != '-' && first != '+' && first != '.') {
+            return null;
+        }
+        try {
+            double number = Double.parseDouble(value);
+            return Double.isNaN(number) ? null : number;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
@@ -1,19 +1,28 @@
 package com.example.csvview.controller;
 
 import com.example.csvview.model.CsvData;
+import com.example.csvview.query.CsvQuery;
+import com.example.csvview.registry.CsvDataRegistry;
+import com.example.csvview.registry.RegistryStats;
+import com.example.csvview.stats.ColumnProfile;
 import com.example.csvview.service.CsvService;
+import com.example.csvview.upload.ChunkedUploadService;
+import com.example.csvview.upload.UploadSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLEncoder;
@@ -30,6 +39,12 @@ public class CsvController {
     @Autowired
     private CsvService csvService;
 
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private CsvDataRegistry csvDataRegistry;
+
     /**
      * 显示主页面
      */
@@ -209,6 +224,183 @@ public class CsvController {
         }
     }
 
+    /**
+     * 初始化分块上传 - REST API
+     * 之后通过PUT上传各个分块，分块到齐即开始解析，最后调用complete获取文件ID
+     */
+    @PostMapping("/api/uploads")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> initChunkedUpload(@RequestParam("fileName") String fileName) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            // 检查文件类型
+            if (fileName == null || !fileName.toLowerCase().endsWith(".csv")) {
+                response.put("success", false);
+                response.put("message", "请提供CSV格式的文件名");
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            UploadSession session = chunkedUploadService.init(fileName);
+            response.put("success", true);
+            response.put("uploadId", session.getUploadId());
+            response.put("fileName", session.getFileName());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "初始化上传失败: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 上传一个分块 - REST API
+     * 请求体为分块的原始字节，分块序号从0开始，可以乱序上传，重复上传同一分块会被忽略
+     */
+    @PutMapping("/api/uploads/{uploadId}/chunks/{index}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> putChunk(@PathVariable String uploadId,
+                                                        @PathVariable int index,
+                                                        HttpServletRequest request) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            UploadSession session = chunkedUploadService.getSession(uploadId);
+            if (session == null) {
+                response.put("success", false);
+                response.put("message", "上传不存在或已过期");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            try (InputStream inputStream = request.getInputStream()) {
+                chunkedUploadService.putChunk(session, index, inputStream);
+            }
+            response.put("success", true);
+            response.putAll(getUploadProgress(session));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IOException e) {
+            response.put("success", false);
+            response.put("message", "分块写入失败: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 查询分块上传进度 - REST API
+     * 断线重连后从nextChunk开始继续上传
+     */
+    @GetMapping("/api/uploads/{uploadId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getUploadStatus(@PathVariable String uploadId) {
+        Map<String, Object> response = new HashMap<>();
+
+        UploadSession session = chunkedUploadService.getSession(uploadId);
+        if (session == null) {
+            response.put("success", false);
+            response.put("message", "上传不存在或已过期");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        String failure = chunkedUploadService.getFailure(session);
+        response.put("success", failure == null);
+        if (failure != null) {
+            response.put("message", "解析失败: " + failure);
+        }
+        response.put("fileName", session.getFileName());
+        response.putAll(getUploadProgress(session));
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 完成分块上传 - REST API
+     * 声明分块总数，等待最后的分块解析完后返回文件信息
+     */
+    @PostMapping("/api/uploads/{uploadId}/complete")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> completeChunkedUpload(@PathVariable String uploadId,
+                                                                     @RequestParam("totalChunks") int totalChunks) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            UploadSession session = chunkedUploadService.getSession(uploadId);
+            if (session == null) {
+                response.put("success", false);
+                response.put("message", "上传不存在或已过期");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+
+            String fileId = chunkedUploadService.complete(session, totalChunks);
+            CsvData csvData = csvService.getCsvDataById(fileId);
+
+            response.put("success", true);
+            response.put("message", "CSV文件上传成功");
+            response.put("fileId", fileId);
+            response.put("fileName", csvData.getFileName());
+            response.put("totalRows", csvData.getTotalRows());
+            response.put("totalColumns", csvData.getHeaders().size());
+            response.put("headers", csvData.getHeaders());
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (IOException e) {
+            response.put("success", false);
+            response.put("message", "数据读取失败: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 取消分块上传 - REST API
+     */
+    @DeleteMapping("/api/uploads/{uploadId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> abortChunkedUpload(@PathVariable String uploadId) {
+        Map<String, Object> response = new HashMap<>();
+
+        UploadSession session = chunkedUploadService.getSession(uploadId);
+        if (session == null) {
+            response.put("success", false);
+            response.put("message", "上传不存在或已过期");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        chunkedUploadService.abort(session);
+        response.put("success", true);
+        response.put("message", "上传已取消");
+        return ResponseEntity.ok(response);
+    }
+
+    private Map<String, Object> getUploadProgress(UploadSession session) {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("uploadId", session.getUploadId());
+        progress.put("nextChunk", session.getNextMissingChunk());
+        progress.put("parsedChunks", session.getParsedChunks());
+        progress.put("pendingChunks", session.getPendingChunks());
+        progress.put("receivedBytes", session.getReceivedBytes());
+        return progress;
+    }
+
     /**
      * 预览CSV数据 - REST API
      * 支持可选分页参数
@@ -219,7 +411,9 @@ public class CsvController {
             @PathVariable String fileId,
             @RequestParam(value = "page", required = false) Integer page,
             @RequestParam(value = "size", required = false) Integer size,
-            @RequestParam(value = "enablePaging", defaultValue = "true") boolean enablePaging) {
+            @RequestParam(value = "enablePaging", defaultValue = "true") boolean enablePaging,
+            @RequestParam(value = "search", required = false) String search,
+            @RequestParam MultiValueMap<String, String> params) {
         
         Map<String, Object> response = new HashMap<>();
         
@@ -231,8 +425,23 @@ public class CsvController {
                 return ResponseEntity.notFound().build();
             }
 
+            // filter和sort可以重复出现，从原始参数中读取，避免值中的逗号被拆分
+            CsvQuery query = CsvQuery.parse(params.get("filter"), search, params.get("sort"));
+
             CsvData resultData;
-            if (enablePaging && page != null && size != null) {
+            if (!query.isEmpty()) {
+                // 过滤、搜索和排序，未启用分页时返回全部匹配行
+                int queryPage = enablePaging && page != null ? page : 0;
+                int querySize = enablePaging && size != null ? size : csvData.getTotalRows();
+                resultData = csvService.queryData(fileId, csvData, query, queryPage, querySize);
+                response.put("matchedRows", resultData.getTotalRows());
+                if (enablePaging && size != null) {
+                    response.put("currentPage", queryPage);
+                    response.put("pageSize", size);
+                    response.put("totalPages", (int) Math.ceil((double) resultData.getTotalRows() / size));
+                }
+                response.put("isPaged", enablePaging && size != null);
+            } else if (enablePaging && page != null && size != null) {
                 // 分页预览
                 resultData = csvService.getPagedData(csvData, page, size);
                 response.put("currentPage", page);
@@ -254,6 +463,10 @@ public class CsvController {
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", "查询条件无效: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "获取数据失败: " + e.getMessage());
@@ -263,39 +476,34 @@ public class CsvController {
 
     /**
      * 下载Excel文件 - REST API
+     * 边生成边写入响应输出流，不在内存中缓存整个Excel文件
      */
     @GetMapping("/api/download/{fileId}")
-    public ResponseEntity<byte[]> downloadExcel(@PathVariable String fileId) {
-        try {
-            CsvData csvData = csvService.getCsvDataById(fileId);
-            if (csvData == null) {
-                return ResponseEntity.notFound().build();
-            }
-
-            // 转换为Excel格式
-            byte[] excelData = csvService.convertToExcel(csvData);
-
-            // 生成文件名
-            String originalFileName = csvData.getFileName();
-            String excelFileName = originalFileName.replaceAll("\\.csv$", ".xlsx");
-            if (!excelFileName.endsWith(".xlsx")) {
-                excelFileName += ".xlsx";
-            }
+    public void downloadExcel(@PathVariable String fileId, HttpServletResponse response) throws IOException {
+        CsvData csvData = csvService.getCsvDataById(fileId);
+        if (csvData == null) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
 
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", 
-                URLEncoder.encode(excelFileName, StandardCharsets.UTF_8.toString()));
-            headers.setContentLength(excelData.length);
+        // 生成文件名
+        String originalFileName = csvData.getFileName();
+        String excelFileName = originalFileName.replaceAll("\\.csv$", ".xlsx");
+        if (!excelFileName.endsWith(".xlsx")) {
+            excelFileName += ".xlsx";
+        }
 
-            return new ResponseEntity<>(excelData, headers, HttpStatus.OK);
+        // 设置响应头，文件长度事先未知，使用分块传输
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.formData()
+                .name("attachment")
+                .filename(URLEncoder.encode(excelFileName, StandardCharsets.UTF_8.toString()))
+                .build()
+                .toString());
 
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+        // 响应头发出后无法再修改状态码，转换失败时连接会被中断，客户端得到不完整的文件
+        csvService.writeExcel(csvData, response.getOutputStream());
+        response.flushBuffer();
     }
 
     /**
@@ -354,4 +562,59 @@ public class CsvController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
         }
     }
+
+    /**
+     * 获取每一列的统计概况 - REST API
+     * 第一次请求时并行扫描一遍全部数据，之后直接返回缓存的结果
+     */
+    @GetMapping("/api/files/{fileId}/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getColumnStats(@PathVariable String fileId) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            CsvData csvData = csvService.getCsvDataById(fileId);
+            if (csvData == null) {
+                response.put("success", false);
+                response.put("message", "文件不存在");
+                return ResponseEntity.notFound().build();
+            }
+
+            List<ColumnProfile> columns = csvService.getColumnProfiles(fileId, csvData);
+            response.put("success", true);
+            response.put("fileName", csvData.getFileName());
+            response.put("totalRows", csvData.getTotalRows());
+            response.put("columns", columns);
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("message", "统计失败: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        }
+    }
+
+    /**
+     * 文件注册表的内存占用和命中、淘汰统计 - REST API
+     */
+    @GetMapping("/api/registry/stats")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getRegistryStats() {
+        Map<String, Object> response = new HashMap<>();
+
+        RegistryStats stats = csvDataRegistry.getStats();
+        response.put("success", true);
+        response.put("entries", stats.getEntries());
+        response.put("usedBytes", stats.getUsedBytes());
+        response.put("budgetBytes", stats.getBudgetBytes());
+        response.put("hits", stats.getHits());
+        response.put("misses", stats.getMisses());
+        response.put("hitRate", stats.getHitRate());
+        response.put("loads", stats.getLoads());
+        response.put("evictions", stats.getEvictions());
+        response.put("expirations", stats.getExpirations());
+
+        return ResponseEntity.ok(response);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.example.csvview.preview;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 在字节层面按记录切分CSV，不解码字符、不创建字段
+ * 分隔符、引号和换行都是ASCII字符，在UTF-8数据中不会出现在多字节字符内部，
+ * 因此可以直接扫描字节；判定规则与 CSVFormat.DEFAULT 一致：
+ * 只有字段开头的引号开始引用，引用内的 "" 是转义的引号，引用内的换行不结束记录，空行被跳过
+ */
+class CsvRecordScanner {
+
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[64 * 1024];
+    private int pos;
+    private int limit;
+    private long position;
+
+    /**
+     * @param input 数据输入流
+     * @param startPosition 输入流第一个字节在文件中的偏移量
+     */
+    CsvRecordScanner(InputStream input, long startPosition) {
+        this.input = input;
+        this.position = startPosition;
+    }
+
+    /**
+     * @return 下一个未读字节在文件中的偏移量
+     */
+    long position() {
+        return position - (limit - pos);
+    }
+
+    /**
+     * 读过下一条非空记录（含结尾的换行符）
+     * @param copyTo 不为null时把读过的字节写入其中
+     * @return 是否读到了记录，false表示已到末尾
+     * @throws IOException 读取异常
+     */
+    boolean nextRecord(OutputStream copyTo) throws IOException {
+        int state = FIELD_START;
+        boolean hasContent = false;
+        int segmentStart = pos;
+
+        while (true) {
+            if (pos == limit) {
+                if (copyTo != null) {
+                    copyTo.write(buffer, segmentStart, pos - segmentStart);
+                }
+                if (!fill()) {
+                    return hasContent;
+                }
+                segmentStart = 0;
+            }
+
+            byte b = buffer[pos++];
+            if (state == QUOTED) {
+                if (b == '"') {
+                    state = QUOTE_IN_QUOTED;
+                }
+                continue;
+            }
+            if (b == '\n' || b == '\r') {
+                if (hasContent) {
+                    break;
+                }
+                // 空行不是记录
+                continue;
+            }
+            hasContent = true;
+            if (b == ',') {
+                state = FIELD_START;
+            } else if (b == '"') {
+                // 字段开头的引号开始引用，引用中的 "" 是转义的引号
+                state = state == FIELD_START || state == QUOTE_IN_QUOTED ? QUOTED : UNQUOTED;
+            } else {
+                state = UNQUOTED;
+            }
+        }
+
+        if (copyTo != null) {
+            copyTo.write(buffer, segmentStart, pos - segmentStart);
+        }
+        return true;
+    }
+
+    private boolean fill() throws IOException {
+        int read = input.read(buffer);
+        if (read < 0) {
+            pos = 0;
+            limit = 0;
+            return false;
+        }
+        pos = 0;
+        limit = read;
+        position += read;
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.example.csvview.preview;
+
+/**
+ * 从CSV中截取的一页：表头记录加上该页记录的原始字节，可以直接交给CSV解析器
+ */
+public class CsvSlice {
+
+    private final byte[] bytes;
+    private final long totalRecords;
+
+    CsvSlice(byte[] bytes, long totalRecords) {
+        this.bytes = bytes;
+        this.totalRecords = totalRecords;
+    }
+
+    /**
+     * @return 表头和该页记录的原始字节
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return 数据记录总数（不含表头），未统计时为-1
+     */
+    public long getTotalRecords() {
+        return totalRecords;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.csvview.preview;
+
+import java.util.Arrays;
+
+/**
+ * 一个CSV文件的稀疏记录偏移索引
+ * 每 stride 条数据记录保存一次该记录的起始字节偏移量，第0个检查点是表头之后的位置；
+ * 预览后面的页时从最近的检查点开始扫描，扫描过程中顺带补充新的检查点
+ */
+class RecordOffsetIndex {
+
+    private final byte[] headerBytes;
+    private final int stride;
+    private long[] checkpoints = new long[16];
+    private int checkpointCount;
+    private long totalRecords = -1;
+
+    RecordOffsetIndex(byte[] headerBytes, long dataStart, int stride) {
+        this.headerBytes = headerBytes;
+        this.stride = stride;
+        this.checkpoints[0] = dataStart;
+        this.checkpointCount = 1;
+    }
+
+    /**
+     * @return 表头记录的原始字节
+     */
+    byte[] getHeaderBytes() {
+        return headerBytes;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    /**
+     * @param record 目标记录号
+     * @return 不超过目标记录的最近检查点的序号，对应记录号为 序号 * stride
+     */
+    synchronized int nearestCheckpoint(long record) {
+        return (int) Math.min(record / stride, checkpointCount - 1);
+    }
+
+    synchronized long checkpointOffset(int checkpoint) {
+        return checkpoints[checkpoint];
+    }
+
+    /**
+     * 扫描到第 record 条记录的起始位置时调用，只在它恰好是下一个检查点时记录
+     * @param record 记录号
+     * @param offset 记录的起始字节偏移量
+     */
+    synchronized void recordPosition(long record, long offset) {
+        if (record % stride != 0 || record / stride != checkpointCount) {
+            return;
+        }
+        if (checkpointCount == checkpoints.length) {
+            checkpoints = Arrays.copyOf(checkpoints, checkpointCount * 2);
+        }
+        checkpoints[checkpointCount++] = offset;
+    }
+
+    /**
+     * @return 数据记录总数，尚未扫描到文件末尾时返回-1
+     */
+    synchronized long getTotalRecords() {
+        return totalRecords;
+    }
+
+    synchronized void setTotalRecords(long totalRecords) {
+        this.totalRecords = totalRecords;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.example.csvview.preview;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 流式分页预览
+ * 只读到请求的页为止：之前的记录按字节跳过，不解析字段；
+ * 剩余行数按需用字节扫描统计，不需要时直接跳过。
+ * 对本地文件按 路径 + 大小 + 修改时间 缓存稀疏的记录偏移索引，
+ * 之后预览后面的页可以直接定位到附近的检查点，统计过的总行数也会被复用
+ */
+@Component
+public class StreamingCsvPreviewer {
+
+    private final int indexStride;
+    private final Map<String, RecordOffsetIndex> indexes;
+
+    public StreamingCsvPreviewer(@Value("${csv-view.preview.index-stride:1024}") int indexStride,
+                                 @Value("${csv-view.preview.index-cache-size:256}") int indexCacheSize) {
+        if (indexStride <= 0) {
+            throw new IllegalArgumentException("csv-view.preview.index-stride 必须大于0");
+        }
+        this.indexStride = indexStride;
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<String, RecordOffsetIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecordOffsetIndex> eldest) {
+                return size() > indexCacheSize;
+            }
+        });
+    }
+
+    /**
+     * 截取本地文件的一页
+     * @param file CSV文件
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @param countRows 是否统计总行数；索引中已有总行数时总会返回
+     * @return 表头和该页记录
+     * @throws IOException 文件读取异常
+     */
+    public CsvSlice sliceFile(File file, int page, int size, boolean countRows) throws IOException {
+        checkPage(page, size);
+        String key = file.getCanonicalPath() + '|' + file.length() + '|' + file.lastModified();
+
+        try (FileInputStream input = new FileInputStream(file)) {
+            RecordOffsetIndex index = indexes.get(key);
+            if (index == null) {
+                CsvRecordScanner scanner = new CsvRecordScanner(input, 0);
+                ByteArrayOutputStream header = new ByteArrayOutputStream();
+                scanner.nextRecord(header);
+                index = new RecordOffsetIndex(header.toByteArray(), scanner.position(), indexStride);
+                indexes.put(key, index);
+            }
+
+            // 从不超过目标页的最近检查点开始扫描
+            int checkpoint = index.nearestCheckpoint((long) page * size);
+            long offset = index.checkpointOffset(checkpoint);
+            input.getChannel().position(offset);
+            CsvRecordScanner scanner = new CsvRecordScanner(input, offset);
+            return slice(scanner, index, index.getHeaderBytes(), (long) checkpoint * index.getStride(), page, size, countRows);
+        }
+    }
+
+    /**
+     * 截取输入流的一页，输入流无法定位，每次都从头扫描
+     * @param inputStream CSV数据输入流
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @param countRows 是否统计总行数
+     * @return 表头和该页记录
+     * @throws IOException 读取异常
+     */
+    public CsvSlice sliceStream(InputStream inputStream, int page, int size, boolean countRows) throws IOException {
+        checkPage(page, size);
+        CsvRecordScanner scanner = new CsvRecordScanner(inputStream, 0);
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        scanner.nextRecord(header);
+        return slice(scanner, null, header.toByteArray(), 0, page, size, countRows);
+    }
+
+    private CsvSlice slice(CsvRecordScanner scanner, RecordOffsetIndex index, byte[] headerBytes, long record,
+                           int page, int size, boolean countRows) throws IOException {
+        long firstRecord = (long) page * size;
+        boolean endOfData = false;
+
+        // 跳过目标页之前的记录
+        while (record < firstRecord) {
+            markPosition(index, record, scanner);
+            if (!scanner.nextRecord(null)) {
+                endOfData = true;
+                break;
+            }
+            record++;
+        }
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(headerBytes);
+        int pageRecords = 0;
+        while (!endOfData && pageRecords < size) {
+            markPosition(index, record, scanner);
+            if (!scanner.nextRecord(output)) {
+                endOfData = true;
+                break;
+            }
+            record++;
+            pageRecords++;
+        }
+
+        long totalRecords = index != null ? index.getTotalRecords() : -1;
+        if (totalRecords < 0 && endOfData) {
+            totalRecords = record;
+        }
+        if (totalRecords < 0 && countRows) {
+            while (true) {
+                markPosition(index, record, scanner);
+                if (!scanner.nextRecord(null)) {
+                    break;
+                }
+                record++;
+            }
+            totalRecords = record;
+        }
+        if (index != null && totalRecords >= 0) {
+            index.setTotalRecords(totalRecords);
+        }
+
+        return new CsvSlice(output.toByteArray(), totalRecords);
+    }
+
+    private static void markPosition(RecordOffsetIndex index, long record, CsvRecordScanner scanner) {
+        if (index != null) {
+            index.recordPosition(record, scanner.position());
+        }
+    }
+
+    private static void checkPage(int page, int size) {
+        if (page < 0 || size < 0) {
+            throw new IllegalArgumentException("页码和每页大小不能为负数");
+        }
+    }
+}
\ No newline at end of file
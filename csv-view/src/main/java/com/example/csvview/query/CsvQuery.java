@@ -0,0 +1,162 @@
+package com.example.csvview.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 预览查询条件：列过滤、全文子串搜索和多列排序
+ * 过滤条件格式为 列名:操作符:值，操作符为 eq、ne、contains、gt、gte、lt、lte，
+ * 范围比较只在值和比较值同为数字或同为文本时成立，空值不满足任何范围比较；
+ * 排序条件格式为 列名 或 列名:asc / 列名:desc，多个排序条件按先后顺序生效
+ */
+public class CsvQuery {
+
+    private final List<ColumnFilter> filters;
+    private final String search;
+    private final List<SortKey> sortKeys;
+
+    public CsvQuery(List<ColumnFilter> filters, String search, List<SortKey> sortKeys) {
+        this.filters = filters;
+        this.search = search;
+        this.sortKeys = sortKeys;
+    }
+
+    /**
+     * 解析请求参数
+     * @param filters 过滤条件，可以为null
+     * @param search 搜索关键字，可以为null
+     * @param sorts 排序条件，可以为null
+     * @return 查询条件
+     */
+    public static CsvQuery parse(List<String> filters, String search, List<String> sorts) {
+        List<ColumnFilter> parsedFilters = new ArrayList<>();
+        if (filters != null) {
+            for (String filter : filters) {
+                if (!filter.isEmpty()) {
+                    parsedFilters.add(ColumnFilter.parse(filter));
+                }
+            }
+        }
+        List<SortKey> parsedSorts = new ArrayList<>();
+        if (sorts != null) {
+            for (String sort : sorts) {
+                if (!sort.isEmpty()) {
+                    parsedSorts.add(SortKey.parse(sort));
+                }
+            }
+        }
+        String normalizedSearch = search != null && !search.isEmpty() ? search : null;
+        return new CsvQuery(Collections.unmodifiableList(parsedFilters), normalizedSearch,
+                Collections.unmodifiableList(parsedSorts));
+    }
+
+    public List<ColumnFilter> getFilters() {
+        return filters;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public List<SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    public boolean isEmpty() {
+        return filters.isEmpty() && search == null && sortKeys.isEmpty();
+    }
+
+    /**
+     * 过滤操作符
+     */
+    public enum Operator {
+        EQ, NE, CONTAINS, GT, GTE, LT, LTE
+    }
+
+    /**
+     * 单列过滤条件
+     */
+    public static class ColumnFilter {
+
+        private final String column;
+        private final Operator operator;
+        private final String value;
+
+        public ColumnFilter(String column, Operator operator, String value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+        }
+
+        static ColumnFilter parse(String filter) {
+            String[] parts = filter.split(":", 3);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("过滤条件格式应为 列名:操作符:值: " + filter);
+            }
+            Operator operator;
+            try {
+                operator = Operator.valueOf(parts[1].toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的过滤操作符: " + parts[1]);
+            }
+            return new ColumnFilter(parts[0], operator, parts[2]);
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public Operator getOperator() {
+            return operator;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return column + ":" + operator + ":" + value;
+        }
+    }
+
+    /**
+     * 排序条件
+     */
+    public static class SortKey {
+
+        private final String column;
+        private final boolean descending;
+
+        public SortKey(String column, boolean descending) {
+            this.column = column;
+            this.descending = descending;
+        }
+
+        static SortKey parse(String sort) {
+            int separator = sort.lastIndexOf(':');
+            if (separator > 0) {
+                String direction = sort.substring(separator + 1).toLowerCase(Locale.ROOT);
+                if (direction.equals("asc") || direction.equals("desc")) {
+                    return new SortKey(sort.substring(0, separator), direction.equals("desc"));
+                }
+            }
+            return new SortKey(sort, false);
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public boolean isDescending() {
+            return descending;
+        }
+
+        @Override
+        public String toString() {
+            return column + (descending ? ":desc" : ":asc");
+        }
+    }
+}
\ No newline at end of file
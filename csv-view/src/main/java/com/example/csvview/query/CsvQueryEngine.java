@@ -0,0 +1,83 @@
+package com.example.csvview.query;
+
+import com.example.csvview.model.CsvData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务端过滤、搜索和排序
+ * 每个文件的查询索引（字典编码的列、缓存的排序排列和过滤结果）在第一次查询时建立，
+ * 最近查询过的若干个文件的索引保留在内存中，后续翻页和重复查询直接复用
+ */
+@Component
+public class CsvQueryEngine {
+
+    private final int resultCacheSize;
+    private final Map<String, DatasetIndex> indexes;
+
+    public CsvQueryEngine(@Value("${csv-view.query.index-cache-size:8}") int indexCacheSize,
+                          @Value("${csv-view.query.result-cache-size:8}") int resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+        this.indexes = Collections.synchronizedMap(new LinkedHashMap<String, DatasetIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, DatasetIndex> eldest) {
+                return size() > indexCacheSize;
+            }
+        });
+    }
+
+    /**
+     * 查询一页数据
+     * @param fileId 文件ID
+     * @param csvData 文件数据
+     * @param query 查询条件
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @return 本页的数据，totalRows为匹配的总行数
+     */
+    public CsvData query(String fileId, CsvData csvData, CsvQuery query, int page, int size) {
+        if (page < 0 || size < 0) {
+            throw new IllegalArgumentException("页码和每页大小不能为负数");
+        }
+        DatasetIndex index = indexes.get(fileId);
+        if (index == null || index.getCsvData() != csvData) {
+            index = new DatasetIndex(csvData, resultCacheSize);
+            indexes.put(fileId, index);
+        }
+
+        long offset = (long) page * size;
+        DatasetIndex.QueryResult result = index.execute(query, (int) Math.min(offset, Integer.MAX_VALUE), size);
+
+        List<List<String>> allRows = csvData.getRows();
+        List<List<String>> rows = new ArrayList<>(result.getRowIds().length);
+        for (int rowId : result.getRowIds()) {
+            rows.add(allRows.get(rowId));
+        }
+        CsvData pagedData = new CsvData(csvData.getHeaders(), rows, csvData.getFileName());
+        pagedData.setTotalRows(result.getMatchedRows());
+        return pagedData;
+    }
+
+    /**
+     * @param fileId 文件ID
+     * @return 文件的查询索引估算的堆内存占用（字节），没有索引时返回0
+     */
+    public long estimatedBytes(String fileId) {
+        DatasetIndex index = indexes.get(fileId);
+        return index != null ? index.estimatedBytes() : 0;
+    }
+
+    /**
+     * 丢弃文件的查询索引
+     * @param fileId 文件ID
+     */
+    public void invalidate(String fileId) {
+        indexes.remove(fileId);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,320 @@
+package com.example.csvview.query;
+
+import com.example.csvview.columnar.ColumnarTable;
+import com.example.csvview.columnar.DictionaryColumn;
+import com.example.csvview.columnar.StringColumn;
+import com.example.csvview.columnar.ValueOrder;
+import com.example.csvview.model.CsvData;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * 一个文件的查询索引
+ * 列在第一次被过滤、搜索或排序时才做字典编码；
+ * 每种排序条件的行排列和每种过滤条件的匹配结果在第一次使用时计算，并各自缓存最近使用的若干个，
+ * 翻页和重复查询不再重新计算
+ */
+class DatasetIndex {
+
+    private final CsvData csvData;
+    private final DictionaryColumn[] columns;
+    private final Map<String, int[]> sortedPermutations;
+    private final Map<String, BitSet> filterResults;
+
+    DatasetIndex(CsvData csvData, int cacheSize) {
+        this.csvData = csvData;
+        this.columns = new DictionaryColumn[csvData.getHeaders().size()];
+        this.sortedPermutations = lruMap(cacheSize);
+        this.filterResults = lruMap(cacheSize);
+    }
+
+    private static <V> Map<String, V> lruMap(int maxEntries) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    CsvData getCsvData() {
+        return csvData;
+    }
+
+    /**
+     * @return 估算的堆内存占用（字节），包括已编码的列和缓存的排序排列、过滤结果
+     */
+    long estimatedBytes() {
+        long bytes = 64L;
+        synchronized (this) {
+            for (DictionaryColumn column : columns) {
+                if (column != null) {
+                    bytes += column.estimatedBytes();
+                }
+            }
+        }
+        synchronized (sortedPermutations) {
+            for (int[] permutation : sortedPermutations.values()) {
+                bytes += 16L + 4L * permutation.length;
+            }
+        }
+        synchronized (filterResults) {
+            for (BitSet matches : filterResults.values()) {
+                bytes += 32L + matches.size() / 8;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 执行查询
+     * @param query 查询条件
+     * @param offset 跳过的匹配行数
+     * @param limit 返回的最大行数
+     * @return 匹配的总行数和本页的行号
+     */
+    QueryResult execute(CsvQuery query, int offset, int limit) {
+        int rowCount = csvData.getRows().size();
+        BitSet matches = evaluateFilters(query, rowCount);
+        int matchedRows = matches != null ? matches.cardinality() : rowCount;
+
+        int[] rowIds = new int[Math.max(0, Math.min(limit, matchedRows - offset))];
+        if (rowIds.length > 0) {
+            int[] permutation = query.getSortKeys().isEmpty() ? null : sortedPermutation(query.getSortKeys());
+            int skipped = 0;
+            int collected = 0;
+            for (int i = 0; i < rowCount && collected < rowIds.length; i++) {
+                int row = permutation != null ? permutation[i] : i;
+                if (matches != null && !matches.get(row)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                } else {
+                    rowIds[collected++] = row;
+                }
+            }
+        }
+        return new QueryResult(matchedRows, rowIds);
+    }
+
+    /**
+     * 计算满足全部过滤条件和搜索条件的行，结果会被缓存
+     * 每个条件先对字典求值一次，再按编码扫描整列
+     * @return 匹配行的位图（调用方不能修改），没有过滤条件时返回null
+     */
+    private BitSet evaluateFilters(CsvQuery query, int rowCount) {
+        if (query.getFilters().isEmpty() && query.getSearch() == null) {
+            return null;
+        }
+        // 以不会出现在参数中的\0分隔，避免不同条件拼接出相同的键
+        StringBuilder cacheKey = new StringBuilder();
+        for (CsvQuery.ColumnFilter filter : query.getFilters()) {
+            cacheKey.append(filter).append('\0');
+        }
+        cacheKey.append('\0').append(query.getSearch());
+        synchronized (filterResults) {
+            BitSet cached = filterResults.get(cacheKey.toString());
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        BitSet matches = new BitSet(rowCount);
+        matches.set(0, rowCount);
+
+        for (CsvQuery.ColumnFilter filter : query.getFilters()) {
+            DictionaryColumn column = column(filter.getColumn());
+            boolean[] accepted = column.matchingCodes(filterPredicate(filter));
+            int[] codes = column.getCodes();
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                if (!accepted[codes[row]]) {
+                    matches.clear(row);
+                }
+            }
+        }
+
+        if (query.getSearch() != null) {
+            // 任意一列包含关键字（不区分大小写）即匹配
+            String search = query.getSearch();
+            BitSet found = new BitSet(rowCount);
+            for (int i = 0; i < columns.length; i++) {
+                DictionaryColumn column = column(i);
+                boolean[] accepted = column.matchingCodes(value -> containsIgnoreCase(value, search));
+                int[] codes = column.getCodes();
+                for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                    if (accepted[codes[row]]) {
+                        found.set(row);
+                    }
+                }
+            }
+            matches.and(found);
+        }
+
+        synchronized (filterResults) {
+            filterResults.put(cacheKey.toString(), matches);
+        }
+        return matches;
+    }
+
+    private static Predicate<String> filterPredicate(CsvQuery.ColumnFilter filter) {
+        String expected = filter.getValue();
+        switch (filter.getOperator()) {
+            case EQ:
+                return value -> value.equals(expected);
+            case NE:
+                return value -> !value.equals(expected);
+            case CONTAINS:
+                return value -> containsIgnoreCase(value, expected);
+            case GT:
+                return rangePredicate(expected, result -> result > 0);
+            case GTE:
+                return rangePredicate(expected, result -> result >= 0);
+            case LT:
+                return rangePredicate(expected, result -> result < 0);
+            case LTE:
+                return rangePredicate(expected, result -> result <= 0);
+            default:
+                throw new IllegalArgumentException("不支持的过滤操作符: " + filter.getOperator());
+        }
+    }
+
+    /**
+     * 范围比较只在值和比较值同为数字（按数值）或同为文本（按字符串）时成立，空值永不匹配
+     * @param accept 根据比较结果（值与比较值相比的正负）判断是否匹配
+     */
+    private static Predicate<String> rangePredicate(String expected, IntPredicate accept) {
+        if (expected.isEmpty()) {
+            return value -> false;
+        }
+        Double bound = ValueOrder.parseNumber(expected);
+        return value -> {
+            if (value.isEmpty()) {
+                return false;
+            }
+            Double number = ValueOrder.parseNumber(value);
+            if (bound != null) {
+                return number != null && accept.test(Double.compare(number, bound));
+            }
+            return number == null && accept.test(value.compareTo(expected));
+        };
+    }
+
+    private static boolean containsIgnoreCase(String value, String search) {
+        if (search.isEmpty()) {
+            return true;
+        }
+        // 先比较首字符，只在首字符相同的位置做完整比较
+        char lower = Character.toLowerCase(search.charAt(0));
+        char upper = Character.toUpperCase(search.charAt(0));
+        int last = value.length() - search.length();
+        for (int i = 0; i <= last; i++) {
+            char c = value.charAt(i);
+            if ((c == lower || c == upper || Character.toLowerCase(c) == lower)
+                    && value.regionMatches(true, i, search, 0, search.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 按排序条件得到行的排列，结果会被缓存
+     * 从最后一个排序条件开始逐个做稳定的计数排序（LSD），每趟是 O(行数 + 字典大小)
+     */
+    private int[] sortedPermutation(List<CsvQuery.SortKey> sortKeys) {
+        String cacheKey = sortKeys.toString();
+        synchronized (sortedPermutations) {
+            int[] cached = sortedPermutations.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        int rowCount = csvData.getRows().size();
+        int[] permutation = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            permutation[i] = i;
+        }
+        List<CsvQuery.SortKey> keys = new ArrayList<>(sortKeys);
+        for (int k = keys.size() - 1; k >= 0; k--) {
+            CsvQuery.SortKey key = keys.get(k);
+            DictionaryColumn column = column(key.getColumn());
+            int[] codes = column.getCodes();
+            int dictionarySize = column.getDictionarySize();
+            boolean descending = key.isDescending();
+
+            int[] counts = new int[dictionarySize + 1];
+            for (int row : permutation) {
+                int code = descending ? dictionarySize - 1 - codes[row] : codes[row];
+                counts[code + 1]++;
+            }
+            for (int i = 0; i < dictionarySize; i++) {
+                counts[i + 1] += counts[i];
+            }
+            int[] next = new int[rowCount];
+            for (int row : permutation) {
+                int code = descending ? dictionarySize - 1 - codes[row] : codes[row];
+                next[counts[code]++] = row;
+            }
+            permutation = next;
+        }
+
+        synchronized (sortedPermutations) {
+            sortedPermutations.put(cacheKey, permutation);
+        }
+        return permutation;
+    }
+
+    private DictionaryColumn column(String name) {
+        int index = csvData.getHeaders().indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("列不存在: " + name);
+        }
+        return column(index);
+    }
+
+    /**
+     * 按列存储的数据中已经字典编码的列只需对字典排序，其余的列从行数据重新编码
+     */
+    private synchronized DictionaryColumn column(int index) {
+        if (columns[index] == null) {
+            List<List<String>> rows = csvData.getRows();
+            StringColumn stored = rows instanceof ColumnarTable.RowList
+                    ? ((ColumnarTable.RowList) rows).getTable().getColumn(index)
+                    : null;
+            columns[index] = stored instanceof DictionaryColumn
+                    ? ((DictionaryColumn) stored).sorted()
+                    : DictionaryColumn.sortedOf(rows, index);
+        }
+        return columns[index];
+    }
+
+    /**
+     * 查询结果
+     */
+    static class QueryResult {
+
+        private final int matchedRows;
+        private final int[] rowIds;
+
+        QueryResult(int matchedRows, int[] rowIds) {
+            this.matchedRows = matchedRows;
+            this.rowIds = rowIds;
+        }
+
+        int getMatchedRows() {
+            return matchedRows;
+        }
+
+        int[] getRowIds() {
+            return rowIds;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,346 @@
+package com.example.csvview.registry;
+
+import com.example.csvview.columnar.ColumnarTable;
+import com.example.csvview.columnar.StringColumn;
+import com.example.csvview.model.CsvData;
+import com.example.csvview.query.CsvQueryEngine;
+import com.example.csvview.stats.ColumnStatsEngine;
+import com.example.csvview.storage.PagedCsvStore;
+import com.example.csvview.storage.PagedRowList;
+import com.example.csvview.storage.StoredCsvFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已保存文件的注册表
+ * 按最近访问顺序保存文件的元数据和页目录，每个条目的堆内存占用包括它的查询索引，
+ * 查询索引和列统计结果随条目一起淘汰；
+ * 总量超过内存预算时从最久未访问的条目开始淘汰：开启溢出时只卸载堆内的部分，数据仍在磁盘上，
+ * 下次访问时透明地重新打开；未开启时直接删除文件。
+ * 超过存活时间没有被访问的文件（包括已溢出到磁盘的）由后台线程定期删除
+ */
+@Component
+public class CsvDataRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvDataRegistry.class);
+
+    @Autowired
+    private PagedCsvStore pagedCsvStore;
+
+    @Autowired
+    private CsvQueryEngine csvQueryEngine;
+
+    @Autowired
+    private ColumnStatsEngine columnStatsEngine;
+
+    private final long memoryBudget;
+    private final long ttlMillis;
+    private final boolean spillToDisk;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ScheduledExecutorService sweeper;
+    private long currentBytes;
+
+    private long hits;
+    private long misses;
+    private long loads;
+    private long evictions;
+    private long expirations;
+
+    public CsvDataRegistry(@Value("${csv-view.registry.memory-budget:256MB}") DataSize memoryBudget,
+                           @Value("${csv-view.registry.ttl:24h}") Duration ttl,
+                           @Value("${csv-view.registry.spill-to-disk:true}") boolean spillToDisk,
+                           @Value("${csv-view.registry.sweep-interval:1m}") Duration sweepInterval) {
+        this.memoryBudget = memoryBudget.toBytes();
+        this.ttlMillis = ttl.toMillis();
+        this.spillToDisk = spillToDisk;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "csv-registry-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (ttlMillis > 0) {
+            long interval = sweepInterval.toMillis();
+            sweeper.scheduleWithFixedDelay(this::removeExpired, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 注册新保存的文件
+     * @param fileId 文件ID
+     * @param csvData 文件数据
+     */
+    public void put(String fileId, CsvData csvData) {
+        // 估算查询索引的大小需要索引自己的锁，不能在持有注册表的锁时进行
+        long bytes = estimateBytes(fileId, csvData);
+        List<String> evicted;
+        synchronized (this) {
+            Entry previous = entries.remove(fileId);
+            if (previous != null) {
+                currentBytes -= previous.bytes;
+            }
+            Entry entry = new Entry(csvData);
+            entry.bytes = bytes;
+            entries.put(fileId, entry);
+            currentBytes += entry.bytes;
+            evicted = evictOverBudget();
+        }
+        evicted.forEach(this::dropDerivedData);
+    }
+
+    /**
+     * 获取文件数据，已溢出到磁盘或应用重启后不在内存中的文件从磁盘分页存储重新打开
+     * 访问时间每隔存活时间的1/10写入一次磁盘，应用异常退出后正在使用的文件不会被当作过期删除
+     * @param fileId 文件ID
+     * @return 文件数据，不存在或已过期时返回null
+     */
+    public CsvData get(String fileId) {
+        long now = System.currentTimeMillis();
+        CsvData csvData;
+        synchronized (this) {
+            Entry entry = entries.get(fileId);
+            if (entry != null && !isExpired(entry.lastAccess, now)) {
+                hits++;
+                entry.lastAccess = now;
+                if (ttlMillis > 0 && now - entry.persistedAccess > ttlMillis / 10) {
+                    entry.persistedAccess = now;
+                    pagedCsvStore.setLastAccessTime(fileId, now);
+                }
+                return entry.csvData;
+            }
+            if (entry != null) {
+                removeExpiredEntry(fileId);
+                csvData = null;
+            } else {
+                misses++;
+                StoredCsvFile storedFile = pagedCsvStore.get(fileId);
+                if (storedFile == null) {
+                    return null;
+                }
+                long lastAccess = pagedCsvStore.getLastAccessTime(fileId);
+                if (lastAccess >= 0 && isExpired(lastAccess, now)) {
+                    removeExpiredEntry(fileId);
+                    csvData = null;
+                } else {
+                    loads++;
+                    pagedCsvStore.setLastAccessTime(fileId, now);
+                    csvData = new CsvData(storedFile.getHeaders(), new PagedRowList(pagedCsvStore, storedFile), storedFile.getFileName());
+                }
+            }
+        }
+        if (csvData == null) {
+            // 已过期并删除
+            dropDerivedData(fileId);
+            return null;
+        }
+        put(fileId, csvData);
+        return csvData;
+    }
+
+    /**
+     * 重新估算文件的堆内存占用，在查询索引建立或变化后调用
+     * @param fileId 文件ID
+     */
+    public void updateSize(String fileId) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(fileId);
+        }
+        if (entry == null) {
+            return;
+        }
+        long bytes = estimateBytes(fileId, entry.csvData);
+        List<String> evicted;
+        synchronized (this) {
+            // 估算期间条目可能已被淘汰或替换
+            if (entries.get(fileId) != entry) {
+                return;
+            }
+            currentBytes += bytes - entry.bytes;
+            entry.bytes = bytes;
+            evicted = evictOverBudget();
+        }
+        evicted.forEach(this::dropDerivedData);
+    }
+
+    /**
+     * 删除文件：移出注册表并删除查询索引和磁盘上的数据
+     * @param fileId 文件ID
+     * @return 是否存在该文件
+     */
+    public boolean delete(String fileId) {
+        boolean existed;
+        synchronized (this) {
+            existed = remove(fileId);
+        }
+        dropDerivedData(fileId);
+        return existed;
+    }
+
+    /**
+     * 移出注册表并删除磁盘上的数据，调用方持有注册表的锁，并在释放锁之后丢弃查询索引和列统计
+     */
+    private boolean remove(String fileId) {
+        Entry entry = entries.remove(fileId);
+        if (entry != null) {
+            currentBytes -= entry.bytes;
+        }
+        return pagedCsvStore.delete(fileId) || entry != null;
+    }
+
+    /**
+     * 丢弃由文件数据计算出的查询索引和列统计
+     * 查询索引和列统计各有自己的锁，在不持有注册表的锁时调用，避免注册表等待正在建立的索引
+     */
+    private void dropDerivedData(String fileId) {
+        csvQueryEngine.invalidate(fileId);
+        columnStatsEngine.invalidate(fileId);
+    }
+
+    private boolean isExpired(long lastAccess, long now) {
+        return ttlMillis > 0 && now - lastAccess > ttlMillis;
+    }
+
+    private void removeExpiredEntry(String fileId) {
+        remove(fileId);
+        expirations++;
+        log.debug("文件超过存活时间未被访问，已删除: {}", fileId);
+    }
+
+    /**
+     * 从最久未访问的条目开始淘汰，直到总量不超过内存预算；最近访问的条目总是保留
+     * @return 被淘汰的文件ID，调用方释放锁之后丢弃它们的查询索引和列统计
+     */
+    private List<String> evictOverBudget() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > memoryBudget && entries.size() > 1) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            String fileId = eldest.getKey();
+            Entry entry = eldest.getValue();
+            iterator.remove();
+            currentBytes -= entry.bytes;
+            evictions++;
+            evicted.add(fileId);
+            if (spillToDisk) {
+                pagedCsvStore.unload(fileId, entry.lastAccess);
+            } else {
+                pagedCsvStore.delete(fileId);
+            }
+            log.debug("内存超过预算，已{}文件: {}（约{}字节）", spillToDisk ? "卸载" : "删除", fileId, entry.bytes);
+        }
+        return evicted;
+    }
+
+    /**
+     * 删除超过存活时间没有被访问的文件，包括内存中的和只在磁盘上的
+     */
+    private void removeExpired() {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> expired = new ArrayList<>();
+            synchronized (this) {
+                Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<String, Entry> entry = iterator.next();
+                    if (!isExpired(entry.getValue().lastAccess, now)) {
+                        continue;
+                    }
+                    iterator.remove();
+                    currentBytes -= entry.getValue().bytes;
+                    pagedCsvStore.delete(entry.getKey());
+                    expirations++;
+                    expired.add(entry.getKey());
+                }
+            }
+            expired.forEach(this::dropDerivedData);
+            for (String fileId : pagedCsvStore.listFileIds()) {
+                boolean removed = false;
+                synchronized (this) {
+                    long lastAccess = pagedCsvStore.getLastAccessTime(fileId);
+                    if (!entries.containsKey(fileId) && lastAccess >= 0 && isExpired(lastAccess, now)) {
+                        removeExpiredEntry(fileId);
+                        removed = true;
+                    }
+                }
+                if (removed) {
+                    dropDerivedData(fileId);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("清理过期文件失败", e);
+        }
+    }
+
+    private long estimateBytes(String fileId, CsvData csvData) {
+        return 64L + estimateBytes(csvData) + csvQueryEngine.estimatedBytes(fileId);
+    }
+
+    /**
+     * 估算文件数据本身的堆内存占用：磁盘分页存储的文件只有页目录，按列存储的数据按列统计，其余逐个单元格统计
+     */
+    static long estimateBytes(CsvData csvData) {
+        List<List<String>> rows = csvData.getRows();
+        if (rows instanceof PagedRowList) {
+            return ((PagedRowList) rows).getFile().estimatedBytes();
+        }
+        if (rows instanceof ColumnarTable.RowList) {
+            return ((ColumnarTable.RowList) rows).getTable().estimatedBytes();
+        }
+        long bytes = 0;
+        for (String header : csvData.getHeaders()) {
+            bytes += 8L + StringColumn.stringBytes(header);
+        }
+        if (rows != null) {
+            for (List<String> row : rows) {
+                bytes += 24L + 8L * row.size();
+                for (String value : row) {
+                    bytes += value != null ? StringColumn.stringBytes(value) : 0;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    public synchronized RegistryStats getStats() {
+        return new RegistryStats(entries.size(), currentBytes, memoryBudget, hits, misses, loads, evictions, expirations);
+    }
+
+    /**
+     * 关闭时把内存中文件的最后访问时间记录到磁盘，重启后继续按存活时间计算
+     */
+    @PreDestroy
+    public synchronized void close() {
+        sweeper.shutdownNow();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            pagedCsvStore.setLastAccessTime(entry.getKey(), entry.getValue().lastAccess);
+        }
+    }
+
+    private static final class Entry {
+        private final CsvData csvData;
+        private long bytes;
+        private long lastAccess = System.currentTimeMillis();
+        // 最近一次写入磁盘的访问时间
+        private long persistedAccess = lastAccess;
+
+        Entry(CsvData csvData) {
+            this.csvData = csvData;
+        }
+    }
+}
\ No newline at end of file
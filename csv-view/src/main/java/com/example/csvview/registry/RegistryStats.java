@@ -0,0 +1,71 @@
+package com.example.csvview.registry;
+
+/**
+ * 注册表的统计信息，计数从应用启动开始累计
+ */
+public class RegistryStats {
+
+    private final int entries;
+    private final long usedBytes;
+    private final long budgetBytes;
+    private final long hits;
+    private final long misses;
+    private final long loads;
+    private final long evictions;
+    private final long expirations;
+
+    RegistryStats(int entries, long usedBytes, long budgetBytes, long hits, long misses, long loads,
+                  long evictions, long expirations) {
+        this.entries = entries;
+        this.usedBytes = usedBytes;
+        this.budgetBytes = budgetBytes;
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.evictions = evictions;
+        this.expirations = expirations;
+    }
+
+    /** 内存中的文件数 */
+    public int getEntries() {
+        return entries;
+    }
+
+    /** 内存中的文件估算的堆内存占用（字节） */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    /** 不在内存中的访问次数，包括不存在的文件 */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** 从磁盘重新打开的次数 */
+    public long getLoads() {
+        return loads;
+    }
+
+    /** 因超过内存预算被淘汰的次数 */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /** 因超过存活时间被删除的文件数 */
+    public long getExpirations() {
+        return expirations;
+    }
+
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
\ No newline at end of file
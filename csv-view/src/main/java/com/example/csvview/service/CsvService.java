@@ -1,11 +1,24 @@
 package com.example.csvview.service;
 
+import com.example.csvview.columnar.ColumnarTable;
 import com.example.csvview.model.CsvData;
+import com.example.csvview.preview.CsvSlice;
+import com.example.csvview.query.CsvQuery;
+import com.example.csvview.query.CsvQueryEngine;
+import com.example.csvview.preview.StreamingCsvPreviewer;
+import com.example.csvview.registry.CsvDataRegistry;
+import com.example.csvview.stats.ColumnProfile;
+import com.example.csvview.stats.ColumnStatsEngine;
+import com.example.csvview.storage.PagedCsvStore;
+import com.example.csvview.storage.PagedCsvWriter;
+import com.example.csvview.storage.PagedRowList;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,15 +28,45 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class CsvService {
 
-    // 内存存储，实际项目中可以使用Redis或数据库
-    private final Map<String, CsvData> fileStorage = new ConcurrentHashMap<>();
+    // 内存中只保留文件的元数据，行数据保存在磁盘分页存储中；注册表按内存预算和存活时间淘汰
+    @Autowired
+    private CsvDataRegistry csvDataRegistry;
+
+    @Autowired
+    private PagedCsvStore pagedCsvStore;
+
+    @Autowired
+    private StreamingCsvPreviewer streamingCsvPreviewer;
+
+    @Autowired
+    private CsvQueryEngine csvQueryEngine;
+
+    @Autowired
+    private ColumnStatsEngine columnStatsEngine;
+
+    /** Excel单个工作表的最大行数（含表头） */
+    private static final int EXCEL_MAX_ROWS = 1048576;
+    /** Excel列宽上限（字符数） */
+    private static final int EXCEL_MAX_COLUMN_CHARS = 80;
+    /** 导出时每次从存储读取的行数 */
+    private static final int EXCEL_BATCH_ROWS = 1024;
+
+    // 导出时内存中保留的行数，超出的行写入临时文件
+    @Value("${csv-view.excel.row-access-window:100}")
+    private int excelRowAccessWindow;
+
+    // 估算列宽时采样的数据行数
+    @Value("${csv-view.excel.width-sample-rows:1000}")
+    private int excelWidthSampleRows;
+
+    // 每个工作表的行数（含表头），超出时续写到新的工作表，不超过Excel的上限
+    @Value("${csv-view.excel.max-sheet-rows:" + EXCEL_MAX_ROWS + "}")
+    private int excelMaxSheetRows;
 
     /**
      * 保存上传的MultipartFile并解析
@@ -32,10 +75,9 @@ public class CsvService {
      * @throws IOException 文件读取异常
      */
     public String saveUploadedFile(MultipartFile file) throws IOException {
-        String fileId = UUID.randomUUID().toString();
-        CsvData csvData = parseCsvFile(file);
-        fileStorage.put(fileId, csvData);
-        return fileId;
+        try (InputStream inputStream = file.getInputStream()) {
+            return storeCsvFile(inputStream, file.getOriginalFilename());
+        }
     }
     
     /**
@@ -46,10 +88,9 @@ public class CsvService {
      * @throws IOException 文件读取异常
      */
     public String saveFile(File file, String fileName) throws IOException {
-        String fileId = UUID.randomUUID().toString();
-        CsvData csvData = parseCsvFile(file, fileName);
-        fileStorage.put(fileId, csvData);
-        return fileId;
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return storeCsvFile(inputStream, fileName);
+        }
     }
     
     /**
@@ -60,19 +101,43 @@ public class CsvService {
      * @throws IOException 文件读取异常
      */
     public String saveInputStream(InputStream inputStream, String fileName) throws IOException {
+        return storeCsvFile(inputStream, fileName);
+    }
+
+    /**
+     * 流式解析CSV并逐行写入磁盘分页存储，解析过程中不在堆内保留整个文件
+     * @param inputStream CSV数据输入流
+     * @param fileName 文件名
+     * @return 文件ID
+     * @throws IOException 文件读取或写入异常
+     */
+    private String storeCsvFile(InputStream inputStream, String fileName) throws IOException {
         String fileId = UUID.randomUUID().toString();
-        CsvData csvData = parseCsvFile(inputStream, fileName);
-        fileStorage.put(fileId, csvData);
+
+        try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
+
+            List<String> headers = new ArrayList<>(csvParser.getHeaderNames());
+            try (PagedCsvWriter writer = pagedCsvStore.createWriter(fileId, fileName, headers)) {
+                for (CSVRecord csvRecord : csvParser) {
+                    writer.writeRow(readRow(csvRecord, headers));
+                }
+                PagedRowList rows = new PagedRowList(pagedCsvStore, writer.finish());
+                csvDataRegistry.put(fileId, new CsvData(headers, rows, fileName));
+            }
+        }
+
         return fileId;
     }
 
     /**
      * 根据文件ID获取CSV数据
+     * 已被淘汰或应用重启后不在内存中的文件，从磁盘分页存储中重新打开
      * @param fileId 文件ID
-     * @return CsvData对象，如果不存在返回null
+     * @return CsvData对象，如果不存在或已过期返回null
      */
     public CsvData getCsvDataById(String fileId) {
-        return fileStorage.get(fileId);
+        return csvDataRegistry.get(fileId);
     }
 
     /**
@@ -81,17 +146,7 @@ public class CsvService {
      * @return 是否删除成功
      */
     public boolean deleteFile(String fileId) {
-        return fileStorage.remove(fileId) != null;
-    }
-
-    /**
-     * 从MultipartFile读取CSV文件并解析为CsvData对象
-     * @param file 上传的CSV文件
-     * @return 解析后的CsvData对象
-     * @throws IOException 文件读取异常
-     */
-    private CsvData parseCsvFile(MultipartFile file) throws IOException {
-        return parseCsvFile(file.getInputStream(), file.getOriginalFilename());
+        return csvDataRegistry.delete(fileId);
     }
     
     /**
@@ -122,7 +177,7 @@ public class CsvService {
     
     /**
      * 从InputStream读取CSV文件并解析为CsvData对象
-     * 保持原始列顺序
+     * 保持原始列顺序，行数据按列紧凑存储（低基数列字典编码，高基数列连续UTF-8字节）
      * @param inputStream CSV数据输入流
      * @param fileName 文件名
      * @return 解析后的CsvData对象
@@ -130,7 +185,7 @@ public class CsvService {
      */
     private CsvData parseCsvFile(InputStream inputStream, String fileName) throws IOException {
         List<String> headers = new ArrayList<>();
-        List<List<String>> rows = new ArrayList<>();
+        ColumnarTable table;
 
         try (InputStreamReader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
              CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withFirstRecordAsHeader())) {
@@ -139,33 +194,53 @@ public class CsvService {
             headers.addAll(csvParser.getHeaderNames());
 
             // 读取数据行
+            ColumnarTable.Builder builder = ColumnarTable.builder(headers.size());
             for (CSVRecord csvRecord : csvParser) {
-                List<String> row = new ArrayList<>();
-                // 按照表头顺序读取每列数据
-                for (String header : headers) {
-                    String value = csvRecord.get(header);
-                    row.add(value != null ? value : "");
-                }
-                rows.add(row);
+                builder.addRow(readRow(csvRecord, headers));
             }
+            table = builder.build();
         }
 
-        return new CsvData(headers, rows, fileName);
+        return new CsvData(headers, table.rows(), fileName);
+    }
+
+    /**
+     * 按照表头顺序读取一条记录的每列数据
+     */
+    private static List<String> readRow(CSVRecord csvRecord, List<String> headers) {
+        List<String> row = new ArrayList<>(headers.size());
+        for (String header : headers) {
+            String value = csvRecord.get(header);
+            row.add(value != null ? value : "");
+        }
+        return row;
     }
 
     /**
      * 将CSV数据转换为Excel格式的字节数组
-     * 保持原始列顺序
+     * 保持原始列顺序，整个文件会缓存在内存中，大文件请使用 {@link #writeExcel(CsvData, OutputStream)}
      * @param csvData CSV数据对象
      * @return Excel格式的字节数组
      * @throws IOException IO异常
      */
     public byte[] convertToExcel(CsvData csvData) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-
-            Sheet sheet = workbook.createSheet("CSV Data");
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        writeExcel(csvData, outputStream);
+        return outputStream.toByteArray();
+    }
 
+    /**
+     * 将CSV数据以Excel格式流式写入输出流
+     * 使用SXSSF只在内存中保留最近的若干行，列宽按采样行的字符长度估算，
+     * 超过单表行数上限（csv-view.excel.max-sheet-rows）时续写到新的工作表
+     * @param csvData CSV数据对象
+     * @param outputStream 输出流，写完后不关闭
+     * @throws IOException IO异常
+     */
+    public void writeExcel(CsvData csvData, OutputStream outputStream) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(excelRowAccessWindow);
+        workbook.setCompressTempFiles(true);
+        try {
             // 创建表头样式
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -174,40 +249,98 @@ public class CsvService {
             headerStyle.setFillForegroundColor(IndexedColors.LIGHT_BLUE.getIndex());
             headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
 
-            // 写入表头，保持原始顺序
-            Row headerRow = sheet.createRow(0);
             List<String> headers = csvData.getHeaders();
-            for (int i = 0; i < headers.size(); i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers.get(i));
-                cell.setCellStyle(headerStyle);
-            }
-
-            // 写入数据行，保持原始列顺序
             List<List<String>> rows = csvData.getRows();
-            for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
-                Row dataRow = sheet.createRow(rowIndex + 1);
-                List<String> rowData = rows.get(rowIndex);
-                
-                for (int colIndex = 0; colIndex < rowData.size(); colIndex++) {
-                    Cell cell = dataRow.createCell(colIndex);
-                    String cellValue = rowData.get(colIndex);
-                    cell.setCellValue(cellValue != null ? cellValue : "");
+            int[] columnWidths = estimateColumnWidths(headers, rows);
+            int maxSheetRows = Math.max(2, Math.min(excelMaxSheetRows, EXCEL_MAX_ROWS));
+
+            Sheet sheet = null;
+            int sheetRowIndex = maxSheetRows;
+            for (int batchStart = 0; batchStart < rows.size(); batchStart += EXCEL_BATCH_ROWS) {
+                // 分批读取，磁盘存储的文件每批只加载所需的数据页
+                List<List<String>> batch = rows.subList(batchStart, Math.min(batchStart + EXCEL_BATCH_ROWS, rows.size()));
+                for (List<String> rowData : batch) {
+                    if (sheetRowIndex == maxSheetRows) {
+                        sheet = createExcelSheet(workbook, headers, headerStyle, columnWidths);
+                        sheetRowIndex = 1;
+                    }
+                    Row dataRow = sheet.createRow(sheetRowIndex++);
+                    // 写入数据行，保持原始列顺序，空值不创建单元格
+                    for (int colIndex = 0; colIndex < rowData.size(); colIndex++) {
+                        String cellValue = rowData.get(colIndex);
+                        if (cellValue != null && !cellValue.isEmpty()) {
+                            dataRow.createCell(colIndex).setCellValue(cellValue);
+                        }
+                    }
                 }
             }
-
-            // 自动调整列宽
-            for (int i = 0; i < headers.size(); i++) {
-                sheet.autoSizeColumn(i);
+            if (sheet == null) {
+                createExcelSheet(workbook, headers, headerStyle, columnWidths);
             }
 
             workbook.write(outputStream);
-            return outputStream.toByteArray();
+        } finally {
+            workbook.close();
+            workbook.dispose();
+        }
+    }
+
+    /**
+     * 创建工作表并写入表头，保持原始顺序
+     */
+    private Sheet createExcelSheet(Workbook workbook, List<String> headers, CellStyle headerStyle, int[] columnWidths) {
+        int sheetCount = workbook.getNumberOfSheets();
+        Sheet sheet = workbook.createSheet(sheetCount == 0 ? "CSV Data" : "CSV Data " + (sheetCount + 1));
+        for (int i = 0; i < columnWidths.length; i++) {
+            sheet.setColumnWidth(i, columnWidths[i]);
+        }
+
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(headers.get(i));
+            cell.setCellStyle(headerStyle);
         }
+        return sheet;
+    }
+
+    /**
+     * 按表头和前若干行的字符长度估算列宽，代替逐个单元格测量字体的autoSizeColumn
+     * 中日韩等全角字符按两个字符宽度计算
+     * @return 每列宽度，单位为1/256个字符
+     */
+    private int[] estimateColumnWidths(List<String> headers, List<List<String>> rows) {
+        int[] maxChars = new int[headers.size()];
+        for (int i = 0; i < headers.size(); i++) {
+            maxChars[i] = displayLength(headers.get(i));
+        }
+        for (List<String> rowData : rows.subList(0, Math.min(excelWidthSampleRows, rows.size()))) {
+            for (int i = 0; i < rowData.size() && i < maxChars.length; i++) {
+                maxChars[i] = Math.max(maxChars[i], displayLength(rowData.get(i)));
+            }
+        }
+
+        int[] widths = new int[maxChars.length];
+        for (int i = 0; i < widths.length; i++) {
+            widths[i] = (Math.min(maxChars[i], EXCEL_MAX_COLUMN_CHARS) + 2) * 256;
+        }
+        return widths;
+    }
+
+    private static int displayLength(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            length += value.charAt(i) >= 0x2E80 ? 2 : 1;
+        }
+        return length;
     }
 
     /**
      * 获取CSV数据的分页预览
+     * 对已保存的文件，subList只从磁盘分页存储读取当前页所在的数据页
      */
     public CsvData getPagedData(CsvData csvData, int page, int size) {
         if (csvData == null || csvData.getRows() == null) {
@@ -229,6 +362,32 @@ public class CsvService {
         return pagedData;
     }
 
+    /**
+     * 按过滤、搜索和排序条件查询已保存文件的一页数据
+     * @param fileId 文件ID
+     * @param csvData CSV数据对象
+     * @param query 查询条件
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @return 本页数据，totalRows为匹配的总行数
+     */
+    public CsvData queryData(String fileId, CsvData csvData, CsvQuery query, int page, int size) {
+        CsvData result = csvQueryEngine.query(fileId, csvData, query, page, size);
+        // 查询索引计入文件的内存占用
+        csvDataRegistry.updateSize(fileId);
+        return result;
+    }
+
+    /**
+     * 获取已保存文件每一列的统计概况，结果按文件缓存
+     * @param fileId 文件ID
+     * @param csvData CSV数据对象
+     * @return 按列顺序的统计概况
+     */
+    public List<ColumnProfile> getColumnProfiles(String fileId, CsvData csvData) {
+        return columnStatsEngine.getProfiles(fileId, csvData);
+    }
+
     // ==================== 重载方法：直接处理File和InputStream ====================
 
     /**
@@ -244,6 +403,7 @@ public class CsvService {
 
     /**
      * 直接从File预览CSV数据（分页，重载方法）
+     * 只读到请求的页为止，总行数通过字节扫描统计
      * @param file CSV文件
      * @param fileName 文件名
      * @param page 页码（从0开始）
@@ -252,8 +412,22 @@ public class CsvService {
      * @throws IOException 文件读取异常
      */
     public CsvData previewCsvFromFile(File file, String fileName, int page, int size) throws IOException {
-        CsvData csvData = parseCsvFile(file, fileName);
-        return getPagedData(csvData, page, size);
+        return previewCsvFromFile(file, fileName, page, size, true);
+    }
+
+    /**
+     * 直接从File预览CSV数据（分页，可选是否统计总行数）
+     * 同一文件的记录偏移会被缓存，之后预览后面的页可以直接定位
+     * @param file CSV文件
+     * @param fileName 文件名
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @param countRows 是否统计总行数，不统计且尚无缓存时totalRows为-1
+     * @return 分页后的CsvData对象
+     * @throws IOException 文件读取异常
+     */
+    public CsvData previewCsvFromFile(File file, String fileName, int page, int size, boolean countRows) throws IOException {
+        return parseCsvSlice(streamingCsvPreviewer.sliceFile(file, page, size, countRows), fileName);
     }
 
     /**
@@ -269,6 +443,7 @@ public class CsvService {
 
     /**
      * 直接从InputStream预览CSV数据（分页，重载方法）
+     * 只解析请求的页，总行数通过字节扫描统计
      * @param inputStream CSV数据输入流
      * @param fileName 文件名
      * @param page 页码（从0开始）
@@ -277,8 +452,32 @@ public class CsvService {
      * @throws IOException 文件读取异常
      */
     public CsvData previewCsvFromInputStream(InputStream inputStream, String fileName, int page, int size) throws IOException {
-        CsvData csvData = parseCsvFile(inputStream, fileName);
-        return getPagedData(csvData, page, size);
+        return previewCsvFromInputStream(inputStream, fileName, page, size, true);
+    }
+
+    /**
+     * 直接从InputStream预览CSV数据（分页，可选是否统计总行数）
+     * 不统计时读到请求的页就停止，输入流的剩余部分不会被读取
+     * @param inputStream CSV数据输入流
+     * @param fileName 文件名
+     * @param page 页码（从0开始）
+     * @param size 每页大小
+     * @param countRows 是否统计总行数，不统计时totalRows为-1
+     * @return 分页后的CsvData对象
+     * @throws IOException 文件读取异常
+     */
+    public CsvData previewCsvFromInputStream(InputStream inputStream, String fileName, int page, int size,
+                                             boolean countRows) throws IOException {
+        return parseCsvSlice(streamingCsvPreviewer.sliceStream(inputStream, page, size, countRows), fileName);
+    }
+
+    /**
+     * 解析截取出的一页，总行数取自截取时的统计
+     */
+    private CsvData parseCsvSlice(CsvSlice slice, String fileName) throws IOException {
+        CsvData csvData = parseCsvFile(new ByteArrayInputStream(slice.getBytes()), fileName);
+        csvData.setTotalRows((int) Math.min(slice.getTotalRecords(), Integer.MAX_VALUE));
+        return csvData;
     }
 
     /**
@@ -0,0 +1,145 @@
+package com.example.csvview.stats;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一列的统计概况
+ * 不同值个数、分位数、直方图和高频值来自可合并的草图，是近似值；其余计数和数值的最小、最大、平均值是精确的
+ */
+public class ColumnProfile {
+
+    private final String name;
+    private final long count;
+    private final long nullCount;
+    private final long distinctEstimate;
+    private final long numericCount;
+    private final Double min;
+    private final Double max;
+    private final Double mean;
+    private final Map<String, Double> quantiles;
+    private final List<HistogramBucket> histogram;
+    private final List<FrequentValue> topValues;
+
+    ColumnProfile(String name, long count, long nullCount, long distinctEstimate, long numericCount,
+                  Double min, Double max, Double mean, Map<String, Double> quantiles,
+                  List<HistogramBucket> histogram, List<FrequentValue> topValues) {
+        this.name = name;
+        this.count = count;
+        this.nullCount = nullCount;
+        this.distinctEstimate = distinctEstimate;
+        this.numericCount = numericCount;
+        this.min = min;
+        this.max = max;
+        this.mean = mean;
+        this.quantiles = quantiles;
+        this.histogram = histogram;
+        this.topValues = topValues;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /** 空值（空字符串）的个数 */
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    /** 非空值的不同值个数（HyperLogLog估计） */
+    public long getDistinctEstimate() {
+        return distinctEstimate;
+    }
+
+    /** 能解析为数字的值的个数，以下数值统计只针对这些值 */
+    public long getNumericCount() {
+        return numericCount;
+    }
+
+    public Double getMin() {
+        return min;
+    }
+
+    public Double getMax() {
+        return max;
+    }
+
+    public Double getMean() {
+        return mean;
+    }
+
+    /** 数值的分位数，键为 p1、p50、p99 等 */
+    public Map<String, Double> getQuantiles() {
+        return quantiles;
+    }
+
+    /** 最小值到最大值之间等宽分桶的数值直方图 */
+    public List<HistogramBucket> getHistogram() {
+        return histogram;
+    }
+
+    /** 出现次数最多的非空值 */
+    public List<FrequentValue> getTopValues() {
+        return topValues;
+    }
+
+    /**
+     * 直方图的一个桶，区间为 [lower, upper)，最后一个桶包含upper
+     */
+    public static class HistogramBucket {
+
+        private final double lower;
+        private final double upper;
+        private final long count;
+
+        HistogramBucket(double lower, double upper, long count) {
+            this.lower = lower;
+            this.upper = upper;
+            this.count = count;
+        }
+
+        public double getLower() {
+            return lower;
+        }
+
+        public double getUpper() {
+            return upper;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * 一个高频值，count是出现次数的上界，count - error 是下界
+     */
+    public static class FrequentValue {
+
+        private final String value;
+        private final long count;
+        private final long error;
+
+        FrequentValue(String value, long count, long error) {
+            this.value = value;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getError() {
+            return error;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.example.csvview.stats;
+
+import com.example.csvview.columnar.ValueOrder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一列在一段行上的统计累加器，各段独立累加后合并
+ */
+final class ColumnProfiler {
+
+    private static final double[] QUANTILES = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
+
+    private final HyperLogLog distinct;
+    private final QuantileSketch numbers;
+    private final TopKCounter frequent;
+    private long count;
+    private long nullCount;
+    private long numericCount;
+    private double sum;
+
+    ColumnProfiler(int hllPrecision, int sketchSize, int topKCapacity) {
+        this.distinct = new HyperLogLog(hllPrecision);
+        this.numbers = new QuantileSketch(sketchSize);
+        this.frequent = new TopKCounter(topKCapacity);
+    }
+
+    /**
+     * 累加一个值出现的次数，字典编码的列每页每个不同的值只调用一次
+     * @param value 值
+     * @param occurrences 出现次数
+     */
+    void add(String value, long occurrences) {
+        count += occurrences;
+        if (value.isEmpty()) {
+            nullCount += occurrences;
+            return;
+        }
+        distinct.add(value);
+        frequent.add(value, occurrences);
+        Double number = ValueOrder.parseNumber(value);
+        if (number != null && !number.isInfinite()) {
+            numericCount += occurrences;
+            sum += number * occurrences;
+            for (long i = 0; i < occurrences; i++) {
+                numbers.add(number);
+            }
+        }
+    }
+
+    ColumnProfiler merge(ColumnProfiler other) {
+        distinct.merge(other.distinct);
+        numbers.merge(other.numbers);
+        frequent.merge(other.frequent);
+        count += other.count;
+        nullCount += other.nullCount;
+        numericCount += other.numericCount;
+        sum += other.sum;
+        return this;
+    }
+
+    ColumnProfile toProfile(String name, int topK, int histogramBins) {
+        if (numericCount == 0) {
+            return new ColumnProfile(name, count, nullCount, distinct.estimate(), 0, null, null, null,
+                    Collections.emptyMap(), Collections.emptyList(), frequent.top(topK));
+        }
+
+        QuantileSketch.Ranks ranks = numbers.ranks();
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        for (double fraction : QUANTILES) {
+            quantiles.put("p" + Math.round(fraction * 100), ranks.quantile(fraction));
+        }
+
+        double min = numbers.getMin();
+        double max = numbers.getMax();
+        List<ColumnProfile.HistogramBucket> histogram = new ArrayList<>();
+        if (min == max) {
+            histogram.add(new ColumnProfile.HistogramBucket(min, max, numericCount));
+        } else {
+            double width = (max - min) / histogramBins;
+            double previousRank = 0;
+            for (int i = 0; i < histogramBins; i++) {
+                double lower = min + i * width;
+                double upper = i == histogramBins - 1 ? max : min + (i + 1) * width;
+                // 桶是左闭右开的，取上界之前的秩；最后一个桶包含最大值
+                double rank = i == histogramBins - 1 ? 1 : ranks.rank(Math.nextDown(upper));
+                histogram.add(new ColumnProfile.HistogramBucket(lower, upper, Math.round((rank - previousRank) * numericCount)));
+                previousRank = rank;
+            }
+        }
+
+        return new ColumnProfile(name, count, nullCount, distinct.estimate(), numericCount, min, max,
+                sum / numericCount, quantiles, histogram, frequent.top(topK));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,185 @@
+package com.example.csvview.stats;
+
+import com.example.csvview.columnar.ColumnarTable;
+import com.example.csvview.columnar.DictionaryColumn;
+import com.example.csvview.columnar.StringColumn;
+import com.example.csvview.model.CsvData;
+import com.example.csvview.storage.PagedCsvStore;
+import com.example.csvview.storage.PagedRowList;
+import com.example.csvview.storage.StoredCsvFile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * 列统计
+ * 对整个文件只扫描一遍：行按页分成若干段并行统计，每段为每列维护一组可合并的累加器，最后逐段合并。
+ * 字典编码的列每页只对每个不同的值处理一次。结果按文件ID缓存，随文件从注册表中淘汰或删除时一起丢弃；
+ * 统计在缓存的映射之外进行，同一文件的并发请求等待同一次计算，丢弃结果不需要等待正在进行的统计
+ */
+@Component
+public class ColumnStatsEngine {
+
+    /** 不是磁盘分页存储的数据按这个行数分段 */
+    private static final int CHUNK_ROWS = 1024;
+
+    @Autowired
+    private PagedCsvStore pagedCsvStore;
+
+    private final int topK;
+    private final int histogramBins;
+    private final int sketchSize;
+    private final int hllPrecision;
+    private final Map<String, CompletableFuture<List<ColumnProfile>>> cache = new ConcurrentHashMap<>();
+
+    public ColumnStatsEngine(@Value("${csv-view.stats.top-k:10}") int topK,
+                             @Value("${csv-view.stats.histogram-bins:10}") int histogramBins,
+                             @Value("${csv-view.stats.sketch-size:512}") int sketchSize,
+                             @Value("${csv-view.stats.hll-precision:14}") int hllPrecision) {
+        if (hllPrecision < 4 || hllPrecision > 18) {
+            throw new IllegalArgumentException("csv-view.stats.hll-precision 必须在4到18之间");
+        }
+        this.topK = topK;
+        this.histogramBins = histogramBins;
+        this.sketchSize = sketchSize;
+        this.hllPrecision = hllPrecision;
+    }
+
+    /**
+     * 获取文件每一列的统计概况，第一次调用时计算
+     * @param fileId 文件ID
+     * @param csvData 文件数据
+     * @return 按列顺序的统计概况
+     */
+    public List<ColumnProfile> getProfiles(String fileId, CsvData csvData) {
+        CompletableFuture<List<ColumnProfile>> future = cache.get(fileId);
+        if (future == null) {
+            CompletableFuture<List<ColumnProfile>> created = new CompletableFuture<>();
+            future = cache.putIfAbsent(fileId, created);
+            if (future == null) {
+                future = created;
+                try {
+                    created.complete(Collections.unmodifiableList(computeProfiles(csvData)));
+                } catch (RuntimeException | Error e) {
+                    // 失败的结果不缓存，下次请求重新计算
+                    cache.remove(fileId, created);
+                    created.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 丢弃文件的统计结果，正在进行的统计完成后也不会被缓存
+     * @param fileId 文件ID
+     */
+    public void invalidate(String fileId) {
+        cache.remove(fileId);
+    }
+
+    private List<ColumnProfile> computeProfiles(CsvData csvData) {
+        List<String> headers = csvData.getHeaders();
+        List<List<String>> rows = csvData.getRows();
+        StoredCsvFile storedFile = rows instanceof PagedRowList ? ((PagedRowList) rows).getFile() : null;
+        int chunkRows = storedFile != null ? storedFile.getPageRows() : CHUNK_ROWS;
+        int chunks = (rows.size() + chunkRows - 1) / chunkRows;
+        int segments = Math.max(1, Math.min(chunks, ForkJoinPool.getCommonPoolParallelism() * 2));
+
+        ColumnProfiler[] merged = IntStream.range(0, segments)
+                .parallel()
+                .mapToObj(segment -> {
+                    ColumnProfiler[] profilers = newProfilers(headers.size());
+                    int firstChunk = (int) ((long) chunks * segment / segments);
+                    int lastChunk = (int) ((long) chunks * (segment + 1) / segments);
+                    for (int chunk = firstChunk; chunk < lastChunk; chunk++) {
+                        if (storedFile != null) {
+                            ColumnarTable page = pagedCsvStore.scanPage(storedFile, chunk);
+                            profileTable(page, 0, page.getRowCount(), profilers);
+                        } else {
+                            profileRows(rows, chunk * chunkRows, Math.min((chunk + 1) * chunkRows, rows.size()), profilers);
+                        }
+                    }
+                    return profilers;
+                })
+                .reduce((a, b) -> {
+                    for (int i = 0; i < a.length; i++) {
+                        a[i].merge(b[i]);
+                    }
+                    return a;
+                })
+                .orElseGet(() -> newProfilers(headers.size()));
+
+        List<ColumnProfile> profiles = new ArrayList<>(headers.size());
+        for (int i = 0; i < headers.size(); i++) {
+            profiles.add(merged[i].toProfile(headers.get(i), topK, histogramBins));
+        }
+        return profiles;
+    }
+
+    private ColumnProfiler[] newProfilers(int columnCount) {
+        ColumnProfiler[] profilers = new ColumnProfiler[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            // 高频值多跟踪几倍，减小前K个的误差
+            profilers[i] = new ColumnProfiler(hllPrecision, sketchSize, Math.max(topK * 4, 32));
+        }
+        return profilers;
+    }
+
+    /**
+     * 统计按列存储的行，字典编码的列先按编码计数，再对每个出现过的值累加一次
+     */
+    private static void profileTable(ColumnarTable table, int fromRow, int toRow, ColumnProfiler[] profilers) {
+        for (int c = 0; c < profilers.length; c++) {
+            StringColumn column = table.getColumn(c);
+            if (column instanceof DictionaryColumn) {
+                DictionaryColumn dictionaryColumn = (DictionaryColumn) column;
+                int[] codes = dictionaryColumn.getCodes();
+                int[] counts = new int[dictionaryColumn.getDictionarySize()];
+                for (int row = fromRow; row < toRow; row++) {
+                    counts[codes[row]]++;
+                }
+                for (int code = 0; code < counts.length; code++) {
+                    if (counts[code] > 0) {
+                        profilers[c].add(dictionaryColumn.getDictionaryValue(code), counts[code]);
+                    }
+                }
+            } else {
+                for (int row = fromRow; row < toRow; row++) {
+                    profilers[c].add(column.get(row), 1);
+                }
+            }
+        }
+    }
+
+    private static void profileRows(List<List<String>> rows, int fromRow, int toRow, ColumnProfiler[] profilers) {
+        if (rows instanceof ColumnarTable.RowList) {
+            profileTable(((ColumnarTable.RowList) rows).getTable(), fromRow, toRow, profilers);
+            return;
+        }
+        for (List<String> row : rows.subList(fromRow, toRow)) {
+            for (int c = 0; c < profilers.length; c++) {
+                String value = c < row.size() ? row.get(c) : null;
+                profilers[c].add(value != null ? value : "", 1);
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.example.csvview.stats;
+
+/**
+ * HyperLogLog不同值计数
+ * 2^precision 个寄存器各记录落入该桶的哈希值中最长的前导零个数，标准误差约为 1.04 / sqrt(2^precision)；
+ * 两个计数器按寄存器取最大值即可合并，适合分段并行统计。
+ * 不同值较少时先把64位哈希值保存在一个小的开放寻址表中精确计数，超过容量后才转为寄存器，
+ * 状态、城市这类低基数列的结果是精确的，也不需要为它们分配寄存器
+ */
+final class HyperLogLog {
+
+    /** 精确计数的哈希表容量，装满3/4后转为寄存器 */
+    private static final int SPARSE_CAPACITY = 1024;
+
+    private final int precision;
+    private long[] sparse = new long[SPARSE_CAPACITY];
+    private int sparseSize;
+    private byte[] registers;
+
+    HyperLogLog(int precision) {
+        this.precision = precision;
+    }
+
+    void add(String value) {
+        addHash(hash(value));
+    }
+
+    private void addHash(long hash) {
+        if (sparse != null) {
+            addSparse(hash);
+        } else {
+            addRegister(hash);
+        }
+    }
+
+    private void addSparse(long hash) {
+        // 0表示空位，哈希值恰好为0时换成1
+        long key = hash != 0 ? hash : 1;
+        int mask = sparse.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (sparse[slot] != 0) {
+            if (sparse[slot] == key) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        sparse[slot] = key;
+        if (++sparseSize > SPARSE_CAPACITY * 3 / 4) {
+            toDense();
+        }
+    }
+
+    private void addRegister(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // 低位补1，保证前导零个数不超过 64 - precision
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private void toDense() {
+        long[] hashes = sparse;
+        sparse = null;
+        sparseSize = 0;
+        registers = new byte[1 << precision];
+        for (long hash : hashes) {
+            if (hash != 0) {
+                addRegister(hash);
+            }
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.sparse != null) {
+            for (long hash : other.sparse) {
+                if (hash != 0) {
+                    addHash(hash);
+                }
+            }
+            return;
+        }
+        if (sparse != null) {
+            toDense();
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long estimate() {
+        if (sparse != null) {
+            return sparseSize;
+        }
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // 基数较小时改用线性计数，误差更小
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * 64位FNV-1a后再做一次MurmurHash3的终结混合，String.hashCode只有32位，百万级基数时碰撞明显
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,178 @@
+package com.example.csvview.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 可合并的分位数草图（KLL式的压缩器层级）
+ * 第h层的每个元素代表 2^h 个原始值；某层满k个元素时排序，随机保留奇数位或偶数位的一半升到上一层。
+ * 内存为 O(k·log(n/k))，分位数的秩误差约为 O(log(n/k) / k)；两个草图逐层拼接后再压缩即可合并
+ */
+final class QuantileSketch {
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    QuantileSketch(int k) {
+        this.k = k;
+        levels[0] = new double[k];
+    }
+
+    void add(double value) {
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+    }
+
+    void merge(QuantileSketch other) {
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int h = 0; h < other.levels.length; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+    }
+
+    private void append(int level, double value) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            sizes = Arrays.copyOf(sizes, level + 1);
+            levels[level] = new double[k];
+        }
+        levels[level][sizes[level]++] = value;
+        if (sizes[level] == k) {
+            compact(level);
+        }
+    }
+
+    /**
+     * 把一层压缩到上一层；元素个数为奇数时最大的元素留在本层
+     */
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int paired = size & ~1;
+        int offset = ThreadLocalRandom.current().nextBoolean() ? 1 : 0;
+        for (int i = offset; i < paired; i += 2) {
+            append(level + 1, items[i]);
+        }
+        sizes[level] = 0;
+        if (paired < size) {
+            items[sizes[level]++] = items[size - 1];
+        }
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getMin() {
+        return min;
+    }
+
+    double getMax() {
+        return max;
+    }
+
+    /**
+     * 按值排序的全部元素及其累计权重，用于一次性计算多个分位数和直方图
+     */
+    Ranks ranks() {
+        int total = 0;
+        for (int size : sizes) {
+            total += size;
+        }
+        double[] values = new double[total];
+        long[] weights = new long[total];
+        Integer[] order = new Integer[total];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = 1L << h;
+                order[n] = n;
+                n++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+
+        double[] sortedValues = new double[total];
+        long[] cumulativeWeights = new long[total];
+        long cumulative = 0;
+        for (int i = 0; i < total; i++) {
+            sortedValues[i] = values[order[i]];
+            cumulative += weights[order[i]];
+            cumulativeWeights[i] = cumulative;
+        }
+        return new Ranks(sortedValues, cumulativeWeights, min, max);
+    }
+
+    /**
+     * 排好序的草图元素
+     */
+    static final class Ranks {
+
+        private final double[] values;
+        private final long[] cumulativeWeights;
+        private final double min;
+        private final double max;
+
+        private Ranks(double[] values, long[] cumulativeWeights, double min, double max) {
+            this.values = values;
+            this.cumulativeWeights = cumulativeWeights;
+            this.min = min;
+            this.max = max;
+        }
+
+        /**
+         * @param fraction 0到1之间的分位点
+         * @return 估计的分位数，0和1返回精确的最小值和最大值
+         */
+        double quantile(double fraction) {
+            if (values.length == 0) {
+                return Double.NaN;
+            }
+            if (fraction <= 0) {
+                return min;
+            }
+            if (fraction >= 1) {
+                return max;
+            }
+            long target = (long) Math.ceil(fraction * totalWeight());
+            int index = Arrays.binarySearch(cumulativeWeights, target);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return values[Math.min(index, values.length - 1)];
+        }
+
+        /**
+         * @return 小于等于value的值所占的比例
+         */
+        double rank(double value) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (values[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low == 0 ? 0 : (double) cumulativeWeights[low - 1] / totalWeight();
+        }
+
+        private long totalWeight() {
+            return cumulativeWeights[cumulativeWeights.length - 1];
+        }
+    }
+}
\ No newline at end of file
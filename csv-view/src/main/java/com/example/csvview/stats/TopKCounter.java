@@ -0,0 +1,91 @@
+package com.example.csvview.stats;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 高频值计数（Space-Saving）
+ * 最多跟踪 2·capacity 个值，超出时只保留计数最大的 capacity 个，被丢弃的计数上限记为floor；
+ * 之后新出现的值从floor开始计数，所以每个值的计数是真实次数的上界，误差不超过它的error。
+ * 两个计数器合并时，一方没有跟踪的值按对方的floor计
+ */
+final class TopKCounter {
+
+    private final int capacity;
+    private final Map<String, long[]> counters = new HashMap<>();
+    private long floor;
+
+    TopKCounter(int capacity) {
+        this.capacity = capacity;
+    }
+
+    void add(String value, long count) {
+        long[] counter = counters.get(value);
+        if (counter == null) {
+            counters.put(value, new long[]{floor + count, floor});
+            if (counters.size() > 2 * capacity) {
+                prune();
+            }
+        } else {
+            counter[0] += count;
+        }
+    }
+
+    void merge(TopKCounter other) {
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (!other.counters.containsKey(entry.getKey())) {
+                entry.getValue()[0] += other.floor;
+                entry.getValue()[1] += other.floor;
+            }
+        }
+        for (Map.Entry<String, long[]> entry : other.counters.entrySet()) {
+            long[] counter = counters.get(entry.getKey());
+            if (counter == null) {
+                counters.put(entry.getKey(), new long[]{entry.getValue()[0] + floor, entry.getValue()[1] + floor});
+            } else {
+                counter[0] += entry.getValue()[0];
+                counter[1] += entry.getValue()[1];
+            }
+        }
+        floor += other.floor;
+        if (counters.size() > 2 * capacity) {
+            prune();
+        }
+    }
+
+    private void prune() {
+        List<Map.Entry<String, long[]>> sorted = sortedEntries();
+        for (int i = capacity; i < sorted.size(); i++) {
+            floor = Math.max(floor, sorted.get(i).getValue()[0]);
+            counters.remove(sorted.get(i).getKey());
+        }
+    }
+
+    private List<Map.Entry<String, long[]>> sortedEntries() {
+        List<Map.Entry<String, long[]>> sorted = new ArrayList<>(counters.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        return sorted;
+    }
+
+    /**
+     * 只返回确定比所有未跟踪的值更频繁的值（次数下界大于floor），
+     * 几乎每行都不同的列没有可靠的高频值，返回空列表
+     * @param k 返回的最大个数
+     * @return 计数最大的至多k个值
+     */
+    List<ColumnProfile.FrequentValue> top(int k) {
+        List<ColumnProfile.FrequentValue> top = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : sortedEntries()) {
+            if (top.size() == k) {
+                break;
+            }
+            if (entry.getValue()[0] - entry.getValue()[1] <= floor) {
+                continue;
+            }
+            top.add(new ColumnProfile.FrequentValue(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+        }
+        return top;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package com.example.csvview.storage;
+
+import com.example.csvview.columnar.ColumnarTable;
+
+import java.util.List;
+
+/**
+ * 从数据文件解码出的一页行数据，按列紧凑存储
+ * 记录估算的堆内存占用，供页缓存按内存预算淘汰
+ */
+final class DataPage {
+
+    private final ColumnarTable table;
+    private final long estimatedBytes;
+
+    DataPage(ColumnarTable table) {
+        this.table = table;
+        this.estimatedBytes = table.estimatedBytes();
+    }
+
+    ColumnarTable getTable() {
+        return table;
+    }
+
+    List<List<String>> getRows() {
+        return table.rows();
+    }
+
+    long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
\ No newline at end of file
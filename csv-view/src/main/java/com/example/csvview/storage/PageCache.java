@@ -0,0 +1,86 @@
+package com.example.csvview.storage;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 已解码数据页的LRU缓存
+ * 按页的估算堆内存占用计费，总量超过预算时淘汰最久未访问的页（至少保留最近放入的一页）
+ */
+class PageCache {
+
+    private final long maxBytes;
+    private final LinkedHashMap<PageKey, DataPage> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentBytes;
+
+    PageCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    synchronized DataPage get(String fileId, int pageIndex) {
+        return pages.get(new PageKey(fileId, pageIndex));
+    }
+
+    synchronized void put(String fileId, int pageIndex, DataPage page) {
+        DataPage previous = pages.put(new PageKey(fileId, pageIndex), page);
+        if (previous != null) {
+            currentBytes -= previous.getEstimatedBytes();
+        }
+        currentBytes += page.getEstimatedBytes();
+
+        Iterator<DataPage> iterator = pages.values().iterator();
+        while (currentBytes > maxBytes && pages.size() > 1) {
+            currentBytes -= iterator.next().getEstimatedBytes();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 移除某个文件的全部缓存页
+     * @param fileId 文件ID
+     */
+    synchronized void invalidate(String fileId) {
+        Iterator<Map.Entry<PageKey, DataPage>> iterator = pages.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<PageKey, DataPage> entry = iterator.next();
+            if (entry.getKey().fileId.equals(fileId)) {
+                currentBytes -= entry.getValue().getEstimatedBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        pages.clear();
+        currentBytes = 0;
+    }
+
+    private static final class PageKey {
+        private final String fileId;
+        private final int pageIndex;
+
+        PageKey(String fileId, int pageIndex) {
+            this.fileId = fileId;
+            this.pageIndex = pageIndex;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PageKey)) {
+                return false;
+            }
+            PageKey other = (PageKey) o;
+            return pageIndex == other.pageIndex && fileId.equals(other.fileId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileId, pageIndex);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,301 @@
+package com.example.csvview.storage;
+
+import com.example.csvview.columnar.ColumnarTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 磁盘分页存储
+ * 上传的CSV解析后写入存储目录下的数据文件，按页内存映射读取，
+ * 堆内只保留已打开文件的页目录和一个受内存预算限制的热点页LRU缓存。
+ * 页目录随数据文件保存为索引文件，文件在第一次访问时才从索引打开，可以随时卸载；
+ * 应用重启后已存储的文件仍可按ID访问。索引文件的修改时间记录文件最后一次被访问的时间
+ */
+@Component
+public class PagedCsvStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PagedCsvStore.class);
+
+    private static final String DATA_FILE_SUFFIX = ".rows";
+    private static final String INDEX_FILE_SUFFIX = ".index";
+    /** 文件ID只能由字母、数字和连字符组成，防止按ID拼接路径时越出存储目录 */
+    private static final Pattern FILE_ID_PATTERN = Pattern.compile("[A-Za-z0-9-]+");
+
+    private final Path directory;
+    private final int pageRows;
+    private final PageCache pageCache;
+    private final Map<String, StoredCsvFile> files = new ConcurrentHashMap<>();
+
+    public PagedCsvStore(@Value("${csv-view.storage.dir:${java.io.tmpdir}/csv-view}") String directory,
+                         @Value("${csv-view.storage.page-rows:1024}") int pageRows,
+                         @Value("${csv-view.storage.page-cache-size:64MB}") DataSize pageCacheSize) throws IOException {
+        if (pageRows <= 0) {
+            throw new IllegalArgumentException("csv-view.storage.page-rows 必须大于0");
+        }
+        this.directory = Paths.get(directory);
+        this.pageRows = pageRows;
+        this.pageCache = new PageCache(pageCacheSize.toBytes());
+        Files.createDirectories(this.directory);
+        deleteIncompleteFiles();
+    }
+
+    /**
+     * 为新文件创建写入器
+     * @param fileId 文件ID
+     * @param fileName 文件名
+     * @param headers 表头
+     * @return 写入器，调用finish后文件才可读取
+     * @throws IOException 数据文件创建异常
+     */
+    public PagedCsvWriter createWriter(String fileId, String fileName, List<String> headers) throws IOException {
+        return new PagedCsvWriter(this, fileId, fileName, headers, dataPath(fileId), pageRows);
+    }
+
+    void register(StoredCsvFile file) throws IOException {
+        file.writeIndex(indexPath(file.getFileId()));
+        files.put(file.getFileId(), file);
+    }
+
+    /**
+     * 根据文件ID获取已存储的文件，尚未打开时从索引文件打开
+     * @param fileId 文件ID
+     * @return 存储的文件，不存在时返回null
+     */
+    public StoredCsvFile get(String fileId) {
+        if (!FILE_ID_PATTERN.matcher(fileId).matches()) {
+            return null;
+        }
+        return files.computeIfAbsent(fileId, this::open);
+    }
+
+    private StoredCsvFile open(String fileId) {
+        Path indexPath = indexPath(fileId);
+        Path dataPath = dataPath(fileId);
+        if (!Files.exists(indexPath)) {
+            return null;
+        }
+        try {
+            return StoredCsvFile.readIndex(fileId, indexPath, dataPath);
+        } catch (IOException e) {
+            log.warn("无法打开已存储的文件 {}，已删除", fileId, e);
+            try {
+                Files.deleteIfExists(indexPath);
+                Files.deleteIfExists(dataPath);
+            } catch (IOException deleteException) {
+                log.warn("删除数据文件失败: {}", dataPath, deleteException);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 卸载已打开的文件：丢弃页目录和缓存页并关闭数据文件，磁盘上的文件保留，下次访问时重新打开
+     * @param fileId 文件ID
+     * @param lastAccessMillis 最后一次访问的时间，记录到索引文件上
+     */
+    public void unload(String fileId, long lastAccessMillis) {
+        StoredCsvFile file = files.remove(fileId);
+        pageCache.invalidate(fileId);
+        if (file != null) {
+            try {
+                file.release();
+            } catch (IOException e) {
+                log.warn("关闭数据文件失败: {}", file.getDataPath(), e);
+            }
+        }
+        setLastAccessTime(fileId, lastAccessMillis);
+    }
+
+    /**
+     * 记录文件最后一次被访问的时间
+     * @param fileId 文件ID
+     * @param lastAccessMillis 访问时间
+     */
+    public void setLastAccessTime(String fileId, long lastAccessMillis) {
+        try {
+            Files.setLastModifiedTime(indexPath(fileId), FileTime.fromMillis(lastAccessMillis));
+        } catch (IOException e) {
+            log.debug("更新索引文件时间失败: {}", fileId, e);
+        }
+    }
+
+    /**
+     * @param fileId 文件ID
+     * @return 文件最后一次被访问的时间，文件不存在时返回-1
+     */
+    public long getLastAccessTime(String fileId) {
+        if (!FILE_ID_PATTERN.matcher(fileId).matches()) {
+            return -1;
+        }
+        try {
+            return Files.getLastModifiedTime(indexPath(fileId)).toMillis();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return 磁盘上全部已存储文件的ID，包括尚未打开的
+     * @throws IOException 目录读取异常
+     */
+    public List<String> listFileIds() throws IOException {
+        List<String> fileIds = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + INDEX_FILE_SUFFIX)) {
+            for (Path indexPath : stream) {
+                String name = indexPath.getFileName().toString();
+                fileIds.add(name.substring(0, name.length() - INDEX_FILE_SUFFIX.length()));
+            }
+        }
+        return fileIds;
+    }
+
+    /**
+     * 读取一行
+     * @param file 存储的文件
+     * @param index 行号（从0开始）
+     * @return 行数据
+     */
+    public List<String> readRow(StoredCsvFile file, int index) {
+        return getPage(file, index / file.getPageRows()).getRows().get(index % file.getPageRows());
+    }
+
+    /**
+     * 读取 [fromIndex, toIndex) 区间的行，只加载覆盖该区间的页
+     * @param file 存储的文件
+     * @param fromIndex 起始行号（包含）
+     * @param toIndex 结束行号（不包含）
+     * @return 行数据
+     */
+    public List<List<String>> readRows(StoredCsvFile file, int fromIndex, int toIndex) {
+        List<List<String>> rows = new ArrayList<>(toIndex - fromIndex);
+        int index = fromIndex;
+        while (index < toIndex) {
+            int pageIndex = index / file.getPageRows();
+            int pageStart = pageIndex * file.getPageRows();
+            List<List<String>> pageRows = getPage(file, pageIndex).getRows();
+            int end = Math.min(toIndex - pageStart, pageRows.size());
+            rows.addAll(pageRows.subList(index - pageStart, end));
+            index = pageStart + end;
+        }
+        return rows;
+    }
+
+    /**
+     * 读取一页用于整个文件的扫描：页已在缓存中时直接使用，否则解码后不放入缓存，避免扫描把热点页挤出缓存
+     * @param file 存储的文件
+     * @param pageIndex 页号（从0开始）
+     * @return 按列存储的页数据
+     */
+    public ColumnarTable scanPage(StoredCsvFile file, int pageIndex) {
+        DataPage page = pageCache.get(file.getFileId(), pageIndex);
+        if (page != null) {
+            return page.getTable();
+        }
+        try {
+            return file.readPage(pageIndex).getTable();
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取数据页失败: " + file.getDataPath(), e);
+        }
+    }
+
+    private DataPage getPage(StoredCsvFile file, int pageIndex) {
+        DataPage page = pageCache.get(file.getFileId(), pageIndex);
+        if (page == null) {
+            try {
+                page = file.readPage(pageIndex);
+            } catch (IOException e) {
+                throw new UncheckedIOException("读取数据页失败: " + file.getDataPath(), e);
+            }
+            pageCache.put(file.getFileId(), pageIndex, page);
+        }
+        return page;
+    }
+
+    /**
+     * 删除文件的数据文件、索引文件和缓存页
+     * @param fileId 文件ID
+     * @return 是否存在该文件
+     */
+    public boolean delete(String fileId) {
+        StoredCsvFile file = get(fileId);
+        if (file == null) {
+            return false;
+        }
+        files.remove(fileId);
+        pageCache.invalidate(fileId);
+        closeAndDelete(file);
+        return true;
+    }
+
+    /**
+     * 应用关闭时只关闭打开的数据文件，文件保留在磁盘上，重启后重新打开
+     */
+    @PreDestroy
+    public void close() {
+        pageCache.clear();
+        for (StoredCsvFile file : files.values()) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                log.warn("关闭数据文件失败: {}", file.getDataPath(), e);
+            }
+        }
+    }
+
+    private void closeAndDelete(StoredCsvFile file) {
+        try {
+            file.close();
+            Files.deleteIfExists(indexPath(file.getFileId()));
+            Files.deleteIfExists(file.getDataPath());
+        } catch (IOException e) {
+            // 映射的页在GC前可能仍占用文件（Windows），索引已删除，下次启动时会清理数据文件
+            log.warn("删除数据文件失败: {}", file.getDataPath(), e);
+        }
+    }
+
+    /**
+     * 删除没有索引的数据文件（上次进程在写入过程中退出），有索引的文件在第一次访问时再打开
+     */
+    private void deleteIncompleteFiles() throws IOException {
+        int storedFiles = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + DATA_FILE_SUFFIX)) {
+            for (Path dataPath : stream) {
+                String name = dataPath.getFileName().toString();
+                String fileId = name.substring(0, name.length() - DATA_FILE_SUFFIX.length());
+                if (Files.exists(indexPath(fileId))) {
+                    storedFiles++;
+                } else {
+                    Files.deleteIfExists(dataPath);
+                }
+            }
+        }
+        if (storedFiles > 0) {
+            log.info("存储目录中有 {} 个已存储的CSV文件", storedFiles);
+        }
+    }
+
+    private Path dataPath(String fileId) {
+        return directory.resolve(fileId + DATA_FILE_SUFFIX);
+    }
+
+    private Path indexPath(String fileId) {
+        return directory.resolve(fileId + INDEX_FILE_SUFFIX);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package com.example.csvview.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 把解析出的行顺序写入数据文件，同时记录每页的起始偏移量
+ * 未调用 {@link #finish()} 就关闭时（如解析失败）会删除写了一半的数据文件
+ */
+public class PagedCsvWriter implements Closeable {
+
+    private final PagedCsvStore store;
+    private final String fileId;
+    private final String fileName;
+    private final List<String> headers;
+    private final Path dataPath;
+    private final int columnCount;
+    private final int pageRows;
+    private final OutputStream output;
+
+    private long[] pageOffsets = new long[16];
+    private int pageCount;
+    private int rowCount;
+    private long position;
+    private boolean finished;
+
+    PagedCsvWriter(PagedCsvStore store, String fileId, String fileName, List<String> headers, Path dataPath,
+                   int pageRows) throws IOException {
+        this.store = store;
+        this.fileId = fileId;
+        this.fileName = fileName;
+        this.headers = headers;
+        this.dataPath = dataPath;
+        this.columnCount = headers.size();
+        this.pageRows = pageRows;
+        this.output = new BufferedOutputStream(Files.newOutputStream(dataPath), 64 * 1024);
+    }
+
+    /**
+     * 写入一行，列数必须与表头一致
+     * @param row 行数据
+     * @throws IOException 写入异常
+     */
+    public void writeRow(List<String> row) throws IOException {
+        if (row.size() != columnCount) {
+            throw new IllegalArgumentException("第" + (rowCount + 1) + "行有" + row.size() + "列，表头有" + columnCount + "列");
+        }
+        if (rowCount % pageRows == 0) {
+            if (pageCount == pageOffsets.length) {
+                pageOffsets = Arrays.copyOf(pageOffsets, pageCount * 2);
+            }
+            pageOffsets[pageCount++] = position;
+        }
+        for (String value : row) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            output.write(bytes);
+            position += bytes.length;
+        }
+        rowCount++;
+    }
+
+    /**
+     * 完成写入，保存索引文件并在存储中登记该文件
+     * @return 可按页读取的文件
+     * @throws IOException 写入异常
+     */
+    public StoredCsvFile finish() throws IOException {
+        output.close();
+        StoredCsvFile storedFile = new StoredCsvFile(fileId, fileName, headers, dataPath, rowCount, pageRows,
+                Arrays.copyOf(pageOffsets, pageCount), position);
+        store.register(storedFile);
+        finished = true;
+        return storedFile;
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+            position++;
+        }
+        output.write(value);
+        position++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!finished) {
+            output.close();
+            Files.deleteIfExists(dataPath);
+        }
+    }
+}
\ No newline at end of file
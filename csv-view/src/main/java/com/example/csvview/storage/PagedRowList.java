@@ -0,0 +1,46 @@
+package com.example.csvview.storage;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 以磁盘分页存储为后端的只读行列表
+ * 按下标读取时只加载所在的页；{@link #subList(int, int)} 一次读出区间内的行，
+ * 返回的是独立的列表而不是视图（存储的数据不可变，两者没有区别）
+ */
+public class PagedRowList extends AbstractList<List<String>> implements RandomAccess {
+
+    private final PagedCsvStore store;
+    private final StoredCsvFile file;
+
+    public PagedRowList(PagedCsvStore store, StoredCsvFile file) {
+        this.store = store;
+        this.file = file;
+    }
+
+    public StoredCsvFile getFile() {
+        return file;
+    }
+
+    @Override
+    public List<String> get(int index) {
+        if (index < 0 || index >= file.getRowCount()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + file.getRowCount());
+        }
+        return store.readRow(file, index);
+    }
+
+    @Override
+    public int size() {
+        return file.getRowCount();
+    }
+
+    @Override
+    public List<List<String>> subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > file.getRowCount() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", Size: " + file.getRowCount());
+        }
+        return store.readRows(file, fromIndex, toIndex);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.example.csvview.storage;
+
+import com.example.csvview.columnar.ColumnarTable;
+import com.example.csvview.columnar.StringColumn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 磁盘上的一个已解析CSV文件
+ * 数据文件按行顺序保存每个单元格（变长整数表示的UTF-8字节数 + 字节内容），
+ * 每 pageRows 行为一页，堆内只保留每页在数据文件中的起始偏移量。
+ * 页偏移量是按解析出的记录写入时记录的，引号内含换行的字段不影响定位；
+ * 它和表头、文件名一起保存在数据文件旁的索引文件中，重启后可以重新打开
+ */
+public class StoredCsvFile implements Closeable {
+
+    /** 索引文件的格式标识和版本 */
+    private static final int INDEX_MAGIC = 0x43535649;
+    private static final int INDEX_VERSION = 1;
+
+    private final String fileId;
+    private final String fileName;
+    private final List<String> headers;
+    private final Path dataPath;
+    private final int rowCount;
+    private final int pageRows;
+    private final long[] pageOffsets;
+    private final long dataLength;
+    private FileChannel channel;
+    private boolean closed;
+
+    StoredCsvFile(String fileId, String fileName, List<String> headers, Path dataPath, int rowCount, int pageRows,
+                  long[] pageOffsets, long dataLength) {
+        this.fileId = fileId;
+        this.fileName = fileName;
+        this.headers = Collections.unmodifiableList(new ArrayList<>(headers));
+        this.dataPath = dataPath;
+        this.rowCount = rowCount;
+        this.pageRows = pageRows;
+        this.pageOffsets = pageOffsets;
+        this.dataLength = dataLength;
+    }
+
+    public String getFileId() {
+        return fileId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    public Path getDataPath() {
+        return dataPath;
+    }
+
+    public int getColumnCount() {
+        return headers.size();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getPageRows() {
+        return pageRows;
+    }
+
+    public int getPageCount() {
+        return pageOffsets.length;
+    }
+
+    /**
+     * @return 估算的堆内存占用（字节），不含页缓存中的数据页
+     */
+    public long estimatedBytes() {
+        long bytes = 128L + 8L * pageOffsets.length;
+        if (fileName != null) {
+            bytes += StringColumn.stringBytes(fileName);
+        }
+        for (String header : headers) {
+            bytes += 8L + StringColumn.stringBytes(header);
+        }
+        return bytes;
+    }
+
+    /**
+     * 把一页映射到内存并按列解码，高基数列直接复制UTF-8字节
+     * @param pageIndex 页号（从0开始）
+     * @return 解码后的页
+     * @throws IOException 数据文件读取异常
+     */
+    DataPage readPage(int pageIndex) throws IOException {
+        long start = pageOffsets[pageIndex];
+        long end = pageIndex + 1 < pageOffsets.length ? pageOffsets[pageIndex + 1] : dataLength;
+        if (end - start > Integer.MAX_VALUE) {
+            throw new IOException("数据页过大，无法映射: " + dataPath + " 第" + pageIndex + "页");
+        }
+        MappedByteBuffer buffer = map(start, end - start);
+
+        int firstRow = pageIndex * pageRows;
+        int pageSize = Math.min(pageRows, rowCount - firstRow);
+        int columnCount = headers.size();
+        ColumnarTable.Builder table = ColumnarTable.builder(columnCount, pageSize);
+        byte[] bytes = new byte[256];
+        for (int i = 0; i < pageSize; i++) {
+            for (int j = 0; j < columnCount; j++) {
+                int length = readVarint(buffer);
+                if (length > bytes.length) {
+                    bytes = new byte[Math.max(length, bytes.length * 2)];
+                }
+                buffer.get(bytes, 0, length);
+                table.addUtf8(j, bytes, 0, length);
+            }
+            table.endRow();
+        }
+        return new DataPage(table.build());
+    }
+
+    private static int readVarint(MappedByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * 映射数据文件的一段，与release互斥，映射建立后不再依赖通道，通道关闭后仍然可读
+     * 数据文件在第一次读取时才打开，避免重启后为每个已存储的文件都占用一个文件句柄
+     */
+    private synchronized MappedByteBuffer map(long position, long size) throws IOException {
+        if (closed) {
+            throw new IOException("文件已删除: " + fileId);
+        }
+        if (channel == null) {
+            channel = FileChannel.open(dataPath, StandardOpenOption.READ);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * 把元数据和页偏移量写入索引文件，先写临时文件再替换，不会留下写了一半的索引
+     * @param indexPath 索引文件路径
+     * @throws IOException 写入异常
+     */
+    void writeIndex(Path indexPath) throws IOException {
+        Path tempPath = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            output.writeInt(INDEX_MAGIC);
+            output.writeInt(INDEX_VERSION);
+            writeString(output, fileName);
+            output.writeInt(headers.size());
+            for (String header : headers) {
+                writeString(output, header);
+            }
+            output.writeInt(rowCount);
+            output.writeInt(pageRows);
+            output.writeLong(dataLength);
+            output.writeInt(pageOffsets.length);
+            for (long offset : pageOffsets) {
+                output.writeLong(offset);
+            }
+        }
+        Files.move(tempPath, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * 从索引文件重新打开已存储的文件
+     * @param fileId 文件ID
+     * @param indexPath 索引文件路径
+     * @param dataPath 数据文件路径
+     * @return 存储的文件
+     * @throws IOException 索引文件损坏或与数据文件不匹配
+     */
+    static StoredCsvFile readIndex(String fileId, Path indexPath, Path dataPath) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath)))) {
+            if (input.readInt() != INDEX_MAGIC || input.readInt() != INDEX_VERSION) {
+                throw new IOException("不支持的索引文件格式: " + indexPath);
+            }
+            String fileName = readString(input);
+            int columnCount = input.readInt();
+            List<String> headers = new ArrayList<>(columnCount);
+            for (int i = 0; i < columnCount; i++) {
+                headers.add(readString(input));
+            }
+            int rowCount = input.readInt();
+            int pageRows = input.readInt();
+            long dataLength = input.readLong();
+            long[] pageOffsets = new long[input.readInt()];
+            for (int i = 0; i < pageOffsets.length; i++) {
+                pageOffsets[i] = input.readLong();
+            }
+            if (Files.size(dataPath) != dataLength) {
+                throw new IOException("数据文件大小与索引不一致: " + dataPath);
+            }
+            return new StoredCsvFile(fileId, fileName, headers, dataPath, rowCount, pageRows, pageOffsets, dataLength);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 关闭数据文件但允许再次读取，已映射的页不受影响，之后的读取重新打开数据文件
+     * @throws IOException 关闭异常
+     */
+    synchronized void release() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.csvview.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 把按序号到达的分块拼接成一个输入流
+ * 当前分块读完后删除它，并阻塞等待下一个分块，读完最后一个分块后返回流结束
+ */
+class ChunkSequenceInputStream extends InputStream {
+
+    private final UploadSession session;
+    private final long chunkTimeoutMillis;
+    private InputStream current;
+    private Path currentPath;
+    private boolean finished;
+
+    ChunkSequenceInputStream(UploadSession session, long chunkTimeoutMillis) {
+        this.session = session;
+        this.chunkTimeoutMillis = chunkTimeoutMillis;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        int read = read(one, 0, 1);
+        return read < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (!finished) {
+            if (current == null && !openNextChunk()) {
+                finished = true;
+                break;
+            }
+            int read = current.read(buffer, offset, length);
+            if (read > 0) {
+                return read;
+            }
+            closeCurrentChunk();
+            session.chunkConsumed();
+        }
+        return -1;
+    }
+
+    private boolean openNextChunk() throws IOException {
+        Path next = session.awaitNextChunk(chunkTimeoutMillis);
+        if (next == null) {
+            return false;
+        }
+        currentPath = next;
+        current = Files.newInputStream(next);
+        return true;
+    }
+
+    private void closeCurrentChunk() throws IOException {
+        current.close();
+        current = null;
+        Files.deleteIfExists(currentPath);
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        if (current != null) {
+            closeCurrentChunk();
+        }
+    }
+}
\ No newline at end of file
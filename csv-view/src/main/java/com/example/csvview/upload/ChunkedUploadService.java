@@ -0,0 +1,267 @@
+package com.example.csvview.upload;
+
+import com.example.csvview.service.CsvService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 分块上传
+ * 客户端先初始化上传，再按序号逐个上传分块（可以乱序、可以重传），最后声明分块总数完成上传。
+ * 初始化时就启动解析线程，分块一到齐就开始解析并写入磁盘分页存储，
+ * 请求线程只负责把分块落盘；完成上传时只需等待最后几个分块解析完
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    @Autowired
+    private CsvService csvService;
+
+    private final Path directory;
+    private final long chunkTimeoutMillis;
+    private final long maxChunkBytes;
+    private final int maxActiveUploads;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+    private final ExecutorService parsers;
+
+    public ChunkedUploadService(@Value("${csv-view.upload.dir:${java.io.tmpdir}/csv-view-uploads}") String directory,
+                                @Value("${csv-view.upload.chunk-timeout:30m}") Duration chunkTimeout,
+                                @Value("${csv-view.upload.max-chunk-size:64MB}") DataSize maxChunkSize,
+                                @Value("${csv-view.upload.max-active:32}") int maxActiveUploads) throws IOException {
+        this.directory = Paths.get(directory);
+        this.chunkTimeoutMillis = chunkTimeout.toMillis();
+        this.maxChunkBytes = maxChunkSize.toBytes();
+        this.maxActiveUploads = maxActiveUploads;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.parsers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "csv-upload-parser-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Files.createDirectories(this.directory);
+        deleteLeftoverUploads();
+    }
+
+    /**
+     * 初始化一次分块上传，并启动解析线程等待第0个分块
+     * @param fileName 文件名
+     * @return 上传会话
+     * @throws IOException 临时目录创建异常
+     */
+    public UploadSession init(String fileName) throws IOException {
+        purgeExpiredSessions();
+        if (sessions.size() >= maxActiveUploads) {
+            throw new IllegalStateException("进行中的上传过多，请稍后重试");
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession(uploadId, fileName, Files.createDirectories(directory.resolve(uploadId)));
+        sessions.put(uploadId, session);
+        session.setResult(parsers.submit(() -> {
+            try (InputStream input = new ChunkSequenceInputStream(session, chunkTimeoutMillis)) {
+                return csvService.saveInputStream(input, fileName);
+            } catch (Exception e) {
+                // 解析失败或等待分块超时，丢弃未读取的分块
+                session.abort();
+                deleteDirectory(session.getDirectory());
+                throw e;
+            }
+        }));
+        return session;
+    }
+
+    /**
+     * 获取上传会话
+     * @param uploadId 上传ID
+     * @return 上传会话，不存在时返回null
+     */
+    public UploadSession getSession(String uploadId) {
+        return sessions.get(uploadId);
+    }
+
+    /**
+     * 保存一个分块，已收到过的分块直接忽略，重传是安全的
+     * 分块先写入本次请求独有的临时文件，完整写完后再改名，断线不会留下不完整的分块，
+     * 同一分块的并发重传也不会写入同一个文件
+     * @param session 上传会话
+     * @param index 分块序号（从0开始）
+     * @param input 分块内容
+     * @throws IOException 写入异常
+     */
+    public void putChunk(UploadSession session, int index, InputStream input) throws IOException {
+        if (index < 0) {
+            throw new IllegalArgumentException("分块序号不能为负数");
+        }
+        checkActive(session);
+        int totalChunks = session.getTotalChunks();
+        if (totalChunks >= 0 && index >= totalChunks) {
+            throw new IllegalArgumentException("分块序号超出分块总数: " + index);
+        }
+        if (session.hasChunk(index)) {
+            session.touch();
+            return;
+        }
+
+        Path tempPath = Files.createTempFile(session.getDirectory(), index + ".", ".tmp");
+        long size = 0;
+        try (OutputStream output = Files.newOutputStream(tempPath)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) >= 0) {
+                size += read;
+                if (size > maxChunkBytes) {
+                    throw new IllegalArgumentException("分块超过大小上限: " + maxChunkBytes + " 字节");
+                }
+                output.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        if (session.hasChunk(index)) {
+            // 并发的重传已经先保存了这个分块
+            Files.deleteIfExists(tempPath);
+            session.touch();
+            return;
+        }
+        Files.move(tempPath, session.chunkPath(index), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        session.chunkArrived(index, size);
+    }
+
+    /**
+     * 完成上传：声明分块总数并等待解析结束
+     * @param session 上传会话
+     * @param totalChunks 分块总数
+     * @return 解析后保存的文件ID
+     * @throws IOException 解析失败
+     */
+    public String complete(UploadSession session, int totalChunks) throws IOException {
+        if (totalChunks < 0) {
+            throw new IllegalArgumentException("分块总数不能为负数");
+        }
+        checkActive(session);
+        int missing = session.getNextMissingChunk();
+        if (missing < totalChunks) {
+            throw new IllegalStateException("第" + missing + "个分块尚未上传");
+        }
+        session.complete(totalChunks);
+
+        try {
+            return session.getResult().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待解析时被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw new IOException("解析失败: " + cause.getMessage(), cause);
+        } finally {
+            sessions.remove(session.getUploadId());
+            deleteDirectory(session.getDirectory());
+        }
+    }
+
+    /**
+     * 取消上传，删除已收到的分块
+     * @param session 上传会话
+     */
+    public void abort(UploadSession session) {
+        sessions.remove(session.getUploadId());
+        session.abort();
+        deleteDirectory(session.getDirectory());
+    }
+
+    /**
+     * @return 解析失败时的原因，仍在进行或已成功时返回null
+     */
+    public String getFailure(UploadSession session) {
+        if (!session.getResult().isDone()) {
+            return null;
+        }
+        try {
+            session.getResult().get();
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause().getMessage();
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+    }
+
+    private void checkActive(UploadSession session) {
+        String failure = getFailure(session);
+        if (failure != null || session.isAborted()) {
+            throw new IllegalStateException("上传已失败或已取消" + (failure != null ? ": " + failure : ""));
+        }
+    }
+
+    /**
+     * 移除长时间没有活动的会话，它们的解析线程已经因等待分块超时而结束
+     */
+    private void purgeExpiredSessions() {
+        long expiredBefore = System.currentTimeMillis() - chunkTimeoutMillis;
+        Iterator<UploadSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            UploadSession session = iterator.next();
+            if (session.getLastActivity() < expiredBefore) {
+                iterator.remove();
+                session.abort();
+                deleteDirectory(session.getDirectory());
+            }
+        }
+    }
+
+    private void deleteLeftoverUploads() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                deleteDirectory(path);
+            }
+        }
+    }
+
+    private static void deleteDirectory(Path path) {
+        try {
+            if (Files.isDirectory(path)) {
+                try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                    for (Path child : stream) {
+                        Files.deleteIfExists(child);
+                    }
+                }
+            }
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除上传临时文件失败: {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        for (UploadSession session : sessions.values()) {
+            session.abort();
+        }
+        parsers.shutdownNow();
+    }
+}
\ No newline at end of file
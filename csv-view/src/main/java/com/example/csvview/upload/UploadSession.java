@@ -0,0 +1,172 @@
+package com.example.csvview.upload;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Future;
+
+/**
+ * 一次分块上传的状态
+ * 收到的分块先落盘；解析线程按序号依次读取，读完的分块随即删除。
+ * 乱序到达的分块保留在磁盘上，直到它之前的分块都到齐
+ */
+public class UploadSession {
+
+    private final String uploadId;
+    private final String fileName;
+    private final Path directory;
+
+    /** 解析线程下一个要读取的分块序号 */
+    private int nextToConsume;
+    /** 已落盘、尚未被读取的分块序号 */
+    private final Set<Integer> pendingChunks = new TreeSet<>();
+    private int totalChunks = -1;
+    private long receivedBytes;
+    private boolean aborted;
+    private volatile long lastActivity = System.currentTimeMillis();
+    private Future<String> result;
+
+    UploadSession(String uploadId, String fileName, Path directory) {
+        this.uploadId = uploadId;
+        this.fileName = fileName;
+        this.directory = directory;
+    }
+
+    public String getUploadId() {
+        return uploadId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    Path chunkPath(int index) {
+        return directory.resolve(index + ".part");
+    }
+
+    Future<String> getResult() {
+        return result;
+    }
+
+    void setResult(Future<String> result) {
+        this.result = result;
+    }
+
+    long getLastActivity() {
+        return lastActivity;
+    }
+
+    void touch() {
+        lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * @return 分块是否已经收到（已落盘或已被读取）
+     */
+    synchronized boolean hasChunk(int index) {
+        return index < nextToConsume || pendingChunks.contains(index);
+    }
+
+    /**
+     * 分块已完整落盘
+     */
+    synchronized void chunkArrived(int index, long size) {
+        if (index >= nextToConsume && pendingChunks.add(index)) {
+            receivedBytes += size;
+        }
+        touch();
+        notifyAll();
+    }
+
+    /**
+     * @return 第一个尚未收到的分块序号，断线后从这里继续上传
+     */
+    public synchronized int getNextMissingChunk() {
+        int index = nextToConsume;
+        while (pendingChunks.contains(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return 已被解析线程读取的分块数
+     */
+    public synchronized int getParsedChunks() {
+        return nextToConsume;
+    }
+
+    public synchronized int getPendingChunks() {
+        return pendingChunks.size();
+    }
+
+    public synchronized long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    public synchronized int getTotalChunks() {
+        return totalChunks;
+    }
+
+    /**
+     * 声明分块总数，之后解析线程读完最后一个分块即结束
+     */
+    synchronized void complete(int totalChunks) {
+        this.totalChunks = totalChunks;
+        touch();
+        notifyAll();
+    }
+
+    synchronized void abort() {
+        aborted = true;
+        notifyAll();
+    }
+
+    synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * 等待下一个分块
+     * @param timeoutMillis 最长等待时间
+     * @return 分块文件，已读完全部分块时返回null
+     * @throws IOException 上传被取消或等待超时
+     */
+    synchronized Path awaitNextChunk(long timeoutMillis) throws IOException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (true) {
+            if (aborted) {
+                throw new IOException("上传已取消: " + uploadId);
+            }
+            if (totalChunks >= 0 && nextToConsume >= totalChunks) {
+                return null;
+            }
+            if (pendingChunks.contains(nextToConsume)) {
+                return chunkPath(nextToConsume);
+            }
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                throw new IOException("等待第" + nextToConsume + "个分块超时: " + uploadId);
+            }
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("上传已中断: " + uploadId, e);
+            }
+        }
+    }
+
+    /**
+     * 解析线程读完了当前分块
+     */
+    synchronized void chunkConsumed() {
+        pendingChunks.remove(nextToConsume);
+        nextToConsume++;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.example.csvview.columnar;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnBuilderTest {
+
+    @Test
+    void testLowCardinalityStaysDictionary() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < ColumnBuilder.DECISION_ROWS * 3; i++) {
+            values.add(i % 7 == 0 ? "" : "city-" + (i % 5));
+        }
+
+        StringColumn column = build(values);
+
+        assertTrue(column instanceof DictionaryColumn);
+        assertEquals(6, ((DictionaryColumn) column).getDictionarySize());
+        assertValues(values, column);
+    }
+
+    @Test
+    void testHighCardinalitySwitchesToArena() {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < ColumnBuilder.DECISION_ROWS * 3; i++) {
+            values.add(i % 2 == 0 ? "id-" + i : "编号-" + i + "-ü");
+        }
+
+        StringColumn column = build(values);
+
+        assertTrue(column instanceof Utf8ArenaColumn);
+        assertValues(values, column);
+    }
+
+    @Test
+    void testUtf8ValuesBeforeAndAfterSwitch() {
+        ColumnBuilder builder = new ColumnBuilder();
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < ColumnBuilder.DECISION_ROWS + 100; i++) {
+            String value = "值" + i;
+            byte[] bytes = ("##" + value).getBytes(StandardCharsets.UTF_8);
+            builder.addUtf8(bytes, 2, bytes.length - 2);
+            values.add(value);
+        }
+
+        StringColumn column = builder.build();
+
+        assertTrue(column instanceof Utf8ArenaColumn);
+        assertValues(values, column);
+    }
+
+    @Test
+    void testKnownRowCountDecidesAfterShortPrefix() {
+        // 前64行互不相同，之后重复：已知行数时在第64行判断为高基数列，行数未知时累积到1024行才判断
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            values.add("v" + (i < ColumnBuilder.MIN_DECISION_ROWS ? i : i % 4));
+        }
+
+        ColumnBuilder page = new ColumnBuilder(values.size());
+        values.forEach(page::add);
+        StringColumn pageColumn = page.build();
+        assertTrue(pageColumn instanceof Utf8ArenaColumn);
+        assertValues(values, pageColumn);
+
+        assertTrue(build(values) instanceof DictionaryColumn);
+    }
+
+    @Test
+    void testShortColumnsDecideAtBuild() {
+        assertTrue(build(List.of("a", "b", "c", "d")) instanceof Utf8ArenaColumn);
+        assertTrue(build(List.of("a", "b", "a", "b")) instanceof DictionaryColumn);
+        assertTrue(build(List.of()) instanceof DictionaryColumn);
+
+        ColumnBuilder builder = new ColumnBuilder();
+        builder.add(null);
+        builder.add("x");
+        builder.add(null);
+        assertValues(List.of("", "x", ""), builder.build());
+    }
+
+    private static StringColumn build(List<String> values) {
+        ColumnBuilder builder = new ColumnBuilder();
+        values.forEach(builder::add);
+        return builder.build();
+    }
+
+    private static void assertValues(List<String> expected, StringColumn column) {
+        assertEquals(expected.size(), column.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), column.get(i), "第" + i + "行");
+        }
+    }
+}
\ No newline at end of file
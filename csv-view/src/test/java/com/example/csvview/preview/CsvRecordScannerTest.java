@@ -0,0 +1,93 @@
+package com.example.csvview.preview;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordScannerTest {
+
+    @Test
+    void testQuotedNewlinesAndEscapedQuotes() throws IOException {
+        assertSameRecords("id,text\n1,\"line one\nline two\"\n2,\"say \"\"hi\"\"\"\n3,\"\"\"\",x\n");
+    }
+
+    @Test
+    void testCrlfAndBlankLines() throws IOException {
+        assertSameRecords("a,b\r\n\r\n1,2\r\n\n\n3,\"x\r\ny\"\r\n\r\n");
+        assertSameRecords("\n\na,b\n1,2");
+    }
+
+    @Test
+    void testQuoteInsideUnquotedField() throws IOException {
+        assertSameRecords("a,b\n5\" disk,x\n,\"\"\n");
+    }
+
+    @Test
+    void testRecordsSpanningBufferBoundaries() throws IOException {
+        StringBuilder csv = new StringBuilder("id,text,note\r\n");
+        for (int i = 0; i < 5000; i++) {
+            csv.append(i).append(",\"").append("文本\n\"\"").append("x".repeat(i % 97)).append("\",")
+                    .append(i % 3 == 0 ? "" : "n" + i).append(i % 2 == 0 ? "\r\n" : "\n");
+            if (i % 10 == 0) {
+                csv.append("\n");
+            }
+        }
+        assertSameRecords(csv.toString());
+    }
+
+    @Test
+    void testPositionTracksConsumedBytes() throws IOException {
+        byte[] bytes = "a,b\n\"1\n2\",3\n\n".getBytes(StandardCharsets.UTF_8);
+        CsvRecordScanner scanner = new CsvRecordScanner(new ByteArrayInputStream(bytes), 100);
+
+        assertEquals(100, scanner.position());
+        assertTrue(scanner.nextRecord(null));
+        assertEquals(104, scanner.position());
+        assertTrue(scanner.nextRecord(null));
+        assertEquals(112, scanner.position());
+        assertFalse(scanner.nextRecord(null));
+        assertEquals(100 + bytes.length, scanner.position());
+    }
+
+    /**
+     * 按扫描器切出的每段字节单独解析，结果应与整体解析完全一致
+     */
+    private static void assertSameRecords(String csv) throws IOException {
+        List<List<String>> expected = parse(csv);
+
+        CsvRecordScanner scanner = new CsvRecordScanner(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), 0);
+        List<List<String>> actual = new ArrayList<>();
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        while (scanner.nextRecord(record)) {
+            List<List<String>> parsed = parse(new String(record.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals(1, parsed.size(), "每段字节应恰好是一条记录");
+            actual.add(parsed.get(0));
+            record.reset();
+        }
+
+        assertEquals(expected, actual);
+    }
+
+    private static List<List<String>> parse(String csv) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CSVParser parser = new CSVParser(new StringReader(csv), CSVFormat.DEFAULT)) {
+            for (CSVRecord record : parser) {
+                List<String> values = new ArrayList<>();
+                record.forEach(values::add);
+                records.add(values);
+            }
+        }
+        return records;
+    }
+}
\ No newline at end of file
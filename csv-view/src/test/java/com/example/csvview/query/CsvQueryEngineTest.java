@@ -0,0 +1,103 @@
+package com.example.csvview.query;
+
+import com.example.csvview.columnar.ColumnarTable;
+import com.example.csvview.model.CsvData;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvQueryEngineTest {
+
+    private static final List<String> HEADERS = List.of("name", "city", "amount");
+
+    private static final List<List<String>> ROWS = List.of(
+            List.of("alice", "Paris", "10"),
+            List.of("bob", "Berlin", "9"),
+            List.of("carol", "Paris", "100"),
+            List.of("dave", "", "9"),
+            List.of("erin", "Berlin", "abc"),
+            List.of("frank", "paris", "10"),
+            List.of("grace", "Paris", "9.5"),
+            List.of("heidi", "Rome", ""));
+
+    private final CsvQueryEngine engine = new CsvQueryEngine(8, 8);
+
+    @Test
+    void testFilters() {
+        assertEquals(List.of("alice", "carol", "grace"), names(query(List.of("city:eq:Paris"), null, null, 0, 10)));
+        assertEquals(List.of("alice", "carol", "frank", "grace"), names(query(List.of("city:contains:PAR"), null, null, 0, 10)));
+        // 数字按数值比较，"9.5" 小于 "10"；文本和空值不参与数字的范围比较
+        assertEquals(List.of("alice", "carol", "frank"), names(query(List.of("amount:gte:10"), null, null, 0, 10)));
+        assertEquals(List.of("carol"), names(query(List.of("amount:gt:10.0"), null, null, 0, 10)));
+        // 文本比较值只与文本比较
+        assertEquals(List.of("erin"), names(query(List.of("amount:gt:A"), null, null, 0, 10)));
+        assertEquals(List.of("bob", "erin"), names(query(List.of("city:lt:Paris"), null, null, 0, 10)));
+        assertEquals(List.of(), names(query(List.of("city:lte:"), null, null, 0, 10)));
+        assertEquals(List.of("carol"), names(query(List.of("city:eq:Paris", "amount:gt:10"), null, null, 0, 10)));
+        assertEquals(List.of("bob", "dave", "erin", "frank", "heidi"),
+                names(query(List.of("city:ne:Paris"), null, null, 0, 10)));
+        assertThrows(IllegalArgumentException.class, () -> query(List.of("missing:eq:x"), null, null, 0, 10));
+    }
+
+    @Test
+    void testSearchMatchesAnyColumnIgnoringCase() {
+        assertEquals(List.of("bob", "erin"), names(query(null, "ER", null, 0, 10)));
+        // 空值和文本不满足数字的 lt
+        assertEquals(List.of("alice", "carol", "dave", "frank", "grace"), names(query(List.of("amount:lt:200"), "a", null, 0, 10)));
+        assertEquals(List.of("bob", "dave", "grace"), names(query(List.of("amount:lt:10"), null, null, 0, 10)));
+        assertEquals(List.of(), names(query(null, "zzz", null, 0, 10)));
+    }
+
+    @Test
+    void testMultiKeySortOrder() {
+        // 空值最前，文本区分大小写；同一城市内按金额降序，文本排在数字之后
+        assertEquals(List.of("dave", "erin", "bob", "carol", "alice", "grace", "heidi", "frank"),
+                names(query(null, null, List.of("city", "amount:desc"), 0, 10)));
+        // 排序是稳定的，相同的值保持原来的行顺序
+        assertEquals(List.of("heidi", "bob", "dave", "grace", "alice", "frank", "carol", "erin"),
+                names(query(null, null, List.of("amount"), 0, 10)));
+    }
+
+    @Test
+    void testPagingAppliesAfterFilterAndSort() {
+        CsvData firstPage = query(List.of("city:ne:Rome"), null, List.of("name:desc"), 0, 3);
+        CsvData secondPage = query(List.of("city:ne:Rome"), null, List.of("name:desc"), 1, 3);
+        CsvData beyond = query(List.of("city:ne:Rome"), null, List.of("name:desc"), 5, 3);
+
+        assertEquals(List.of("grace", "frank", "erin"), names(firstPage));
+        assertEquals(List.of("dave", "carol", "bob"), names(secondPage));
+        assertEquals(7, firstPage.getTotalRows());
+        assertEquals(List.of(), names(beyond));
+        assertEquals(7, beyond.getTotalRows());
+    }
+
+    @Test
+    void testColumnarRowsAndIndexReuse() {
+        ColumnarTable.Builder builder = ColumnarTable.builder(HEADERS.size());
+        ROWS.forEach(builder::addRow);
+        CsvData columnar = new CsvData(HEADERS, builder.build().rows(), "columnar.csv");
+
+        CsvData result = engine.query("columnar", columnar, CsvQuery.parse(List.of("city:eq:Berlin"), null, List.of("amount")), 0, 10);
+        assertEquals(List.of("bob", "erin"), names(result));
+        long bytes = engine.estimatedBytes("columnar");
+        assertTrue(bytes > 0);
+
+        // 缓存的结果与第一次查询一致
+        assertEquals(List.of("bob", "erin"),
+                names(engine.query("columnar", columnar, CsvQuery.parse(List.of("city:eq:Berlin"), null, List.of("amount")), 0, 10)));
+
+        engine.invalidate("columnar");
+        assertEquals(0, engine.estimatedBytes("columnar"));
+    }
+
+    private CsvData query(List<String> filters, String search, List<String> sorts, int page, int size) {
+        return engine.query("file", new CsvData(HEADERS, ROWS, "file.csv"), CsvQuery.parse(filters, search, sorts), page, size);
+    }
+
+    private static List<String> names(CsvData data) {
+        return data.getRows().stream().map(row -> row.get(0)).collect(Collectors.toList());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+package com.example.csvview.registry;
+
+import com.example.csvview.model.CsvData;
+import com.example.csvview.query.CsvQuery;
+import com.example.csvview.query.CsvQueryEngine;
+import com.example.csvview.stats.ColumnStatsEngine;
+import com.example.csvview.storage.PagedCsvStore;
+import com.example.csvview.storage.PagedCsvWriter;
+import com.example.csvview.storage.PagedRowList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvDataRegistryTest {
+
+    private static final List<String> HEADERS = List.of("id", "name");
+
+    @TempDir
+    Path tempDir;
+
+    private PagedCsvStore store;
+    private CsvQueryEngine queryEngine;
+    private final List<CsvDataRegistry> registries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new PagedCsvStore(tempDir.toString(), 4, DataSize.ofMegabytes(1));
+        queryEngine = new CsvQueryEngine(8, 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registries.forEach(CsvDataRegistry::close);
+        store.close();
+    }
+
+    @Test
+    void testSpillsLeastRecentlyUsedOverBudgetAndReloads() throws IOException {
+        CsvDataRegistry registry = newRegistry(DataSize.ofBytes(1), Duration.ofHours(1), true);
+        CsvData first = store("first", 10);
+        registry.put("first", first);
+        queryEngine.query("first", first, CsvQuery.parse(null, null, List.of("name")), 0, 5);
+        registry.updateSize("first");
+        assertTrue(queryEngine.estimatedBytes("first") > 0);
+
+        registry.put("second", store("second", 10));
+
+        RegistryStats stats = registry.getStats();
+        assertEquals(1, stats.getEntries());
+        assertEquals(1, stats.getEvictions());
+        // 淘汰时一起丢弃查询索引，数据仍在磁盘上
+        assertEquals(0, queryEngine.estimatedBytes("first"));
+        assertTrue(store.getLastAccessTime("first") >= 0);
+
+        CsvData reloaded = registry.get("first");
+        assertNotNull(reloaded);
+        assertNotSame(first, reloaded);
+        assertEquals(rows("first", 10), reloaded.getRows());
+        stats = registry.getStats();
+        assertEquals(1, stats.getLoads());
+        assertEquals(2, stats.getEvictions());
+        assertNotNull(registry.get("second"));
+    }
+
+    @Test
+    void testDeletesOverBudgetWithoutSpill() throws IOException {
+        CsvDataRegistry registry = newRegistry(DataSize.ofBytes(1), Duration.ofHours(1), false);
+        registry.put("first", store("first", 3));
+        registry.put("second", store("second", 3));
+
+        assertNull(registry.get("first"));
+        assertEquals(-1, store.getLastAccessTime("first"));
+        assertNotNull(registry.get("second"));
+    }
+
+    @Test
+    void testKeepsEntriesWithinBudget() throws IOException {
+        CsvDataRegistry registry = newRegistry(DataSize.ofMegabytes(1), Duration.ofHours(1), true);
+        registry.put("first", store("first", 3));
+        registry.put("second", store("second", 3));
+
+        assertEquals(2, registry.getStats().getEntries());
+        assertTrue(registry.getStats().getUsedBytes() > 0);
+        CsvData first = registry.get("first");
+        assertSame(first, registry.get("first"));
+        assertEquals(2, registry.getStats().getHits());
+
+        assertTrue(registry.delete("first"));
+        assertFalse(registry.delete("first"));
+        assertNull(registry.get("first"));
+        assertEquals(1, registry.getStats().getEntries());
+    }
+
+    @Test
+    void testExpiresFilesOnlyOnDisk() throws IOException {
+        CsvDataRegistry registry = newRegistry(DataSize.ofBytes(1), Duration.ofHours(1), true);
+        registry.put("first", store("first", 3));
+        registry.put("second", store("second", 3));
+
+        store.setLastAccessTime("first", System.currentTimeMillis() - Duration.ofHours(2).toMillis());
+
+        assertNull(registry.get("first"));
+        assertEquals(1, registry.getStats().getExpirations());
+        assertNull(store.get("first"));
+    }
+
+    @Test
+    void testExpiresEntriesInMemory() throws Exception {
+        CsvDataRegistry registry = newRegistry(DataSize.ofMegabytes(1), Duration.ofMillis(100), true);
+        registry.put("first", store("first", 3));
+
+        Thread.sleep(200);
+
+        assertNull(registry.get("first"));
+        assertEquals(1, registry.getStats().getExpirations());
+        assertEquals(-1, store.getLastAccessTime("first"));
+    }
+
+    @Test
+    void testPersistsAccessTimeWhileInUse() throws Exception {
+        CsvDataRegistry registry = newRegistry(DataSize.ofMegabytes(1), Duration.ofSeconds(2), true);
+        registry.put("first", store("first", 3));
+        store.setLastAccessTime("first", 0);
+
+        // 距上次写入磁盘不到存活时间的1/10，只更新内存
+        registry.get("first");
+        assertEquals(0, store.getLastAccessTime("first"));
+
+        Thread.sleep(300);
+        long before = System.currentTimeMillis();
+        assertNotNull(registry.get("first"));
+        assertTrue(store.getLastAccessTime("first") >= before - 1000);
+    }
+
+    private CsvDataRegistry newRegistry(DataSize budget, Duration ttl, boolean spillToDisk) {
+        CsvDataRegistry registry = new CsvDataRegistry(budget, ttl, spillToDisk, Duration.ofHours(1));
+        ColumnStatsEngine statsEngine = new ColumnStatsEngine(10, 10, 512, 14);
+        ReflectionTestUtils.setField(statsEngine, "pagedCsvStore", store);
+        ReflectionTestUtils.setField(registry, "pagedCsvStore", store);
+        ReflectionTestUtils.setField(registry, "csvQueryEngine", queryEngine);
+        ReflectionTestUtils.setField(registry, "columnStatsEngine", statsEngine);
+        registries.add(registry);
+        return registry;
+    }
+
+    private CsvData store(String fileId, int rowCount) throws IOException {
+        try (PagedCsvWriter writer = store.createWriter(fileId, fileId + ".csv", HEADERS)) {
+            for (List<String> row : rows(fileId, rowCount)) {
+                writer.writeRow(row);
+            }
+            return new CsvData(HEADERS, new PagedRowList(store, writer.finish()), fileId + ".csv");
+        }
+    }
+
+    private static List<List<String>> rows(String fileId, int rowCount) {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(List.of(String.valueOf(i), fileId + "-" + (rowCount - i)));
+        }
+        return rows;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package com.example.csvview.service;
+
+import com.example.csvview.model.CsvData;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvServiceTest {
+
+    private static final List<String> HEADERS = List.of("id", "name");
+
+    private final CsvService csvService = new CsvService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(csvService, "excelRowAccessWindow", 2);
+        ReflectionTestUtils.setField(csvService, "excelWidthSampleRows", 1000);
+        ReflectionTestUtils.setField(csvService, "excelMaxSheetRows", 1048576);
+    }
+
+    @Test
+    void testRowsContinueOnNewSheets() throws IOException {
+        // 每个工作表含表头3行，5行数据分到3个工作表
+        ReflectionTestUtils.setField(csvService, "excelMaxSheetRows", 3);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(List.of(String.valueOf(i), "row-" + i));
+        }
+
+        try (XSSFWorkbook workbook = export(rows)) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals("CSV Data", workbook.getSheetName(0));
+            assertEquals("CSV Data 2", workbook.getSheetName(1));
+            assertEquals("CSV Data 3", workbook.getSheetName(2));
+
+            List<List<String>> exported = new ArrayList<>();
+            for (Sheet sheet : workbook) {
+                assertEquals(HEADERS, cells(sheet.getRow(0), 2));
+                for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+                    exported.add(cells(sheet.getRow(r), 2));
+                }
+            }
+            assertEquals(rows, exported);
+            assertEquals(2, workbook.getSheetAt(0).getLastRowNum());
+            assertEquals(1, workbook.getSheetAt(2).getLastRowNum());
+        }
+    }
+
+    @Test
+    void testEmptyValuesHaveNoCell() throws IOException {
+        try (XSSFWorkbook workbook = export(List.of(List.of("1", ""), List.of("", "b")))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("1", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertNull(sheet.getRow(1).getCell(1));
+            assertNull(sheet.getRow(2).getCell(0));
+            assertEquals("b", sheet.getRow(2).getCell(1).getStringCellValue());
+        }
+    }
+
+    @Test
+    void testColumnWidthsCountFullWidthCharactersTwice() throws IOException {
+        List<List<String>> rows = List.of(List.of("abcd", "中文"), List.of("x".repeat(200), "名"));
+
+        try (XSSFWorkbook workbook = export(rows)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            // 宽度为(字符数 + 2) * 256，单列不超过80个字符
+            assertEquals((80 + 2) * 256, sheet.getColumnWidth(0));
+            assertEquals((4 + 2) * 256, sheet.getColumnWidth(1));
+        }
+    }
+
+    @Test
+    void testNoRowsWritesHeaderOnlySheet() throws IOException {
+        try (XSSFWorkbook workbook = export(List.of())) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(0, sheet.getLastRowNum());
+            assertEquals(HEADERS, cells(sheet.getRow(0), 2));
+            assertTrue(workbook.getFontAt(sheet.getRow(0).getCell(0).getCellStyle().getFontIndex()).getBold());
+        }
+    }
+
+    private XSSFWorkbook export(List<List<String>> rows) throws IOException {
+        byte[] bytes = csvService.convertToExcel(new CsvData(HEADERS, rows, "data.csv"));
+        return new XSSFWorkbook(new ByteArrayInputStream(bytes));
+    }
+
+    private static List<String> cells(Row row, int columns) {
+        List<String> values = new ArrayList<>();
+        for (int c = 0; c < columns; c++) {
+            values.add(row.getCell(c) == null ? "" : row.getCell(c).getStringCellValue());
+        }
+        return values;
+    }
+}
\ No newline at end of file
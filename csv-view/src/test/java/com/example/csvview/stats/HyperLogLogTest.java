@@ -0,0 +1,74 @@
+package com.example.csvview.stats;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    @Test
+    void testSmallCardinalityIsExact() {
+        HyperLogLog hll = new HyperLogLog(14);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 500; i++) {
+                hll.add("value-" + i);
+            }
+        }
+        hll.add("");
+
+        assertEquals(501, hll.estimate());
+    }
+
+    @Test
+    void testLargeCardinalityWithinError() {
+        HyperLogLog hll = new HyperLogLog(14);
+        for (int i = 0; i < 200_000; i++) {
+            hll.add("user-" + i);
+            hll.add("user-" + (i / 2));
+        }
+
+        // 标准误差约0.8%，取5倍
+        assertEquals(200_000, hll.estimate(), 200_000 * 0.04);
+    }
+
+    @Test
+    void testMergeCountsUnion() {
+        HyperLogLog left = new HyperLogLog(12);
+        HyperLogLog right = new HyperLogLog(12);
+        for (int i = 0; i < 60_000; i++) {
+            left.add("k" + i);
+        }
+        for (int i = 40_000; i < 100_000; i++) {
+            right.add("k" + i);
+        }
+
+        left.merge(right);
+
+        assertEquals(100_000, left.estimate(), 100_000 * 0.08);
+    }
+
+    @Test
+    void testMergeSparseIntoSparseAndDense() {
+        HyperLogLog sparse = new HyperLogLog(14);
+        HyperLogLog other = new HyperLogLog(14);
+        for (int i = 0; i < 300; i++) {
+            sparse.add("a" + i);
+            other.add("a" + (i + 200));
+        }
+        sparse.merge(other);
+        assertEquals(500, sparse.estimate());
+
+        HyperLogLog dense = new HyperLogLog(14);
+        for (int i = 0; i < 50_000; i++) {
+            dense.add("b" + i);
+        }
+        dense.merge(sparse);
+        assertEquals(50_500, dense.estimate(), 50_500 * 0.04);
+
+        // 稀疏的一方并入稠密的一方时先转为寄存器
+        HyperLogLog small = new HyperLogLog(14);
+        small.add("c");
+        small.merge(dense);
+        assertEquals(50_501, small.estimate(), 50_501 * 0.04);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.csvview.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuantileSketchTest {
+
+    private static final int N = 200_000;
+
+    @Test
+    void testQuantilesWithinRankError() {
+        QuantileSketch sketch = new QuantileSketch(512);
+        for (double value : shuffled(N, 1)) {
+            sketch.add(value);
+        }
+
+        assertEquals(N, sketch.getCount());
+        assertRanks(sketch.ranks());
+    }
+
+    @Test
+    void testMergedSketchMatchesSingleSketch() {
+        List<Double> values = shuffled(N, 2);
+        List<QuantileSketch> parts = new ArrayList<>();
+        for (int p = 0; p < 8; p++) {
+            QuantileSketch part = new QuantileSketch(512);
+            for (int i = p; i < values.size(); i += 8) {
+                part.add(values.get(i));
+            }
+            parts.add(part);
+        }
+        QuantileSketch merged = parts.get(0);
+        for (QuantileSketch part : parts.subList(1, parts.size())) {
+            merged.merge(part);
+        }
+
+        assertEquals(N, merged.getCount());
+        assertEquals(0, merged.getMin());
+        assertEquals(N - 1, merged.getMax());
+        assertRanks(merged.ranks());
+    }
+
+    @Test
+    void testSmallInputsAreExact() {
+        QuantileSketch sketch = new QuantileSketch(512);
+        for (int i = 1; i <= 5; i++) {
+            sketch.add(i * 10);
+        }
+        QuantileSketch.Ranks ranks = sketch.ranks();
+
+        assertEquals(10, ranks.quantile(0));
+        assertEquals(30, ranks.quantile(0.5));
+        assertEquals(50, ranks.quantile(1));
+        assertEquals(0.4, ranks.rank(25), 1e-9);
+        assertEquals(0, ranks.rank(5));
+        assertEquals(1, ranks.rank(50));
+        assertTrue(Double.isNaN(new QuantileSketch(512).ranks().quantile(0.5)));
+    }
+
+    /**
+     * 值为 0..N-1，分位数的秩误差不超过1%
+     */
+    private static void assertRanks(QuantileSketch.Ranks ranks) {
+        assertEquals(0, ranks.quantile(0));
+        assertEquals(N - 1, ranks.quantile(1));
+        for (double fraction : new double[]{0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99}) {
+            assertEquals(fraction * N, ranks.quantile(fraction), N * 0.01, "分位点 " + fraction);
+            assertEquals(fraction, ranks.rank(fraction * N), 0.01, "秩 " + fraction);
+        }
+    }
+
+    private static List<Double> shuffled(int n, long seed) {
+        List<Double> values = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            values.add((double) i);
+        }
+        Collections.shuffle(values, new Random(seed));
+        return values;
+    }
+}
\ No newline at end of file
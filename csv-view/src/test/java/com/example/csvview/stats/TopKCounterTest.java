@@ -0,0 +1,91 @@
+package com.example.csvview.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKCounterTest {
+
+    @Test
+    void testFindsHeavyHittersInSkewedStream() {
+        TopKCounter counter = new TopKCounter(40);
+        skewedStream(1).forEach(value -> counter.add(value, 1));
+
+        assertTopValues(counter.top(5));
+    }
+
+    @Test
+    void testMergedCountersFindSameHeavyHitters() {
+        List<String> stream = skewedStream(2);
+        List<TopKCounter> parts = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            parts.add(new TopKCounter(40));
+        }
+        for (int i = 0; i < stream.size(); i++) {
+            parts.get(i % parts.size()).add(stream.get(i), 1);
+        }
+        TopKCounter merged = parts.get(0);
+        for (TopKCounter part : parts.subList(1, parts.size())) {
+            merged.merge(part);
+        }
+
+        assertTopValues(merged.top(5));
+    }
+
+    @Test
+    void testWeightedAddsAreExactWithinCapacity() {
+        TopKCounter counter = new TopKCounter(8);
+        counter.add("a", 5);
+        counter.add("b", 3);
+        counter.add("a", 2);
+
+        List<ColumnProfile.FrequentValue> top = counter.top(10);
+        assertEquals(List.of("a", "b"), top.stream().map(ColumnProfile.FrequentValue::getValue).collect(Collectors.toList()));
+        assertEquals(7, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+    }
+
+    @Test
+    void testUniqueValuesHaveNoReliableTop() {
+        TopKCounter counter = new TopKCounter(40);
+        for (int i = 0; i < 10_000; i++) {
+            counter.add("id-" + i, 1);
+        }
+
+        assertEquals(List.of(), counter.top(5));
+    }
+
+    /**
+     * hot-0 到 hot-4 依次出现 5000、4000、3000、2000、1000 次，其余是大量只出现一两次的值
+     */
+    private static List<String> skewedStream(long seed) {
+        List<String> stream = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            for (int j = 0; j < (5 - i) * 1000; j++) {
+                stream.add("hot-" + i);
+            }
+        }
+        for (int i = 0; i < 30_000; i++) {
+            stream.add("noise-" + (i % 20_000));
+        }
+        Collections.shuffle(stream, new Random(seed));
+        return stream;
+    }
+
+    private static void assertTopValues(List<ColumnProfile.FrequentValue> top) {
+        assertEquals(List.of("hot-0", "hot-1", "hot-2", "hot-3", "hot-4"),
+                top.stream().map(ColumnProfile.FrequentValue::getValue).collect(Collectors.toList()));
+        for (int i = 0; i < top.size(); i++) {
+            long actual = (5 - i) * 1000L;
+            // 计数是真实次数的上界，减去误差后是下界
+            assertTrue(top.get(i).getCount() >= actual, top.get(i).getValue());
+            assertTrue(top.get(i).getCount() - top.get(i).getError() <= actual, top.get(i).getValue());
+        }
+    }
+}
\ No newline at end of file
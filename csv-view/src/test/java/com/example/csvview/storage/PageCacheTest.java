@@ -0,0 +1,69 @@
+package com.example.csvview.storage;
+
+import com.example.csvview.columnar.ColumnarTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCacheTest {
+
+    @Test
+    void testEvictsLeastRecentlyUsedPagesOverBudget() {
+        DataPage page = page("a");
+        PageCache cache = new PageCache(page.getEstimatedBytes() * 5 / 2);
+
+        cache.put("f", 0, page);
+        cache.put("f", 1, page("b"));
+        assertNotNull(cache.get("f", 0));
+        cache.put("f", 2, page("c"));
+
+        assertNotNull(cache.get("f", 0));
+        assertNull(cache.get("f", 1));
+        assertNotNull(cache.get("f", 2));
+    }
+
+    @Test
+    void testKeepsNewestPageEvenIfOverBudget() {
+        PageCache cache = new PageCache(1);
+
+        cache.put("f", 0, page("a"));
+        cache.put("f", 1, page("b"));
+
+        assertNull(cache.get("f", 0));
+        assertNotNull(cache.get("f", 1));
+    }
+
+    @Test
+    void testReplacingPageDoesNotLeakBudget() {
+        DataPage page = page("a");
+        PageCache cache = new PageCache(page.getEstimatedBytes() * 2);
+
+        for (int i = 0; i < 10; i++) {
+            cache.put("f", 0, page("a"));
+        }
+        cache.put("f", 1, page("b"));
+
+        assertNotNull(cache.get("f", 0));
+        assertNotNull(cache.get("f", 1));
+    }
+
+    @Test
+    void testInvalidateRemovesOnlyThatFile() {
+        PageCache cache = new PageCache(1 << 20);
+        cache.put("f", 0, page("a"));
+        cache.put("f", 1, page("b"));
+        cache.put("g", 0, page("c"));
+
+        cache.invalidate("f");
+
+        assertNull(cache.get("f", 0));
+        assertNull(cache.get("f", 1));
+        assertEquals("c", cache.get("g", 0).getRows().get(0).get(0));
+    }
+
+    private static DataPage page(String value) {
+        return new DataPage(ColumnarTable.builder(1).addRow(List.of(value)).build());
+    }
+}
\ No newline at end of file
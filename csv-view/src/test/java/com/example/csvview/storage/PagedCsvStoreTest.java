@@ -0,0 +1,198 @@
+package com.example.csvview.storage;
+
+import com.example.csvview.columnar.ColumnarTable;
+import com.example.csvview.columnar.DictionaryColumn;
+import com.example.csvview.columnar.Utf8ArenaColumn;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedCsvStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<PagedCsvStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        stores.forEach(PagedCsvStore::close);
+    }
+
+    @Test
+    void testRoundTripThroughIndex() throws IOException {
+        List<List<String>> rows = sampleRows();
+        PagedCsvStore store = newStore();
+        StoredCsvFile written;
+        try (PagedCsvWriter writer = store.createWriter("round-trip", "data.csv", List.of("id", "value"))) {
+            for (List<String> row : rows) {
+                writer.writeRow(row);
+            }
+            written = writer.finish();
+        }
+        assertEquals(rows.size(), written.getRowCount());
+        assertEquals((rows.size() + 3) / 4, written.getPageCount());
+        assertEquals(rows, store.readRows(written, 0, rows.size()));
+
+        // 新的存储实例只能从索引文件重新打开
+        PagedCsvStore reopened = newStore();
+        StoredCsvFile file = reopened.get("round-trip");
+        assertNotNull(file);
+        assertNotSame(written, file);
+        assertEquals("data.csv", file.getFileName());
+        assertEquals(List.of("id", "value"), file.getHeaders());
+        assertEquals(written.getPageCount(), file.getPageCount());
+        assertEquals(rows, new PagedRowList(reopened, file));
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(rows.get(i), reopened.readRow(file, i));
+        }
+    }
+
+    @Test
+    void testReadRowsAcrossPageBorders() throws IOException {
+        List<List<String>> rows = sampleRows();
+        PagedCsvStore store = newStore();
+        StoredCsvFile file = write(store, "borders", rows);
+        PagedRowList list = new PagedRowList(store, file);
+
+        assertEquals(rows.subList(3, 9), list.subList(3, 9));
+        assertEquals(rows.subList(4, 8), list.subList(4, 8));
+        assertEquals(rows.subList(7, rows.size()), list.subList(7, rows.size()));
+        assertEquals(List.of(), list.subList(5, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(rows.size()));
+    }
+
+    @Test
+    void testScanPageDoesNotFillCache() throws IOException {
+        PagedCsvStore store = newStore();
+        StoredCsvFile file = write(store, "scan", sampleRows());
+
+        assertEquals(sampleRows().subList(4, 8), store.scanPage(file, 1).rows());
+        assertEquals(sampleRows().subList(4, 8), store.scanPage(file, 1).rows());
+    }
+
+    @Test
+    void testUnloadAndDelete() throws IOException {
+        List<List<String>> rows = sampleRows();
+        PagedCsvStore store = newStore();
+        StoredCsvFile file = write(store, "unload", rows);
+
+        store.unload("unload", 1_000_000L);
+        assertEquals(1_000_000L, store.getLastAccessTime("unload"));
+        // 卸载前拿到的对象重新打开数据文件
+        assertEquals(rows.get(5), store.readRow(file, 5));
+        assertEquals(List.of("unload"), store.listFileIds());
+
+        assertTrue(store.delete("unload"));
+        assertNull(store.get("unload"));
+        assertEquals(-1, store.getLastAccessTime("unload"));
+        assertFalse(store.delete("unload"));
+    }
+
+    @Test
+    void testReadsSurviveConcurrentRelease() throws Exception {
+        List<List<String>> rows = sampleRows();
+        PagedCsvStore store = newStore();
+        StoredCsvFile file = write(store, "spill", rows);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int t = 0; t < 3; t++) {
+                readers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++) {
+                        assertEquals(rows.subList(0, 4), store.scanPage(file, 0).rows());
+                    }
+                    return null;
+                }));
+            }
+            // 读取过程中不断关闭数据文件，和注册表超出预算时卸载文件一样
+            Future<?> spiller = executor.submit(() -> {
+                while (!done.get()) {
+                    file.release();
+                }
+                return null;
+            });
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+            done.set(true);
+            spiller.get();
+        } finally {
+            done.set(true);
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testPageColumnsUseArenaForHighCardinality() throws IOException {
+        PagedCsvStore store = new PagedCsvStore(tempDir.toString(), 1024, DataSize.ofMegabytes(1));
+        stores.add(store);
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            rows.add(List.of("id-" + i, "city-" + (i % 5)));
+        }
+        StoredCsvFile file = write(store, "cardinality", rows);
+
+        ColumnarTable page = store.scanPage(file, 0);
+        assertTrue(page.getColumn(0) instanceof Utf8ArenaColumn);
+        assertTrue(page.getColumn(1) instanceof DictionaryColumn);
+        assertEquals(rows, page.rows());
+    }
+
+    @Test
+    void testUnfinishedWriterLeavesNothing() throws IOException {
+        PagedCsvStore store = newStore();
+        try (PagedCsvWriter writer = store.createWriter("partial", "data.csv", List.of("id"))) {
+            writer.writeRow(List.of("1"));
+            assertThrows(IllegalArgumentException.class, () -> writer.writeRow(List.of("1", "2")));
+        }
+        assertNull(store.get("partial"));
+        try (var files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+        assertNull(store.get("../partial"));
+    }
+
+    private PagedCsvStore newStore() throws IOException {
+        PagedCsvStore store = new PagedCsvStore(tempDir.toString(), 4, DataSize.ofMegabytes(1));
+        stores.add(store);
+        return store;
+    }
+
+    private static StoredCsvFile write(PagedCsvStore store, String fileId, List<List<String>> rows) throws IOException {
+        try (PagedCsvWriter writer = store.createWriter(fileId, fileId + ".csv", List.of("id", "value"))) {
+            for (List<String> row : rows) {
+                writer.writeRow(row);
+            }
+            return writer.finish();
+        }
+    }
+
+    /**
+     * 值的UTF-8长度覆盖1到3字节的变长整数，并跨越多个4行的页
+     */
+    private static List<List<String>> sampleRows() {
+        List<String> values = List.of("", "a", "x".repeat(127), "x".repeat(128), "中文,\"引号\"\n换行",
+                "y".repeat(300), "z".repeat(16383), "z".repeat(16384), "ü".repeat(20000), "last");
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            rows.add(List.of(String.valueOf(i), values.get(i)));
+        }
+        return rows;
+    }
+}
\ No newline at end of file
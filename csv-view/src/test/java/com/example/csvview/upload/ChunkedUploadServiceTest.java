@@ -0,0 +1,140 @@
+package com.example.csvview.upload;
+
+import com.example.csvview.service.CsvService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ChunkedUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChunkedUploadService uploadService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        uploadService = new ChunkedUploadService(tempDir.toString(), Duration.ofSeconds(10), DataSize.ofKilobytes(512), 4);
+        // 解析结果用拼接后的内容代替文件ID
+        CsvService csvService = mock(CsvService.class);
+        when(csvService.saveInputStream(any(InputStream.class), anyString()))
+                .thenAnswer(invocation -> new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+        ReflectionTestUtils.setField(uploadService, "csvService", csvService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        uploadService.close();
+    }
+
+    @Test
+    void testOutOfOrderAndRepeatedChunks() throws IOException {
+        UploadSession session = uploadService.init("data.csv");
+
+        uploadService.putChunk(session, 2, stream("c,3\n"));
+        uploadService.putChunk(session, 0, stream("id,v\n"));
+        assertEquals(1, session.getNextMissingChunk());
+        uploadService.putChunk(session, 0, stream("ignored\n"));
+        uploadService.putChunk(session, 2, stream("ignored\n"));
+        assertThrows(IllegalStateException.class, () -> uploadService.complete(session, 3));
+
+        uploadService.putChunk(session, 1, stream("a,1\nb,2\n"));
+        assertEquals(3, session.getNextMissingChunk());
+
+        assertEquals("id,v\na,1\nb,2\nc,3\n", uploadService.complete(session, 3));
+        assertNull(uploadService.getSession(session.getUploadId()));
+        assertFalse(Files.exists(session.getDirectory()));
+    }
+
+    @Test
+    void testConcurrentRetriesOfSameChunk() throws Exception {
+        UploadSession session = uploadService.init("data.csv");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            content.append(i).append(",value-").append(i).append('\n');
+        }
+        byte[] chunk = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        int retries = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(retries);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    uploadService.putChunk(session, 1, new ByteArrayInputStream(chunk));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Stream<Path> files = Files.list(session.getDirectory())) {
+            assertEquals(List.of("1.part"), files.map(path -> path.getFileName().toString()).collect(Collectors.toList()));
+        }
+        assertEquals(chunk.length, session.getReceivedBytes());
+
+        uploadService.putChunk(session, 0, stream("id,v\n"));
+        assertEquals("id,v\n" + content, uploadService.complete(session, 2));
+    }
+
+    @Test
+    void testOversizedChunkIsRejected() throws IOException {
+        UploadSession session = uploadService.init("data.csv");
+
+        byte[] tooLarge = new byte[(int) DataSize.ofKilobytes(512).toBytes() + 1];
+        assertThrows(IllegalArgumentException.class, () -> uploadService.putChunk(session, 0, new ByteArrayInputStream(tooLarge)));
+        assertFalse(session.hasChunk(0));
+        try (Stream<Path> files = Files.list(session.getDirectory())) {
+            assertEquals(0, files.count());
+        }
+
+        uploadService.putChunk(session, 0, stream("id\n1\n"));
+        assertEquals("id\n1\n", uploadService.complete(session, 1));
+    }
+
+    @Test
+    void testAbortedUploadRejectsChunks() throws IOException {
+        UploadSession session = uploadService.init("data.csv");
+        uploadService.putChunk(session, 0, stream("id\n"));
+
+        uploadService.abort(session);
+
+        assertThrows(IllegalStateException.class, () -> uploadService.putChunk(session, 1, stream("1\n")));
+        assertFalse(Files.exists(session.getDirectory()));
+        assertThrows(IllegalArgumentException.class, () -> uploadService.putChunk(uploadService.init("x.csv"), -1, stream("")));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file